@@ -0,0 +1,48 @@
+package com.lionrock.simple.executor.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.lionrock.simple.executor.SimpleExecutorApplication;
+
+/**
+ * Starts the application without its web server for use inside a benchmark fork.
+ */
+final class BenchmarkContexts {
+
+	private BenchmarkContexts() {
+	}
+
+	/**
+	 * Starts an application context against the in-memory H2 database with the given extra properties.
+	 * <p>
+	 * The properties are passed as command-line arguments; default properties would lose to
+	 * {@code application.properties}.
+	 * </p>
+	 * <p>
+	 * Tasks record their steps in the {@link com.lionrock.simple.executor.trace.TaskTracer} as they do in production,
+	 * so its cost is part of the measurements.
+	 * </p>
+	 */
+	static ConfigurableApplicationContext start(String... properties) {
+		String[] args = new String[properties.length + 2];
+		args[0] = "--logging.level.root=WARN";
+		args[1] = "--spring.main.banner-mode=off";
+		for (int i = 0; i < properties.length; i++) {
+			args[i + 2] = "--" + properties[i];
+		}
+		return new SpringApplicationBuilder(SimpleExecutorApplication.class).web(WebApplicationType.NONE).run(args);
+	}
+
+	/**
+	 * Returns properties that replace the configured price sources with a single simulated source whose every fetch
+	 * takes exactly the given number of milliseconds.
+	 */
+	static String[] fixedLatency(long millis) {
+		return new String[] { "simple-executor.price-fetch.simulated[0].name=fixed",
+				"simple-executor.price-fetch.simulated[0].distribution=FIXED",
+				"simple-executor.price-fetch.simulated[0].max=" + millis + "ms" };
+	}
+
+}
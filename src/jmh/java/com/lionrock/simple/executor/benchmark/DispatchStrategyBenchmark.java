@@ -0,0 +1,77 @@
+package com.lionrock.simple.executor.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.lionrock.simple.executor.controller.CoinPriceController;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Compares the dispatch strategies exposed by {@link CoinPriceController}, one invocation covering all tracked coins.
+ * <p>
+ * The simulated fetch latency is fixed per trial so results reflect scheduling overhead and parallelism rather than
+ * random sleeps. The runnable strategy returns as soon as its tasks are submitted; with the default
+ * {@code CALLER_RUNS} policy its throughput is still bounded by how fast the executor drains.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class DispatchStrategyBenchmark {
+
+	@Param({ "0", "1", "10" })
+	public long simulatedLatencyMillis;
+
+	private ConfigurableApplicationContext context;
+	private CoinPriceController controller;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContexts.start(BenchmarkContexts.fixedLatency(simulatedLatencyMillis));
+		controller = context.getBean(CoinPriceController.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public String runnable() {
+		return controller.insertLatestCoinPriceRunnable();
+	}
+
+	@Benchmark
+	public String callable() {
+		return controller.insertLatestCoinPriceCallable();
+	}
+
+	@Benchmark
+	public String invokeAll() throws InterruptedException, ExecutionException {
+		return controller.insertLatestCoinPriceInvokeAll();
+	}
+
+	@Benchmark
+	public String invokeAny() throws InterruptedException, ExecutionException, TimeoutException {
+		return controller.insertLatestCoinPriceInvokeAny(null);
+	}
+
+	@Benchmark
+	public List<CoinPrice> asyncInvokeAll() {
+		return controller.insertLatestCoinPriceAsyncInvokeAll(null).join();
+	}
+
+	@Benchmark
+	public CoinPrice asyncInvokeAny() {
+		return controller.insertLatestCoinPriceAsyncInvokeAny(null, null).join();
+	}
+
+}
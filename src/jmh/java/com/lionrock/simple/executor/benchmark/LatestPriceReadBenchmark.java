@@ -0,0 +1,46 @@
+package com.lionrock.simple.executor.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.lionrock.simple.executor.model.CoinPrice;
+import com.lionrock.simple.executor.service.CoinPriceService;
+
+/**
+ * Compares cached and uncached latest-price reads through {@link CoinPriceService}, with several reader threads
+ * hitting the same hot code.
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class LatestPriceReadBenchmark {
+
+	@Param({ "true", "false" })
+	public boolean cacheEnabled;
+
+	private ConfigurableApplicationContext context;
+	private CoinPriceService coinPriceService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContexts.start("simple-executor.latest-price-cache.enabled=" + cacheEnabled);
+		coinPriceService = context.getBean(CoinPriceService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public CoinPrice getLatestCoinPriceByCode() {
+		return coinPriceService.getLatestCoinPriceByCode("USDC");
+	}
+
+}
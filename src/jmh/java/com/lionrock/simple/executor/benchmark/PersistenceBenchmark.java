@@ -0,0 +1,86 @@
+package com.lionrock.simple.executor.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.lionrock.simple.executor.mapper.CoinPriceMapper;
+import com.lionrock.simple.executor.model.CoinPrice;
+import com.lionrock.simple.executor.service.CoinPriceBatchWriter;
+
+/**
+ * Measures {@link CoinPriceMapper} statements against the in-memory H2 database.
+ * <p>
+ * Each insert benchmark writes {@code rows} coin prices per invocation, either as single-row transactions or as one
+ * multi-row batch, so their scores are directly comparable.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+	private static final String[] CODES = { "USDC", "USDT", "BUSD", "PYUSD" };
+
+	@Param({ "1", "100" })
+	public int rows;
+
+	private ConfigurableApplicationContext context;
+	private CoinPriceMapper coinPriceMapper;
+	private CoinPriceBatchWriter coinPriceBatchWriter;
+	private int sequence;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContexts.start();
+		coinPriceMapper = context.getBean(CoinPriceMapper.class);
+		coinPriceBatchWriter = context.getBean(CoinPriceBatchWriter.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int insertSingleRows() {
+		int inserted = 0;
+		for (int i = 0; i < rows; i++) {
+			coinPriceBatchWriter.insertCoinPrice(nextCoinPrice());
+			inserted++;
+		}
+		return inserted;
+	}
+
+	@Benchmark
+	public int insertBatch() {
+		List<CoinPrice> batch = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			batch.add(nextCoinPrice());
+		}
+		return coinPriceBatchWriter.insertCoinPrices(batch);
+	}
+
+	@Benchmark
+	public CoinPrice selectLatest() {
+		return coinPriceMapper.getLatestCoinPriceByCode(CODES[sequence++ & 3]);
+	}
+
+	private CoinPrice nextCoinPrice() {
+		String code = CODES[sequence++ & 3];
+		CoinPrice coinPrice = new CoinPrice();
+		coinPrice.setCode(code);
+		coinPrice.setLocalDateTime(LocalDateTime.now());
+		coinPrice.setPrice(1.0f);
+		coinPrice.setUpdatedBy("Benchmark " + code);
+		return coinPrice;
+	}
+
+}
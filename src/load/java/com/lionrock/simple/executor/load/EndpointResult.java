@@ -0,0 +1,99 @@
+package com.lionrock.simple.executor.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies and outcomes of the requests of one {@link LoadScenario} that were due after the warm-up.
+ * <p>
+ * Latency is measured from the moment a request was due to be sent, not from when it actually was, so a stall in the
+ * application or in the generator shows up in the percentiles instead of silently lowering the request rate. A
+ * request dropped because too many were outstanding is recorded in the percentiles with the request timeout as its
+ * latency, the least it would have taken to fail, so shedding load cannot make the percentiles look better.
+ * </p>
+ */
+final class EndpointResult {
+
+	private final LoadScenario scenario;
+	private final Histogram latencyNanos = new ConcurrentHistogram(3);
+	private final ConcurrentMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+	private final LongAdder errorCount = new LongAdder();
+	private final LongAdder droppedCount = new LongAdder();
+	private final LongAccumulator lastCompletionNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+	EndpointResult(LoadScenario scenario) {
+		this.scenario = scenario;
+	}
+
+	void recordResponse(int status, long latencyNanos) {
+		this.latencyNanos.recordValue(latencyNanos);
+		lastCompletionNanos.accumulate(System.nanoTime());
+		statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+	}
+
+	void recordError(long latencyNanos) {
+		this.latencyNanos.recordValue(latencyNanos);
+		lastCompletionNanos.accumulate(System.nanoTime());
+		errorCount.increment();
+	}
+
+	/**
+	 * Counts a request that was never sent because too many requests were outstanding.
+	 *
+	 * @param timeoutNanos The request timeout, recorded as the request's latency.
+	 */
+	void recordDropped(long timeoutNanos) {
+		this.latencyNanos.recordValue(timeoutNanos);
+		droppedCount.increment();
+	}
+
+	long getCompletedCount() {
+		return latencyNanos.getTotalCount() - droppedCount.sum();
+	}
+
+	/**
+	 * Returns the result as a JSON-ready map, with latencies in milliseconds; the latencies include dropped requests.
+	 * <p>
+	 * Throughput is the number of completed requests divided by the time from the end of the warm-up to the last
+	 * completion, so a backlog that drains after the scheduled end lowers it rather than being hidden.
+	 * </p>
+	 */
+	Map<String, Object> toMap(long measureFromNanos) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("method", scenario.getMethod());
+		result.put("path", scenario.getPath());
+		result.put("targetRate", scenario.getRate());
+		result.put("completed", getCompletedCount());
+		long elapsedNanos = lastCompletionNanos.get() - measureFromNanos;
+		result.put("throughput", elapsedNanos > 0 ? getCompletedCount() / (elapsedNanos / 1e9) : 0.0);
+		Map<String, Long> statuses = new TreeMap<>();
+		statusCounts.forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+		result.put("statuses", statuses);
+		result.put("errors", errorCount.sum());
+		result.put("dropped", droppedCount.sum());
+		Map<String, Double> latencyMillis = new LinkedHashMap<>();
+		latencyMillis.put("min", millis(latencyNanos.getMinValue()));
+		latencyMillis.put("mean", latencyNanos.getMean() / TimeUnit.MILLISECONDS.toNanos(1));
+		latencyMillis.put("p50", millis(latencyNanos.getValueAtPercentile(50)));
+		latencyMillis.put("p90", millis(latencyNanos.getValueAtPercentile(90)));
+		latencyMillis.put("p99", millis(latencyNanos.getValueAtPercentile(99)));
+		latencyMillis.put("p999", millis(latencyNanos.getValueAtPercentile(99.9)));
+		latencyMillis.put("max", millis(latencyNanos.getMaxValue()));
+		result.put("latencyMs", latencyMillis);
+		return result;
+	}
+
+	private static double millis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.lionrock.simple.executor.load;
+
+/**
+ * One kind of request sent at a fixed arrival rate.
+ * <p>
+ * The path is relative to the application's context path; a {@code {code}} placeholder is replaced by the next coin
+ * code in rotation.
+ * </p>
+ */
+final class LoadScenario {
+
+	private final String name;
+	private final String method;
+	private final String path;
+	private final double rate;
+
+	LoadScenario(String name, String method, String path, double rate) {
+		this.name = name;
+		this.method = method;
+		this.path = path;
+		this.rate = rate;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	String getMethod() {
+		return method;
+	}
+
+	String getPath() {
+		return path;
+	}
+
+	/**
+	 * Returns the number of requests started per second.
+	 */
+	double getRate() {
+		return rate;
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.lionrock.simple.executor.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.env.Environment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lionrock.simple.executor.SimpleExecutorApplication;
+
+/**
+ * Drives mixed read and write traffic against the application and reports latency percentiles per endpoint.
+ * <p>
+ * The application is started on a random port against its in-memory H2 database. Each scenario then sends requests
+ * at its own fixed rate for the warm-up and the measured duration; see {@link OpenLoopDriver}. Only requests due
+ * after the warm-up are reported. The report is written as JSON to {@code target/load-results.json} so that two builds
+ * can be compared with a plain diff.
+ * </p>
+ * <p>
+ * The harness is configured with system properties, which Maven passes through from the command line:
+ * {@code load.warmup}, {@code load.duration}, {@code load.request-timeout}, {@code load.max-outstanding},
+ * {@code load.codes}, {@code load.output} and {@code load.rate.<scenario>} in requests per second, where a rate of
+ * zero leaves the scenario out. Application properties such as {@code simple-executor.task-executor.mode} are
+ * system properties too and override {@code application.properties}.
+ * </p>
+ */
+@Tag("load")
+class LoadTests {
+
+	@Test
+	void mixedTraffic() throws Exception {
+		Duration warmup = duration("load.warmup", "10s");
+		Duration duration = duration("load.duration", "30s");
+		Duration requestTimeout = duration("load.request-timeout", "30s");
+		int maxOutstanding = Integer.getInteger("load.max-outstanding", 10_000);
+		List<String> codes = Arrays.asList(System.getProperty("load.codes", "USDC,USDT,BUSD,PYUSD").split(","));
+		File output = new File(System.getProperty("load.output", "target/load-results.json"));
+		List<LoadScenario> scenarios = scenarios();
+
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		Map<String, Object> report = new LinkedHashMap<>();
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(
+				SimpleExecutorApplication.class).run("--server.port=0", "--logging.level.root=WARN",
+						"--spring.main.banner-mode=off")) {
+			Environment environment = context.getEnvironment();
+			URI baseUri = URI.create("http://localhost:" + context.getWebServer().getPort()
+					+ environment.getProperty("server.servlet.context-path", ""));
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(5)).build();
+
+			long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+			long measureFromNanos = startNanos + warmup.toNanos();
+			long endNanos = measureFromNanos + duration.toNanos();
+			List<OpenLoopDriver> drivers = new ArrayList<>();
+			List<Thread> threads = new ArrayList<>();
+			Map<LoadScenario, EndpointResult> results = new LinkedHashMap<>();
+			for (LoadScenario scenario : scenarios) {
+				EndpointResult result = new EndpointResult(scenario);
+				results.put(scenario, result);
+				OpenLoopDriver driver = new OpenLoopDriver(client, baseUri, codes, scenario, result, requestTimeout,
+						maxOutstanding, startNanos, measureFromNanos, endNanos);
+				drivers.add(driver);
+				Thread thread = new Thread(driver, "load-" + scenario.getName());
+				threads.add(thread);
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			for (OpenLoopDriver driver : drivers) {
+				driver.awaitOutstanding();
+			}
+
+			report.put("startedAt", OffsetDateTime.now().minus(warmup.plus(duration)).toString());
+			report.put("javaVersion", System.getProperty("java.version"));
+			report.put("executorMode", environment.getProperty("simple-executor.task-executor.mode", "PLATFORM"));
+			report.put("warmup", warmup.toString());
+			report.put("duration", duration.toString());
+			report.put("codes", codes);
+			results.forEach((scenario, result) -> endpoints.put(scenario.getName(), result.toMap(measureFromNanos)));
+			report.put("endpoints", endpoints);
+			for (EndpointResult result : results.values()) {
+				assertTrue(result.getCompletedCount() > 0, "No request completed");
+			}
+		} finally {
+			System.setOut(console);
+		}
+
+		output.getParentFile().mkdirs();
+		ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+		objectMapper.writeValue(output, report);
+		System.out.println(objectMapper.writeValueAsString(endpoints));
+		System.out.println("Load results written to " + output.getAbsolutePath());
+	}
+
+	/**
+	 * Returns the production-like request mix: mostly single reads, some bulk reads and single inserts, and an
+	 * occasional refresh of every coin.
+	 */
+	private static List<LoadScenario> scenarios() {
+		List<LoadScenario> scenarios = new ArrayList<>();
+		addScenario(scenarios, "get-latest", "GET", "/coin-price/latest/{code}", 200);
+		addScenario(scenarios, "get-latest-bulk", "GET", "/coin-price/latest?codes=all", 20);
+		addScenario(scenarios, "post-invoke-any", "POST", "/coin-price/latest/invokeAny?code={code}", 4);
+		addScenario(scenarios, "post-async-invoke-all", "POST", "/coin-price/latest/async/invokeAll", 0.5);
+		return scenarios;
+	}
+
+	private static void addScenario(List<LoadScenario> scenarios, String name, String method, String path,
+			double defaultRate) {
+		double rate = Double.parseDouble(System.getProperty("load.rate." + name, String.valueOf(defaultRate)));
+		if (rate > 0) {
+			scenarios.add(new LoadScenario(name, method, path, rate));
+		}
+	}
+
+	private static Duration duration(String property, String defaultValue) {
+		return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+	}
+
+}
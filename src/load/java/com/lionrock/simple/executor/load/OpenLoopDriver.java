@@ -0,0 +1,105 @@
+package com.lionrock.simple.executor.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the requests of one {@link LoadScenario} on a fixed schedule, whether or not earlier requests have completed.
+ * <p>
+ * This is an open workload model: request {@code i} is due at {@code start + i / rate}, and a slow response never
+ * delays the next request the way it would with a fixed pool of clients waiting for their previous answer. Requests
+ * are sent asynchronously; if more than {@code maxOutstanding} are still awaiting a response, the due request is
+ * dropped and recorded as timed out instead, so an overloaded application cannot exhaust the generator.
+ * </p>
+ */
+final class OpenLoopDriver implements Runnable {
+
+	private final HttpClient client;
+	private final URI baseUri;
+	private final List<String> codes;
+	private final LoadScenario scenario;
+	private final EndpointResult result;
+	private final Duration requestTimeout;
+	private final int maxOutstanding;
+	private final Semaphore outstanding;
+	private final long startNanos;
+	private final long measureFromNanos;
+	private final long endNanos;
+
+	OpenLoopDriver(HttpClient client, URI baseUri, List<String> codes, LoadScenario scenario, EndpointResult result,
+			Duration requestTimeout, int maxOutstanding, long startNanos, long measureFromNanos, long endNanos) {
+		this.client = client;
+		this.baseUri = baseUri;
+		this.codes = codes;
+		this.scenario = scenario;
+		this.result = result;
+		this.requestTimeout = requestTimeout;
+		this.maxOutstanding = maxOutstanding;
+		this.outstanding = new Semaphore(maxOutstanding);
+		this.startNanos = startNanos;
+		this.measureFromNanos = measureFromNanos;
+		this.endNanos = endNanos;
+	}
+
+	@Override
+	public void run() {
+		long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.getRate());
+		for (long i = 0;; i++) {
+			long dueNanos = startNanos + i * intervalNanos;
+			if (dueNanos >= endNanos) {
+				break;
+			}
+			long waitNanos = dueNanos - System.nanoTime();
+			if (waitNanos > 0) {
+				LockSupport.parkNanos(waitNanos);
+			}
+			send(request(i), dueNanos);
+		}
+	}
+
+	/**
+	 * Waits until every sent request has completed or timed out.
+	 */
+	void awaitOutstanding() throws InterruptedException {
+		if (outstanding.tryAcquire(maxOutstanding, requestTimeout.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+			outstanding.release(maxOutstanding);
+		}
+	}
+
+	private void send(HttpRequest request, long dueNanos) {
+		boolean measured = dueNanos >= measureFromNanos;
+		if (!outstanding.tryAcquire()) {
+			if (measured) {
+				result.recordDropped(requestTimeout.toNanos());
+			}
+			return;
+		}
+		client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+			long latencyNanos = System.nanoTime() - dueNanos;
+			outstanding.release();
+			if (!measured) {
+				return;
+			}
+			if (failure != null) {
+				result.recordError(latencyNanos);
+			} else {
+				result.recordResponse(response.statusCode(), latencyNanos);
+			}
+		});
+	}
+
+	private HttpRequest request(long sequence) {
+		String code = codes.get((int) (sequence % codes.size()));
+		URI uri = URI.create(baseUri + scenario.getPath().replace("{code}", code));
+		return HttpRequest.newBuilder(uri).timeout(requestTimeout)
+				.method(scenario.getMethod(), HttpRequest.BodyPublishers.noBody()).build();
+	}
+
+}
@@ -3,10 +3,15 @@ package com.lionrock.simple.executor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import com.lionrock.simple.executor.archive.PriceArchiveCommand;
+
 @SpringBootApplication
 public class SimpleExecutorApplication {
 
 	public static void main(String[] args) {
+		if (PriceArchiveCommand.isCommand(args)) {
+			System.exit(PriceArchiveCommand.run(args));
+		}
 		SpringApplication.run(SimpleExecutorApplication.class, args);
 	}
 
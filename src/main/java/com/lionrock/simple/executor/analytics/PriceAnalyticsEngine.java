@@ -0,0 +1,349 @@
+package com.lionrock.simple.executor.analytics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.lionrock.simple.executor.config.AnalyticsProperties;
+import com.lionrock.simple.executor.mapper.CoinPriceMapper;
+import com.lionrock.simple.executor.model.CoinPrice;
+import com.lionrock.simple.executor.model.PriceAnalytics;
+
+/**
+ * Computes mean, exponential moving average, standard deviation, min/max and log-return volatility of many coins over
+ * a trailing time window.
+ * <p>
+ * The window is cut into time buckets aligned to {@code bucket}: a partial bucket at the start, the whole buckets in
+ * between, and the still open bucket at the end. Each bucket is summarised as a {@link PriceStats}, and the summaries
+ * are merged in time order. A bucket that ended more than {@code settle-delay} ago is closed: its summary no longer
+ * changes and is cached per coin, so a repeated query only reads and summarises what was added since, plus the partial
+ * bucket at the start of the window. Cached buckets older than {@code max-window} are dropped.
+ * </p>
+ * <p>
+ * The history is read with one {@code IN} query per uncached time range for all coins at once, through a
+ * {@link org.apache.ibatis.session.ResultHandler} that copies each row into per-coin primitive columns, so the
+ * summarising code works on {@code float[]} slices rather than on lists of objects. The summaries then run on a
+ * {@link ForkJoinPool}: one task per coin, each splitting its buckets recursively, and a bucket with more than
+ * {@code leaf-size} prices splitting its rows in turn. All reading happens before the pool is used, so its workers
+ * never block on the database.
+ * </p>
+ */
+public class PriceAnalyticsEngine {
+
+	private final CoinPriceMapper coinPriceMapper;
+	private final ForkJoinPool pool;
+	private final long bucketMillis;
+	private final long maxWindowMillis;
+	private final long settleMillis;
+	private final double alpha;
+	private final int leafSize;
+	private final boolean cacheEnabled;
+	private final ConcurrentMap<String, ConcurrentNavigableMap<Long, PriceStats>> closedBuckets =
+			new ConcurrentHashMap<>();
+	private final LongAdder cachedBucketCount = new LongAdder();
+	private final LongAdder computedBucketCount = new LongAdder();
+
+	public PriceAnalyticsEngine(CoinPriceMapper coinPriceMapper, ForkJoinPool pool, AnalyticsProperties properties) {
+		this.coinPriceMapper = coinPriceMapper;
+		this.pool = pool;
+		this.bucketMillis = properties.getBucket().toMillis();
+		this.maxWindowMillis = properties.getMaxWindow().toMillis();
+		this.settleMillis = properties.getSettleDelay().toMillis();
+		this.alpha = 2.0 / (properties.getEmaPeriod() + 1);
+		this.leafSize = properties.getLeafSize();
+		this.cacheEnabled = properties.isCacheEnabled();
+	}
+
+	public Duration getMaxWindow() {
+		return Duration.ofMillis(maxWindowMillis);
+	}
+
+	/**
+	 * Computes the analytics of each coin over the window ending now.
+	 *
+	 * @param codes  Upper case codes of the coins, without duplicates.
+	 * @param window Length of the window, at most {@link #getMaxWindow()}.
+	 * @return The analytics of every coin, in the order of the codes; coins without prices have a count of 0.
+	 */
+	public List<PriceAnalytics> analyze(List<String> codes, Duration window) {
+		LocalDateTime to = LocalDateTime.now();
+		long end = toEpochMilli(to);
+		long start = end - window.toMillis();
+		long[] boundaries = boundaries(start, end);
+		int segmentCount = boundaries.length - 1;
+		long closedBefore = end - settleMillis;
+
+		List<PriceStats[]> cached = new ArrayList<>(codes.size());
+		boolean firstSegmentMissing = false;
+		long readFrom = end;
+		for (String code : codes) {
+			PriceStats[] segments = new PriceStats[segmentCount];
+			ConcurrentNavigableMap<Long, PriceStats> buckets = cacheEnabled ? closedBuckets.get(code) : null;
+			for (int i = 0; i < segmentCount; i++) {
+				if (buckets != null && isWholeBucket(boundaries, i)) {
+					segments[i] = buckets.get(boundaries[i]);
+				}
+				if (segments[i] == null) {
+					if (i == 0) {
+						firstSegmentMissing = true;
+					} else {
+						readFrom = Math.min(readFrom, boundaries[i]);
+					}
+				}
+			}
+			cached.add(segments);
+		}
+
+		// The partial bucket at the start of the window is read on its own, so that whole buckets cached in between
+		// are not read again; everything from the first bucket missing for any coin is read in one go.
+		Map<String, PriceSeries> series = new HashMap<>();
+		if (firstSegmentMissing) {
+			read(codes, start, boundaries[1], series);
+		}
+		if (readFrom < end) {
+			read(codes, readFrom, end, series);
+		}
+
+		List<AnalyzeCodeTask> tasks = new ArrayList<>(codes.size());
+		for (int i = 0; i < codes.size(); i++) {
+			String code = codes.get(i);
+			tasks.add(new AnalyzeCodeTask(code, series.get(code), boundaries, cached.get(i), closedBefore));
+		}
+		pool.invoke(new AnalyzeAllTask(tasks));
+
+		List<PriceAnalytics> analytics = new ArrayList<>(codes.size());
+		LocalDateTime from = toLocalDateTime(start);
+		for (AnalyzeCodeTask task : tasks) {
+			PriceStats stats = task.join();
+			analytics.add(new PriceAnalytics(task.code, from, to, stats.getCount(), value(stats.getMean(), stats),
+					value(stats.getEma(), stats), value(stats.getStddev(), stats), value(stats.getMin(), stats),
+					value(stats.getMax(), stats), value(stats.getFirst(), stats), value(stats.getLast(), stats),
+					value(stats.getVolatility(), stats)));
+		}
+		evictBefore(end - maxWindowMillis);
+		return analytics;
+	}
+
+	/**
+	 * Drops the cached buckets of a coin, for example after its history was changed behind the engine's back.
+	 */
+	public void evict(String code) {
+		closedBuckets.remove(code);
+	}
+
+	/**
+	 * Returns how many bucket summaries were served from the cache rather than computed.
+	 */
+	public long getCachedBucketCount() {
+		return cachedBucketCount.sum();
+	}
+
+	/**
+	 * Returns how many bucket summaries were computed from prices.
+	 */
+	public long getComputedBucketCount() {
+		return computedBucketCount.sum();
+	}
+
+	/**
+	 * Returns the number of bucket summaries currently cached.
+	 */
+	public long getCacheSize() {
+		long size = 0;
+		for (ConcurrentNavigableMap<Long, PriceStats> buckets : closedBuckets.values()) {
+			size += buckets.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the start of every segment of the window followed by its end: the start of the window, every bucket
+	 * boundary inside it, and the end of the window.
+	 */
+	private long[] boundaries(long start, long end) {
+		long firstBoundary = Math.floorDiv(start, bucketMillis) * bucketMillis;
+		if (firstBoundary < start) {
+			firstBoundary += bucketMillis;
+		}
+		List<Long> boundaries = new ArrayList<>();
+		boundaries.add(start);
+		for (long boundary = firstBoundary; boundary < end; boundary += bucketMillis) {
+			if (boundary > start) {
+				boundaries.add(boundary);
+			}
+		}
+		boundaries.add(end);
+		return boundaries.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private boolean isWholeBucket(long[] boundaries, int segment) {
+		return boundaries[segment + 1] - boundaries[segment] == bucketMillis
+				&& Math.floorMod(boundaries[segment], bucketMillis) == 0;
+	}
+
+	private void read(List<String> codes, long from, long to, Map<String, PriceSeries> series) {
+		int initialCapacity = (int) Math.min(1024, Math.max(16, (to - from) / 1000));
+		coinPriceMapper.scanCoinPrices(codes, toLocalDateTime(from), toLocalDateTime(to), context -> {
+			CoinPrice coinPrice = context.getResultObject();
+			series.computeIfAbsent(coinPrice.getCode(), code -> new PriceSeries(initialCapacity))
+					.add(toEpochMilli(coinPrice.getLocalDateTime()), coinPrice.getPrice());
+		});
+	}
+
+	private void evictBefore(long epochMilli) {
+		for (ConcurrentNavigableMap<Long, PriceStats> buckets : closedBuckets.values()) {
+			buckets.headMap(epochMilli).clear();
+		}
+	}
+
+	private static Double value(double value, PriceStats stats) {
+		return stats.getCount() == 0 || Double.isNaN(value) ? null : value;
+	}
+
+	private static long toEpochMilli(LocalDateTime localDateTime) {
+		return localDateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	private static LocalDateTime toLocalDateTime(long epochMilli) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+	}
+
+	private static final class AnalyzeAllTask extends RecursiveTask<Void> {
+
+		private final List<AnalyzeCodeTask> tasks;
+
+		AnalyzeAllTask(List<AnalyzeCodeTask> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected Void compute() {
+			ForkJoinTask.invokeAll(tasks);
+			return null;
+		}
+
+	}
+
+	/**
+	 * Summarises the whole window of one coin.
+	 */
+	private final class AnalyzeCodeTask extends RecursiveTask<PriceStats> {
+
+		private final String code;
+		private final PriceSeries series;
+		private final long[] boundaries;
+		private final PriceStats[] segments;
+		private final long closedBefore;
+
+		AnalyzeCodeTask(String code, PriceSeries series, long[] boundaries, PriceStats[] segments, long closedBefore) {
+			this.code = code;
+			this.series = series;
+			this.boundaries = boundaries;
+			this.segments = segments;
+			this.closedBefore = closedBefore;
+		}
+
+		@Override
+		protected PriceStats compute() {
+			return new SegmentsTask(this, 0, segments.length).compute();
+		}
+
+		/**
+		 * Returns the summary of one segment, from the cache or from its prices, and caches it once it is closed.
+		 */
+		PriceStats segment(int index) {
+			PriceStats stats = segments[index];
+			if (stats != null) {
+				cachedBucketCount.increment();
+				return stats;
+			}
+			int from = series == null ? 0 : series.indexOf(boundaries[index]);
+			int to = series == null ? 0 : series.indexOf(boundaries[index + 1]);
+			if (series == null) {
+				stats = PriceStats.EMPTY;
+			} else if (to - from > leafSize) {
+				stats = new RowsTask(series.prices(), from, to).compute();
+			} else {
+				stats = PriceStats.of(series.prices(), from, to, alpha);
+			}
+			computedBucketCount.increment();
+			if (cacheEnabled && isWholeBucket(boundaries, index) && boundaries[index + 1] <= closedBefore) {
+				closedBuckets.computeIfAbsent(code, key -> new ConcurrentSkipListMap<>()).put(boundaries[index], stats);
+			}
+			return stats;
+		}
+
+	}
+
+	/**
+	 * Summarises segments {@code [from, to)} of one coin, splitting the range in half until one segment is left.
+	 */
+	private static final class SegmentsTask extends RecursiveTask<PriceStats> {
+
+		private final AnalyzeCodeTask codeTask;
+		private final int from;
+		private final int to;
+
+		SegmentsTask(AnalyzeCodeTask codeTask, int from, int to) {
+			this.codeTask = codeTask;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected PriceStats compute() {
+			if (to - from == 1) {
+				return codeTask.segment(from);
+			}
+			int middle = (from + to) >>> 1;
+			SegmentsTask left = new SegmentsTask(codeTask, from, middle);
+			left.fork();
+			PriceStats right = new SegmentsTask(codeTask, middle, to).compute();
+			return left.join().combine(right);
+		}
+
+	}
+
+	/**
+	 * Summarises {@code prices[from, to)}, splitting the range in half until it holds at most {@code leafSize} prices.
+	 */
+	private final class RowsTask extends RecursiveTask<PriceStats> {
+
+		private final float[] prices;
+		private final int from;
+		private final int to;
+
+		RowsTask(float[] prices, int from, int to) {
+			this.prices = prices;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected PriceStats compute() {
+			if (to - from <= leafSize) {
+				return PriceStats.of(prices, from, to, alpha);
+			}
+			int middle = (from + to) >>> 1;
+			RowsTask left = new RowsTask(prices, from, middle);
+			left.fork();
+			PriceStats right = new RowsTask(prices, middle, to).compute();
+			return left.join().combine(right);
+		}
+
+	}
+
+}
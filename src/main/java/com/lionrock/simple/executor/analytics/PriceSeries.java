@@ -0,0 +1,55 @@
+package com.lionrock.simple.executor.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Prices of one coin read from the history, in time order, as two growable primitive columns.
+ */
+final class PriceSeries {
+
+	private long[] epochMillis;
+	private float[] prices;
+	private int size;
+
+	PriceSeries(int initialCapacity) {
+		this.epochMillis = new long[initialCapacity];
+		this.prices = new float[initialCapacity];
+	}
+
+	void add(long epochMilli, float price) {
+		if (size == prices.length) {
+			int capacity = Math.max(16, size * 2);
+			epochMillis = Arrays.copyOf(epochMillis, capacity);
+			prices = Arrays.copyOf(prices, capacity);
+		}
+		epochMillis[size] = epochMilli;
+		prices[size] = price;
+		size++;
+	}
+
+	int size() {
+		return size;
+	}
+
+	float[] prices() {
+		return prices;
+	}
+
+	/**
+	 * Returns the index of the first price at or after {@code epochMilli}, or {@link #size()} if there is none.
+	 */
+	int indexOf(long epochMilli) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (epochMillis[middle] < epochMilli) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+}
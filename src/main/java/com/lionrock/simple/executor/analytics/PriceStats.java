@@ -0,0 +1,175 @@
+package com.lionrock.simple.executor.analytics;
+
+/**
+ * Summary of a run of consecutive prices of one coin that can be merged with the summary of the run that follows it.
+ * <p>
+ * Count, mean and the sum of squared deviations are kept in Welford form and merged with Chan's formula, so neither
+ * long runs nor merging loses precision the way running sums of squares would. The exponential moving average is kept
+ * as the decay factor {@code (1 - alpha)^count} and the weighted sum of the run's prices, which is exactly what a
+ * following run needs to continue the average. Log returns between consecutive prices are summarised the same way as
+ * the prices; merging two runs adds the return across their boundary.
+ * </p>
+ * <p>
+ * Instances are immutable, so summaries of closed time buckets can be cached and shared between requests.
+ * </p>
+ */
+final class PriceStats {
+
+	static final PriceStats EMPTY = new PriceStats(0, 0, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, 1, 0, 0,
+			0, 0);
+
+	private final long count;
+	private final double mean;
+	private final double m2;
+	private final double min;
+	private final double max;
+	private final double first;
+	private final double last;
+	private final double emaDecay;
+	private final double emaSum;
+	private final long returnCount;
+	private final double returnMean;
+	private final double returnM2;
+
+	private PriceStats(long count, double mean, double m2, double min, double max, double first, double last,
+			double emaDecay, double emaSum, long returnCount, double returnMean, double returnM2) {
+		this.count = count;
+		this.mean = mean;
+		this.m2 = m2;
+		this.min = min;
+		this.max = max;
+		this.first = first;
+		this.last = last;
+		this.emaDecay = emaDecay;
+		this.emaSum = emaSum;
+		this.returnCount = returnCount;
+		this.returnMean = returnMean;
+		this.returnM2 = returnM2;
+	}
+
+	/**
+	 * Summarises {@code prices[from, to)} in one pass.
+	 *
+	 * @param alpha Smoothing factor of the exponential moving average.
+	 */
+	static PriceStats of(float[] prices, int from, int to, double alpha) {
+		if (from >= to) {
+			return EMPTY;
+		}
+		long count = 0;
+		double mean = 0;
+		double m2 = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		double emaDecay = 1;
+		double emaSum = 0;
+		long returnCount = 0;
+		double returnMean = 0;
+		double returnM2 = 0;
+		double previous = Double.NaN;
+		for (int i = from; i < to; i++) {
+			double price = prices[i];
+			count++;
+			double delta = price - mean;
+			mean += delta / count;
+			m2 += delta * (price - mean);
+			min = Math.min(min, price);
+			max = Math.max(max, price);
+			emaDecay *= 1 - alpha;
+			emaSum = (1 - alpha) * emaSum + alpha * price;
+			if (previous > 0 && price > 0) {
+				double logReturn = Math.log(price / previous);
+				returnCount++;
+				double returnDelta = logReturn - returnMean;
+				returnMean += returnDelta / returnCount;
+				returnM2 += returnDelta * (logReturn - returnMean);
+			}
+			previous = price;
+		}
+		return new PriceStats(count, mean, m2, min, max, prices[from], prices[to - 1], emaDecay, emaSum, returnCount,
+				returnMean, returnM2);
+	}
+
+	/**
+	 * Returns the summary of this run followed immediately by {@code next}.
+	 */
+	PriceStats combine(PriceStats next) {
+		if (next.count == 0) {
+			return this;
+		}
+		if (count == 0) {
+			return next;
+		}
+		long combinedCount = count + next.count;
+		double delta = next.mean - mean;
+		double combinedMean = mean + delta * next.count / combinedCount;
+		double combinedM2 = m2 + next.m2 + delta * delta * count * next.count / combinedCount;
+
+		long combinedReturnCount = returnCount + next.returnCount;
+		double combinedReturnMean = 0;
+		double combinedReturnM2 = 0;
+		if (combinedReturnCount > 0) {
+			double returnDelta = next.returnMean - returnMean;
+			combinedReturnMean = returnMean + returnDelta * next.returnCount / combinedReturnCount;
+			combinedReturnM2 = returnM2 + next.returnM2
+					+ returnDelta * returnDelta * returnCount * next.returnCount / combinedReturnCount;
+		}
+		if (last > 0 && next.first > 0) {
+			double logReturn = Math.log(next.first / last);
+			combinedReturnCount++;
+			double returnDelta = logReturn - combinedReturnMean;
+			combinedReturnMean += returnDelta / combinedReturnCount;
+			combinedReturnM2 += returnDelta * (logReturn - combinedReturnMean);
+		}
+		return new PriceStats(combinedCount, combinedMean, combinedM2, Math.min(min, next.min),
+				Math.max(max, next.max), first, next.last, emaDecay * next.emaDecay, next.emaDecay * emaSum + next.emaSum,
+				combinedReturnCount, combinedReturnMean, combinedReturnM2);
+	}
+
+	long getCount() {
+		return count;
+	}
+
+	double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Returns the sample standard deviation of the prices, or {@code NaN} for fewer than two prices.
+	 */
+	double getStddev() {
+		return count < 2 ? Double.NaN : Math.sqrt(m2 / (count - 1));
+	}
+
+	double getMin() {
+		return min;
+	}
+
+	double getMax() {
+		return max;
+	}
+
+	double getFirst() {
+		return first;
+	}
+
+	double getLast() {
+		return last;
+	}
+
+	/**
+	 * Returns the exponential moving average after the last price, started at the first price of the run.
+	 */
+	double getEma() {
+		return count == 0 ? Double.NaN : emaDecay * first + emaSum;
+	}
+
+	/**
+	 * Returns the sample standard deviation of the log returns between consecutive prices, or {@code NaN} for fewer
+	 * than two returns.
+	 */
+	double getVolatility() {
+		return returnCount < 2 ? Double.NaN : Math.sqrt(returnM2 / (returnCount - 1));
+	}
+
+}
@@ -0,0 +1,131 @@
+package com.lionrock.simple.executor.archive;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.lionrock.simple.executor.SimpleExecutorApplication;
+import com.lionrock.simple.executor.service.CoinPriceArchiveService;
+
+/**
+ * Command-line mode of the application that exports or imports a price archive file instead of serving requests.
+ * <p>
+ * {@code export <file> [--codes=USDC,USDT] [--from=<date-time>] [--to=<date-time>]} writes the selected history to
+ * the file, and {@code import <file>} inserts the archive in the file. The application context is started without a
+ * web server, and every argument is also passed to it, so the database is chosen with the usual properties such as
+ * {@code --spring.datasource.url}. An export is written to a temporary file next to the target, forced to disk and
+ * then moved into place, so a failed export never leaves a partial archive under the target name.
+ * </p>
+ */
+public final class PriceArchiveCommand {
+
+	private static final Logger logger = LoggerFactory.getLogger(PriceArchiveCommand.class);
+
+	private static final String EXPORT = "export";
+	private static final String IMPORT = "import";
+	private static final String USAGE = "Usage: export <file> [--codes=USDC,USDT] [--from=<date-time>]"
+			+ " [--to=<date-time>]\n       import <file>";
+
+	private PriceArchiveCommand() {
+	}
+
+	/**
+	 * Returns whether the arguments start with an archive command rather than being server arguments.
+	 */
+	public static boolean isCommand(String[] args) {
+		return args.length > 0 && (EXPORT.equals(args[0]) || IMPORT.equals(args[0]));
+	}
+
+	/**
+	 * Runs the command and returns the process exit code: 0 on success, 1 on failure and 2 for invalid arguments.
+	 */
+	public static int run(String[] args) {
+		ApplicationArguments arguments = new DefaultApplicationArguments(args);
+		List<String> operands = arguments.getNonOptionArgs();
+		if (operands.size() != 2) {
+			System.err.println(USAGE);
+			return 2;
+		}
+		String command = operands.get(0);
+		Path file = Path.of(operands.get(1));
+		String codesOption = option(arguments, "codes");
+		List<String> codes = codesOption == null ? null
+				: Arrays.stream(codesOption.split(",")).map(String::trim).filter(code -> !code.isEmpty())
+						.map(String::toUpperCase).distinct().toList();
+		LocalDateTime from;
+		LocalDateTime to;
+		try {
+			from = dateTimeOption(arguments, "from");
+			to = dateTimeOption(arguments, "to");
+		} catch (DateTimeParseException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return 2;
+		}
+		if (codes != null && codes.isEmpty()) {
+			System.err.println(USAGE);
+			return 2;
+		}
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SimpleExecutorApplication.class)
+				.web(WebApplicationType.NONE).run(args)) {
+			CoinPriceArchiveService coinPriceArchiveService = context.getBean(CoinPriceArchiveService.class);
+			if (EXPORT.equals(command)) {
+				long rows = export(coinPriceArchiveService, file, codes, from, to);
+				logger.info("Exported {} coin prices to {}", rows, file);
+			} else {
+				try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+					long rows = coinPriceArchiveService.importCoinPrices(channel);
+					logger.info("Imported {} coin prices from {}", rows, file);
+				}
+			}
+			return 0;
+		} catch (IOException | RuntimeException e) {
+			logger.error("Price archive {} of {} failed", command, file, e);
+			return 1;
+		}
+	}
+
+	private static long export(CoinPriceArchiveService coinPriceArchiveService, Path file, List<String> codes,
+			LocalDateTime from, LocalDateTime to) throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			long rows;
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				rows = coinPriceArchiveService.exportCoinPrices(codes, from, to, channel);
+				channel.force(false);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return rows;
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+	}
+
+	private static String option(ApplicationArguments arguments, String name) {
+		List<String> values = arguments.getOptionValues(name);
+		return values == null || values.isEmpty() ? null : values.get(values.size() - 1);
+	}
+
+	private static LocalDateTime dateTimeOption(ApplicationArguments arguments, String name) {
+		String value = option(arguments, name);
+		return value == null ? null : LocalDateTime.parse(value);
+	}
+
+}
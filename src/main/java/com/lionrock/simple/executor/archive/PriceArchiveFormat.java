@@ -0,0 +1,99 @@
+package com.lionrock.simple.executor.archive;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Constants and primitive encodings of the price archive format shared by {@link PriceArchiveWriter} and
+ * {@link PriceArchiveReader}.
+ * <p>
+ * All numbers are little-endian. An archive is an 8-byte file header, magic and version, followed by blocks. Every
+ * block starts with a 12-byte header: the number of prices in the block, the length of the payload that follows, and
+ * a CRC32 of that payload. The payload holds the block's columns:
+ * </p>
+ * <ul>
+ * <li>the code dictionary: the number of codes as an unsigned short, then each code as an unsigned byte length and
+ * its UTF-8 bytes,</li>
+ * <li>one dictionary index per price, an unsigned byte when the dictionary has at most 256 codes and an unsigned
+ * short otherwise,</li>
+ * <li>the time of the first price in epoch microseconds (UTC), then the difference to the previous time of every
+ * further price as a zigzag-encoded variable-length integer,</li>
+ * <li>the prices as 32-bit floats, the type of the {@code price} column.</li>
+ * </ul>
+ * <p>
+ * The archive ends with a trailer block of zero prices whose 8-byte payload is the total number of prices, so a
+ * truncated archive is told apart from a complete one.
+ * </p>
+ */
+final class PriceArchiveFormat {
+
+	/**
+	 * {@code CPA1} read as a little-endian int.
+	 */
+	static final int MAGIC = 0x31415043;
+	static final short VERSION = 1;
+	static final int FILE_HEADER_SIZE = 8;
+	static final int BLOCK_HEADER_SIZE = 12;
+	static final int TRAILER_PAYLOAD_SIZE = 8;
+
+	static final int MAX_BLOCK_ROWS = 1 << 20;
+	static final int MAX_CODES = 0xFFFF;
+	static final int MAX_CODE_BYTES = 0xFF;
+	static final int MAX_VARLONG_BYTES = 10;
+
+	/**
+	 * Largest payload a reader accepts; a block of {@link #MAX_BLOCK_ROWS} prices and {@link #MAX_CODES} codes of
+	 * {@link #MAX_CODE_BYTES} bytes stays well below it.
+	 */
+	static final int MAX_PAYLOAD_SIZE = 64 << 20;
+
+	private static final long MICROS_PER_SECOND = 1_000_000;
+
+	private PriceArchiveFormat() {
+	}
+
+	/**
+	 * Returns the time in microseconds since the epoch, reading the local date-time as UTC; nanoseconds below a
+	 * microsecond, beyond the precision of the {@code local_date_time} column, are dropped.
+	 */
+	static long toEpochMicros(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + time.getNano() / 1_000;
+	}
+
+	static LocalDateTime fromEpochMicros(long epochMicros) {
+		return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, MICROS_PER_SECOND),
+				(int) Math.floorMod(epochMicros, MICROS_PER_SECOND) * 1_000, ZoneOffset.UTC);
+	}
+
+	/**
+	 * Writes a signed value as a zigzag-encoded varint: seven bits per byte, low bits first, so small differences of
+	 * either sign take one to three bytes.
+	 */
+	static void putVarLong(ByteBuffer buffer, long value) {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0) {
+			buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		buffer.put((byte) zigzag);
+	}
+
+	/**
+	 * Reads a value written by {@link #putVarLong(ByteBuffer, long)}.
+	 *
+	 * @throws IllegalArgumentException if the varint is longer than {@link #MAX_VARLONG_BYTES} bytes.
+	 */
+	static long getVarLong(ByteBuffer buffer) {
+		long zigzag = 0;
+		for (int shift = 0; shift < 7 * MAX_VARLONG_BYTES; shift += 7) {
+			byte b = buffer.get();
+			zigzag |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new IllegalArgumentException("Varint longer than " + MAX_VARLONG_BYTES + " bytes");
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.lionrock.simple.executor.archive;
+
+import java.io.IOException;
+
+/**
+ * Thrown when bytes read as a price archive are not one: a wrong magic or version, a block that fails its checksum
+ * or does not decode, or an archive that ends without its trailer.
+ */
+public class PriceArchiveFormatException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PriceArchiveFormatException(String message) {
+		super(message);
+	}
+
+	public PriceArchiveFormatException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
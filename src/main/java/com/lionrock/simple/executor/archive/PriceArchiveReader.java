@@ -0,0 +1,160 @@
+package com.lionrock.simple.executor.archive;
+
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.BLOCK_HEADER_SIZE;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.FILE_HEADER_SIZE;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.MAX_BLOCK_ROWS;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.MAX_PAYLOAD_SIZE;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.TRAILER_PAYLOAD_SIZE;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Reads a price archive written by {@link PriceArchiveWriter} from a channel, one block at a time.
+ * <p>
+ * Each block is read into one direct buffer reused across blocks, its checksum is verified, and its columns are
+ * decoded in a single pass straight into {@link CoinPrice} objects; the prices of a block all share the code strings
+ * of its dictionary. The channel is left open. Instances are not thread-safe.
+ * </p>
+ */
+public class PriceArchiveReader {
+
+	private final ReadableByteChannel channel;
+	private final CRC32 crc = new CRC32();
+
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+	private boolean started;
+	private boolean finished;
+	private long rowCount;
+	private long blockCount;
+
+	public PriceArchiveReader(ReadableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Reads the next block and adds its prices to the list, in the order they were written.
+	 *
+	 * @param coinPrices The list to add the prices to; their id and updater are left unset.
+	 * @return The number of prices added, or {@code -1} once the trailer has been read.
+	 * @throws PriceArchiveFormatException if the bytes are not a valid archive or it ends before its trailer.
+	 */
+	public int readBlock(List<CoinPrice> coinPrices) throws IOException {
+		if (finished) {
+			return -1;
+		}
+		if (!started) {
+			readHeader();
+			started = true;
+		}
+		ByteBuffer header = read(BLOCK_HEADER_SIZE);
+		int rows = header.getInt();
+		int payloadLength = header.getInt();
+		int checksum = header.getInt();
+		if (rows < 0 || rows > MAX_BLOCK_ROWS || payloadLength < 0 || payloadLength > MAX_PAYLOAD_SIZE) {
+			throw new PriceArchiveFormatException("Block " + (blockCount + 1) + " has an invalid header");
+		}
+		ByteBuffer payload = read(payloadLength);
+		crc.reset();
+		crc.update(payload.duplicate());
+		if ((int) crc.getValue() != checksum) {
+			throw new PriceArchiveFormatException("Block " + (blockCount + 1) + " fails its checksum");
+		}
+		if (rows == 0) {
+			if (payloadLength != TRAILER_PAYLOAD_SIZE || payload.getLong() != rowCount) {
+				throw new PriceArchiveFormatException("The trailer does not match the " + rowCount + " prices read");
+			}
+			finished = true;
+			return -1;
+		}
+		try {
+			decode(payload, rows, coinPrices);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new PriceArchiveFormatException("Block " + (blockCount + 1) + " does not decode", e);
+		}
+		rowCount += rows;
+		blockCount++;
+		return rows;
+	}
+
+	/**
+	 * Returns the number of prices read so far.
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	public long getBlockCount() {
+		return blockCount;
+	}
+
+	private void readHeader() throws IOException {
+		ByteBuffer header = read(FILE_HEADER_SIZE);
+		if (header.getInt() != PriceArchiveFormat.MAGIC) {
+			throw new PriceArchiveFormatException("Not a price archive");
+		}
+		short version = header.getShort();
+		if (version != PriceArchiveFormat.VERSION) {
+			throw new PriceArchiveFormatException("Unsupported price archive version " + version);
+		}
+	}
+
+	/**
+	 * Decodes the columns of one block. The code indexes and the prices have fixed widths and are read by offset,
+	 * while the variable-length times are read in sequence between them.
+	 */
+	private void decode(ByteBuffer payload, int rows, List<CoinPrice> coinPrices) {
+		String[] codes = new String[payload.getShort() & 0xFFFF];
+		for (int i = 0; i < codes.length; i++) {
+			byte[] bytes = new byte[payload.get() & 0xFF];
+			payload.get(bytes);
+			codes[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		int indexWidth = codes.length <= 256 ? 1 : 2;
+		int indexOffset = payload.position();
+		int priceOffset = payload.limit() - rows * Float.BYTES;
+		payload.position(indexOffset + rows * indexWidth);
+		long epochMicros = payload.getLong();
+		for (int i = 0; i < rows; i++) {
+			if (i > 0) {
+				epochMicros += PriceArchiveFormat.getVarLong(payload);
+			}
+			int index = indexWidth == 1 ? payload.get(indexOffset + i) & 0xFF
+					: payload.getShort(indexOffset + 2 * i) & 0xFFFF;
+			CoinPrice coinPrice = new CoinPrice();
+			coinPrice.setCode(codes[index]);
+			coinPrice.setLocalDateTime(PriceArchiveFormat.fromEpochMicros(epochMicros));
+			coinPrice.setPrice(payload.getFloat(priceOffset + Float.BYTES * i));
+			coinPrices.add(coinPrice);
+		}
+		if (payload.position() != priceOffset) {
+			throw new IllegalArgumentException("Time column overlaps the price column");
+		}
+	}
+
+	/**
+	 * Reads exactly {@code length} bytes into the buffer and returns it flipped for reading.
+	 */
+	private ByteBuffer read(int length) throws IOException {
+		if (buffer.capacity() < length) {
+			buffer = ByteBuffer.allocateDirect(Math.max(length, buffer.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		buffer.clear().limit(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new PriceArchiveFormatException(
+						"The archive ends after " + rowCount + " prices without its trailer; it is truncated");
+			}
+		}
+		return buffer.flip();
+	}
+
+}
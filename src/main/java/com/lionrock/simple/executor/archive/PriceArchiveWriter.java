@@ -0,0 +1,201 @@
+package com.lionrock.simple.executor.archive;
+
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.BLOCK_HEADER_SIZE;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.FILE_HEADER_SIZE;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.MAX_BLOCK_ROWS;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.MAX_CODES;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.MAX_CODE_BYTES;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.MAX_VARLONG_BYTES;
+import static com.lionrock.simple.executor.archive.PriceArchiveFormat.TRAILER_PAYLOAD_SIZE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Writes coin prices to a channel as a columnar price archive, described in {@link PriceArchiveFormat}.
+ * <p>
+ * Prices are collected into primitive column arrays and a per-block code dictionary. When a block is full, it is
+ * encoded into one direct buffer that is reused for every block and handed to the channel in a single write, so a
+ * {@link java.nio.channels.FileChannel} or socket channel receives it without a further copy through the heap.
+ * Consecutive prices of the same coin, which is how the exporter orders them, encode to a one-byte code index, a
+ * one- to three-byte time delta and a four-byte price.
+ * </p>
+ * <p>
+ * {@link #finish()} writes the last block and the trailer. It is deliberately not {@code close()}: an export that
+ * fails halfway must not end with a trailer, so that readers reject the archive as truncated. The channel is left
+ * open. Instances are not thread-safe.
+ * </p>
+ */
+public class PriceArchiveWriter {
+
+	private final WritableByteChannel channel;
+	private final int blockRows;
+	private final Map<String, Integer> dictionary = new HashMap<>();
+	private final List<byte[]> dictionaryCodes = new ArrayList<>();
+	private final int[] codeIndexes;
+	private final long[] epochMicros;
+	private final float[] prices;
+	private final CRC32 crc = new CRC32();
+
+	private ByteBuffer buffer;
+	private int dictionaryBytes;
+	private int rows;
+	private long rowCount;
+	private long blockCount;
+	private boolean finished;
+
+	/**
+	 * Writes the file header and prepares the first block.
+	 *
+	 * @param blockRows Number of prices per block, at most {@link PriceArchiveFormat#MAX_BLOCK_ROWS}.
+	 */
+	public PriceArchiveWriter(WritableByteChannel channel, int blockRows) throws IOException {
+		if (blockRows < 1 || blockRows > MAX_BLOCK_ROWS) {
+			throw new IllegalArgumentException("Block rows must be between 1 and " + MAX_BLOCK_ROWS + ": " + blockRows);
+		}
+		this.channel = channel;
+		this.blockRows = blockRows;
+		this.codeIndexes = new int[blockRows];
+		this.epochMicros = new long[blockRows];
+		this.prices = new float[blockRows];
+		this.buffer = ByteBuffer.allocateDirect(Math.max(FILE_HEADER_SIZE, BLOCK_HEADER_SIZE + TRAILER_PAYLOAD_SIZE))
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(PriceArchiveFormat.MAGIC).putShort(PriceArchiveFormat.VERSION).putShort((short) 0).flip();
+		writeFully();
+	}
+
+	public void write(CoinPrice coinPrice) throws IOException {
+		write(coinPrice.getCode(), coinPrice.getLocalDateTime(), coinPrice.getPrice());
+	}
+
+	/**
+	 * Adds a price to the current block, writing the block out once it is full.
+	 *
+	 * @throws IllegalArgumentException if the code is longer than 255 bytes in UTF-8.
+	 * @throws IllegalStateException    if the archive was already finished.
+	 */
+	public void write(String code, LocalDateTime time, float price) throws IOException {
+		if (finished) {
+			throw new IllegalStateException("The archive is already finished");
+		}
+		Integer index = dictionary.get(code);
+		if (index == null) {
+			byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length > MAX_CODE_BYTES) {
+				throw new IllegalArgumentException("Code longer than " + MAX_CODE_BYTES + " bytes: " + code);
+			}
+			if (dictionaryCodes.size() == MAX_CODES) {
+				writeBlock();
+			}
+			index = dictionaryCodes.size();
+			dictionary.put(code, index);
+			dictionaryCodes.add(bytes);
+			dictionaryBytes += 1 + bytes.length;
+		}
+		codeIndexes[rows] = index;
+		epochMicros[rows] = PriceArchiveFormat.toEpochMicros(time);
+		prices[rows] = price;
+		if (++rows == blockRows) {
+			writeBlock();
+		}
+	}
+
+	/**
+	 * Writes the last block and the trailer. Nothing can be written afterwards.
+	 */
+	public void finish() throws IOException {
+		if (finished) {
+			return;
+		}
+		writeBlock();
+		buffer.clear();
+		buffer.position(BLOCK_HEADER_SIZE);
+		buffer.putLong(rowCount);
+		writeBlockHeader(0);
+		writeFully();
+		finished = true;
+	}
+
+	/**
+	 * Returns the number of prices written in complete blocks.
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	public long getBlockCount() {
+		return blockCount;
+	}
+
+	private void writeBlock() throws IOException {
+		if (rows == 0) {
+			return;
+		}
+		int indexWidth = dictionaryCodes.size() <= 256 ? 1 : 2;
+		ensureCapacity(BLOCK_HEADER_SIZE + 2 + dictionaryBytes + rows * indexWidth + Long.BYTES
+				+ (rows - 1) * MAX_VARLONG_BYTES + rows * Float.BYTES);
+		buffer.clear();
+		buffer.position(BLOCK_HEADER_SIZE);
+		buffer.putShort((short) dictionaryCodes.size());
+		for (byte[] code : dictionaryCodes) {
+			buffer.put((byte) code.length).put(code);
+		}
+		for (int i = 0; i < rows; i++) {
+			if (indexWidth == 1) {
+				buffer.put((byte) codeIndexes[i]);
+			} else {
+				buffer.putShort((short) codeIndexes[i]);
+			}
+		}
+		buffer.putLong(epochMicros[0]);
+		for (int i = 1; i < rows; i++) {
+			PriceArchiveFormat.putVarLong(buffer, epochMicros[i] - epochMicros[i - 1]);
+		}
+		for (int i = 0; i < rows; i++) {
+			buffer.putFloat(prices[i]);
+		}
+		writeBlockHeader(rows);
+		writeFully();
+		rowCount += rows;
+		blockCount++;
+		rows = 0;
+		dictionary.clear();
+		dictionaryCodes.clear();
+		dictionaryBytes = 0;
+	}
+
+	/**
+	 * Fills in the header of the block encoded after it in the buffer and flips the buffer for writing.
+	 */
+	private void writeBlockHeader(int blockRowCount) {
+		int payloadLength = buffer.position() - BLOCK_HEADER_SIZE;
+		crc.reset();
+		crc.update(buffer.duplicate().flip().position(BLOCK_HEADER_SIZE));
+		buffer.putInt(0, blockRowCount).putInt(4, payloadLength).putInt(8, (int) crc.getValue());
+		buffer.flip();
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (buffer.capacity() < capacity) {
+			buffer = ByteBuffer.allocateDirect(Math.max(capacity, buffer.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	private void writeFully() throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+}
@@ -0,0 +1,260 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many calls run at once, adapting the limit to the latency and failures it observes (AIMD).
+ * <p>
+ * A call that would exceed the limit is not queued but shed at once with a
+ * {@link ConcurrencyLimitExceededException}, so a struggling dependency sees less work instead of a growing backlog.
+ * Every completed call is a sample: one that succeeded within {@code latencyThreshold} while the limit was at least
+ * half used raises the limit by {@code 1 / limit}, roughly one per limit's worth of calls; one that failed or was
+ * slower multiplies the limit by {@code backoffRatio}. Calls that were already running at the last decrease cannot
+ * trigger another, so one slow spell lowers the limit once rather than once per call caught in it.
+ * </p>
+ * <p>
+ * Work that is expensive to prepare, such as a write whose data took seconds to fetch, can instead wait a bounded time
+ * for a slot with {@link #awaitCall(Supplier)}, up to {@code maxWait}. Admission and sampling are lock-free: the limit is updated with
+ * compare-and-set, and a lock is only taken to wake a waiter when some call is waiting.
+ * </p>
+ * <p>
+ * The limit starts at {@code initialLimit} and stays between {@code minLimit} and {@code maxLimit}. A disabled limiter
+ * runs every call without sampling.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private final String name;
+	private final boolean enabled;
+	private final int minLimit;
+	private final int maxLimit;
+	private final long latencyThresholdNanos;
+	private final double backoffRatio;
+	private final long maxWaitNanos;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final ReentrantLock waitLock = new ReentrantLock();
+	private final Condition released = waitLock.newCondition();
+	private final LongAdder shedCount = new LongAdder();
+	private final LongAdder backoffCount = new LongAdder();
+	/**
+	 * Bits of the fractional limit as a double; the admitted limit is its integer part.
+	 */
+	private final AtomicLong limitBits;
+	private final AtomicLong lastBackoffNanos = new AtomicLong(System.nanoTime());
+
+	public AdaptiveConcurrencyLimiter(String name, boolean enabled, int initialLimit, int minLimit, int maxLimit,
+			Duration latencyThreshold, double backoffRatio, Duration maxWait) {
+		if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+		}
+		if (backoffRatio <= 0 || backoffRatio >= 1) {
+			throw new IllegalArgumentException("Backoff ratio must be between 0 and 1: " + backoffRatio);
+		}
+		this.name = name;
+		this.enabled = enabled;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.latencyThresholdNanos = latencyThreshold.toNanos();
+		this.backoffRatio = backoffRatio;
+		this.maxWaitNanos = maxWait.toNanos();
+		this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+	}
+
+	/**
+	 * Runs the work if the limit allows and samples its latency and outcome.
+	 *
+	 * @throws ConcurrencyLimitExceededException if the limit is reached.
+	 */
+	public <T> T call(Supplier<T> work) {
+		if (!enabled) {
+			return work.get();
+		}
+		return callAdmitted(work, tryAcquire());
+	}
+
+	/**
+	 * Runs the work if the limit allows and samples its latency and outcome.
+	 *
+	 * @throws ConcurrencyLimitExceededException if the limit is reached.
+	 */
+	public void run(Runnable work) {
+		call(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Runs the work once a slot is free, waiting up to {@code maxWait} for one, and samples its latency and outcome.
+	 * The wait is not part of the sampled latency.
+	 *
+	 * @throws ConcurrencyLimitExceededException if no slot became free within {@code maxWait}.
+	 * @throws InterruptedException              if interrupted while waiting.
+	 */
+	public <T> T awaitCall(Supplier<T> work) throws InterruptedException {
+		if (!enabled) {
+			return work.get();
+		}
+		return callAdmitted(work, acquire());
+	}
+
+	/**
+	 * Runs the work once a slot is free, waiting up to {@code maxWait} for one, and samples its latency and outcome.
+	 *
+	 * @throws ConcurrencyLimitExceededException if no slot became free within {@code maxWait}.
+	 * @throws InterruptedException              if interrupted while waiting.
+	 */
+	public void awaitRun(Runnable work) throws InterruptedException {
+		awaitCall(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Sheds work up front, before the caller prepares a call that would not be admitted.
+	 *
+	 * @throws ConcurrencyLimitExceededException if the limit is currently reached.
+	 */
+	public void checkCapacity() {
+		if (enabled && inFlight.get() >= getLimit()) {
+			shedCount.increment();
+			throw new ConcurrencyLimitExceededException(name, getLimit());
+		}
+	}
+
+	/**
+	 * Returns the current limit.
+	 */
+	public int getLimit() {
+		return (int) Double.longBitsToDouble(limitBits.get());
+	}
+
+	/**
+	 * Returns the number of calls running.
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Returns the number of calls shed because the limit was reached.
+	 */
+	public long getShedCount() {
+		return shedCount.sum();
+	}
+
+	/**
+	 * Returns the number of times the limit was lowered.
+	 */
+	public long getBackoffCount() {
+		return backoffCount.sum();
+	}
+
+	private <T> T callAdmitted(Supplier<T> work, int inFlightAtStart) {
+		long startNanos = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			T result = work.get();
+			succeeded = true;
+			return result;
+		} finally {
+			inFlight.decrementAndGet();
+			onSample(startNanos, System.nanoTime() - startNanos, succeeded, inFlightAtStart);
+			if (waiting.get() > 0) {
+				waitLock.lock();
+				try {
+					released.signal();
+				} finally {
+					waitLock.unlock();
+				}
+			}
+		}
+	}
+
+	private int tryAcquire() {
+		int acquired = tryIncrement();
+		if (acquired < 0) {
+			shedCount.increment();
+			throw new ConcurrencyLimitExceededException(name, getLimit());
+		}
+		return acquired;
+	}
+
+	/**
+	 * Takes a slot, waiting for a call to finish while none is free. A waiter registers itself before it checks the
+	 * limit under the lock, so a release either sees it waiting and signals, or happens before the check that then
+	 * succeeds.
+	 */
+	private int acquire() throws InterruptedException {
+		int acquired = tryIncrement();
+		if (acquired > 0) {
+			return acquired;
+		}
+		long deadline = System.nanoTime() + maxWaitNanos;
+		waiting.incrementAndGet();
+		waitLock.lock();
+		try {
+			while ((acquired = tryIncrement()) < 0) {
+				long remainingNanos = deadline - System.nanoTime();
+				if (remainingNanos <= 0) {
+					shedCount.increment();
+					throw new ConcurrencyLimitExceededException(name, getLimit());
+				}
+				released.await(remainingNanos, TimeUnit.NANOSECONDS);
+			}
+			return acquired;
+		} finally {
+			waitLock.unlock();
+			waiting.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Counts a call in if it is below the limit and returns the calls in flight including it, or -1.
+	 */
+	private int tryIncrement() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= getLimit()) {
+				return -1;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return current + 1;
+			}
+		}
+	}
+
+	private void onSample(long startNanos, long latencyNanos, boolean succeeded, int inFlightAtStart) {
+		if (!succeeded || latencyNanos > latencyThresholdNanos) {
+			long lastBackoff = lastBackoffNanos.get();
+			if (startNanos - lastBackoff > 0 && lastBackoffNanos.compareAndSet(lastBackoff, System.nanoTime())) {
+				updateLimit(limit -> Math.max(minLimit, limit * backoffRatio));
+				backoffCount.increment();
+			}
+		} else {
+			updateLimit(limit -> inFlightAtStart * 2 >= limit ? Math.min(maxLimit, limit + 1 / limit) : limit);
+		}
+	}
+
+	private void updateLimit(DoubleUnaryOperator update) {
+		while (true) {
+			long currentBits = limitBits.get();
+			double next = update.applyAsDouble(Double.longBitsToDouble(currentBits));
+			long nextBits = Double.doubleToLongBits(next);
+			if (nextBits == currentBits || limitBits.compareAndSet(currentBits, nextBits)) {
+				return;
+			}
+		}
+	}
+
+}
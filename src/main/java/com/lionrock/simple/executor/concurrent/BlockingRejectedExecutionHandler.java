@@ -0,0 +1,41 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link RejectedExecutionHandler} that waits for space in the executor's work queue.
+ * <p>
+ * Instead of failing immediately, the submitting thread is parked until a worker takes a task off the queue or the
+ * configured timeout elapses. Once the timeout elapses, or when the executor is shutting down, the task is rejected
+ * with a {@link RejectedExecutionException}.
+ * </p>
+ */
+public class BlockingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+	private final long timeoutNanos;
+
+	public BlockingRejectedExecutionHandler(Duration timeout) {
+		this.timeoutNanos = timeout.toNanos();
+	}
+
+	@Override
+	public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+		if (executor.isShutdown()) {
+			throw new RejectedExecutionException("Task executor has been shut down");
+		}
+		try {
+			if (!executor.getQueue().offer(task, timeoutNanos, TimeUnit.NANOSECONDS)) {
+				throw new RejectedExecutionException(String.format(
+						"Task executor queue still full after waiting %s ms", TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for task executor queue space", e);
+		}
+	}
+
+}
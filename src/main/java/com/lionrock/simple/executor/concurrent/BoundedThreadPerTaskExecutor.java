@@ -0,0 +1,237 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An executor that starts a new thread for every task, with a cap on how many tasks run at once.
+ * <p>
+ * This is the execution model virtual threads are designed for: threads are cheap, so there is no pool to size and
+ * no queue to wait in. The only limit that still matters is how much concurrent work downstream resources can take,
+ * which is enforced with a {@link Semaphore}. When every permit is taken, the {@link RejectionPolicy} decides whether
+ * the caller runs the task itself, is rejected, or waits for a permit.
+ * </p>
+ * <p>
+ * The executor never blocks inside a monitor; termination is signalled with a {@link ReentrantLock} so that virtual
+ * threads waiting for it park instead of pinning their carrier.
+ * </p>
+ */
+public class BoundedThreadPerTaskExecutor extends AbstractExecutorService implements InstrumentedExecutorService {
+
+	private final ThreadFactory threadFactory;
+	private final Semaphore permits;
+	private final RejectionPolicy rejectionPolicy;
+	private final long blockTimeoutNanos;
+	private final Set<Thread> runningThreads = ConcurrentHashMap.newKeySet();
+	private final LongAdder completedCount = new LongAdder();
+	private final LongAdder rejectedCount = new LongAdder();
+	private final LongAdder saturatedCount = new LongAdder();
+	private final ReentrantLock terminationLock = new ReentrantLock();
+	private final Condition terminated = terminationLock.newCondition();
+
+	private volatile boolean shutdown;
+	private volatile TaskTimer taskTimer;
+
+	public BoundedThreadPerTaskExecutor(ThreadFactory threadFactory, int maxConcurrency, RejectionPolicy rejectionPolicy,
+			Duration blockTimeout) {
+		this.threadFactory = threadFactory;
+		this.permits = new Semaphore(maxConcurrency);
+		this.rejectionPolicy = rejectionPolicy;
+		this.blockTimeoutNanos = blockTimeout.toNanos();
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		execute(command, rejectionPolicy);
+	}
+
+	@Override
+	public boolean tryExecute(Runnable command) {
+		try {
+			execute(command, RejectionPolicy.REJECT);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	private void execute(Runnable command, RejectionPolicy policy) {
+		TaskTimer timer = taskTimer;
+		Runnable task = timer == null ? command : timer.wrap(command);
+		if (shutdown) {
+			rejectedCount.increment();
+			throw new RejectedExecutionException("Task executor has been shut down");
+		}
+		if (!permits.tryAcquire()) {
+			saturatedCount.increment();
+			if (!acquireWhenSaturated(task, policy)) {
+				return;
+			}
+		}
+		try {
+			Thread thread = threadFactory.newThread(() -> runTask(task));
+			runningThreads.add(thread);
+			thread.start();
+		} catch (RuntimeException | Error e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Applies the rejection policy once no permit is immediately available.
+	 *
+	 * @return {@code true} if a permit was acquired and the task should be started on a new thread, {@code false} if
+	 *         the task has already been run on the caller's thread.
+	 */
+	private boolean acquireWhenSaturated(Runnable task, RejectionPolicy policy) {
+		switch (policy) {
+		case CALLER_RUNS:
+			task.run();
+			completedCount.increment();
+			return false;
+		case BLOCK:
+			try {
+				if (permits.tryAcquire(blockTimeoutNanos, TimeUnit.NANOSECONDS)) {
+					return true;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			rejectedCount.increment();
+			throw new RejectedExecutionException(String.format("No task permit available after waiting %s ms",
+					TimeUnit.NANOSECONDS.toMillis(blockTimeoutNanos)));
+		case REJECT:
+		default:
+			rejectedCount.increment();
+			throw new RejectedExecutionException("Task executor concurrency limit reached");
+		}
+	}
+
+	private void runTask(Runnable task) {
+		try {
+			task.run();
+		} finally {
+			completedCount.increment();
+			runningThreads.remove(Thread.currentThread());
+			permits.release();
+			if (shutdown && runningThreads.isEmpty()) {
+				signalTermination();
+			}
+		}
+	}
+
+	private void signalTermination() {
+		terminationLock.lock();
+		try {
+			terminated.signalAll();
+		} finally {
+			terminationLock.unlock();
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		shutdown = true;
+		if (runningThreads.isEmpty()) {
+			signalTermination();
+		}
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		shutdown();
+		for (Thread thread : runningThreads) {
+			thread.interrupt();
+		}
+		return new ArrayList<>();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return shutdown && runningThreads.isEmpty();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		long remaining = unit.toNanos(timeout);
+		terminationLock.lock();
+		try {
+			while (!isTerminated()) {
+				if (remaining <= 0) {
+					return false;
+				}
+				remaining = terminated.awaitNanos(remaining);
+			}
+			return true;
+		} finally {
+			terminationLock.unlock();
+		}
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+		TaskTimer timer = taskTimer;
+		return timer == null ? super.newTaskFor(callable) : timer.newTaskFor(callable);
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+		TaskTimer timer = taskTimer;
+		return timer == null ? super.newTaskFor(runnable, value) : timer.newTaskFor(runnable, value);
+	}
+
+	@Override
+	public void setTaskTimingListener(TaskTimingListener listener) {
+		this.taskTimer = listener == null ? null : new TaskTimer(listener);
+	}
+
+	@Override
+	public int getActiveCount() {
+		return runningThreads.size();
+	}
+
+	@Override
+	public int getPoolSize() {
+		return runningThreads.size();
+	}
+
+	@Override
+	public int getQueueSize() {
+		return 0;
+	}
+
+	@Override
+	public long getCompletedTaskCount() {
+		return completedCount.sum();
+	}
+
+	@Override
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	@Override
+	public long getSaturatedCount() {
+		return saturatedCount.sum();
+	}
+
+}
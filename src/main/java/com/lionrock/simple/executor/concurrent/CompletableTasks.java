@@ -0,0 +1,159 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Helpers for fanning out {@link Callable} tasks as {@link CompletableFuture}s on an {@link ExecutorService}.
+ * <p>
+ * {@link CompletableFuture#supplyAsync} cannot interrupt a task once it is running, so cancelling leftover work after
+ * a timeout or after the first result would have no effect on a task blocked in I/O. Futures created by
+ * {@link #submit(ExecutorService, Callable)} instead forward cancellation to the executor's own {@link Future}, which
+ * interrupts the worker thread.
+ * </p>
+ */
+public final class CompletableTasks {
+
+	private CompletableTasks() {
+	}
+
+	/**
+	 * Submits a task and returns a future that completes with its result and interrupts it when cancelled.
+	 *
+	 * @throws java.util.concurrent.RejectedExecutionException if the executor refuses the task.
+	 */
+	public static <T> CompletableFuture<T> submit(ExecutorService executorService, Callable<T> task) {
+		InterruptibleFuture<T> result = new InterruptibleFuture<>();
+		Future<?> delegate = executorService.submit(new CompletingTask<>(task, result));
+		result.setDelegate(delegate);
+		return result;
+	}
+
+	/**
+	 * Completes with all results in submission order once every future succeeds, or with the first failure.
+	 */
+	public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+			List<T> results = new ArrayList<>(futures.size());
+			for (CompletableFuture<T> future : futures) {
+				results.add(future.join());
+			}
+			return results;
+		});
+	}
+
+	/**
+	 * Completes with the first successful result, or with the last failure once every future has failed.
+	 * <p>
+	 * Unlike {@link CompletableFuture#anyOf}, a task failing quickly does not win over a slower task that succeeds,
+	 * which matches the semantics of {@link ExecutorService#invokeAny}.
+	 * </p>
+	 */
+	public static <T> CompletableFuture<T> firstSuccessful(List<CompletableFuture<T>> futures) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		AtomicInteger remaining = new AtomicInteger(futures.size());
+		for (CompletableFuture<T> future : futures) {
+			future.whenComplete((value, failure) -> {
+				if (failure == null) {
+					result.complete(value);
+				} else if (remaining.decrementAndGet() == 0) {
+					result.completeExceptionally(failure);
+				}
+			});
+		}
+		return result;
+	}
+
+	/**
+	 * Bounds a combined future by a deadline and cancels every task that is still running once it completes.
+	 * <p>
+	 * When the deadline passes first, the returned future fails with a
+	 * {@link java.util.concurrent.TimeoutException}.
+	 * </p>
+	 */
+	public static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> combined, Duration timeout,
+			List<? extends CompletableFuture<?>> tasks) {
+		return combined.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((value, failure) -> {
+			for (CompletableFuture<?> task : tasks) {
+				task.cancel(true);
+			}
+		});
+	}
+
+	/**
+	 * Runs a task and completes a future with its outcome; a named class rather than a lambda so that task metrics
+	 * can see the original task through {@link WrappedTask}, and so a {@link KeyedExecutor} that coalesces this task
+	 * away can still complete its future.
+	 */
+	static final class CompletingTask<T> implements Runnable, WrappedTask {
+
+		private final Callable<T> task;
+		private final CompletableFuture<T> result;
+
+		CompletingTask(Callable<T> task, CompletableFuture<T> result) {
+			this.task = task;
+			this.result = result;
+		}
+
+		@Override
+		public void run() {
+			try {
+				result.complete(task.call());
+			} catch (Throwable t) {
+				result.completeExceptionally(t);
+			}
+		}
+
+		@Override
+		public Object getTask() {
+			return task;
+		}
+
+		/**
+		 * Completes the future of another task, which will not run, with the outcome of this one.
+		 */
+		@SuppressWarnings("unchecked")
+		void forwardTo(CompletingTask<?> other) {
+			CompletableFuture<Object> target = (CompletableFuture<Object>) other.result;
+			result.whenComplete((value, failure) -> {
+				if (failure == null) {
+					target.complete(value);
+				} else {
+					target.completeExceptionally(failure);
+				}
+			});
+		}
+
+	}
+
+	private static final class InterruptibleFuture<T> extends CompletableFuture<T> {
+
+		private volatile Future<?> delegate;
+
+		void setDelegate(Future<?> delegate) {
+			this.delegate = delegate;
+			if (isCancelled()) {
+				delegate.cancel(true);
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			Future<?> current = delegate;
+			if (cancelled && current != null) {
+				current.cancel(true);
+			}
+			return cancelled;
+		}
+
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.lionrock.simple.executor.concurrent;
+
+/**
+ * Thrown when work is shed because an {@link AdaptiveConcurrencyLimiter} is at its limit.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConcurrencyLimitExceededException(String name, int limit) {
+		super(String.format("%s is at its concurrency limit of %d", name, limit));
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.lionrock.simple.executor.concurrent;
+
+/**
+ * Thread model backing the shared task executor.
+ */
+public enum ExecutorMode {
+
+	/**
+	 * A bounded pool of platform threads with a bounded work queue.
+	 */
+	PLATFORM,
+
+	/**
+	 * A new virtual thread per task, bounded only by a concurrency limit. Requires Java 21 or later.
+	 */
+	VIRTUAL
+
+}
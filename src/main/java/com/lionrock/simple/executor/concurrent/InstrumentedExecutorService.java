@@ -0,0 +1,58 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * An {@link ExecutorService} that reports how busy it is.
+ * <p>
+ * Both execution modes of the shared task executor implement this interface, so monitoring does not need to know
+ * whether tasks run on a platform thread pool or on virtual threads.
+ * </p>
+ */
+public interface InstrumentedExecutorService extends ExecutorService {
+
+	/**
+	 * Runs a task if a thread or permit is free for it right now; unlike {@link #execute(Runnable)}, a saturated
+	 * executor refuses the task at once whatever its {@link RejectionPolicy}, so the caller never waits or runs it.
+	 *
+	 * @return {@code false} if the task was refused because the executor is saturated or shut down.
+	 */
+	boolean tryExecute(Runnable command);
+
+	/**
+	 * Returns the approximate number of threads currently running tasks.
+	 */
+	int getActiveCount();
+
+	/**
+	 * Returns the current number of threads owned by the executor.
+	 */
+	int getPoolSize();
+
+	/**
+	 * Returns the number of tasks accepted but not yet started.
+	 */
+	int getQueueSize();
+
+	/**
+	 * Returns the approximate number of tasks that have completed execution.
+	 */
+	long getCompletedTaskCount();
+
+	/**
+	 * Returns how many tasks were refused with a {@link java.util.concurrent.RejectedExecutionException}.
+	 */
+	long getRejectedCount();
+
+	/**
+	 * Returns how many submissions found the executor saturated, whether or not the task was eventually accepted.
+	 */
+	long getSaturatedCount();
+
+	/**
+	 * Starts reporting the queue wait and run time of every task submitted from now on, or stops when
+	 * {@code listener} is {@code null}.
+	 */
+	void setTaskTimingListener(TaskTimingListener listener);
+
+}
@@ -0,0 +1,121 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ThreadPoolExecutor} that keeps counters about the work it has accepted and refused.
+ * <p>
+ * The executor behaves exactly like its parent; the only addition is bookkeeping. Every task that the configured
+ * {@link RejectedExecutionHandler} ends up refusing is counted, as is every task that the handler absorbed (for
+ * example by running it on the caller's thread). The counters use {@link LongAdder} so they add no contention to the
+ * submission path.
+ * </p>
+ * <p>
+ * When a {@link TaskTimingListener} is set, every task additionally reports how long it sat in the queue and how
+ * long it ran.
+ * </p>
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor implements InstrumentedExecutorService {
+
+	private final LongAdder rejectedCount = new LongAdder();
+	private final LongAdder saturatedCount = new LongAdder();
+	private final ThreadLocal<Boolean> refuseWhenSaturated = new ThreadLocal<>();
+
+	private volatile TaskTimer taskTimer;
+
+	public InstrumentedThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+			BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+		super.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(handler));
+	}
+
+	@Override
+	public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+		super.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(handler));
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		TaskTimer timer = taskTimer;
+		super.execute(timer == null ? command : timer.wrap(command));
+	}
+
+	@Override
+	public boolean tryExecute(Runnable command) {
+		refuseWhenSaturated.set(Boolean.TRUE);
+		try {
+			execute(command);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		} finally {
+			refuseWhenSaturated.remove();
+		}
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+		TaskTimer timer = taskTimer;
+		return timer == null ? super.newTaskFor(callable) : timer.newTaskFor(callable);
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+		TaskTimer timer = taskTimer;
+		return timer == null ? super.newTaskFor(runnable, value) : timer.newTaskFor(runnable, value);
+	}
+
+	@Override
+	public void setTaskTimingListener(TaskTimingListener listener) {
+		this.taskTimer = listener == null ? null : new TaskTimer(listener);
+	}
+
+	@Override
+	public int getQueueSize() {
+		return getQueue().size();
+	}
+
+	@Override
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	@Override
+	public long getSaturatedCount() {
+		return saturatedCount.sum();
+	}
+
+	private class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+		private final RejectedExecutionHandler delegate;
+
+		CountingRejectedExecutionHandler(RejectedExecutionHandler delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+			saturatedCount.increment();
+			if (refuseWhenSaturated.get() != null) {
+				rejectedCount.increment();
+				throw new RejectedExecutionException("Task executor is saturated");
+			}
+			try {
+				delegate.rejectedExecution(task, executor);
+			} catch (RejectedExecutionException e) {
+				rejectedCount.increment();
+				throw e;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,491 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the tasks of each key one at a time and in submission order, and tasks of different keys in parallel, on a
+ * shared executor.
+ * <p>
+ * Every key with work outstanding has a small queue. Only the head of a queue is handed to the underlying executor;
+ * when it finishes, the next task of the same key is handed over in turn, so a key never occupies more than one
+ * worker and no worker is reserved for a key that is idle. Queues are dropped as soon as they are empty, which keeps
+ * memory proportional to the number of keys with pending work rather than every key ever seen. The key of a task
+ * comes from {@link KeyedTask}, looking through {@link WrappedTask} adapters; tasks without a key are passed to the
+ * underlying executor unordered.
+ * </p>
+ * <p>
+ * With coalescing enabled, a task queued behind another pending task of the same key and class replaces it: only the
+ * newest is run, and the future of the one it replaced completes with the newest task's outcome. This includes the
+ * futures returned by {@link CompletableTasks#submit}. A backlog for a busy
+ * key then costs one run however many updates piled up while it waited.
+ * </p>
+ * <p>
+ * Tasks are handed to the underlying executor outside the lock of their key, so an executor that blocks or runs a
+ * task on the submitting thread never holds up other submitters of the key. Refusal is handled here rather than left
+ * to the executor's rejection policy: a task the executor runs on the submitting thread, as a caller-runs policy
+ * does, is treated as refused, and so is a task handed to an executor that has been shut down and has not started
+ * it, since a caller-runs policy then discards it without throwing. A refused first task is run by its submitter after all if the executor tried to run
+ * it inline, and otherwise fails the submission as usual; any tasks that were queued behind it meanwhile are run by
+ * the submitter before the failure is thrown. A refused follow-up task is run by the worker that finished the
+ * previous task, in a loop rather than nested, so a long backlog never deepens its stack and tasks already accepted
+ * are never stranded.
+ * </p>
+ * <p>
+ * {@link #offer(Runnable)} is the non-blocking variant for schedulers that must not do the work themselves: it
+ * declines a task the underlying executor cannot take right now instead of waiting or running it.
+ * </p>
+ */
+public class KeyedExecutor extends AbstractExecutorService {
+
+	private final ExecutorService delegate;
+	private final boolean coalesce;
+	private final ConcurrentMap<Object, KeyQueue> queues = new ConcurrentHashMap<>();
+	private final LongAdder coalescedCount = new LongAdder();
+	private final ThreadLocal<KeyedStep> handingOff = new ThreadLocal<>();
+
+	private volatile boolean shutdown;
+
+	public KeyedExecutor(ExecutorService delegate, boolean coalesce) {
+		this.delegate = delegate;
+		this.coalesce = coalesce;
+	}
+
+	/**
+	 * Returns the number of keys that currently have a task running or queued.
+	 */
+	public int getActiveKeyCount() {
+		return queues.size();
+	}
+
+	/**
+	 * Returns the number of tasks that were replaced by a newer task of the same key before they ran.
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.sum();
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		Object key = keyOf(command);
+		if (key == null) {
+			if (shutdown) {
+				throw new RejectedExecutionException("Keyed executor has been shut down");
+			}
+			delegate.execute(command);
+		} else {
+			execute(key, command);
+		}
+	}
+
+	/**
+	 * Runs a task after every task of the same key submitted before it.
+	 */
+	public void execute(Object key, Runnable command) {
+		while (true) {
+			if (shutdown) {
+				throw new RejectedExecutionException("Keyed executor has been shut down");
+			}
+			KeyQueue queue = queues.computeIfAbsent(key, KeyQueue::new);
+			queue.lock.lock();
+			try {
+				if (queue.retired) {
+					continue;
+				}
+				if (queue.active) {
+					queue.enqueue(command);
+					return;
+				}
+				queue.active = true;
+			} finally {
+				queue.lock.unlock();
+			}
+			KeyedStep step = new KeyedStep(queue, command);
+			try {
+				if (!handOff(step)) {
+					step.runClaimed();
+				}
+			} catch (RejectedExecutionException e) {
+				Runnable next = queue.next();
+				if (next != null) {
+					new KeyedStep(queue, next).run();
+				}
+				throw e;
+			}
+			return;
+		}
+	}
+
+	/**
+	 * Runs a task like {@link #execute(Runnable)} if that needs neither waiting nor running it on the calling thread.
+	 * <p>
+	 * A task queued behind a running task of its key is always accepted. Otherwise it is accepted only if the
+	 * underlying executor has a thread or queue slot free right now, whatever its rejection policy; an
+	 * {@link InstrumentedExecutorService} is asked with {@link InstrumentedExecutorService#tryExecute}, any other
+	 * executor is treated as refusing when it throws or, for a keyed task, tries to run the task inline.
+	 * </p>
+	 *
+	 * @return {@code false} if the task was declined and will not run.
+	 */
+	public boolean offer(Runnable command) {
+		if (shutdown) {
+			return false;
+		}
+		Object key = keyOf(command);
+		if (key == null) {
+			return tryHandOff(command);
+		}
+		while (true) {
+			KeyQueue queue = queues.computeIfAbsent(key, KeyQueue::new);
+			queue.lock.lock();
+			try {
+				if (queue.retired) {
+					continue;
+				}
+				if (queue.active) {
+					queue.enqueue(command);
+					return true;
+				}
+				// a refusing handoff never blocks or runs the task, so it is safe under the lock and leaves no
+				// follow-up behind a declined task
+				queue.active = true;
+				if (!tryHandOff(new KeyedStep(queue, command))) {
+					queue.active = false;
+					queue.retireIfIdle();
+					return false;
+				}
+				return true;
+			} finally {
+				queue.lock.unlock();
+			}
+		}
+	}
+
+	private boolean tryHandOff(Runnable task) {
+		if (delegate instanceof InstrumentedExecutorService) {
+			return ((InstrumentedExecutorService) delegate).tryExecute(task);
+		}
+		try {
+			if (task instanceof KeyedStep) {
+				return handOff((KeyedStep) task);
+			}
+			delegate.execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Hands a step to the underlying executor, returning {@code false} if the executor tried to run it on this thread
+	 * or was shut down without starting it; the step is then claimed by the caller, which must run it with
+	 * {@link KeyedStep#runClaimed()}.
+	 *
+	 * @throws RejectedExecutionException if the executor refused the step.
+	 */
+	private boolean handOff(KeyedStep step) {
+		handingOff.set(step);
+		try {
+			delegate.execute(step);
+		} finally {
+			handingOff.remove();
+		}
+		if (step.refused) {
+			return !step.claim();
+		}
+		// a caller-runs policy discards a task once the executor is shut down, and a task accepted just before the
+		// shutdown may never start either, so whoever claims the step first runs it
+		return !(delegate.isShutdown() && step.claim());
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+		return new KeyedFutureTask<>(callable, keyOf(callable));
+	}
+
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+		return new KeyedFutureTask<>(runnable, value, keyOf(runnable));
+	}
+
+	/**
+	 * Stops accepting tasks; tasks already accepted still run on the underlying executor, whose own lifecycle is
+	 * managed separately.
+	 */
+	@Override
+	public void shutdown() {
+		shutdown = true;
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		shutdown = true;
+		List<Runnable> dropped = new ArrayList<>();
+		for (KeyQueue queue : queues.values()) {
+			queue.lock.lock();
+			try {
+				dropped.addAll(queue.pending);
+				queue.pending.clear();
+			} finally {
+				queue.lock.unlock();
+			}
+		}
+		return dropped;
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return shutdown && queues.isEmpty();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!isTerminated()) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if (deadline - System.nanoTime() <= 0) {
+				return false;
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		return true;
+	}
+
+	private static Object innermost(Object task) {
+		while (task instanceof WrappedTask) {
+			task = ((WrappedTask) task).getTask();
+		}
+		return task;
+	}
+
+	private static Object keyOf(Object task) {
+		while (true) {
+			if (task instanceof KeyedTask) {
+				return ((KeyedTask) task).getKey();
+			}
+			if (!(task instanceof WrappedTask)) {
+				return null;
+			}
+			task = ((WrappedTask) task).getTask();
+		}
+	}
+
+	/**
+	 * The pending tasks of one key; {@code active} while a task of the key is running or handed to the executor.
+	 */
+	private final class KeyQueue {
+
+		private final Object key;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Deque<Runnable> pending = new ArrayDeque<>();
+		private boolean active;
+		private boolean retired;
+
+		KeyQueue(Object key) {
+			this.key = key;
+		}
+
+		void enqueue(Runnable command) {
+			if (coalesce && command instanceof KeyedFutureTask && pending.peekLast() instanceof KeyedFutureTask) {
+				KeyedFutureTask<?> newer = (KeyedFutureTask<?>) command;
+				KeyedFutureTask<?> older = (KeyedFutureTask<?>) pending.peekLast();
+				if (newer.canSupersede(older)) {
+					pending.pollLast();
+					newer.supersede(older);
+					coalescedCount.increment();
+				}
+			}
+			pending.addLast(command);
+		}
+
+		/**
+		 * Takes the next task of the key, or marks the key idle and drops its queue when there is none.
+		 */
+		Runnable next() {
+			lock.lock();
+			try {
+				Runnable next = pending.pollFirst();
+				if (next == null) {
+					active = false;
+					retireIfIdle();
+				}
+				return next;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void retireIfIdle() {
+			if (!active && pending.isEmpty()) {
+				retired = true;
+				queues.remove(key, this);
+			}
+		}
+
+	}
+
+	/**
+	 * Runs one task of a key and then hands the key's next task to the executor, or runs it itself if refused. A step
+	 * runs at most once: the executor's worker and the submitter that finds it refused race to claim it.
+	 */
+	private final class KeyedStep implements Runnable, WrappedTask {
+
+		private final KeyQueue queue;
+		private final Runnable task;
+		private final AtomicBoolean claimed = new AtomicBoolean();
+		private boolean refused;
+
+		KeyedStep(KeyQueue queue, Runnable task) {
+			this.queue = queue;
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			if (handingOff.get() == this) {
+				// the executor is running the step inline while it is being handed off
+				refused = true;
+				return;
+			}
+			if (claim()) {
+				runClaimed();
+			}
+		}
+
+		boolean claim() {
+			return claimed.compareAndSet(false, true);
+		}
+
+		/**
+		 * Runs the task and the key's follow-ups refused by the executor, once the step has been claimed.
+		 */
+		void runClaimed() {
+			Runnable current = task;
+			while (current != null) {
+				try {
+					current.run();
+				} finally {
+					Runnable next = queue.next();
+					current = null;
+					if (next != null) {
+						try {
+							if (!handOff(new KeyedStep(queue, next))) {
+								current = next;
+							}
+						} catch (RejectedExecutionException e) {
+							current = next;
+						}
+					}
+				}
+			}
+		}
+
+		@Override
+		public Object getTask() {
+			return task;
+		}
+
+	}
+
+	/**
+	 * A future that carries the key of its task and can complete the futures of tasks it superseded.
+	 */
+	private static final class KeyedFutureTask<T> extends FutureTask<T> implements KeyedTask, WrappedTask {
+
+		private final Object task;
+		private final Object key;
+		private List<KeyedFutureTask<T>> superseded;
+
+		KeyedFutureTask(Callable<T> callable, Object key) {
+			super(callable);
+			this.task = callable;
+			this.key = key;
+		}
+
+		KeyedFutureTask(Runnable runnable, T value, Object key) {
+			super(runnable, value);
+			this.task = runnable;
+			this.key = key;
+		}
+
+		@Override
+		public Object getKey() {
+			return key;
+		}
+
+		@Override
+		public Object getTask() {
+			return task;
+		}
+
+		boolean canSupersede(KeyedFutureTask<?> other) {
+			return innermost(task).getClass() == innermost(other.task).getClass() && !other.isDone();
+		}
+
+		/**
+		 * Takes over another task of the same class, which is then never run; only called while the key's queue is
+		 * locked and before either task has started.
+		 */
+		@SuppressWarnings("unchecked")
+		void supersede(KeyedFutureTask<?> other) {
+			if (superseded == null) {
+				superseded = new ArrayList<>();
+			}
+			superseded.add((KeyedFutureTask<T>) other);
+			if (other.superseded != null) {
+				superseded.addAll((List<KeyedFutureTask<T>>) (List<?>) other.superseded);
+				other.superseded = null;
+			}
+		}
+
+		@Override
+		protected void done() {
+			List<KeyedFutureTask<T>> others = superseded;
+			if (others == null) {
+				return;
+			}
+			for (KeyedFutureTask<T> other : others) {
+				if (task instanceof CompletableTasks.CompletingTask
+						&& other.task instanceof CompletableTasks.CompletingTask) {
+					((CompletableTasks.CompletingTask<?>) task).forwardTo((CompletableTasks.CompletingTask<?>) other.task);
+				}
+				try {
+					other.set(get());
+				} catch (ExecutionException e) {
+					other.setException(e.getCause());
+				} catch (CancellationException e) {
+					other.cancel(false);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					other.cancel(false);
+				}
+			}
+		}
+
+	}
+
+}
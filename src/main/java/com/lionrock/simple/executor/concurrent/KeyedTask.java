@@ -0,0 +1,16 @@
+package com.lionrock.simple.executor.concurrent;
+
+/**
+ * A task that must not run concurrently with, or out of order relative to, other tasks of the same key.
+ * <p>
+ * A {@link KeyedExecutor} runs the tasks of one key one after another, in submission order.
+ * </p>
+ */
+public interface KeyedTask {
+
+	/**
+	 * Returns the key the task is ordered by; keys are compared with {@link Object#equals(Object)}.
+	 */
+	Object getKey();
+
+}
@@ -0,0 +1,29 @@
+package com.lionrock.simple.executor.concurrent;
+
+/**
+ * Backpressure strategies applied when the shared task executor is saturated.
+ * <p>
+ * The executor is saturated once every thread up to the maximum pool size is busy and the bounded work queue is
+ * full. The selected policy decides what happens to the task that could not be accepted.
+ * </p>
+ */
+public enum RejectionPolicy {
+
+	/**
+	 * Runs the task on the submitting thread, which naturally slows down the producer.
+	 */
+	CALLER_RUNS,
+
+	/**
+	 * Fails fast with a {@link java.util.concurrent.RejectedExecutionException}, surfaced to HTTP clients as
+	 * {@code 429 Too Many Requests}.
+	 */
+	REJECT,
+
+	/**
+	 * Blocks the submitting thread until queue space frees up or the configured block timeout elapses, after
+	 * which the task is rejected as in {@link #REJECT}.
+	 */
+	BLOCK
+
+}
@@ -0,0 +1,105 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+
+/**
+ * Measures queue wait and run time of tasks and reports them to a {@link TaskTimingListener}.
+ * <p>
+ * Executors use it in two places. Tasks submitted through {@code submit}, {@code invokeAll} or {@code invokeAny}
+ * become {@link RunnableFuture}s in {@code newTaskFor}, which stamp their creation time and time their own
+ * {@code run}. Plain {@link Runnable}s passed to {@code execute} are wrapped the same way; futures are passed through
+ * untouched so that no task is timed twice.
+ * </p>
+ * <p>
+ * The cost per task is two extra {@link System#nanoTime()} calls and one small wrapper object.
+ * </p>
+ */
+final class TaskTimer {
+
+	private final TaskTimingListener listener;
+
+	TaskTimer(TaskTimingListener listener) {
+		this.listener = listener;
+	}
+
+	<T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+		return new TimedFutureTask<>(callable, callable);
+	}
+
+	<T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+		return new TimedFutureTask<>(runnable, runnable, value);
+	}
+
+	Runnable wrap(Runnable command) {
+		if (command instanceof RunnableFuture) {
+			return command;
+		}
+		return new TimedRunnable(command);
+	}
+
+	private void completed(Object task, long submittedNanos, long startedNanos) {
+		while (task instanceof WrappedTask) {
+			task = ((WrappedTask) task).getTask();
+		}
+		listener.taskCompleted(task, startedNanos - submittedNanos, System.nanoTime() - startedNanos);
+	}
+
+	private final class TimedFutureTask<T> extends FutureTask<T> {
+
+		private final Object task;
+		private final long submittedNanos = System.nanoTime();
+
+		TimedFutureTask(Callable<T> callable, Object task) {
+			super(callable);
+			this.task = task;
+		}
+
+		TimedFutureTask(Runnable runnable, Object task, T value) {
+			super(runnable, value);
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			if (isDone()) {
+				return;
+			}
+			long startedNanos = System.nanoTime();
+			try {
+				super.run();
+			} finally {
+				completed(task, submittedNanos, startedNanos);
+			}
+		}
+
+	}
+
+	private final class TimedRunnable implements Runnable, WrappedTask {
+
+		private final Runnable task;
+		private final long submittedNanos = System.nanoTime();
+
+		TimedRunnable(Runnable task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			long startedNanos = System.nanoTime();
+			try {
+				task.run();
+			} finally {
+				completed(task, submittedNanos, startedNanos);
+			}
+		}
+
+		@Override
+		public Object getTask() {
+			return task;
+		}
+
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.lionrock.simple.executor.concurrent;
+
+/**
+ * Receives how long each task waited for a thread and how long it then ran.
+ * <p>
+ * Implementations are called on the worker thread right after the task finishes, whether it completed normally or
+ * failed, so they must be cheap and must not throw.
+ * </p>
+ *
+ * @see InstrumentedExecutorService#setTaskTimingListener(TaskTimingListener)
+ */
+@FunctionalInterface
+public interface TaskTimingListener {
+
+	/**
+	 * Called once per executed task.
+	 *
+	 * @param task       The task as handed to the executor, unwrapped from any {@link WrappedTask}.
+	 * @param waitNanos  Time between submission and the start of execution.
+	 * @param runNanos   Time the task spent running.
+	 */
+	void taskCompleted(Object task, long waitNanos, long runNanos);
+
+}
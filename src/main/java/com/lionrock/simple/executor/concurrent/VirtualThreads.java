@@ -0,0 +1,101 @@
+package com.lionrock.simple.executor.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads while the project is still compiled for a Java release that predates them.
+ * <p>
+ * Virtual threads are only available on Java 21 and later. The factory methods are looked up reflectively so the
+ * application still builds and runs on Java 17, where {@link #isSupported()} simply returns {@code false}.
+ * </p>
+ * <p>
+ * <b>Avoiding pinning.</b> A virtual thread that blocks while holding a monitor ({@code synchronized}) or while inside
+ * a native frame stays mounted on its carrier thread, and with only a handful of carriers a few pinned threads are
+ * enough to stall everything. Code on the task path therefore follows three rules:
+ * </p>
+ * <ul>
+ * <li>Never sleep, wait on I/O or wait on a future inside a {@code synchronized} block; guard blocking sections with
+ * {@link java.util.concurrent.locks.ReentrantLock} or use {@code java.util.concurrent} queues, which park instead of
+ * pin.</li>
+ * <li>Keep monitors that cannot be avoided (for example the bin locks of
+ * {@link java.util.concurrent.ConcurrentHashMap#compute}) around short, non-blocking work only.</li>
+ * <li>Bound the number of concurrent database calls with the connection pool rather than with the thread count; with
+ * virtual threads, tens of thousands of tasks may wait for a connection, and the pool parks them without pinning.</li>
+ * </ul>
+ * <p>
+ * Pinning can be diagnosed at runtime with {@code -Djdk.tracePinnedThreads=short}.
+ * </p>
+ */
+public final class VirtualThreads {
+
+	private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+	private static final Method NEW_PER_TASK_EXECUTOR = findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+	private static final Method BUILDER_NAME = findMethod("java.lang.Thread$Builder", "name", String.class, long.class);
+	private static final Method BUILDER_FACTORY = findMethod("java.lang.Thread$Builder", "factory");
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Returns whether the running JVM supports virtual threads.
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null && NEW_PER_TASK_EXECUTOR != null && BUILDER_NAME != null && BUILDER_FACTORY != null;
+	}
+
+	/**
+	 * Returns a factory creating virtual threads named {@code prefix} followed by a sequence number.
+	 *
+	 * @throws IllegalStateException if virtual threads are not supported.
+	 */
+	public static ThreadFactory newThreadFactory(String prefix) {
+		requireSupported();
+		try {
+			Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+			return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to create a virtual thread factory", e);
+		}
+	}
+
+	/**
+	 * Returns an unbounded executor starting a new virtual thread for each task.
+	 *
+	 * @throws IllegalStateException if virtual threads are not supported.
+	 */
+	public static ExecutorService newThreadPerTaskExecutor() {
+		requireSupported();
+		try {
+			return (ExecutorService) NEW_PER_TASK_EXECUTOR.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to create a virtual thread executor", e);
+		}
+	}
+
+	private static void requireSupported() {
+		if (!isSupported()) {
+			throw new IllegalStateException(
+					"Virtual threads require Java 21 or later, running on " + System.getProperty("java.version"));
+		}
+	}
+
+	private static Method findMethod(String className, String name, Class<?>... parameterTypes) {
+		try {
+			return findMethod(Class.forName(className), name, parameterTypes);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+		try {
+			return type.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+}
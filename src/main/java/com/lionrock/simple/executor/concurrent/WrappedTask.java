@@ -0,0 +1,14 @@
+package com.lionrock.simple.executor.concurrent;
+
+/**
+ * Implemented by adapters that wrap a task before handing it to an executor, so that monitoring can report the
+ * original task instead of the adapter.
+ */
+public interface WrappedTask {
+
+	/**
+	 * Returns the task this adapter runs.
+	 */
+	Object getTask();
+
+}
@@ -0,0 +1,40 @@
+package com.lionrock.simple.executor.config;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.analytics.PriceAnalyticsEngine;
+import com.lionrock.simple.executor.mapper.CoinPriceMapper;
+
+/**
+ * Configures the price analytics engine and the fork-join pool it computes on.
+ * <p>
+ * The engine gets its own pool rather than the common pool, so analytics of many coins cannot starve parallel streams
+ * or {@link java.util.concurrent.CompletableFuture} callbacks elsewhere in the application, and its size can be tuned
+ * on its own.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(AnalyticsProperties.class)
+public class AnalyticsConfig {
+
+	@Bean(destroyMethod = "shutdownNow")
+	public ForkJoinPool priceAnalyticsPool(AnalyticsProperties properties) {
+		return new ForkJoinPool(properties.getParallelism(), pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("price-analytics-" + thread.getPoolIndex());
+			return thread;
+		}, null, false);
+	}
+
+	@Bean
+	public PriceAnalyticsEngine priceAnalyticsEngine(CoinPriceMapper coinPriceMapper, ForkJoinPool priceAnalyticsPool,
+			AnalyticsProperties properties) {
+		return new PriceAnalyticsEngine(coinPriceMapper, priceAnalyticsPool, properties);
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the price analytics behind {@code /coin-price/analytics}, bound from
+ * {@code simple-executor.analytics.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.analytics")
+public class AnalyticsProperties {
+
+	/**
+	 * Number of fork-join worker threads computing analytics; defaults to the number of available processors.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Width of the time buckets whose summaries are cached once closed.
+	 */
+	private Duration bucket = Duration.ofMinutes(1);
+
+	/**
+	 * Longest window that can be requested; cached buckets older than this are dropped.
+	 */
+	private Duration maxWindow = Duration.ofHours(6);
+
+	/**
+	 * How long after its end a bucket is considered closed, giving late and write-behind inserts time to land.
+	 */
+	private Duration settleDelay = Duration.ofSeconds(10);
+
+	/**
+	 * Period of the exponential moving average in prices; the smoothing factor is {@code 2 / (period + 1)}.
+	 */
+	private int emaPeriod = 20;
+
+	/**
+	 * Number of prices below which a bucket is summarised by one task instead of being split further.
+	 */
+	private int leafSize = 8_192;
+
+	/**
+	 * Maximum number of coin codes in one request.
+	 */
+	private int maxCodes = 1_000;
+
+	/**
+	 * Whether summaries of closed buckets are cached.
+	 */
+	private boolean cacheEnabled = true;
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public Duration getBucket() {
+		return bucket;
+	}
+
+	public void setBucket(Duration bucket) {
+		this.bucket = bucket;
+	}
+
+	public Duration getMaxWindow() {
+		return maxWindow;
+	}
+
+	public void setMaxWindow(Duration maxWindow) {
+		this.maxWindow = maxWindow;
+	}
+
+	public Duration getSettleDelay() {
+		return settleDelay;
+	}
+
+	public void setSettleDelay(Duration settleDelay) {
+		this.settleDelay = settleDelay;
+	}
+
+	public int getEmaPeriod() {
+		return emaPeriod;
+	}
+
+	public void setEmaPeriod(int emaPeriod) {
+		this.emaPeriod = emaPeriod;
+	}
+
+	public int getLeafSize() {
+		return leafSize;
+	}
+
+	public void setLeafSize(int leafSize) {
+		this.leafSize = leafSize;
+	}
+
+	public int getMaxCodes() {
+		return maxCodes;
+	}
+
+	public void setMaxCodes(int maxCodes) {
+		this.maxCodes = maxCodes;
+	}
+
+	public boolean isCacheEnabled() {
+		return cacheEnabled;
+	}
+
+	public void setCacheEnabled(boolean cacheEnabled) {
+		this.cacheEnabled = cacheEnabled;
+	}
+
+}
@@ -0,0 +1,28 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.analytics.PriceAnalyticsEngine;
+import com.lionrock.simple.executor.mapper.CoinPriceMapper;
+import com.lionrock.simple.executor.service.CoinPriceArchiveService;
+import com.lionrock.simple.executor.service.CoinPriceBatchWriter;
+import com.lionrock.simple.executor.service.LatestCoinPriceCache;
+
+/**
+ * Configures the bulk export and import of the price history as binary archives.
+ */
+@Configuration
+@EnableConfigurationProperties(ArchiveProperties.class)
+public class ArchiveConfig {
+
+	@Bean
+	public CoinPriceArchiveService coinPriceArchiveService(CoinPriceMapper coinPriceMapper,
+			CoinPriceBatchWriter coinPriceBatchWriter, LatestCoinPriceCache latestCoinPriceCache,
+			PriceAnalyticsEngine priceAnalyticsEngine, ArchiveProperties properties) {
+		return new CoinPriceArchiveService(coinPriceMapper, coinPriceBatchWriter, latestCoinPriceCache,
+				priceAnalyticsEngine, properties);
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the binary price archive export and import, bound from {@code simple-executor.archive.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.archive")
+public class ArchiveProperties {
+
+	/**
+	 * Number of prices per block of an exported archive; the exporter holds one block in memory.
+	 */
+	private int blockRows = 65_536;
+
+	/**
+	 * Number of imported prices inserted per multi-row statement, each batch in its own transaction.
+	 */
+	private int importBatchSize = 1_000;
+
+	/**
+	 * Value of {@code updated_by} for imported prices, which the archive does not carry.
+	 */
+	private String importUpdatedBy = "archive-import";
+
+	public int getBlockRows() {
+		return blockRows;
+	}
+
+	public void setBlockRows(int blockRows) {
+		this.blockRows = blockRows;
+	}
+
+	public int getImportBatchSize() {
+		return importBatchSize;
+	}
+
+	public void setImportBatchSize(int importBatchSize) {
+		this.importBatchSize = importBatchSize;
+	}
+
+	public String getImportUpdatedBy() {
+		return importUpdatedBy;
+	}
+
+	public void setImportUpdatedBy(String importUpdatedBy) {
+		this.importUpdatedBy = importUpdatedBy;
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.mapper.CoinPriceCandleMapper;
+import com.lionrock.simple.executor.service.CandleAggregator;
+
+/**
+ * Configures the incremental candle aggregator behind {@code GET /coin-price/candles/{code}}.
+ */
+@Configuration
+@EnableConfigurationProperties(CandleProperties.class)
+public class CandleConfig {
+
+	@Bean
+	public CandleAggregator candleAggregator(CoinPriceCandleMapper coinPriceCandleMapper,
+			CandleProperties properties) {
+		return new CandleAggregator(coinPriceCandleMapper, properties);
+	}
+
+}
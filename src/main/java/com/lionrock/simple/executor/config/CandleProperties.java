@@ -0,0 +1,78 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the incremental candle aggregator, bound from {@code simple-executor.candles.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.candles")
+public class CandleProperties {
+
+	/**
+	 * Whether inserted coin prices are aggregated into candles.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * How often closed candles are written to {@code COIN_PRICE_CANDLE}.
+	 */
+	private Duration flushInterval = Duration.ofSeconds(1);
+
+	/**
+	 * Maximum number of candles merged with one statement.
+	 */
+	private int flushSize = 500;
+
+	/**
+	 * Number of candles returned when a request does not specify a limit.
+	 */
+	private int defaultLimit = 100;
+
+	/**
+	 * Largest number of candles a request may ask for.
+	 */
+	private int maxLimit = 10_000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getFlushInterval() {
+		return flushInterval;
+	}
+
+	public void setFlushInterval(Duration flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public int getFlushSize() {
+		return flushSize;
+	}
+
+	public void setFlushSize(int flushSize) {
+		this.flushSize = flushSize;
+	}
+
+	public int getDefaultLimit() {
+		return defaultLimit;
+	}
+
+	public void setDefaultLimit(int defaultLimit) {
+		this.defaultLimit = defaultLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+}
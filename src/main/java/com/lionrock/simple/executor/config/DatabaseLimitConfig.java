@@ -0,0 +1,28 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.concurrent.AdaptiveConcurrencyLimiter;
+
+/**
+ * Configures the adaptive limit on concurrent database calls made on behalf of requests.
+ * <p>
+ * A fixed number of workers is either too few for a healthy database or too many for a struggling one. The limiter
+ * instead finds the concurrency the database sustains at acceptable latency, and sheds the excess with
+ * {@code 503 Service Unavailable} rather than queueing it.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(DatabaseLimitProperties.class)
+public class DatabaseLimitConfig {
+
+	@Bean
+	public AdaptiveConcurrencyLimiter databaseConcurrencyLimiter(DatabaseLimitProperties properties) {
+		return new AdaptiveConcurrencyLimiter("database", properties.isEnabled(), properties.getInitialLimit(),
+				properties.getMinLimit(), properties.getMaxLimit(), properties.getLatencyThreshold(),
+				properties.getBackoffRatio(), properties.getMaxWait());
+	}
+
+}
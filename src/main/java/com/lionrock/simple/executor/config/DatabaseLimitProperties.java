@@ -0,0 +1,104 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the adaptive concurrency limit on database calls, bound from {@code simple-executor.db-limit.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.db-limit")
+public class DatabaseLimitProperties {
+
+	/**
+	 * Whether database calls are limited; when disabled every call runs.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Limit to start from, usually the size of the connection pool.
+	 */
+	private int initialLimit = 10;
+
+	/**
+	 * Lowest the limit may fall to.
+	 */
+	private int minLimit = 1;
+
+	/**
+	 * Highest the limit may grow to.
+	 */
+	private int maxLimit = 100;
+
+	/**
+	 * Calls slower than this lower the limit, like failed calls do.
+	 */
+	private Duration latencyThreshold = Duration.ofMillis(100);
+
+	/**
+	 * Factor the limit is multiplied by when a call fails or is slow.
+	 */
+	private double backoffRatio = 0.9;
+
+	/**
+	 * How long a synchronous insert whose price has been fetched waits for a free slot before it is shed.
+	 */
+	private Duration maxWait = Duration.ofSeconds(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public void setInitialLimit(int initialLimit) {
+		this.initialLimit = initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+	public Duration getLatencyThreshold() {
+		return latencyThreshold;
+	}
+
+	public void setLatencyThreshold(Duration latencyThreshold) {
+		this.latencyThreshold = latencyThreshold;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+
+	public void setBackoffRatio(double backoffRatio) {
+		this.backoffRatio = backoffRatio;
+	}
+
+	public Duration getMaxWait() {
+		return maxWait;
+	}
+
+	public void setMaxWait(Duration maxWait) {
+		this.maxWait = maxWait;
+	}
+
+}
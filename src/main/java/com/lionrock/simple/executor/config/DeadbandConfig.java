@@ -0,0 +1,21 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.service.PriceDeadbandFilter;
+
+/**
+ * Configures the per-coin deadband applied before coin prices are written.
+ */
+@Configuration
+@EnableConfigurationProperties(DeadbandProperties.class)
+public class DeadbandConfig {
+
+	@Bean
+	public PriceDeadbandFilter priceDeadbandFilter(DeadbandProperties properties) {
+		return new PriceDeadbandFilter(properties);
+	}
+
+}
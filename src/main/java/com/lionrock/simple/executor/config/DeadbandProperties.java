@@ -0,0 +1,68 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the deadband that keeps unchanged prices out of the database, bound from
+ * {@code simple-executor.deadband.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.deadband")
+public class DeadbandProperties {
+
+	/**
+	 * Whether prices within the deadband of the last stored price are skipped instead of inserted.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Largest absolute price change that still counts as unchanged.
+	 */
+	private double epsilon = 0.0001;
+
+	/**
+	 * Per-coin overrides of {@link #epsilon}, keyed by upper case coin code.
+	 */
+	private Map<String, Double> epsilons = new HashMap<>();
+
+	/**
+	 * Longest time a coin goes without a stored price; once it has passed, the next price is stored even if unchanged.
+	 */
+	private Duration heartbeat = Duration.ofMinutes(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	public void setEpsilon(double epsilon) {
+		this.epsilon = epsilon;
+	}
+
+	public Map<String, Double> getEpsilons() {
+		return epsilons;
+	}
+
+	public void setEpsilons(Map<String, Double> epsilons) {
+		this.epsilons = epsilons;
+	}
+
+	public Duration getHeartbeat() {
+		return heartbeat;
+	}
+
+	public void setHeartbeat(Duration heartbeat) {
+		this.heartbeat = heartbeat;
+	}
+
+}
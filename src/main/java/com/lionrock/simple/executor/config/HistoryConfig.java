@@ -0,0 +1,45 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configures the threads that write streamed price history responses.
+ * <p>
+ * Spring MVC writes a {@link org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody} on its
+ * async task executor. Because the application defines its own executor beans, Boot does not create one, and MVC
+ * would fall back to starting an unbounded thread per response. A small bounded pool is registered instead: each
+ * stream holds a database connection for as long as it runs, so the number of concurrent streams is capped well
+ * below the connection pool size, and requests beyond the queue are rejected with {@code 429}.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(HistoryProperties.class)
+public class HistoryConfig implements WebMvcConfigurer {
+
+	private HistoryProperties properties;
+
+	public HistoryConfig(HistoryProperties properties) {
+		this.properties = properties;
+	}
+
+	@Bean
+	public ThreadPoolTaskExecutor streamingResponseExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(properties.getStreamThreads());
+		executor.setMaxPoolSize(properties.getStreamThreads());
+		executor.setQueueCapacity(properties.getStreamQueueCapacity());
+		executor.setThreadNamePrefix("history-stream-");
+		return executor;
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(streamingResponseExecutor());
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the price history endpoints, bound from {@code simple-executor.history.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.history")
+public class HistoryProperties {
+
+	/**
+	 * Number of threads writing streamed responses; bounds how many history streams hold a connection at once.
+	 */
+	private int streamThreads = 4;
+
+	/**
+	 * Number of streamed responses that may wait for a thread before further requests are rejected.
+	 */
+	private int streamQueueCapacity = 16;
+
+	/**
+	 * Page size used when a page request does not specify one.
+	 */
+	private int defaultPageSize = 1_000;
+
+	/**
+	 * Largest page size a client may request.
+	 */
+	private int maxPageSize = 10_000;
+
+	public int getStreamThreads() {
+		return streamThreads;
+	}
+
+	public void setStreamThreads(int streamThreads) {
+		this.streamThreads = streamThreads;
+	}
+
+	public int getStreamQueueCapacity() {
+		return streamQueueCapacity;
+	}
+
+	public void setStreamQueueCapacity(int streamQueueCapacity) {
+		this.streamQueueCapacity = streamQueueCapacity;
+	}
+
+	public int getDefaultPageSize() {
+		return defaultPageSize;
+	}
+
+	public void setDefaultPageSize(int defaultPageSize) {
+		this.defaultPageSize = defaultPageSize;
+	}
+
+	public int getMaxPageSize() {
+		return maxPageSize;
+	}
+
+	public void setMaxPageSize(int maxPageSize) {
+		this.maxPageSize = maxPageSize;
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.service.LatestCoinPriceCache;
+
+/**
+ * Configures the in-process cache that serves {@code GET /coin-price/latest/{code}}.
+ */
+@Configuration
+@EnableConfigurationProperties(LatestPriceCacheProperties.class)
+public class LatestPriceCacheConfig {
+
+	@Bean
+	public LatestCoinPriceCache latestCoinPriceCache(LatestPriceCacheProperties properties) {
+		return new LatestCoinPriceCache(properties);
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the in-process latest-price cache, bound from {@code simple-executor.latest-price-cache.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.latest-price-cache")
+public class LatestPriceCacheProperties {
+
+	/**
+	 * Whether latest-price reads are served from memory.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * How long a cached price is served before it is reloaded from the database.
+	 */
+	private Duration ttl = Duration.ofSeconds(60);
+
+	/**
+	 * Maximum number of coin codes kept in the cache.
+	 */
+	private int maxSize = 10_000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getTtl() {
+		return ttl;
+	}
+
+	public void setTtl(Duration ttl) {
+		this.ttl = ttl;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+}
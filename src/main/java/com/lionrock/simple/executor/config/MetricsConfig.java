@@ -0,0 +1,208 @@
+package com.lionrock.simple.executor.config;
+
+import java.util.function.ToLongFunction;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.analytics.PriceAnalyticsEngine;
+import com.lionrock.simple.executor.concurrent.AdaptiveConcurrencyLimiter;
+import com.lionrock.simple.executor.concurrent.InstrumentedExecutorService;
+import com.lionrock.simple.executor.concurrent.KeyedExecutor;
+import com.lionrock.simple.executor.journal.TickJournal;
+import com.lionrock.simple.executor.metrics.MapperMetricsInterceptor;
+import com.lionrock.simple.executor.metrics.TaskExecutorMetrics;
+import com.lionrock.simple.executor.service.CoinPricePoller;
+import com.lionrock.simple.executor.service.PriceDeadbandFilter;
+import com.lionrock.simple.executor.stream.CoinPriceStreamHub;
+import com.lionrock.simple.executor.trace.TaskTracer;
+import com.lionrock.simple.executor.trace.TraceFileDumper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Registers the application's meters with the Micrometer registry that Spring Boot Actuator exposes at
+ * {@code /actuator/prometheus}.
+ * <p>
+ * The task executors are bound through a {@link io.micrometer.core.instrument.binder.MeterBinder} rather than given the
+ * registry directly, so the executor beans have no dependency on metrics and the registry can in turn depend on
+ * anything it likes. The MyBatis interceptor is picked up by the MyBatis auto-configuration like any other
+ * {@link org.apache.ibatis.plugin.Interceptor} bean.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(MetricsProperties.class)
+public class MetricsConfig {
+
+	@Bean
+	public TaskExecutorMetrics coinPriceTaskExecutorMetrics(InstrumentedExecutorService coinPriceTaskExecutor,
+			MetricsProperties properties) {
+		return new TaskExecutorMetrics(coinPriceTaskExecutor, "coinPriceTaskExecutor", properties.isTaskTiming());
+	}
+
+	@Bean
+	public TaskExecutorMetrics priceFetchExecutorMetrics(InstrumentedExecutorService priceFetchExecutor,
+			MetricsProperties properties) {
+		return new TaskExecutorMetrics(priceFetchExecutor, "priceFetchExecutor", properties.isTaskTiming());
+	}
+
+	/**
+	 * Reports how many coins have tasks running or queued in the keyed executor and how many tasks were coalesced.
+	 */
+	@Bean
+	public MeterBinder coinPriceKeyedExecutorMetrics(KeyedExecutor coinPriceKeyedExecutor) {
+		return registry -> {
+			Gauge.builder("executor.keyed.active.keys", coinPriceKeyedExecutor, KeyedExecutor::getActiveKeyCount)
+					.description("The number of keys with a task running or queued").tag("name", "coinPriceKeyedExecutor")
+					.register(registry);
+			FunctionCounter.builder("executor.keyed.coalesced", coinPriceKeyedExecutor,
+					KeyedExecutor::getCoalescedCount)
+					.description("The number of tasks replaced by a newer task of the same key before running")
+					.tag("name", "coinPriceKeyedExecutor").register(registry);
+		};
+	}
+
+	/**
+	 * Reports the adaptive database concurrency limit, the calls running under it and the calls it shed.
+	 */
+	@Bean
+	public MeterBinder databaseConcurrencyLimiterMetrics(AdaptiveConcurrencyLimiter databaseConcurrencyLimiter) {
+		return registry -> {
+			Gauge.builder("concurrency.limit", databaseConcurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+					.description("The current adaptive concurrency limit").tag("name", "database").register(registry);
+			Gauge.builder("concurrency.limit.in.flight", databaseConcurrencyLimiter,
+					AdaptiveConcurrencyLimiter::getInFlight)
+					.description("The number of calls running under the limit").tag("name", "database")
+					.register(registry);
+			FunctionCounter.builder("concurrency.limit.shed", databaseConcurrencyLimiter,
+					AdaptiveConcurrencyLimiter::getShedCount)
+					.description("The number of calls shed because the limit was reached").tag("name", "database")
+					.register(registry);
+			FunctionCounter.builder("concurrency.limit.backoffs", databaseConcurrencyLimiter,
+					AdaptiveConcurrencyLimiter::getBackoffCount)
+					.description("The number of times the limit was lowered").tag("name", "database")
+					.register(registry);
+		};
+	}
+
+	/**
+	 * Counts the outcomes of scheduled polls; all zero while polling is disabled.
+	 * <p>
+	 * The poller is looked up when the counters are read rather than when they are bound: binders are applied as
+	 * soon as the registry is created, and the poller depends on mappers whose MyBatis setup itself needs the
+	 * registry for the statement timing interceptor.
+	 * </p>
+	 */
+	@Bean
+	public MeterBinder coinPricePollerMetrics(ObjectProvider<CoinPricePoller> coinPricePoller) {
+		return registry -> {
+			pollCounter(registry, "dispatched", coinPricePoller, CoinPricePoller::getDispatchedCount);
+			pollCounter(registry, "skipped_running", coinPricePoller, CoinPricePoller::getSkippedRunningCount);
+			pollCounter(registry, "skipped_saturated", coinPricePoller, CoinPricePoller::getSkippedSaturatedCount);
+			pollCounter(registry, "rejected", coinPricePoller, CoinPricePoller::getRejectedCount);
+			pollCounter(registry, "failed", coinPricePoller, CoinPricePoller::getFailedCount);
+		};
+	}
+
+	/**
+	 * Reports the open price streams and how many price events were sent, conflated or lost to closed connections.
+	 */
+	@Bean
+	public MeterBinder coinPriceStreamMetrics(CoinPriceStreamHub coinPriceStreamHub) {
+		return registry -> {
+			Gauge.builder("coin.stream.subscribers", coinPriceStreamHub, CoinPriceStreamHub::getSubscriberCount)
+					.description("The number of open price streams").register(registry);
+			FunctionCounter.builder("coin.stream.events", coinPriceStreamHub, CoinPriceStreamHub::getSentCount)
+					.description("Price events by outcome").tag("outcome", "sent").register(registry);
+			FunctionCounter.builder("coin.stream.events", coinPriceStreamHub, CoinPriceStreamHub::getConflatedCount)
+					.description("Price events by outcome").tag("outcome", "conflated").register(registry);
+			FunctionCounter.builder("coin.stream.disconnects", coinPriceStreamHub,
+					CoinPriceStreamHub::getDisconnectedCount)
+					.description("The number of price streams closed because a write failed").register(registry);
+		};
+	}
+
+	/**
+	 * Reports how many bucket summaries the analytics engine took from its cache or computed, and how many it holds.
+	 * <p>
+	 * Like the poller, the engine depends on a mapper and is therefore looked up when the meters are read.
+	 * </p>
+	 */
+	@Bean
+	public MeterBinder priceAnalyticsMetrics(ObjectProvider<PriceAnalyticsEngine> priceAnalyticsEngine) {
+		return registry -> {
+			FunctionCounter.builder("coin.analytics.buckets", priceAnalyticsEngine,
+					engine -> engine.getObject().getCachedBucketCount()).description("Bucket summaries by source")
+					.tag("source", "cache").register(registry);
+			FunctionCounter.builder("coin.analytics.buckets", priceAnalyticsEngine,
+					engine -> engine.getObject().getComputedBucketCount()).description("Bucket summaries by source")
+					.tag("source", "computed").register(registry);
+			Gauge.builder("coin.analytics.cache.size", priceAnalyticsEngine,
+					engine -> engine.getObject().getCacheSize())
+					.description("The number of cached summaries of closed buckets").register(registry);
+		};
+	}
+
+	/**
+	 * Reports how many fetched prices the deadband let through to the database and how many it skipped.
+	 */
+	@Bean
+	public MeterBinder priceDeadbandMetrics(PriceDeadbandFilter priceDeadbandFilter) {
+		return registry -> {
+			FunctionCounter.builder("coin.price.deadband", priceDeadbandFilter, PriceDeadbandFilter::getStoredCount)
+					.description("Fetched prices by deadband outcome").tag("outcome", "stored").register(registry);
+			FunctionCounter.builder("coin.price.deadband", priceDeadbandFilter, PriceDeadbandFilter::getSkippedCount)
+					.description("Fetched prices by deadband outcome").tag("outcome", "skipped").register(registry);
+		};
+	}
+
+	/**
+	 * Reports how many task events were traced and, with a trace file, how many were overwritten before being written.
+	 */
+	@Bean
+	public MeterBinder taskTracerMetrics(TaskTracer taskTracer, ObjectProvider<TraceFileDumper> traceFileDumper) {
+		return registry -> {
+			FunctionCounter.builder("task.trace.events", taskTracer, TaskTracer::getLastSequence)
+					.description("The number of task lifecycle events traced").register(registry);
+			traceFileDumper.ifAvailable(dumper -> FunctionCounter
+					.builder("task.trace.file.lost", dumper, TraceFileDumper::getLostCount)
+					.description("The number of traced events overwritten before they were written to the trace file")
+					.register(registry));
+		};
+	}
+
+	/**
+	 * Reports how far the write-behind journal is ahead of the database; registers nothing without a journal.
+	 */
+	@Bean
+	public MeterBinder coinPriceJournalMetrics(ObjectProvider<TickJournal> coinPriceJournal) {
+		return registry -> coinPriceJournal.ifAvailable(journal -> {
+			Gauge.builder("write.behind.journal.lag", journal, TickJournal::getLag)
+					.description("The number of journaled coin prices not yet written to the database")
+					.register(registry);
+			Gauge.builder("write.behind.journal.segments", journal, TickJournal::getSegmentCount)
+					.description("The number of journal segment files").register(registry);
+		});
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "simple-executor.metrics", name = "mapper-timing", havingValue = "true",
+			matchIfMissing = true)
+	public MapperMetricsInterceptor mapperMetricsInterceptor(MeterRegistry meterRegistry,
+			MetricsProperties properties) {
+		return new MapperMetricsInterceptor(meterRegistry, properties.isMapperCodeTag(), properties.getMaxCodeTags());
+	}
+
+	private static void pollCounter(MeterRegistry registry, String outcome, ObjectProvider<CoinPricePoller> poller,
+			ToLongFunction<CoinPricePoller> count) {
+		FunctionCounter.builder("coin.poller.polls", poller, p -> count.applyAsLong(p.getObject()))
+				.description("Scheduled coin price polls by outcome").tag("outcome", outcome).register(registry);
+	}
+
+}
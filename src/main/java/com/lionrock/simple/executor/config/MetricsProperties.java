@@ -0,0 +1,63 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the application's own Micrometer meters, bound from {@code simple-executor.metrics.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.metrics")
+public class MetricsProperties {
+
+	/**
+	 * Whether the queue wait and run time of every executor task is recorded.
+	 */
+	private boolean taskTiming = true;
+
+	/**
+	 * Whether MyBatis mapper statements are timed.
+	 */
+	private boolean mapperTiming = true;
+
+	/**
+	 * Whether mapper statement timers are tagged with the coin code.
+	 */
+	private boolean mapperCodeTag = true;
+
+	/**
+	 * Maximum number of distinct coin codes used as tags; further codes are tagged {@code other}.
+	 */
+	private int maxCodeTags = 100;
+
+	public boolean isTaskTiming() {
+		return taskTiming;
+	}
+
+	public void setTaskTiming(boolean taskTiming) {
+		this.taskTiming = taskTiming;
+	}
+
+	public boolean isMapperTiming() {
+		return mapperTiming;
+	}
+
+	public void setMapperTiming(boolean mapperTiming) {
+		this.mapperTiming = mapperTiming;
+	}
+
+	public boolean isMapperCodeTag() {
+		return mapperCodeTag;
+	}
+
+	public void setMapperCodeTag(boolean mapperCodeTag) {
+		this.mapperCodeTag = mapperCodeTag;
+	}
+
+	public int getMaxCodeTags() {
+		return maxCodeTags;
+	}
+
+	public void setMaxCodeTags(int maxCodeTags) {
+		this.maxCodeTags = maxCodeTags;
+	}
+
+}
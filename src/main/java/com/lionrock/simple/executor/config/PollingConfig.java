@@ -0,0 +1,25 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.concurrent.KeyedExecutor;
+import com.lionrock.simple.executor.service.CoinPricePoller;
+import com.lionrock.simple.executor.service.CoinPriceService;
+import com.lionrock.simple.executor.service.CoinRegistryService;
+
+/**
+ * Configures the poller that refreshes the price of every registered coin at the coin's own interval.
+ */
+@Configuration
+@EnableConfigurationProperties(PollingProperties.class)
+public class PollingConfig {
+
+	@Bean
+	public CoinPricePoller coinPricePoller(CoinRegistryService coinRegistryService, CoinPriceService coinPriceService,
+			KeyedExecutor coinPriceKeyedExecutor, PollingProperties properties) {
+		return new CoinPricePoller(coinRegistryService, coinPriceService, coinPriceKeyedExecutor, properties);
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the coin registry and the scheduled price poller, bound from {@code simple-executor.polling.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.polling")
+public class PollingProperties {
+
+	/**
+	 * Whether registered coins are polled on a schedule; otherwise prices are only refreshed on request.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Number of scheduler threads the registered coins are spread across.
+	 */
+	private int shards = 4;
+
+	/**
+	 * How often each shard checks which of its coins are due.
+	 */
+	private Duration tickInterval = Duration.ofMillis(100);
+
+	/**
+	 * Fraction of the poll interval by which each refresh is moved earlier or later at random.
+	 */
+	private double jitter = 0.1;
+
+	/**
+	 * Maximum number of polls running at once; coins that fall due beyond it are skipped until their next turn.
+	 */
+	private int maxInFlight = 256;
+
+	/**
+	 * How often the registry is re-read, picking up changes made by other instances.
+	 */
+	private Duration registryRefreshInterval = Duration.ofSeconds(30);
+
+	/**
+	 * Poll interval of coins registered without one.
+	 */
+	private Duration defaultInterval = Duration.ofSeconds(5);
+
+	/**
+	 * Shortest poll interval a coin may be registered with.
+	 */
+	private Duration minInterval = Duration.ofMillis(100);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getShards() {
+		return shards;
+	}
+
+	public void setShards(int shards) {
+		this.shards = shards;
+	}
+
+	public Duration getTickInterval() {
+		return tickInterval;
+	}
+
+	public void setTickInterval(Duration tickInterval) {
+		this.tickInterval = tickInterval;
+	}
+
+	public double getJitter() {
+		return jitter;
+	}
+
+	public void setJitter(double jitter) {
+		this.jitter = jitter;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	public Duration getRegistryRefreshInterval() {
+		return registryRefreshInterval;
+	}
+
+	public void setRegistryRefreshInterval(Duration registryRefreshInterval) {
+		this.registryRefreshInterval = registryRefreshInterval;
+	}
+
+	public Duration getDefaultInterval() {
+		return defaultInterval;
+	}
+
+	public void setDefaultInterval(Duration defaultInterval) {
+		this.defaultInterval = defaultInterval;
+	}
+
+	public Duration getMinInterval() {
+		return minInterval;
+	}
+
+	public void setMinInterval(Duration minInterval) {
+		this.minInterval = minInterval;
+	}
+
+}
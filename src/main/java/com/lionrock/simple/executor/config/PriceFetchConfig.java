@@ -0,0 +1,115 @@
+package com.lionrock.simple.executor.config;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lionrock.simple.executor.concurrent.BoundedThreadPerTaskExecutor;
+import com.lionrock.simple.executor.concurrent.ExecutorMode;
+import com.lionrock.simple.executor.concurrent.InstrumentedExecutorService;
+import com.lionrock.simple.executor.concurrent.InstrumentedThreadPoolExecutor;
+import com.lionrock.simple.executor.concurrent.RejectionPolicy;
+import com.lionrock.simple.executor.concurrent.VirtualThreads;
+import com.lionrock.simple.executor.source.HedgedPriceFetcher;
+import com.lionrock.simple.executor.source.HttpPriceSource;
+import com.lionrock.simple.executor.source.PriceSource;
+import com.lionrock.simple.executor.source.SimulatedPriceSource;
+
+/**
+ * Configuration of how coin prices are fetched before they are inserted.
+ * <p>
+ * The {@link PriceSource}s listed in {@link PriceFetchProperties} are asked for every price by a
+ * {@link HedgedPriceFetcher}. Its requests run on a dedicated executor. In {@link ExecutorMode#PLATFORM} mode that is
+ * a pool of reused threads, one for every source of each fetch the coin price task executor can run at once, which
+ * rejects requests beyond them; in {@link ExecutorMode#VIRTUAL} mode it starts a virtual thread per request. The
+ * executor is shut down when the context closes, after the coin price task executor has drained; any request still
+ * running by then is interrupted.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(PriceFetchProperties.class)
+public class PriceFetchConfig {
+
+	@Bean(destroyMethod = "shutdownNow")
+	public InstrumentedExecutorService priceFetchExecutor(PriceFetchProperties properties,
+			TaskExecutorProperties taskExecutorProperties) {
+		if (taskExecutorProperties.getMode() == ExecutorMode.VIRTUAL) {
+			return new BoundedThreadPerTaskExecutor(VirtualThreads.newThreadFactory(properties.getThreadNamePrefix()),
+					properties.getMaxConcurrency(), RejectionPolicy.REJECT, Duration.ZERO);
+		}
+		// hedged requests must start at once rather than queue behind slow ones, so the pool hands off directly
+		int maxThreads = Math.min(properties.getMaxConcurrency(),
+				Math.max(1, sourceCount(properties)) * taskExecutorProperties.getMaxPoolSize());
+		InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(maxThreads, maxThreads,
+				taskExecutorProperties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+				new CustomizableThreadFactory(properties.getThreadNamePrefix()), new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	@Bean
+	public HedgedPriceFetcher hedgedPriceFetcher(PriceFetchProperties properties,
+			InstrumentedExecutorService priceFetchExecutor, Environment environment, ObjectMapper objectMapper) {
+		List<PriceSource> sources = new ArrayList<>();
+		for (PriceFetchProperties.SimulatedSource source : properties.getSimulated()) {
+			sources.add(simulatedPriceSource(source));
+		}
+		PriceFetchProperties.HttpStub httpStub = properties.getHttpStub();
+		if (httpStub.isEnabled()) {
+			HttpClient httpClient = HttpClient.newBuilder().connectTimeout(httpStub.getConnectTimeout()).build();
+			sources.add(new HttpPriceSource(httpStub.getName(), httpClient, () -> stubUri(httpStub, environment),
+					properties.getDeadline(), objectMapper));
+		}
+		return new HedgedPriceFetcher(sources, priceFetchExecutor, properties.getDeadline(),
+				properties.getHedgeDelay());
+	}
+
+	/**
+	 * The source behind the stub endpoint served by
+	 * {@link com.lionrock.simple.executor.controller.PriceStubController}.
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "simple-executor.price-fetch.http-stub", name = "enabled", havingValue = "true")
+	public SimulatedPriceSource priceStubSource(PriceFetchProperties properties) {
+		return simulatedPriceSource(properties.getHttpStub());
+	}
+
+	private static int sourceCount(PriceFetchProperties properties) {
+		return properties.getSimulated().size() + (properties.getHttpStub().isEnabled() ? 1 : 0);
+	}
+
+	private SimulatedPriceSource simulatedPriceSource(PriceFetchProperties.SimulatedSource source) {
+		return new SimulatedPriceSource(source.getName(), source.getDistribution(), source.getMin(), source.getMax(),
+				source.getMedian(), source.getSigma(), source.getFailureRate());
+	}
+
+	/**
+	 * Resolves the stub's base URI, pointing at this application once its web server has started unless a URL is
+	 * configured.
+	 */
+	private URI stubUri(PriceFetchProperties.HttpStub httpStub, Environment environment) {
+		if (httpStub.getUrl() != null) {
+			return URI.create(httpStub.getUrl());
+		}
+		String port = environment.getProperty("local.server.port");
+		if (port == null) {
+			throw new IllegalStateException("The web server serving the price stub is not running");
+		}
+		return URI.create("http://localhost:" + port + environment.getProperty("server.servlet.context-path", "")
+				+ "/stub/price");
+	}
+
+}
@@ -0,0 +1,249 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.lionrock.simple.executor.source.LatencyDistribution;
+
+/**
+ * Settings of the price sources and the hedged fetching across them, bound from
+ * {@code simple-executor.price-fetch.*}.
+ * <p>
+ * Benchmarks and load tests replace the simulated sources with a single fixed-latency one to measure the executor and
+ * persistence paths rather than the sleep.
+ * </p>
+ */
+@ConfigurationProperties(prefix = "simple-executor.price-fetch")
+public class PriceFetchProperties {
+
+	/**
+	 * Longest a single price fetch may take across all hedged requests.
+	 */
+	private Duration deadline = Duration.ofSeconds(5);
+
+	/**
+	 * How long to wait for an answer before asking the next source; zero asks every source at once.
+	 */
+	private Duration hedgeDelay = Duration.ZERO;
+
+	/**
+	 * Maximum number of requests to price sources in flight at once; further requests are rejected. In platform mode
+	 * the pool is also capped at one thread per source for each thread of the coin price task executor.
+	 */
+	private int maxConcurrency = 10_000;
+
+	/**
+	 * Prefix of the names of the threads running requests to price sources.
+	 */
+	private String threadNamePrefix = "price-fetch-";
+
+	/**
+	 * Simulated price sources, asked in the order they are listed.
+	 */
+	private List<SimulatedSource> simulated = new ArrayList<>(List.of(new SimulatedSource()));
+
+	/**
+	 * Price source served over HTTP by this application's own stub endpoint, asked after the simulated sources.
+	 */
+	private HttpStub httpStub = new HttpStub();
+
+	public Duration getDeadline() {
+		return deadline;
+	}
+
+	public void setDeadline(Duration deadline) {
+		this.deadline = deadline;
+	}
+
+	public Duration getHedgeDelay() {
+		return hedgeDelay;
+	}
+
+	public void setHedgeDelay(Duration hedgeDelay) {
+		this.hedgeDelay = hedgeDelay;
+	}
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public String getThreadNamePrefix() {
+		return threadNamePrefix;
+	}
+
+	public void setThreadNamePrefix(String threadNamePrefix) {
+		this.threadNamePrefix = threadNamePrefix;
+	}
+
+	public List<SimulatedSource> getSimulated() {
+		return simulated;
+	}
+
+	public void setSimulated(List<SimulatedSource> simulated) {
+		this.simulated = simulated;
+	}
+
+	public HttpStub getHttpStub() {
+		return httpStub;
+	}
+
+	public void setHttpStub(HttpStub httpStub) {
+		this.httpStub = httpStub;
+	}
+
+	/**
+	 * Latency and reliability of a simulated price source.
+	 */
+	public static class SimulatedSource {
+
+		/**
+		 * Name of the source, recorded as the updater of the prices it provides.
+		 */
+		private String name = "simulated";
+
+		/**
+		 * Shape of the simulated latency.
+		 */
+		private LatencyDistribution distribution = LatencyDistribution.UNIFORM;
+
+		/**
+		 * Shortest simulated fetch.
+		 */
+		private Duration min = Duration.ZERO;
+
+		/**
+		 * Longest simulated fetch.
+		 */
+		private Duration max = Duration.ofSeconds(2);
+
+		/**
+		 * Median of the delay added to {@code min} by the exponential and log-normal distributions.
+		 */
+		private Duration median = Duration.ofMillis(200);
+
+		/**
+		 * Shape of the log-normal distribution; larger values give a longer tail.
+		 */
+		private double sigma = 1.0;
+
+		/**
+		 * Probability that a fetch fails after its latency instead of answering.
+		 */
+		private double failureRate = 0;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public LatencyDistribution getDistribution() {
+			return distribution;
+		}
+
+		public void setDistribution(LatencyDistribution distribution) {
+			this.distribution = distribution;
+		}
+
+		public Duration getMin() {
+			return min;
+		}
+
+		public void setMin(Duration min) {
+			this.min = min;
+		}
+
+		public Duration getMax() {
+			return max;
+		}
+
+		public void setMax(Duration max) {
+			this.max = max;
+		}
+
+		public Duration getMedian() {
+			return median;
+		}
+
+		public void setMedian(Duration median) {
+			this.median = median;
+		}
+
+		public double getSigma() {
+			return sigma;
+		}
+
+		public void setSigma(double sigma) {
+			this.sigma = sigma;
+		}
+
+		public double getFailureRate() {
+			return failureRate;
+		}
+
+		public void setFailureRate(double failureRate) {
+			this.failureRate = failureRate;
+		}
+
+	}
+
+	/**
+	 * The local HTTP stub: the endpoint answers like a simulated source, and an HTTP source fetches from it.
+	 */
+	public static class HttpStub extends SimulatedSource {
+
+		/**
+		 * Whether the stub endpoint is served and asked for prices.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Base URL prices are fetched from; defaults to this application's own {@code /stub/price} endpoint.
+		 */
+		private String url;
+
+		/**
+		 * Longest to wait for a connection to the stub.
+		 */
+		private Duration connectTimeout = Duration.ofSeconds(1);
+
+		public HttpStub() {
+			setName("http-stub");
+		}
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public Duration getConnectTimeout() {
+			return connectTimeout;
+		}
+
+		public void setConnectTimeout(Duration connectTimeout) {
+			this.connectTimeout = connectTimeout;
+		}
+
+	}
+
+}
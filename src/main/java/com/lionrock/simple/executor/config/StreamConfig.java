@@ -0,0 +1,42 @@
+package com.lionrock.simple.executor.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.lionrock.simple.executor.concurrent.ExecutorMode;
+import com.lionrock.simple.executor.concurrent.VirtualThreads;
+import com.lionrock.simple.executor.stream.CoinPriceStreamHub;
+
+/**
+ * Configures the hub that pushes inserted coin prices to subscribers of {@code /coin-price/stream}.
+ * <p>
+ * Events are written on their own sender threads, never on the thread inserting the price, so a subscriber whose
+ * connection is slow holds up at most one sender and never a writer.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(StreamProperties.class)
+public class StreamConfig {
+
+	@Bean(destroyMethod = "shutdownNow")
+	public ExecutorService priceStreamSenderExecutor(StreamProperties properties,
+			TaskExecutorProperties taskExecutorProperties) {
+		if (taskExecutorProperties.getMode() == ExecutorMode.VIRTUAL) {
+			return VirtualThreads.newThreadPerTaskExecutor();
+		}
+		return Executors.newFixedThreadPool(properties.getSenderThreads(),
+				new CustomizableThreadFactory("price-stream-"));
+	}
+
+	@Bean
+	public CoinPriceStreamHub coinPriceStreamHub(ExecutorService priceStreamSenderExecutor,
+			StreamProperties properties) {
+		return new CoinPriceStreamHub(priceStreamSenderExecutor, properties);
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the server-sent price stream at {@code /coin-price/stream}, bound from
+ * {@code simple-executor.stream.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.stream")
+public class StreamProperties {
+
+	/**
+	 * Maximum number of open streams; further subscriptions are refused with {@code 503 Service Unavailable}.
+	 */
+	private int maxSubscribers = 10_000;
+
+	/**
+	 * Maximum number of coin codes one stream may subscribe to.
+	 */
+	private int maxCodes = 1_000;
+
+	/**
+	 * Number of threads writing events to subscribers; ignored when the task executor runs on virtual threads, in
+	 * which case every delivery gets its own virtual thread.
+	 */
+	private int senderThreads = 4;
+
+	/**
+	 * How often an idle stream is sent a comment, which keeps proxies from closing it and detects departed clients.
+	 */
+	private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+	/**
+	 * Longest writing one event to a stream may block before the stream is closed and its sender thread released.
+	 */
+	private Duration sendTimeout = Duration.ofSeconds(10);
+
+	/**
+	 * How long a stream stays open before the client has to reconnect.
+	 */
+	private Duration timeout = Duration.ofMinutes(30);
+
+	public int getMaxSubscribers() {
+		return maxSubscribers;
+	}
+
+	public void setMaxSubscribers(int maxSubscribers) {
+		this.maxSubscribers = maxSubscribers;
+	}
+
+	public int getMaxCodes() {
+		return maxCodes;
+	}
+
+	public void setMaxCodes(int maxCodes) {
+		this.maxCodes = maxCodes;
+	}
+
+	public int getSenderThreads() {
+		return senderThreads;
+	}
+
+	public void setSenderThreads(int senderThreads) {
+		this.senderThreads = senderThreads;
+	}
+
+	public Duration getHeartbeatInterval() {
+		return heartbeatInterval;
+	}
+
+	public void setHeartbeatInterval(Duration heartbeatInterval) {
+		this.heartbeatInterval = heartbeatInterval;
+	}
+
+	public Duration getSendTimeout() {
+		return sendTimeout;
+	}
+
+	public void setSendTimeout(Duration sendTimeout) {
+		this.sendTimeout = sendTimeout;
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.lionrock.simple.executor.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.lionrock.simple.executor.concurrent.BlockingRejectedExecutionHandler;
+import com.lionrock.simple.executor.concurrent.BoundedThreadPerTaskExecutor;
+import com.lionrock.simple.executor.concurrent.ExecutorMode;
+import com.lionrock.simple.executor.concurrent.InstrumentedExecutorService;
+import com.lionrock.simple.executor.concurrent.InstrumentedThreadPoolExecutor;
+import com.lionrock.simple.executor.concurrent.KeyedExecutor;
+import com.lionrock.simple.executor.concurrent.VirtualThreads;
+
+/**
+ * Configures the single, application-wide {@link ExecutorService} used to run coin price tasks.
+ * <p>
+ * Controllers used to create a fresh fixed thread pool on every HTTP request. This configuration replaces that with
+ * one bounded pool whose sizing, queue capacity and saturation behaviour come from {@link TaskExecutorProperties}.
+ * The pool is drained gracefully on shutdown by {@link TaskExecutorLifecycle}.
+ * </p>
+ * <p>
+ * In {@link ExecutorMode#VIRTUAL} mode the pool is replaced by a {@link BoundedThreadPerTaskExecutor} that starts a
+ * virtual thread per task. The tasks spend nearly all of their time blocked, so this lets tens of thousands of them
+ * wait concurrently without tying up platform threads.
+ * </p>
+ * <p>
+ * Endpoints and the poller submit through a {@link KeyedExecutor} layered on the pool, which serializes the tasks of
+ * each coin.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(TaskExecutorProperties.class)
+public class TaskExecutorConfig {
+
+	@Bean(destroyMethod = "")
+	public InstrumentedExecutorService coinPriceTaskExecutor(TaskExecutorProperties properties) {
+		if (properties.getMode() == ExecutorMode.VIRTUAL) {
+			return new BoundedThreadPerTaskExecutor(VirtualThreads.newThreadFactory(properties.getThreadNamePrefix()),
+					properties.getVirtualMaxConcurrency(), properties.getRejectionPolicy(),
+					properties.getBlockTimeout());
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(properties.getThreadNamePrefix());
+		InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(properties.getCorePoolSize(),
+				properties.getMaxPoolSize(), properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(properties.getQueueCapacity()), threadFactory,
+				rejectedExecutionHandler(properties));
+		executor.prestartCoreThread();
+		return executor;
+	}
+
+	/**
+	 * Orders coin price tasks by coin on top of the shared executor: tasks of one coin run one at a time in
+	 * submission order, so two prices of the same coin are never written concurrently or committed out of order,
+	 * while different coins still run in parallel.
+	 */
+	@Bean
+	public KeyedExecutor coinPriceKeyedExecutor(InstrumentedExecutorService coinPriceTaskExecutor,
+			TaskExecutorProperties properties) {
+		return new KeyedExecutor(coinPriceTaskExecutor, properties.isCoalesceByCode());
+	}
+
+	/**
+	 * Hands Tomcat request processing to virtual threads, so a request blocked on a task or the database no longer
+	 * holds one of a few hundred platform worker threads.
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "simple-executor.task-executor", name = "virtual-request-threads",
+			havingValue = "true")
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor());
+	}
+
+	@Bean
+	public TaskExecutorLifecycle taskExecutorLifecycle(ExecutorService coinPriceTaskExecutor,
+			TaskExecutorProperties properties) {
+		return new TaskExecutorLifecycle(coinPriceTaskExecutor, properties.getAwaitTermination());
+	}
+
+	private RejectedExecutionHandler rejectedExecutionHandler(TaskExecutorProperties properties) {
+		switch (properties.getRejectionPolicy()) {
+		case REJECT:
+			return new ThreadPoolExecutor.AbortPolicy();
+		case BLOCK:
+			return new BlockingRejectedExecutionHandler(properties.getBlockTimeout());
+		case CALLER_RUNS:
+		default:
+			return new ThreadPoolExecutor.CallerRunsPolicy();
+		}
+	}
+
+}
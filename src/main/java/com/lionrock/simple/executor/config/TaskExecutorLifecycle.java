@@ -0,0 +1,70 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Drains the shared task executor when the application shuts down.
+ * <p>
+ * The lifecycle phase is lower than the web server's graceful shutdown phase, so in-flight HTTP requests are allowed
+ * to finish submitting work before the executor stops accepting it. Queued and running tasks are then given
+ * {@code awaitTermination} to complete before the remaining workers are interrupted.
+ * </p>
+ */
+public class TaskExecutorLifecycle implements SmartLifecycle {
+
+	/**
+	 * Stops after the embedded web server's graceful shutdown and before components that persist task output.
+	 */
+	public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 3072;
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskExecutorLifecycle.class);
+
+	private final ExecutorService executorService;
+	private final Duration awaitTermination;
+	private volatile boolean running;
+
+	public TaskExecutorLifecycle(ExecutorService executorService, Duration awaitTermination) {
+		this.executorService = executorService;
+		this.awaitTermination = awaitTermination;
+	}
+
+	@Override
+	public void start() {
+		running = true;
+	}
+
+	@Override
+	public void stop() {
+		executorService.shutdown();
+		try {
+			if (!executorService.awaitTermination(awaitTermination.toMillis(), TimeUnit.MILLISECONDS)) {
+				List<Runnable> dropped = executorService.shutdownNow();
+				logger.warn("Task executor did not drain within {}, interrupted running tasks and dropped {} queued",
+						awaitTermination, dropped.size());
+			}
+		} catch (InterruptedException e) {
+			executorService.shutdownNow();
+			Thread.currentThread().interrupt();
+		} finally {
+			running = false;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+}
@@ -0,0 +1,173 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.lionrock.simple.executor.concurrent.ExecutorMode;
+import com.lionrock.simple.executor.concurrent.RejectionPolicy;
+
+/**
+ * Settings of the application-wide task executor, bound from {@code simple-executor.task-executor.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.task-executor")
+public class TaskExecutorProperties {
+
+	/**
+	 * Whether tasks run on a platform thread pool or on one virtual thread each.
+	 */
+	private ExecutorMode mode = ExecutorMode.PLATFORM;
+
+	/**
+	 * Maximum number of tasks running at once in {@link ExecutorMode#VIRTUAL} mode.
+	 */
+	private int virtualMaxConcurrency = 10_000;
+
+	/**
+	 * Whether Tomcat handles HTTP requests on virtual threads. Requires Java 21 or later.
+	 */
+	private boolean virtualRequestThreads = false;
+
+	/**
+	 * Number of threads kept alive even when idle.
+	 */
+	private int corePoolSize = 4;
+
+	/**
+	 * Upper bound on the number of threads; extra threads are only started once the queue is full.
+	 */
+	private int maxPoolSize = 8;
+
+	/**
+	 * Capacity of the bounded work queue.
+	 */
+	private int queueCapacity = 100;
+
+	/**
+	 * How long threads above the core size may stay idle before being retired.
+	 */
+	private Duration keepAlive = Duration.ofSeconds(60);
+
+	/**
+	 * What to do with a task once the pool and queue are both full.
+	 */
+	private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+	/**
+	 * How long a submitter waits for queue space under {@link RejectionPolicy#BLOCK}.
+	 */
+	private Duration blockTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * How long shutdown waits for queued and running tasks before interrupting them.
+	 */
+	private Duration awaitTermination = Duration.ofSeconds(30);
+
+	/**
+	 * Prefix of worker thread names.
+	 */
+	private String threadNamePrefix = "coin-price-task-";
+
+	/**
+	 * Whether a coin price task queued behind another pending task of the same coin replaces it, so a backlog for one
+	 * coin is cleared with a single insert.
+	 */
+	private boolean coalesceByCode = false;
+
+	public ExecutorMode getMode() {
+		return mode;
+	}
+
+	public void setMode(ExecutorMode mode) {
+		this.mode = mode;
+	}
+
+	public int getVirtualMaxConcurrency() {
+		return virtualMaxConcurrency;
+	}
+
+	public void setVirtualMaxConcurrency(int virtualMaxConcurrency) {
+		this.virtualMaxConcurrency = virtualMaxConcurrency;
+	}
+
+	public boolean isVirtualRequestThreads() {
+		return virtualRequestThreads;
+	}
+
+	public void setVirtualRequestThreads(boolean virtualRequestThreads) {
+		this.virtualRequestThreads = virtualRequestThreads;
+	}
+
+	public int getCorePoolSize() {
+		return corePoolSize;
+	}
+
+	public void setCorePoolSize(int corePoolSize) {
+		this.corePoolSize = corePoolSize;
+	}
+
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	public void setMaxPoolSize(int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public Duration getKeepAlive() {
+		return keepAlive;
+	}
+
+	public void setKeepAlive(Duration keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	public RejectionPolicy getRejectionPolicy() {
+		return rejectionPolicy;
+	}
+
+	public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+		this.rejectionPolicy = rejectionPolicy;
+	}
+
+	public Duration getBlockTimeout() {
+		return blockTimeout;
+	}
+
+	public void setBlockTimeout(Duration blockTimeout) {
+		this.blockTimeout = blockTimeout;
+	}
+
+	public Duration getAwaitTermination() {
+		return awaitTermination;
+	}
+
+	public void setAwaitTermination(Duration awaitTermination) {
+		this.awaitTermination = awaitTermination;
+	}
+
+	public String getThreadNamePrefix() {
+		return threadNamePrefix;
+	}
+
+	public void setThreadNamePrefix(String threadNamePrefix) {
+		this.threadNamePrefix = threadNamePrefix;
+	}
+
+	public boolean isCoalesceByCode() {
+		return coalesceByCode;
+	}
+
+	public void setCoalesceByCode(boolean coalesceByCode) {
+		this.coalesceByCode = coalesceByCode;
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.tick.TickStore;
+
+/**
+ * Configures the in-memory store of recent ticks behind {@code /coin-price/ticks/*}.
+ */
+@Configuration
+@EnableConfigurationProperties(TickStoreProperties.class)
+public class TickStoreConfig {
+
+	@Bean
+	public TickStore tickStore(TickStoreProperties properties) {
+		return new TickStore(properties);
+	}
+
+}
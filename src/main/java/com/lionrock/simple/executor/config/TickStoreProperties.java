@@ -0,0 +1,65 @@
+package com.lionrock.simple.executor.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.lionrock.simple.executor.tick.TickBackend;
+
+/**
+ * Settings of the in-memory tick store, bound from {@code simple-executor.tick-store.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.tick-store")
+public class TickStoreProperties {
+
+	/**
+	 * Whether inserted coin prices are kept in the tick store.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Number of recent ticks kept per coin, rounded up to a power of two.
+	 */
+	private int capacity = 4096;
+
+	/**
+	 * Whether ticks are kept in heap arrays or in direct buffers outside the heap.
+	 */
+	private TickBackend backend = TickBackend.HEAP;
+
+	/**
+	 * Maximum number of coins tracked; ticks of further coins are dropped.
+	 */
+	private int maxCodes = 1_000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public TickBackend getBackend() {
+		return backend;
+	}
+
+	public void setBackend(TickBackend backend) {
+		this.backend = backend;
+	}
+
+	public int getMaxCodes() {
+		return maxCodes;
+	}
+
+	public void setMaxCodes(int maxCodes) {
+		this.maxCodes = maxCodes;
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.lionrock.simple.executor.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.tick.TickRingBuffer;
+import com.lionrock.simple.executor.trace.TaskTracer;
+import com.lionrock.simple.executor.trace.TraceFileDumper;
+
+/**
+ * Configures the tracer that records the lifecycle of coin price tasks in place of printing it to standard output.
+ * <p>
+ * {@code System.out} is a synchronized stream, so tasks printing a formatted line at every step queue up behind each
+ * other on the hot path. The tracer records the same steps as primitives in a lock-free ring buffer and leaves the
+ * formatting to whoever reads them: the {@code /trace/events} endpoint, or a background dumper when
+ * {@code simple-executor.trace.file} is set.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(TraceProperties.class)
+public class TraceConfig {
+
+	@Bean
+	public TaskTracer taskTracer(TraceProperties properties) {
+		return new TaskTracer(properties.isEnabled(), TickRingBuffer.roundUpCapacity(properties.getCapacity()),
+				properties.getMaxCodes());
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = "simple-executor.trace", name = "file")
+	public TraceFileDumper traceFileDumper(TaskTracer taskTracer, TraceProperties properties) throws IOException {
+		return new TraceFileDumper(taskTracer, properties.getFile(), properties.getFileInterval());
+	}
+
+}
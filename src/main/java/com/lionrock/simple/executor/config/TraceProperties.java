@@ -0,0 +1,79 @@
+package com.lionrock.simple.executor.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the task event tracer, bound from {@code simple-executor.trace.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.trace")
+public class TraceProperties {
+
+	/**
+	 * Whether task lifecycle events are recorded at all.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Number of most recent events held, rounded up to a power of two.
+	 */
+	private int capacity = 65_536;
+
+	/**
+	 * Maximum number of distinct coin codes stored with events; events of further coins are recorded without a code.
+	 */
+	private int maxCodes = 1_000;
+
+	/**
+	 * File the events are appended to in the background; unset, events are only available at {@code /trace/events}.
+	 */
+	private Path file;
+
+	/**
+	 * How often new events are appended to the file.
+	 */
+	private Duration fileInterval = Duration.ofSeconds(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public int getMaxCodes() {
+		return maxCodes;
+	}
+
+	public void setMaxCodes(int maxCodes) {
+		this.maxCodes = maxCodes;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public void setFile(Path file) {
+		this.file = file;
+	}
+
+	public Duration getFileInterval() {
+		return fileInterval;
+	}
+
+	public void setFileInterval(Duration fileInterval) {
+		this.fileInterval = fileInterval;
+	}
+
+}
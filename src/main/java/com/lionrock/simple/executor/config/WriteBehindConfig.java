@@ -0,0 +1,46 @@
+package com.lionrock.simple.executor.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.lionrock.simple.executor.journal.TickJournal;
+import com.lionrock.simple.executor.service.CoinPriceBatchWriter;
+import com.lionrock.simple.executor.service.CoinPriceWriteBehindBuffer;
+
+/**
+ * Configures the write-behind buffer used when {@code simple-executor.write-behind.enabled} is set.
+ * <p>
+ * The buffer bean always exists so the service can ask whether it is enabled; its flusher thread is only started
+ * when write-behind is switched on.
+ * </p>
+ * <p>
+ * With {@code simple-executor.write-behind.journal.enabled} the buffer keeps coin prices in a {@link TickJournal}
+ * instead of in memory.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfig {
+
+	@Bean
+	public CoinPriceWriteBehindBuffer coinPriceWriteBehindBuffer(CoinPriceBatchWriter coinPriceBatchWriter,
+			WriteBehindProperties properties, ObjectProvider<TickJournal> coinPriceJournal) {
+		return new CoinPriceWriteBehindBuffer(coinPriceBatchWriter, properties, coinPriceJournal.getIfAvailable());
+	}
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = "simple-executor.write-behind", name = { "enabled", "journal.enabled" },
+			havingValue = "true")
+	public TickJournal coinPriceJournal(WriteBehindProperties properties) throws IOException {
+		WriteBehindProperties.Journal journal = properties.getJournal();
+		return new TickJournal(Path.of(journal.getDirectory()), journal.getSegmentSize().toBytes(),
+				journal.isForceOnAppend());
+	}
+
+}
@@ -0,0 +1,195 @@
+package com.lionrock.simple.executor.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import com.lionrock.simple.executor.concurrent.RejectionPolicy;
+
+/**
+ * Settings of the opt-in write-behind insert pipeline, bound from {@code simple-executor.write-behind.*}.
+ */
+@ConfigurationProperties(prefix = "simple-executor.write-behind")
+public class WriteBehindProperties {
+
+	/**
+	 * Whether inserted coin prices are buffered and written in batches instead of one row per transaction.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Maximum number of coin prices waiting in memory to be written.
+	 */
+	private int bufferCapacity = 10_000;
+
+	/**
+	 * A batch is written as soon as it holds this many coin prices.
+	 */
+	private int flushSize = 500;
+
+	/**
+	 * A batch is written once its oldest coin price has waited this long, even if it is not full.
+	 */
+	private Duration maxLatency = Duration.ofMillis(200);
+
+	/**
+	 * What to do when the buffer is full: write on the caller's thread, reject, or wait up to {@code block-timeout}.
+	 */
+	private RejectionPolicy overflowPolicy = RejectionPolicy.BLOCK;
+
+	/**
+	 * How long a producer waits for buffer space under {@link RejectionPolicy#BLOCK}.
+	 */
+	private Duration blockTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * How often a failed batch is retried before its coin prices are written one at a time and those that still fail
+	 * are dropped.
+	 */
+	private int maxRetries = 10;
+
+	/**
+	 * How long shutdown waits for the buffer to be flushed.
+	 */
+	private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+	/**
+	 * Durable journal the buffered coin prices are appended to before the insert is acknowledged.
+	 */
+	private Journal journal = new Journal();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getBufferCapacity() {
+		return bufferCapacity;
+	}
+
+	public void setBufferCapacity(int bufferCapacity) {
+		this.bufferCapacity = bufferCapacity;
+	}
+
+	public int getFlushSize() {
+		return flushSize;
+	}
+
+	public void setFlushSize(int flushSize) {
+		this.flushSize = flushSize;
+	}
+
+	public Duration getMaxLatency() {
+		return maxLatency;
+	}
+
+	public void setMaxLatency(Duration maxLatency) {
+		this.maxLatency = maxLatency;
+	}
+
+	public RejectionPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(RejectionPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public Duration getBlockTimeout() {
+		return blockTimeout;
+	}
+
+	public void setBlockTimeout(Duration blockTimeout) {
+		this.blockTimeout = blockTimeout;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	public void setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
+	public Duration getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+	public Journal getJournal() {
+		return journal;
+	}
+
+	public void setJournal(Journal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Settings of the memory-mapped write-ahead journal.
+	 */
+	public static class Journal {
+
+		/**
+		 * Whether buffered coin prices are kept in a journal on disk instead of in memory, so that a crash loses
+		 * none of them.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Directory of the journal's segment and checkpoint files.
+		 */
+		private String directory = "journal";
+
+		/**
+		 * Size of each segment file; a full segment is flushed and the next one created.
+		 */
+		private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+		/**
+		 * Whether every append is flushed to the storage device, which also survives power loss but costs a disk
+		 * write per coin price; otherwise appends survive a crash of the process only.
+		 */
+		private boolean forceOnAppend = false;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getDirectory() {
+			return directory;
+		}
+
+		public void setDirectory(String directory) {
+			this.directory = directory;
+		}
+
+		public DataSize getSegmentSize() {
+			return segmentSize;
+		}
+
+		public void setSegmentSize(DataSize segmentSize) {
+			this.segmentSize = segmentSize;
+		}
+
+		public boolean isForceOnAppend() {
+			return forceOnAppend;
+		}
+
+		public void setForceOnAppend(boolean forceOnAppend) {
+			this.forceOnAppend = forceOnAppend;
+		}
+
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.lionrock.simple.executor.controller;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lionrock.simple.executor.analytics.PriceAnalyticsEngine;
+import com.lionrock.simple.executor.model.PriceAnalytics;
+import com.lionrock.simple.executor.service.CoinRegistryService;
+
+/**
+ * Serves statistics of the stored price history of many coins over a trailing window.
+ */
+@RestController
+@RequestMapping("/coin-price")
+public class CoinPriceAnalyticsController {
+
+	private PriceAnalyticsEngine priceAnalyticsEngine;
+	private CoinRegistryService coinRegistryService;
+	private int maxCodes;
+
+	public CoinPriceAnalyticsController(PriceAnalyticsEngine priceAnalyticsEngine,
+			CoinRegistryService coinRegistryService,
+			@Value("${simple-executor.analytics.max-codes:1000}") int maxCodes) {
+		this.priceAnalyticsEngine = priceAnalyticsEngine;
+		this.coinRegistryService = coinRegistryService;
+		this.maxCodes = maxCodes;
+	}
+
+	/**
+	 * Returns count, mean, exponential moving average, standard deviation, min, max, first and last price and
+	 * log-return volatility of each coin over the window ending now.
+	 *
+	 * @param codes      Comma-separated codes of the coins, or {@code all} (the default) for every registered coin.
+	 * @param windowText Length of the window, such as {@code 1h} or {@code PT15M}, up to
+	 *                   {@code simple-executor.analytics.max-window}; defaults to one hour.
+	 * @return The analytics in the order the codes were given, or in code order for {@code all}.
+	 */
+	@GetMapping("/analytics")
+	public List<PriceAnalytics> getAnalytics(@RequestParam(value = "codes", defaultValue = "all") String codes,
+			@RequestParam(value = "window", defaultValue = "1h") String windowText) {
+		Duration window;
+		try {
+			window = DurationStyle.detectAndParse(windowText);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported window: " + windowText);
+		}
+		if (window.isNegative() || window.isZero() || window.compareTo(priceAnalyticsEngine.getMaxWindow()) > 0) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"window must be positive and at most " + priceAnalyticsEngine.getMaxWindow());
+		}
+		if ("all".equalsIgnoreCase(codes.trim())) {
+			return priceAnalyticsEngine.analyze(coinRegistryService.getCodes(), window);
+		}
+		List<String> requestedCodes = Arrays.stream(codes.split(",")).map(String::trim).filter(code -> !code.isEmpty())
+				.map(String::toUpperCase).distinct().toList();
+		if (requestedCodes.isEmpty() || requestedCodes.size() > maxCodes) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"codes must list between 1 and " + maxCodes + " coins, or be all");
+		}
+		return priceAnalyticsEngine.analyze(requestedCodes, window);
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.lionrock.simple.executor.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.lionrock.simple.executor.archive.PriceArchiveFormatException;
+import com.lionrock.simple.executor.service.CoinPriceArchiveService;
+
+/**
+ * Exports and imports the price history in bulk as binary price archives.
+ * <p>
+ * {@code GET /coin-price/archive} streams the archive as it is read from the database, on the bounded executor that
+ * also writes the history streams. {@code POST /coin-price/archive} decodes the uploaded archive block by block while
+ * it arrives and inserts it in batches.
+ * </p>
+ */
+@RestController
+@RequestMapping("/coin-price")
+public class CoinPriceArchiveController {
+
+	private static final String ARCHIVE_FILE_NAME = "coin-prices.cpa";
+
+	private CoinPriceArchiveService coinPriceArchiveService;
+
+	public CoinPriceArchiveController(CoinPriceArchiveService coinPriceArchiveService) {
+		this.coinPriceArchiveService = coinPriceArchiveService;
+	}
+
+	/**
+	 * Streams the prices with {@code from <= localDateTime < to} as a price archive, in code and time order.
+	 *
+	 * @param codes Comma-separated codes of the coins, or {@code all} (the default) for every coin in the history.
+	 * @param from  Optional inclusive lower bound, as an ISO-8601 local date-time.
+	 * @param to    Optional exclusive upper bound, as an ISO-8601 local date-time.
+	 */
+	@GetMapping("/archive")
+	public ResponseEntity<StreamingResponseBody> exportCoinPrices(
+			@RequestParam(value = "codes", defaultValue = "all") String codes,
+			@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		List<String> requestedCodes = null;
+		if (!"all".equalsIgnoreCase(codes.trim())) {
+			requestedCodes = Arrays.stream(codes.split(",")).map(String::trim).filter(code -> !code.isEmpty())
+					.map(String::toUpperCase).distinct().toList();
+			if (requestedCodes.isEmpty()) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "codes must list at least one coin, or be all");
+			}
+		}
+		List<String> exportedCodes = requestedCodes;
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + ARCHIVE_FILE_NAME + "\"")
+				.body(out -> coinPriceArchiveService.exportCoinPrices(exportedCodes, from, to, Channels.newChannel(out)));
+	}
+
+	/**
+	 * Imports every price of the uploaded archive.
+	 *
+	 * @param body The archive, sent as {@code application/octet-stream}.
+	 * @return The number of imported prices.
+	 */
+	@PostMapping(value = "/archive", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public Map<String, Long> importCoinPrices(InputStream body) throws IOException {
+		try {
+			return Map.of("imported", coinPriceArchiveService.importCoinPrices(Channels.newChannel(body)));
+		} catch (PriceArchiveFormatException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
+}
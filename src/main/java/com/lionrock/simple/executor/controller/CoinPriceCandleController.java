@@ -0,0 +1,67 @@
+package com.lionrock.simple.executor.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lionrock.simple.executor.config.CandleProperties;
+import com.lionrock.simple.executor.model.Candle;
+import com.lionrock.simple.executor.model.CandleInterval;
+import com.lionrock.simple.executor.service.CandleAggregator;
+
+/**
+ * Serves open-high-low-close candles built by the {@link CandleAggregator}.
+ * <p>
+ * Candles come from {@code COIN_PRICE_CANDLE} combined with the candles still held in memory, including the one
+ * currently open, so responses are up to date without ever scanning raw ticks.
+ * </p>
+ */
+@RestController
+@RequestMapping("/coin-price")
+public class CoinPriceCandleController {
+
+	private CandleAggregator candleAggregator;
+	private CandleProperties candleProperties;
+
+	public CoinPriceCandleController(CandleAggregator candleAggregator, CandleProperties candleProperties) {
+		this.candleAggregator = candleAggregator;
+		this.candleProperties = candleProperties;
+	}
+
+	/**
+	 * Returns the latest candles of a coin, oldest first.
+	 *
+	 * @param code     The code of the coin.
+	 * @param interval Bucket width: {@code 1s}, {@code 1m} (default) or {@code 1h}.
+	 * @param from     Optional inclusive lower bound of the candle open time, as an ISO-8601 local date-time.
+	 * @param to       Optional exclusive upper bound of the candle open time, as an ISO-8601 local date-time.
+	 * @param limit    Optional maximum number of candles, up to {@code simple-executor.candles.max-limit}.
+	 * @return Up to {@code limit} candles, ending with the most recent one in the range.
+	 */
+	@GetMapping("/candles/{code}")
+	public List<Candle> getCandles(@PathVariable("code") String code,
+			@RequestParam(value = "interval", defaultValue = "1m") String interval,
+			@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(value = "limit", required = false) Integer limit) {
+		CandleInterval candleInterval = CandleInterval.fromLabel(interval);
+		if (candleInterval == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported interval: " + interval);
+		}
+		int candleLimit = limit == null ? candleProperties.getDefaultLimit() : limit;
+		if (candleLimit < 1 || candleLimit > candleProperties.getMaxLimit()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"limit must be between 1 and " + candleProperties.getMaxLimit());
+		}
+		return candleAggregator.getCandles(code.toUpperCase(), candleInterval, from, to, candleLimit);
+	}
+
+}
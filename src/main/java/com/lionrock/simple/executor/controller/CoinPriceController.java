@@ -1,23 +1,35 @@
 package com.lionrock.simple.executor.controller;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
-import org.springframework.scheduling.annotation.Scheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.lionrock.simple.executor.concurrent.CompletableTasks;
 import com.lionrock.simple.executor.model.CoinPrice;
 import com.lionrock.simple.executor.service.CoinPriceService;
+import com.lionrock.simple.executor.service.CoinRegistryService;
 import com.lionrock.simple.executor.task.InsertCoinPriceCallableTask;
 import com.lionrock.simple.executor.task.InsertCoinPriceRunnableTask;
 
@@ -29,20 +41,43 @@ import com.lionrock.simple.executor.task.InsertCoinPriceRunnableTask;
  * prices in a non-blocking manner. The class demonstrates the use of asynchronous programming patterns
  * within a Spring Boot application context.
  * </p>
+ * <p>
+ * All endpoints share the application-wide executor configured by
+ * {@link com.lionrock.simple.executor.config.TaskExecutorConfig}, so the number of worker threads stays bounded no
+ * matter how many requests arrive. When that executor is saturated and configured to reject work, the request fails
+ * with {@code 429 Too Many Requests}. Tasks are submitted through the
+ * {@link com.lionrock.simple.executor.concurrent.KeyedExecutor} in front of it, so requests that refresh the same coin
+ * at the same time insert its prices one after another.
+ * </p>
+ * <p>
+ * The coins refreshed by the bulk endpoints are the enabled coins of the
+ * {@link com.lionrock.simple.executor.service.CoinRegistryService}, in code order.
+ * </p>
  */
 @RestController
 @RequestMapping("/coin-price")
 public class CoinPriceController {
 
+	private static final Logger logger = LoggerFactory.getLogger(CoinPriceController.class);
+
 	private CoinPriceService coinPriceService;
+	private CoinRegistryService coinRegistryService;
+	private ExecutorService executorService;
+	private Duration asyncDefaultTimeout;
+	private int latestMaxCodes;
 
-	public CoinPriceController(CoinPriceService coinPriceService) {
+	public CoinPriceController(CoinPriceService coinPriceService, CoinRegistryService coinRegistryService,
+			ExecutorService coinPriceKeyedExecutor,
+			@Value("${simple-executor.async.default-timeout:10s}") Duration asyncDefaultTimeout,
+			@Value("${simple-executor.latest.max-codes:1000}") int latestMaxCodes) {
 		super();
 		this.coinPriceService = coinPriceService;
+		this.coinRegistryService = coinRegistryService;
+		this.executorService = coinPriceKeyedExecutor;
+		this.asyncDefaultTimeout = asyncDefaultTimeout;
+		this.latestMaxCodes = latestMaxCodes;
 	}
 
-	private List<String> codes = List.of("USDC", "USDT", "BUSD", "PYUSD");
-
 	/**
 	 * Retrieves the latest price for a specific coin.
 	 * <p>
@@ -57,6 +92,63 @@ public class CoinPriceController {
 	public CoinPrice getCoinPrice(@PathVariable("code") String code) {
 		return coinPriceService.getLatestCoinPriceByCode(code);
 	}
+
+	/**
+	 * Retrieves the latest prices of many coins in one request.
+	 * <p>
+	 * Cached prices are returned directly and the rest are read in a single query, so a snapshot of hundreds of coins
+	 * costs one database round trip instead of one per coin. Coins without a price are left out.
+	 * </p>
+	 * <p>
+	 * {@code all} is paged like an explicit list is capped: a page covers at most {@code latest.max-codes} registered
+	 * coins, and the next page starts after the last code of the previous one. A page covering fewer coins is the last.
+	 * </p>
+	 *
+	 * @param codes Comma-separated codes of the coins, or {@code all} (the default) for every registered coin.
+	 * @param after With {@code all}, the code the page starts after; omitted for the first page.
+	 * @return The latest prices in the order the codes were given, or in code order for {@code all}.
+	 */
+	@GetMapping("/latest")
+	public List<CoinPrice> getCoinPrices(@RequestParam(value = "codes", defaultValue = "all") String codes,
+			@RequestParam(value = "after", required = false) String after) {
+		if ("all".equalsIgnoreCase(codes.trim())) {
+			String start = after == null ? "" : after.trim().toUpperCase();
+			List<String> page = coinRegistryService.getCodes().stream().filter(code -> code.compareTo(start) > 0)
+					.limit(latestMaxCodes).toList();
+			return coinPriceService.getLatestCoinPrices(page);
+		}
+		List<String> requestedCodes = Arrays.stream(codes.split(",")).map(String::trim)
+				.filter(code -> !code.isEmpty()).toList();
+		if (requestedCodes.isEmpty() || requestedCodes.size() > latestMaxCodes) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"codes must list between 1 and " + latestMaxCodes + " coins, or be all");
+		}
+		return coinPriceService.getLatestCoinPrices(requestedCodes);
+	}
+
+	/**
+	 * Reports hit, miss and eviction counters of the latest-price cache.
+	 *
+	 * @return The current cache statistics keyed by counter name.
+	 */
+	@GetMapping("/cache/stats")
+	public Map<String, Long> getLatestPriceCacheStats() {
+		return coinPriceService.getLatestPriceCacheStats();
+	}
+
+	/**
+	 * Reports when each coin's price was last fetched.
+	 * <p>
+	 * With the deadband enabled, unchanged prices are not stored, so the latest stored price of a coin can be older
+	 * than its last fetch. Together they tell that the price is still current rather than stale.
+	 * </p>
+	 *
+	 * @return The time of the last fetched price keyed by coin code; empty while the deadband is disabled.
+	 */
+	@GetMapping("/last-seen")
+	public Map<String, LocalDateTime> getLastSeen() {
+		return coinPriceService.getLastSeen();
+	}
 	
 	/**
 	 * Initiates an asynchronous task to insert the latest coin prices using a runnable task.
@@ -78,15 +170,9 @@ public class CoinPriceController {
 	 */
 	@PostMapping("/latest/runnable")
 	public String insertLatestCoinPriceRunnable() {
-		System.out.println(String.format("%s Main Thread %s start the Runnable Task", LocalDateTime.now(),
-				Thread.currentThread().getId()));
-		ExecutorService executorService = Executors.newFixedThreadPool(2);
-		for (String code : codes) {
+		for (String code : coinRegistryService.getCodes()) {
 			executorService.execute(new InsertCoinPriceRunnableTask(code, this.coinPriceService));
 		}
-		executorService.shutdown();
-		System.out.println(String.format("%s Main Thread %s completed the Runnable Task", LocalDateTime.now(),
-				Thread.currentThread().getId()));
 		return "Runnable Task Started";
 	}
 
@@ -108,29 +194,27 @@ public class CoinPriceController {
 	 * Note: This method is designed for demonstration purposes and may require adjustments for comprehensive error
 	 * handling, result processing, and scalability in a production environment.
 	 * </p>
+	 * <p>
+	 * All tasks are submitted before the first result is awaited, so the coins are fetched concurrently rather than
+	 * one after another.
+	 * </p>
 	 */
 	@PostMapping("/latest/callable")
 	public String insertLatestCoinPriceCallable() {
-		System.out.println(String.format("%s Main Thread %s start the Callable Task", LocalDateTime.now(),
-				Thread.currentThread().getId()));
-		ExecutorService executorService = Executors.newFixedThreadPool(2);
-		for (String code : codes) {
+		List<Future<CoinPrice>> futurePrices = new ArrayList<>();
+		for (String code : coinRegistryService.getCodes()) {
+			futurePrices.add(executorService.submit(new InsertCoinPriceCallableTask(code, this.coinPriceService)));
+		}
+		for (Future<CoinPrice> futurePrice : futurePrices) {
 			try {
-				Future<CoinPrice> futurePrice = executorService
-						.submit(new InsertCoinPriceCallableTask(code, this.coinPriceService));
-				CoinPrice coinPrice = futurePrice.get();
-				System.out.println(String.format("%s Main Thread %s got the coin price, coin: %s price:%s",
-						coinPrice.getLocalDateTime(), Thread.currentThread().getId(), coinPrice.getCode(),
-						coinPrice.getPrice()));
-			} catch (InterruptedException | ExecutionException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+				futurePrice.get();
+			} catch (ExecutionException e) {
+				logger.warn("Callable coin price task failed: {}", e.getCause().toString());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
 			}
-
 		}
-		executorService.shutdown();
-		System.out.println(String.format("%s Main Thread %s completed the Callable Task", LocalDateTime.now(),
-				Thread.currentThread().getId()));
 		return "Callable Task Started";
 	}
 
@@ -155,64 +239,127 @@ public class CoinPriceController {
 	 */
 	@PostMapping("/latest/invokeAll")
 	public String insertLatestCoinPriceInvokeAll() throws InterruptedException, ExecutionException {
-		System.out.println(String.format("%s Main Thread %s start the InvokeAll Task", LocalDateTime.now(),
-				Thread.currentThread().getId()));
-		ExecutorService executorService = Executors.newFixedThreadPool(2);
 		List<InsertCoinPriceCallableTask> tasks = new ArrayList<>();
-		for (String code : codes) {
+		for (String code : coinRegistryService.getCodes()) {
 			tasks.add(new InsertCoinPriceCallableTask(code, this.coinPriceService));
 		}
 
 		List<Future<CoinPrice>> futurePrices = executorService.invokeAll(tasks);
 		for (Future<CoinPrice> futurePrice : futurePrices) {
-			CoinPrice coinPrice = futurePrice.get();
-			System.out.println(String.format("%s Main Thread %s got the coin price, coin: %s price:%s",
-					coinPrice.getLocalDateTime(), Thread.currentThread().getId(), coinPrice.getCode(),
-					coinPrice.getPrice()));
+			futurePrice.get();
 		}
-		executorService.shutdown();
-		System.out.println(String.format("%s Main Thread %s completed the InvokeAll Task", LocalDateTime.now(),
-				Thread.currentThread().getId()));
 		return "InvokeAll Task Started";
 	}
 	
 	/**
-	 * Executes a collection of callable tasks to insert the latest coin prices and returns the result of one of the successfully executed tasks.
+	 * Inserts the latest price of one coin, fetched from whichever price source answers first.
 	 * <p>
-	 * This method makes use of the {@link ExecutorService#invokeAny(Collection)} method to execute a collection of
-	 * {@link InsertCoinPriceCallableTask} instances concurrently. Unlike {@link ExecutorService#invokeAll(Collection)},
-	 * invokeAny does not wait for all tasks to complete. Instead, it returns the result of one of the callable tasks
-	 * that completes execution successfully (i.e., without throwing an exception), effectively ignoring the results or
-	 * failures of other tasks. This method is particularly useful when the same result can be obtained from multiple
-	 * tasks, and there is no need to wait for all tasks to complete.
+	 * This endpoint used to pass one {@link InsertCoinPriceCallableTask} per coin to
+	 * {@link ExecutorService#invokeAny(Collection)}, which raced different coins against each other and inserted
+	 * whichever happened to finish first. The {@code invokeAny} semantics now apply where they are meaningful: the
+	 * {@link com.lionrock.simple.executor.source.HedgedPriceFetcher} asks every configured price source for the same
+	 * coin, takes the first good answer, cancels the others and gives up at the fetch deadline. The insert runs as an
+	 * {@link InsertCoinPriceCallableTask} on the shared executor while this thread waits for it.
 	 * </p>
 	 * <p>
-	 * The use of invokeAny simplifies the execution of multiple tasks when only a single result is needed, reducing
-	 * the waiting time when compared to waiting for all tasks to complete. This approach is beneficial in scenarios
-	 * where multiple sources can provide the same information, and the fastest response is preferred.
-	 * </p>
-	 * <p>
-	 * Note: This method demonstrates a non-blocking approach to handling multiple asynchronous tasks but may need
-	 * adjustments for comprehensive error handling, especially in scenarios where it's crucial to ensure that at least
-	 * one task succeeds in a production environment.
+	 * If no source answers in time the request fails with {@code 504 Gateway Timeout}, and if every source fails with
+	 * {@code 502 Bad Gateway}.
 	 * </p>
+	 *
+	 * @param code Optional code of the coin to insert; defaults to the first registered coin.
 	 */
 	@PostMapping("/latest/invokeAny")
-	public String insertLatestCoinPriceInvokeAny() throws InterruptedException, ExecutionException {
-		System.out.println(String.format("%s Main Thread %s start the InvokeAny Task", LocalDateTime.now(),
-				Thread.currentThread().getId()));
-		ExecutorService executorService = Executors.newFixedThreadPool(2);
-		List<InsertCoinPriceCallableTask> tasks = new ArrayList<>();
-		for (String code : codes) {
-			tasks.add(new InsertCoinPriceCallableTask(code, this.coinPriceService));
+	public String insertLatestCoinPriceInvokeAny(@RequestParam(value = "code", required = false) String code)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		Future<CoinPrice> futurePrice = executorService
+				.submit(new InsertCoinPriceCallableTask(codeOrDefault(code), this.coinPriceService));
+		try {
+			futurePrice.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof TimeoutException) {
+				throw (TimeoutException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
 		}
-		CoinPrice coinPrice = executorService.invokeAny(tasks);		
-		System.out.println(String.format("%s Main Thread %s got the coin price, coin: %s price:%s",
-				coinPrice.getLocalDateTime(), Thread.currentThread().getId(), coinPrice.getCode(),
-				coinPrice.getPrice()));
-		executorService.shutdown();
-		System.out.println(String.format("%s Main Thread %s completed the InvokeAny Task", LocalDateTime.now(),
-				Thread.currentThread().getId()));
 		return "InvokeAny Task Started";
 	}
+
+	/**
+	 * Inserts the latest prices of all coins concurrently without holding a servlet thread while they run.
+	 * <p>
+	 * Each coin is submitted as an {@link InsertCoinPriceCallableTask} to the shared executor and the resulting
+	 * futures are combined with {@link CompletableTasks#allOf(List)}. The method returns immediately; Spring MVC
+	 * completes the HTTP response with the inserted {@link CoinPrice} list once every task has finished, so the
+	 * Tomcat worker thread is free to serve other requests in the meantime.
+	 * </p>
+	 * <p>
+	 * If the tasks do not finish within the timeout, every task still running is cancelled and the request fails
+	 * with {@code 504 Gateway Timeout}.
+	 * </p>
+	 *
+	 * @param timeoutMs Optional per-request timeout in milliseconds; defaults to
+	 *                  {@code simple-executor.async.default-timeout}.
+	 * @return A future of the inserted coin prices, in the order of the registered coin codes.
+	 */
+	@PostMapping("/latest/async/invokeAll")
+	public CompletableFuture<List<CoinPrice>> insertLatestCoinPriceAsyncInvokeAll(
+			@RequestParam(value = "timeoutMs", required = false) Long timeoutMs) {
+		List<CompletableFuture<CoinPrice>> futurePrices = submitAll();
+		return CompletableTasks.withDeadline(CompletableTasks.allOf(futurePrices), timeout(timeoutMs), futurePrices);
+	}
+
+	/**
+	 * Inserts the latest price of one coin, fetched from whichever price source answers first, without holding a
+	 * servlet thread while it runs.
+	 * <p>
+	 * This is the non-blocking counterpart of {@link #insertLatestCoinPriceInvokeAny(String)}. If the insert does not
+	 * finish within the timeout it is cancelled and the request fails with {@code 504 Gateway Timeout}; the hedged
+	 * fetch inside it is additionally bounded by {@code simple-executor.price-fetch.deadline}.
+	 * </p>
+	 *
+	 * @param code      Optional code of the coin to insert; defaults to the first registered coin.
+	 * @param timeoutMs Optional per-request timeout in milliseconds; defaults to
+	 *                  {@code simple-executor.async.default-timeout}.
+	 * @return A future of the inserted coin price.
+	 */
+	@PostMapping("/latest/async/invokeAny")
+	public CompletableFuture<CoinPrice> insertLatestCoinPriceAsyncInvokeAny(
+			@RequestParam(value = "code", required = false) String code,
+			@RequestParam(value = "timeoutMs", required = false) Long timeoutMs) {
+		CompletableFuture<CoinPrice> futurePrice = CompletableTasks.submit(executorService,
+				new InsertCoinPriceCallableTask(codeOrDefault(code), this.coinPriceService));
+		return CompletableTasks.withDeadline(futurePrice, timeout(timeoutMs), List.of(futurePrice));
+	}
+
+	private List<CompletableFuture<CoinPrice>> submitAll() {
+		List<CompletableFuture<CoinPrice>> futurePrices = new ArrayList<>();
+		try {
+			for (String code : coinRegistryService.getCodes()) {
+				futurePrices.add(CompletableTasks.submit(executorService,
+						new InsertCoinPriceCallableTask(code, this.coinPriceService)));
+			}
+		} catch (RejectedExecutionException e) {
+			futurePrices.forEach(futurePrice -> futurePrice.cancel(true));
+			throw e;
+		}
+		return futurePrices;
+	}
+
+	private String codeOrDefault(String code) {
+		if (code != null) {
+			return code;
+		}
+		List<String> codes = coinRegistryService.getCodes();
+		if (codes.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No coins are registered");
+		}
+		return codes.get(0);
+	}
+
+	private Duration timeout(Long timeoutMs) {
+		return timeoutMs == null ? asyncDefaultTimeout : Duration.ofMillis(timeoutMs);
+	}
 }
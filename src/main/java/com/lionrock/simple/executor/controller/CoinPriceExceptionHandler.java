@@ -0,0 +1,50 @@
+package com.lionrock.simple.executor.controller;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.lionrock.simple.executor.concurrent.ConcurrencyLimitExceededException;
+import com.lionrock.simple.executor.source.PriceUnavailableException;
+
+/**
+ * Translates executor and task failures into HTTP responses.
+ * <p>
+ * A saturated task executor rejects work with a {@link RejectedExecutionException}. Clients receive
+ * {@code 429 Too Many Requests} with a {@code Retry-After} hint so they back off instead of retrying immediately.
+ * Asynchronous endpoints whose tasks miss their deadline, and price fetches that no source answers in time, respond
+ * with {@code 504 Gateway Timeout}. A price fetch that every source failed responds with {@code 502 Bad Gateway}.
+ * Work shed by the adaptive database concurrency limit responds with {@code 503 Service Unavailable}.
+ * </p>
+ */
+@RestControllerAdvice
+public class CoinPriceExceptionHandler {
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<String> handleRejectedExecution(RejectedExecutionException e) {
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1")
+				.body(e.getMessage());
+	}
+
+	@ExceptionHandler(ConcurrencyLimitExceededException.class)
+	public ResponseEntity<String> handleConcurrencyLimitExceeded(ConcurrencyLimitExceededException e) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+				.body(e.getMessage());
+	}
+
+	@ExceptionHandler(TimeoutException.class)
+	public ResponseEntity<String> handleTimeout(TimeoutException e) {
+		return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Coin price tasks did not complete in time");
+	}
+
+	@ExceptionHandler(PriceUnavailableException.class)
+	public ResponseEntity<String> handlePriceUnavailable(PriceUnavailableException e) {
+		return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(e.getMessage());
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.lionrock.simple.executor.controller;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lionrock.simple.executor.config.HistoryProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+import com.lionrock.simple.executor.model.CoinPricePage;
+import com.lionrock.simple.executor.service.CoinPriceHistoryService;
+
+/**
+ * Serves the price history of a coin to backtesting jobs.
+ * <p>
+ * {@code GET /coin-price/history/{code}} streams every price in a time range as newline-delimited JSON or CSV. Rows
+ * are written to the response as they are read from the database cursor, so the heap never holds more than one
+ * fetch of rows regardless of how large the range is. The response is written on the bounded executor configured by
+ * {@link com.lionrock.simple.executor.config.HistoryConfig}, which frees the servlet thread while the stream runs.
+ * </p>
+ * <p>
+ * {@code GET /coin-price/history/{code}/page} returns the same history in keyset pages for clients that prefer
+ * paging over one long response.
+ * </p>
+ */
+@RestController
+@RequestMapping("/coin-price")
+public class CoinPriceHistoryController {
+
+	private static final String CSV_HEADER = "id,local_date_time,code,price,updated_by\n";
+	private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+	private CoinPriceHistoryService coinPriceHistoryService;
+	private HistoryProperties historyProperties;
+	private ObjectMapper objectMapper;
+	private ObjectWriter coinPriceWriter;
+
+	public CoinPriceHistoryController(CoinPriceHistoryService coinPriceHistoryService,
+			HistoryProperties historyProperties, ObjectMapper objectMapper) {
+		this.coinPriceHistoryService = coinPriceHistoryService;
+		this.historyProperties = historyProperties;
+		this.objectMapper = objectMapper;
+		this.coinPriceWriter = objectMapper.writerFor(CoinPrice.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * Streams the prices of a coin with {@code from <= localDateTime < to}, oldest first.
+	 *
+	 * @param code            The code of the coin.
+	 * @param from            Optional inclusive lower bound, as an ISO-8601 local date-time.
+	 * @param to              Optional exclusive upper bound, as an ISO-8601 local date-time.
+	 * @param format          {@code ndjson} (default) for one JSON object per line, or {@code csv}.
+	 * @param includePrevious Whether to start with the last price before {@code from}, the price in effect when the
+	 *                        range begins; useful when unchanged prices are not stored.
+	 * @return The streamed response body.
+	 */
+	@GetMapping("/history/{code}")
+	public ResponseEntity<StreamingResponseBody> streamCoinPriceHistory(@PathVariable("code") String code,
+			@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(value = "format", defaultValue = "ndjson") String format,
+			@RequestParam(value = "includePrevious", defaultValue = "false") boolean includePrevious) {
+		switch (format.toLowerCase()) {
+		case "ndjson":
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(ndjson(code, from, to, includePrevious));
+		case "csv":
+			return ResponseEntity.ok().contentType(TEXT_CSV).body(csv(code, from, to, includePrevious));
+		default:
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format: " + format);
+		}
+	}
+
+	/**
+	 * Returns one page of the prices of a coin with {@code from <= localDateTime < to}, oldest first.
+	 * <p>
+	 * Leave {@code afterTime} and {@code afterId} out for the first page, then pass the {@code nextAfterTime} and
+	 * {@code nextAfterId} of each page to get the next one. Rows inserted behind the current position while paging
+	 * are not revisited, and no row is returned twice.
+	 * </p>
+	 *
+	 * @param limit           Optional page size, up to {@code simple-executor.history.max-page-size}.
+	 * @param includePrevious Whether the first page starts with the last price before {@code from}.
+	 */
+	@GetMapping("/history/{code}/page")
+	public CoinPricePage getCoinPriceHistoryPage(@PathVariable("code") String code,
+			@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(value = "afterTime", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTime,
+			@RequestParam(value = "afterId", required = false) Long afterId,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@RequestParam(value = "includePrevious", defaultValue = "false") boolean includePrevious) {
+		if ((afterTime == null) != (afterId == null)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "afterTime and afterId must be given together");
+		}
+		int pageSize = limit == null ? historyProperties.getDefaultPageSize() : limit;
+		if (pageSize < 1 || pageSize > historyProperties.getMaxPageSize()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"limit must be between 1 and " + historyProperties.getMaxPageSize());
+		}
+		return coinPriceHistoryService.getCoinPriceHistoryPage(code, from, to, afterTime, afterId, pageSize,
+				includePrevious);
+	}
+
+	private StreamingResponseBody ndjson(String code, LocalDateTime from, LocalDateTime to,
+			boolean includePrevious) {
+		return out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				generator.setRootValueSeparator(null);
+				coinPriceHistoryService.streamCoinPriceHistory(code, from, to, includePrevious, coinPrice -> {
+					coinPriceWriter.writeValue(generator, coinPrice);
+					generator.writeRaw('\n');
+				});
+			}
+		};
+	}
+
+	private StreamingResponseBody csv(String code, LocalDateTime from, LocalDateTime to,
+			boolean includePrevious) {
+		return out -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			writer.write(CSV_HEADER);
+			coinPriceHistoryService.streamCoinPriceHistory(code, from, to, includePrevious, coinPrice -> {
+				writer.write(Long.toString(coinPrice.getId()));
+				writer.write(',');
+				writer.write(coinPrice.getLocalDateTime().toString());
+				writer.write(',');
+				writer.write(csvField(coinPrice.getCode()));
+				writer.write(',');
+				writer.write(Float.toString(coinPrice.getPrice()));
+				writer.write(',');
+				writer.write(csvField(coinPrice.getUpdatedBy()));
+				writer.write('\n');
+			});
+			writer.flush();
+		};
+	}
+
+	private static String csvField(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.lionrock.simple.executor.controller;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.lionrock.simple.executor.config.StreamProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+import com.lionrock.simple.executor.service.CoinPriceService;
+import com.lionrock.simple.executor.service.CoinRegistryService;
+import com.lionrock.simple.executor.stream.CoinPriceStreamHub;
+
+/**
+ * Streams coin prices to clients as server-sent events as soon as they are inserted.
+ * <p>
+ * Each stream starts with the latest known price of every coin it follows and then receives a {@code price} event
+ * per inserted price. A client that cannot keep up receives only the newest price of each coin; see
+ * {@link CoinPriceStreamHub}.
+ * </p>
+ */
+@RestController
+@RequestMapping("/coin-price")
+public class CoinPriceStreamController {
+
+	private static final String ALL_CODES = "all";
+
+	private CoinPriceService coinPriceService;
+	private CoinRegistryService coinRegistryService;
+	private CoinPriceStreamHub coinPriceStreamHub;
+	private StreamProperties streamProperties;
+
+	public CoinPriceStreamController(CoinPriceService coinPriceService, CoinRegistryService coinRegistryService,
+			CoinPriceStreamHub coinPriceStreamHub, StreamProperties streamProperties) {
+		this.coinPriceService = coinPriceService;
+		this.coinRegistryService = coinRegistryService;
+		this.coinPriceStreamHub = coinPriceStreamHub;
+		this.streamProperties = streamProperties;
+	}
+
+	/**
+	 * Opens a price stream.
+	 *
+	 * @param codes Comma-separated codes of the coins to follow, or {@code all} (the default) to follow every coin,
+	 *              including coins registered after the stream opened.
+	 */
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamCoinPrices(@RequestParam(value = "codes", defaultValue = ALL_CODES) String codes) {
+		Set<String> subscribedCodes = parseCodes(codes);
+		List<CoinPrice> initial = coinPriceService
+				.getLatestCoinPrices(subscribedCodes == null ? coinRegistryService.getCodes() : subscribedCodes);
+		try {
+			return coinPriceStreamHub.subscribe(subscribedCodes, initial);
+		} catch (IllegalStateException e) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+		}
+	}
+
+	private Set<String> parseCodes(String codes) {
+		if (ALL_CODES.equalsIgnoreCase(codes.trim())) {
+			return null;
+		}
+		Set<String> parsed = new LinkedHashSet<>();
+		Arrays.stream(codes.split(",")).map(String::trim).filter(code -> !code.isEmpty())
+				.forEach(code -> parsed.add(code.toUpperCase()));
+		if (parsed.isEmpty() || parsed.size() > streamProperties.getMaxCodes()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"codes must list between 1 and " + streamProperties.getMaxCodes() + " coins, or be " + ALL_CODES);
+		}
+		return parsed;
+	}
+
+}
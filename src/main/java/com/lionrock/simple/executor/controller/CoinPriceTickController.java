@@ -0,0 +1,83 @@
+package com.lionrock.simple.executor.controller;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lionrock.simple.executor.model.TickSeries;
+import com.lionrock.simple.executor.tick.TickRingBuffer;
+import com.lionrock.simple.executor.tick.TickStore;
+import com.lionrock.simple.executor.tick.TickWindowStats;
+
+/**
+ * Serves recent ticks and window statistics from the in-memory {@link TickStore}, without touching the database.
+ */
+@RestController
+@RequestMapping("/coin-price")
+public class CoinPriceTickController {
+
+	private TickStore tickStore;
+
+	public CoinPriceTickController(TickStore tickStore) {
+		this.tickStore = tickStore;
+	}
+
+	/**
+	 * Returns up to {@code limit} of the most recent ticks of a coin, oldest first.
+	 *
+	 * @param code  The code of the coin.
+	 * @param limit Maximum number of ticks, up to the per-coin capacity of the store; defaults to 100.
+	 */
+	@GetMapping("/ticks/{code}")
+	public TickSeries getRecentTicks(@PathVariable("code") String code,
+			@RequestParam(value = "limit", defaultValue = "100") int limit) {
+		if (limit < 1 || limit > tickStore.getCapacity()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"limit must be between 1 and " + tickStore.getCapacity());
+		}
+		TickRingBuffer buffer = tickStore.getBuffer(code.toUpperCase());
+		if (buffer == null) {
+			return new TickSeries(code.toUpperCase(), new long[0], new float[0]);
+		}
+		long[] epochNanos = new long[limit];
+		float[] prices = new float[limit];
+		int copied = buffer.copyLast(limit, epochNanos, prices);
+		return new TickSeries(code.toUpperCase(), Arrays.copyOf(epochNanos, copied), Arrays.copyOf(prices, copied));
+	}
+
+	/**
+	 * Returns count, min, max, average, first and last price over the recent ticks of a coin.
+	 * <p>
+	 * The window is either the last {@code lastN} ticks or the ticks within {@code window} of now, such as
+	 * {@code PT1M}; with neither, it covers every tick held for the coin.
+	 * </p>
+	 */
+	@GetMapping("/ticks/{code}/stats")
+	public TickWindowStats getTickStats(@PathVariable("code") String code,
+			@RequestParam(value = "lastN", required = false) Integer lastN,
+			@RequestParam(value = "window", required = false) Duration window) {
+		if (lastN != null && window != null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Specify either lastN or window, not both");
+		}
+		TickWindowStats stats = new TickWindowStats();
+		TickRingBuffer buffer = tickStore.getBuffer(code.toUpperCase());
+		if (buffer == null) {
+			return stats;
+		}
+		if (window != null) {
+			long nowNanos = System.currentTimeMillis() * 1_000_000L;
+			buffer.statsSince(nowNanos - window.toNanos(), stats);
+		} else {
+			buffer.statsOfLast(lastN == null ? Integer.MAX_VALUE : lastN, stats);
+		}
+		return stats;
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.lionrock.simple.executor.controller;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lionrock.simple.executor.model.RegisteredCoin;
+import com.lionrock.simple.executor.service.CoinRegistryService;
+
+/**
+ * Admin endpoints of the coin registry.
+ * <p>
+ * Registered coins are the ones refreshed by the bulk {@code /coin-price/latest/*} endpoints and, when polling is
+ * enabled, polled on a schedule at their own interval. Changes take effect on the next poller tick of this
+ * instance and within {@code simple-executor.polling.registry-refresh-interval} on others.
+ * </p>
+ */
+@RestController
+@RequestMapping("/coin-registry")
+public class CoinRegistryController {
+
+	private CoinRegistryService coinRegistryService;
+
+	public CoinRegistryController(CoinRegistryService coinRegistryService) {
+		this.coinRegistryService = coinRegistryService;
+	}
+
+	@GetMapping
+	public List<RegisteredCoin> getCoins() {
+		return coinRegistryService.getCoins();
+	}
+
+	@GetMapping("/{code}")
+	public RegisteredCoin getCoin(@PathVariable("code") String code) {
+		RegisteredCoin coin = coinRegistryService.getCoin(code);
+		if (coin == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Coin is not registered: " + code);
+		}
+		return coin;
+	}
+
+	/**
+	 * Registers a coin or updates its registration.
+	 *
+	 * @param coin Optional body with {@code pollIntervalMs} and {@code enabled}; a missing or zero interval means
+	 *             {@code simple-executor.polling.default-interval}.
+	 */
+	@PutMapping("/{code}")
+	public RegisteredCoin registerCoin(@PathVariable("code") String code,
+			@RequestBody(required = false) RegisteredCoin coin) {
+		Duration pollInterval = coin == null || coin.getPollIntervalMs() == 0 ? null
+				: Duration.ofMillis(coin.getPollIntervalMs());
+		try {
+			return coinRegistryService.register(code, pollInterval, coin == null || coin.isEnabled());
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
+	@DeleteMapping("/{code}")
+	public ResponseEntity<Void> unregisterCoin(@PathVariable("code") String code) {
+		if (!coinRegistryService.unregister(code)) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Coin is not registered: " + code);
+		}
+		return ResponseEntity.noContent().build();
+	}
+
+}
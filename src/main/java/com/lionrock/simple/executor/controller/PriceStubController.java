@@ -0,0 +1,37 @@
+package com.lionrock.simple.executor.controller;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.lionrock.simple.executor.source.SimulatedPriceSource;
+
+/**
+ * A local stand-in for an upstream price API, fetched by the HTTP price source.
+ * <p>
+ * Each request is answered by a {@link SimulatedPriceSource} configured under
+ * {@code simple-executor.price-fetch.http-stub.*}, so the stub's latency and failure rate can be tuned like any
+ * simulated source while the fetch itself goes through a real HTTP round trip. A failed fetch is answered with
+ * {@code 503 Service Unavailable}.
+ * </p>
+ */
+@RestController
+@ConditionalOnProperty(prefix = "simple-executor.price-fetch.http-stub", name = "enabled", havingValue = "true")
+public class PriceStubController {
+
+	private SimulatedPriceSource priceStubSource;
+
+	public PriceStubController(SimulatedPriceSource priceStubSource) {
+		this.priceStubSource = priceStubSource;
+	}
+
+	@GetMapping("/stub/price/{code}")
+	public Map<String, Object> getPrice(@PathVariable("code") String code) throws Exception {
+		String upperCaseCode = code.toUpperCase();
+		return Map.of("code", upperCaseCode, "price", priceStubSource.fetchPrice(upperCaseCode));
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.lionrock.simple.executor.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.lionrock.simple.executor.trace.TaskTracer;
+import com.lionrock.simple.executor.trace.TraceRecord;
+
+/**
+ * Dumps the task lifecycle events held by the {@link TaskTracer}.
+ */
+@RestController
+@RequestMapping("/trace")
+public class TaskTraceController {
+
+	private TaskTracer taskTracer;
+
+	public TaskTraceController(TaskTracer taskTracer) {
+		this.taskTracer = taskTracer;
+	}
+
+	/**
+	 * Returns traced events, oldest first.
+	 * <p>
+	 * Without {@code after}, the most recent {@code limit} events are returned. With it, the events following that
+	 * sequence are returned, so a client can follow the trace by passing the last sequence it has seen.
+	 * </p>
+	 *
+	 * @param limit Maximum number of events, up to the capacity of the tracer; defaults to 1000.
+	 * @param after Optional sequence of the last event already seen.
+	 */
+	@GetMapping("/events")
+	public List<TraceRecord> getEvents(@RequestParam(value = "limit", defaultValue = "1000") int limit,
+			@RequestParam(value = "after", required = false) Long after) {
+		if (limit < 1 || limit > taskTracer.getCapacity()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"limit must be between 1 and " + taskTracer.getCapacity());
+		}
+		long from = after != null ? after + 1 : taskTracer.getLastSequence() - limit + 1;
+		List<TraceRecord> records = new ArrayList<>(Math.min(limit, 1024));
+		taskTracer.read(from, limit, records::add);
+		return records;
+	}
+
+}
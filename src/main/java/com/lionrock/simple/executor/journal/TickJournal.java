@@ -0,0 +1,371 @@
+package com.lionrock.simple.executor.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Append-only journal of coin prices, stored as fixed-width binary records in memory-mapped segment files.
+ * <p>
+ * Every record gets the next sequence number. Appending copies the record into the mapped segment, so a record is
+ * safe from a crash of the process as soon as {@link #append(CoinPrice)} returns; with {@code forceOnAppend} it is
+ * also flushed to the device, which survives power loss at the cost of one write to disk per record. A full segment
+ * is forced and the next one is created, named after the sequence of its first record.
+ * </p>
+ * <p>
+ * The {@link #checkpoint(long)} records the sequence up to which records have been applied to the database, in a
+ * small file replaced atomically. Segments holding only applied records are deleted. On opening, the segments are
+ * scanned for the last intact record: each record carries its sequence and a CRC32, so a record torn by a crash, or
+ * the zeroed space after the last record, ends the journal. Records after the checkpoint are then read with
+ * {@link #read(long, int, List)} and applied again.
+ * </p>
+ * <p>
+ * Appends are serialized by a lock; reads need no lock, as a record becomes visible to readers only after it has been
+ * written completely.
+ * </p>
+ */
+public class TickJournal implements Closeable {
+
+	/**
+	 * Size of one record: sequence, epoch second and nanos of the time, price, code and updater with their lengths,
+	 * and a CRC32 of the preceding bytes.
+	 */
+	public static final int RECORD_SIZE = 136;
+
+	/**
+	 * Longest code or updater, in UTF-8 bytes, that fits a record; matches the width of the database columns.
+	 */
+	public static final int MAX_TEXT_BYTES = 50;
+
+	private static final Logger logger = LoggerFactory.getLogger(TickJournal.class);
+
+	private static final String SEGMENT_SUFFIX = ".journal";
+	private static final String CHECKPOINT_FILE = "checkpoint";
+	private static final int SEQUENCE_OFFSET = 0;
+	private static final int EPOCH_SECOND_OFFSET = 8;
+	private static final int NANO_OFFSET = 16;
+	private static final int PRICE_OFFSET = 20;
+	private static final int CODE_OFFSET = 24;
+	private static final int UPDATED_BY_OFFSET = CODE_OFFSET + 1 + MAX_TEXT_BYTES;
+	private static final int CRC_OFFSET = 128;
+	private static final byte NULL_TEXT = -1;
+
+	private final Path directory;
+	private final int recordsPerSegment;
+	private final boolean forceOnAppend;
+	private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+	private final ReentrantLock appendLock = new ReentrantLock();
+
+	private Segment activeSegment;
+	private volatile long lastSequence;
+	private volatile long checkpointSequence;
+
+	/**
+	 * Opens the journal in the given directory, creating it if needed, and recovers the last intact record.
+	 *
+	 * @param segmentSize   Size of each segment file in bytes; rounded down to whole records.
+	 * @param forceOnAppend Whether every append is flushed to the storage device before returning.
+	 */
+	public TickJournal(Path directory, long segmentSize, boolean forceOnAppend) throws IOException {
+		if (segmentSize < RECORD_SIZE || segmentSize / RECORD_SIZE > Integer.MAX_VALUE / RECORD_SIZE) {
+			throw new IllegalArgumentException("Segment size must hold between 1 record and 2 GB: " + segmentSize);
+		}
+		this.directory = directory;
+		this.recordsPerSegment = (int) (segmentSize / RECORD_SIZE);
+		this.forceOnAppend = forceOnAppend;
+		Files.createDirectories(directory);
+		recover();
+	}
+
+	/**
+	 * Returns the sequence of the last appended record, or the checkpoint if nothing was appended after it.
+	 */
+	public long getLastSequence() {
+		return lastSequence;
+	}
+
+	/**
+	 * Returns the sequence up to which records have been applied.
+	 */
+	public long getCheckpoint() {
+		return checkpointSequence;
+	}
+
+	/**
+	 * Returns the number of records appended but not yet applied.
+	 */
+	public long getLag() {
+		return lastSequence - checkpointSequence;
+	}
+
+	/**
+	 * Returns the number of segment files.
+	 */
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * Appends a coin price and returns its sequence.
+	 *
+	 * @throws IllegalArgumentException if the code or updater is longer than {@link #MAX_TEXT_BYTES} in UTF-8.
+	 * @throws UncheckedIOException     if a new segment cannot be created.
+	 */
+	public long append(CoinPrice coinPrice) {
+		byte[] record = encode(coinPrice);
+		appendLock.lock();
+		try {
+			long sequence = lastSequence + 1;
+			if (sequence > activeSegment.lastSequence()) {
+				activeSegment.buffer.force();
+				activeSegment = createSegment(sequence);
+			}
+			int offset = activeSegment.offsetOf(sequence);
+			ByteBuffer view = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+			view.putLong(SEQUENCE_OFFSET, sequence);
+			CRC32 crc = new CRC32();
+			crc.update(record, 0, CRC_OFFSET);
+			view.putInt(CRC_OFFSET, (int) crc.getValue());
+			activeSegment.buffer.put(offset, record);
+			if (forceOnAppend) {
+				activeSegment.buffer.force(offset, RECORD_SIZE);
+			}
+			lastSequence = sequence;
+			return sequence;
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Reads up to {@code max} records starting at sequence {@code from}, stopping at the last appended record.
+	 *
+	 * @param into Receives the coin prices, in sequence order.
+	 * @return The sequence of the last record read, or {@code from - 1} if none was.
+	 */
+	public long read(long from, int max, List<CoinPrice> into) {
+		long last = Math.min(lastSequence, from + max - 1);
+		long sequence = from;
+		for (; sequence <= last; sequence++) {
+			Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+			if (entry == null) {
+				throw new IllegalStateException("Journal record " + sequence + " has been deleted");
+			}
+			Segment segment = entry.getValue();
+			into.add(decode(segment.buffer, segment.offsetOf(sequence)));
+		}
+		return sequence - 1;
+	}
+
+	/**
+	 * Records that every record up to {@code sequence} has been applied and deletes segments that hold only such
+	 * records.
+	 */
+	public void checkpoint(long sequence) throws IOException {
+		if (sequence <= checkpointSequence) {
+			return;
+		}
+		Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, sequence);
+			channel.write(buffer);
+			channel.force(true);
+		}
+		Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		checkpointSequence = sequence;
+		for (Segment segment : segments.values()) {
+			if (segment.lastSequence() > sequence || segment == activeSegment) {
+				break;
+			}
+			segments.remove(segment.firstSequence);
+			Files.deleteIfExists(segment.path);
+		}
+	}
+
+	/**
+	 * Flushes the active segment to the storage device.
+	 */
+	@Override
+	public void close() {
+		appendLock.lock();
+		try {
+			activeSegment.buffer.force();
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	private void recover() throws IOException {
+		Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+		if (Files.exists(checkpointFile)) {
+			checkpointSequence = ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).order(ByteOrder.LITTLE_ENDIAN)
+					.getLong(0);
+		}
+		List<Path> segmentFiles;
+		try (Stream<Path> files = Files.list(directory)) {
+			segmentFiles = files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted()
+					.toList();
+		}
+		lastSequence = checkpointSequence;
+		for (Path file : segmentFiles) {
+			String name = file.getFileName().toString();
+			long firstSequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+			if (activeSegment != null || firstSequence > lastSequence + 1) {
+				// Follows a torn tail or a gap; nothing in it can be trusted
+				logger.warn("Deleting journal segment {} after sequence {}", file, lastSequence);
+				Files.delete(file);
+				continue;
+			}
+			Segment segment = mapSegment(file, firstSequence);
+			segments.put(firstSequence, segment);
+			long sequence = firstSequence;
+			while (sequence <= segment.lastSequence() && isIntact(segment, sequence)) {
+				sequence++;
+			}
+			if (sequence - 1 >= lastSequence) {
+				lastSequence = sequence - 1;
+			}
+			if (sequence <= segment.lastSequence()) {
+				activeSegment = segment;
+			}
+		}
+		if (activeSegment == null) {
+			activeSegment = createSegment(lastSequence + 1);
+		}
+		if (!segments.isEmpty() && segments.firstKey() > checkpointSequence + 1) {
+			logger.warn("Journal starts at sequence {} but was only applied up to {}", segments.firstKey(),
+					checkpointSequence);
+		}
+		logger.info("Opened journal {} at sequence {}, applied up to {}", directory, lastSequence, checkpointSequence);
+	}
+
+	private boolean isIntact(Segment segment, long sequence) {
+		int offset = segment.offsetOf(sequence);
+		if (segment.buffer.getLong(offset + SEQUENCE_OFFSET) != sequence) {
+			return false;
+		}
+		byte[] record = new byte[CRC_OFFSET];
+		segment.buffer.get(offset, record);
+		CRC32 crc = new CRC32();
+		crc.update(record);
+		return segment.buffer.getInt(offset + CRC_OFFSET) == (int) crc.getValue();
+	}
+
+	private Segment createSegment(long firstSequence) {
+		Path file = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+		try {
+			Segment segment = mapSegment(file, firstSequence);
+			segments.put(firstSequence, segment);
+			return segment;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot create journal segment " + file, e);
+		}
+	}
+
+	private Segment mapSegment(Path file, long firstSequence) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					(long) recordsPerSegment * RECORD_SIZE);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			return new Segment(file, firstSequence, buffer);
+		}
+	}
+
+	private static byte[] encode(CoinPrice coinPrice) {
+		byte[] record = new byte[RECORD_SIZE];
+		ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+		LocalDateTime localDateTime = coinPrice.getLocalDateTime();
+		buffer.putLong(EPOCH_SECOND_OFFSET, localDateTime.toEpochSecond(ZoneOffset.UTC));
+		buffer.putInt(NANO_OFFSET, localDateTime.getNano());
+		buffer.putFloat(PRICE_OFFSET, coinPrice.getPrice());
+		putText(buffer, CODE_OFFSET, coinPrice.getCode());
+		putText(buffer, UPDATED_BY_OFFSET, coinPrice.getUpdatedBy());
+		return record;
+	}
+
+	private static void putText(ByteBuffer buffer, int offset, String text) {
+		if (text == null) {
+			buffer.put(offset, NULL_TEXT);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > MAX_TEXT_BYTES) {
+			throw new IllegalArgumentException("Too long for a journal record: " + text);
+		}
+		buffer.put(offset, (byte) bytes.length);
+		buffer.put(offset + 1, bytes);
+	}
+
+	private static CoinPrice decode(ByteBuffer buffer, int offset) {
+		CoinPrice coinPrice = new CoinPrice();
+		coinPrice.setLocalDateTime(LocalDateTime.ofEpochSecond(buffer.getLong(offset + EPOCH_SECOND_OFFSET),
+				buffer.getInt(offset + NANO_OFFSET), ZoneOffset.UTC));
+		coinPrice.setPrice(buffer.getFloat(offset + PRICE_OFFSET));
+		coinPrice.setCode(getText(buffer, offset + CODE_OFFSET));
+		coinPrice.setUpdatedBy(getText(buffer, offset + UPDATED_BY_OFFSET));
+		return coinPrice;
+	}
+
+	private static String getText(ByteBuffer buffer, int offset) {
+		byte length = buffer.get(offset);
+		if (length == NULL_TEXT) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(offset + 1, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * One mapped segment file, holding the records from {@code firstSequence} on.
+	 */
+	private final class Segment {
+
+		private final Path path;
+		private final long firstSequence;
+		private final MappedByteBuffer buffer;
+
+		Segment(Path path, long firstSequence, MappedByteBuffer buffer) {
+			this.path = path;
+			this.firstSequence = firstSequence;
+			this.buffer = buffer;
+		}
+
+		long lastSequence() {
+			return firstSequence + recordsPerSegment - 1;
+		}
+
+		int offsetOf(long sequence) {
+			return (int) (sequence - firstSequence) * RECORD_SIZE;
+		}
+
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.lionrock.simple.executor.mapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.lionrock.simple.executor.model.Candle;
+
+@Mapper
+public interface CoinPriceCandleMapper {
+
+	List<Candle> getLatestCandles(@Param("code") String code, @Param("interval") String interval,
+			@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("limit") int limit);
+
+	int mergeCandles(@Param("candles") List<Candle> candles);
+
+}
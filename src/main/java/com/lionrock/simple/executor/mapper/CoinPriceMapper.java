@@ -1,7 +1,13 @@
 package com.lionrock.simple.executor.mapper;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 import com.lionrock.simple.executor.model.CoinPrice;
 
@@ -9,7 +15,30 @@ import com.lionrock.simple.executor.model.CoinPrice;
 public interface CoinPriceMapper {
 	
 	CoinPrice getLatestCoinPriceByCode(@Param("code") String code);
+
+	List<CoinPrice> getLatestCoinPrices(@Param("codes") Collection<String> codes);
+
+	Cursor<CoinPrice> streamCoinPriceHistory(@Param("code") String code, @Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to);
+
+	List<CoinPrice> getCoinPriceHistoryPage(@Param("code") String code, @Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to, @Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId,
+			@Param("limit") int limit);
+
+	CoinPrice getCoinPriceBefore(@Param("code") String code, @Param("time") LocalDateTime time);
+
+	void scanCoinPrices(@Param("codes") Collection<String> codes, @Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to, ResultHandler<CoinPrice> handler);
+
+	void exportCoinPrices(@Param("codes") Collection<String> codes, @Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to, ResultHandler<CoinPrice> handler);
 	
 	int insertLatestCoinPrice(@Param("coinPrice") CoinPrice coinPrice);
+	
+	int insertCoinPrices(@Param("coinPrices") List<CoinPrice> coinPrices);
+	
+	int mergeLatestCoinPrice(@Param("coinPrice") CoinPrice coinPrice);
+	
+	int mergeLatestCoinPrices(@Param("coinPrices") List<CoinPrice> coinPrices);
 
 }
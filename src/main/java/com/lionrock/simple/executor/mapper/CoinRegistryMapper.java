@@ -0,0 +1,21 @@
+package com.lionrock.simple.executor.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.lionrock.simple.executor.model.RegisteredCoin;
+
+@Mapper
+public interface CoinRegistryMapper {
+
+	List<RegisteredCoin> getRegisteredCoins();
+
+	RegisteredCoin getRegisteredCoin(@Param("code") String code);
+
+	int mergeRegisteredCoin(@Param("coin") RegisteredCoin coin);
+
+	int deleteRegisteredCoin(@Param("code") String code);
+
+}
@@ -0,0 +1,128 @@
+package com.lionrock.simple.executor.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import com.lionrock.simple.executor.model.CoinPrice;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * A MyBatis plugin that times every mapper statement as a {@code mybatis.statement} timer.
+ * <p>
+ * Timers are tagged with the statement, shortened to {@code Mapper.method}, and with the coin code the statement
+ * works on. The code is taken from a {@code code} parameter or from a {@link CoinPrice} parameter; statements over a
+ * list of prices are tagged {@code batch} and statements without a code {@code none}.
+ * </p>
+ * <p>
+ * Codes come straight from request paths, so the number of distinct code tags is capped; once the cap is reached,
+ * further codes are tagged {@code other} rather than creating a new time series each. Code tagging can also be
+ * turned off entirely, in which case every statement is tagged {@code none}.
+ * </p>
+ */
+@Intercepts({
+		@Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+		@Signature(type = Executor.class, method = "query",
+				args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+		@Signature(type = Executor.class, method = "queryCursor",
+				args = { MappedStatement.class, Object.class, RowBounds.class }) })
+public class MapperMetricsInterceptor implements Interceptor {
+
+	private static final String NO_CODE = "none";
+	private static final String BATCH_CODE = "batch";
+	private static final String OTHER_CODE = "other";
+
+	private final MeterRegistry registry;
+	private final boolean tagCode;
+	private final int maxCodeTags;
+	private final Set<String> codeTags = ConcurrentHashMap.newKeySet();
+	private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers = new ConcurrentHashMap<>();
+
+	public MapperMetricsInterceptor(MeterRegistry registry, boolean tagCode, int maxCodeTags) {
+		this.registry = registry;
+		this.tagCode = tagCode;
+		this.maxCodeTags = maxCodeTags;
+	}
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		Object[] args = invocation.getArgs();
+		long start = System.nanoTime();
+		try {
+			return invocation.proceed();
+		} finally {
+			timer((MappedStatement) args[0], args[1]).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private Timer timer(MappedStatement statement, Object parameter) {
+		String code = tagCode ? codeTag(parameter) : NO_CODE;
+		ConcurrentMap<String, Timer> statementTimers = timers.get(statement.getId());
+		if (statementTimers == null) {
+			statementTimers = timers.computeIfAbsent(statement.getId(), id -> new ConcurrentHashMap<>());
+		}
+		Timer timer = statementTimers.get(code);
+		if (timer == null) {
+			timer = statementTimers.computeIfAbsent(code, key -> Timer.builder("mybatis.statement")
+					.tag("statement", shortName(statement.getId())).tag("code", key)
+					.description("Execution time of MyBatis mapper statements").register(registry));
+		}
+		return timer;
+	}
+
+	private String codeTag(Object parameter) {
+		String code = codeOf(parameter);
+		if (code == null) {
+			return NO_CODE;
+		}
+		if (code == BATCH_CODE || codeTags.contains(code)) {
+			return code;
+		}
+		if (codeTags.size() < maxCodeTags && codeTags.add(code)) {
+			return code;
+		}
+		return codeTags.contains(code) ? code : OTHER_CODE;
+	}
+
+	private static String codeOf(Object parameter) {
+		if (parameter instanceof CoinPrice) {
+			return ((CoinPrice) parameter).getCode();
+		}
+		if (parameter instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) parameter).entrySet()) {
+				Object value = entry.getValue();
+				if (value instanceof CoinPrice) {
+					return ((CoinPrice) value).getCode();
+				}
+				if (value instanceof Collection) {
+					return BATCH_CODE;
+				}
+				if ("code".equals(entry.getKey()) && value instanceof String) {
+					return (String) value;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static String shortName(String statementId) {
+		int method = statementId.lastIndexOf('.');
+		int mapper = statementId.lastIndexOf('.', method - 1);
+		return statementId.substring(mapper + 1);
+	}
+
+}
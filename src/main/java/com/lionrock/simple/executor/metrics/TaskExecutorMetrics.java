@@ -0,0 +1,63 @@
+package com.lionrock.simple.executor.metrics;
+
+import com.lionrock.simple.executor.concurrent.InstrumentedExecutorService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the state of an {@link InstrumentedExecutorService} as Micrometer meters.
+ * <p>
+ * Pool size, active threads and queue depth are gauges and completed, rejected and saturated submissions are function
+ * counters, all read from the executor's own counters when the registry is scraped, so they cost nothing on the
+ * submission path. Meter names follow Micrometer's {@code executor.*} convention and are tagged with the executor
+ * name.
+ * </p>
+ * <p>
+ * When task timing is enabled, the executor is also given a {@link TaskTimingMetrics} listener that records the
+ * queue wait and run time of every task.
+ * </p>
+ */
+public class TaskExecutorMetrics implements MeterBinder {
+
+	private final InstrumentedExecutorService executor;
+	private final String name;
+	private final boolean taskTiming;
+
+	public TaskExecutorMetrics(InstrumentedExecutorService executor, String name, boolean taskTiming) {
+		this.executor = executor;
+		this.name = name;
+		this.taskTiming = taskTiming;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Tags tags = Tags.of("name", name);
+		Gauge.builder("executor.pool.size", executor, InstrumentedExecutorService::getPoolSize).tags(tags)
+				.description("The current number of threads in the executor").baseUnit(BaseUnits.THREADS)
+				.register(registry);
+		Gauge.builder("executor.active", executor, InstrumentedExecutorService::getActiveCount).tags(tags)
+				.description("The approximate number of threads actively running tasks").baseUnit(BaseUnits.THREADS)
+				.register(registry);
+		Gauge.builder("executor.queued", executor, InstrumentedExecutorService::getQueueSize).tags(tags)
+				.description("The number of tasks waiting in the executor queue").baseUnit(BaseUnits.TASKS)
+				.register(registry);
+		FunctionCounter.builder("executor.completed", executor, InstrumentedExecutorService::getCompletedTaskCount)
+				.tags(tags).description("The approximate number of tasks that have completed execution")
+				.baseUnit(BaseUnits.TASKS).register(registry);
+		FunctionCounter.builder("executor.rejected", executor, InstrumentedExecutorService::getRejectedCount)
+				.tags(tags).description("The number of tasks refused because the executor was saturated")
+				.baseUnit(BaseUnits.TASKS).register(registry);
+		FunctionCounter.builder("executor.saturated", executor, InstrumentedExecutorService::getSaturatedCount)
+				.tags(tags).description("The number of submissions that found the executor saturated")
+				.baseUnit(BaseUnits.TASKS).register(registry);
+		if (taskTiming) {
+			executor.setTaskTimingListener(new TaskTimingMetrics(registry, tags));
+		}
+	}
+
+}
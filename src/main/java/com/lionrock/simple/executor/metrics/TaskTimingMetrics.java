@@ -0,0 +1,71 @@
+package com.lionrock.simple.executor.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.lionrock.simple.executor.concurrent.TaskTimingListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the queue wait and run time of executor tasks as {@code executor.task.wait} and {@code executor.task.run}
+ * timers, tagged with the simple class name of the task.
+ * <p>
+ * The timers for each task class are looked up once and then cached, so recording a task costs two timer updates
+ * and a map read.
+ * </p>
+ */
+public class TaskTimingMetrics implements TaskTimingListener {
+
+	private final MeterRegistry registry;
+	private final Tags tags;
+	private final ConcurrentMap<Class<?>, TaskTimers> timers = new ConcurrentHashMap<>();
+
+	public TaskTimingMetrics(MeterRegistry registry, Tags tags) {
+		this.registry = registry;
+		this.tags = tags;
+	}
+
+	@Override
+	public void taskCompleted(Object task, long waitNanos, long runNanos) {
+		TaskTimers taskTimers = timers.get(task.getClass());
+		if (taskTimers == null) {
+			taskTimers = timers.computeIfAbsent(task.getClass(), this::newTaskTimers);
+		}
+		taskTimers.wait.record(waitNanos, TimeUnit.NANOSECONDS);
+		taskTimers.run.record(runNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private TaskTimers newTaskTimers(Class<?> taskType) {
+		Tags taskTags = tags.and("task", taskName(taskType));
+		Timer wait = Timer.builder("executor.task.wait").tags(taskTags)
+				.description("Time tasks spent waiting for a thread").register(registry);
+		Timer run = Timer.builder("executor.task.run").tags(taskTags).description("Time tasks spent running")
+				.register(registry);
+		return new TaskTimers(wait, run);
+	}
+
+	private static String taskName(Class<?> taskType) {
+		if (taskType.isSynthetic()) {
+			return "lambda";
+		}
+		String simpleName = taskType.getSimpleName();
+		return simpleName.isEmpty() ? taskType.getName() : simpleName;
+	}
+
+	private static final class TaskTimers {
+
+		final Timer wait;
+		final Timer run;
+
+		TaskTimers(Timer wait, Timer run) {
+			this.wait = wait;
+			this.run = run;
+		}
+
+	}
+
+}
@@ -0,0 +1,186 @@
+package com.lionrock.simple.executor.model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * The open, high, low and close price and tick count of one coin over one {@link CandleInterval} bucket.
+ * <p>
+ * Besides the prices, a candle remembers when its first and last tick happened. That makes two partial candles of
+ * the same bucket combinable in any order with {@link #merge(Candle)}, which is how ticks arriving after their bucket
+ * was flushed are folded into the stored candle.
+ * </p>
+ */
+public class Candle {
+
+	private String code;
+	private String interval;
+	private LocalDateTime openTime;
+	private float open;
+	private float high;
+	private float low;
+	private float close;
+	private long count;
+	private LocalDateTime firstTickTime;
+	private LocalDateTime lastTickTime;
+
+	public Candle() {
+	}
+
+	/**
+	 * Creates the candle of a single tick.
+	 */
+	public Candle(String code, CandleInterval interval, CoinPrice tick) {
+		this.code = code;
+		this.interval = interval.getLabel();
+		this.openTime = interval.bucketStart(tick.getLocalDateTime());
+		this.open = tick.getPrice();
+		this.high = tick.getPrice();
+		this.low = tick.getPrice();
+		this.close = tick.getPrice();
+		this.count = 1;
+		this.firstTickTime = tick.getLocalDateTime();
+		this.lastTickTime = tick.getLocalDateTime();
+	}
+
+	/**
+	 * Folds one more tick of the same bucket into this candle.
+	 */
+	public void add(CoinPrice tick) {
+		float price = tick.getPrice();
+		LocalDateTime time = tick.getLocalDateTime();
+		high = Math.max(high, price);
+		low = Math.min(low, price);
+		if (time.isBefore(firstTickTime)) {
+			firstTickTime = time;
+			open = price;
+		}
+		if (!time.isBefore(lastTickTime)) {
+			lastTickTime = time;
+			close = price;
+		}
+		count++;
+	}
+
+	/**
+	 * Folds another partial candle of the same bucket into this one.
+	 */
+	public void merge(Candle other) {
+		high = Math.max(high, other.high);
+		low = Math.min(low, other.low);
+		if (other.firstTickTime.isBefore(firstTickTime)) {
+			firstTickTime = other.firstTickTime;
+			open = other.open;
+		}
+		if (!other.lastTickTime.isBefore(lastTickTime)) {
+			lastTickTime = other.lastTickTime;
+			close = other.close;
+		}
+		count += other.count;
+	}
+
+	public Candle copy() {
+		Candle copy = new Candle();
+		copy.code = code;
+		copy.interval = interval;
+		copy.openTime = openTime;
+		copy.open = open;
+		copy.high = high;
+		copy.low = low;
+		copy.close = close;
+		copy.count = count;
+		copy.firstTickTime = firstTickTime;
+		copy.lastTickTime = lastTickTime;
+		return copy;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public void setCode(String code) {
+		this.code = code;
+	}
+
+	public String getInterval() {
+		return interval;
+	}
+
+	public void setInterval(String interval) {
+		this.interval = interval;
+	}
+
+	public LocalDateTime getOpenTime() {
+		return openTime;
+	}
+
+	public void setOpenTime(LocalDateTime openTime) {
+		this.openTime = openTime;
+	}
+
+	public float getOpen() {
+		return open;
+	}
+
+	public void setOpen(float open) {
+		this.open = open;
+	}
+
+	public float getHigh() {
+		return high;
+	}
+
+	public void setHigh(float high) {
+		this.high = high;
+	}
+
+	public float getLow() {
+		return low;
+	}
+
+	public void setLow(float low) {
+		this.low = low;
+	}
+
+	public float getClose() {
+		return close;
+	}
+
+	public void setClose(float close) {
+		this.close = close;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	@JsonIgnore
+	public LocalDateTime getFirstTickTime() {
+		return firstTickTime;
+	}
+
+	public void setFirstTickTime(LocalDateTime firstTickTime) {
+		this.firstTickTime = firstTickTime;
+	}
+
+	@JsonIgnore
+	public LocalDateTime getLastTickTime() {
+		return lastTickTime;
+	}
+
+	public void setLastTickTime(LocalDateTime lastTickTime) {
+		this.lastTickTime = lastTickTime;
+	}
+
+	@Override
+	public String toString() {
+		return "Candle [code=" + code + ", interval=" + interval + ", openTime=" + openTime + ", open=" + open
+				+ ", high=" + high + ", low=" + low + ", close=" + close + ", count=" + count + "]";
+	}
+
+}
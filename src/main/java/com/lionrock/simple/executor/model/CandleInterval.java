@@ -0,0 +1,54 @@
+package com.lionrock.simple.executor.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The bucket widths candles are aggregated over.
+ */
+public enum CandleInterval {
+
+	ONE_SECOND("1s", ChronoUnit.SECONDS),
+	ONE_MINUTE("1m", ChronoUnit.MINUTES),
+	ONE_HOUR("1h", ChronoUnit.HOURS);
+
+	private final String label;
+	private final ChronoUnit unit;
+
+	CandleInterval(String label, ChronoUnit unit) {
+		this.label = label;
+		this.unit = unit;
+	}
+
+	/**
+	 * Returns the short form used in requests and stored in {@code COIN_PRICE_CANDLE}, such as {@code 1m}.
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	public Duration getDuration() {
+		return unit.getDuration();
+	}
+
+	/**
+	 * Returns the start of the bucket containing the given time.
+	 */
+	public LocalDateTime bucketStart(LocalDateTime time) {
+		return time.truncatedTo(unit);
+	}
+
+	/**
+	 * Returns the interval with the given label, or {@code null} if there is none.
+	 */
+	public static CandleInterval fromLabel(String label) {
+		for (CandleInterval interval : values()) {
+			if (interval.label.equalsIgnoreCase(label)) {
+				return interval;
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.lionrock.simple.executor.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of the price history of a coin, in {@code (localDateTime, id)} order.
+ * <p>
+ * The next page is requested by passing {@link #getNextAfterTime()} and {@link #getNextAfterId()} back as the
+ * {@code afterTime} and {@code afterId} parameters. Both are {@code null} on the last page.
+ * </p>
+ */
+public class CoinPricePage {
+
+	private List<CoinPrice> items;
+	private LocalDateTime nextAfterTime;
+	private Long nextAfterId;
+
+	public CoinPricePage(List<CoinPrice> items, LocalDateTime nextAfterTime, Long nextAfterId) {
+		this.items = items;
+		this.nextAfterTime = nextAfterTime;
+		this.nextAfterId = nextAfterId;
+	}
+
+	public List<CoinPrice> getItems() {
+		return items;
+	}
+
+	public LocalDateTime getNextAfterTime() {
+		return nextAfterTime;
+	}
+
+	public Long getNextAfterId() {
+		return nextAfterId;
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.lionrock.simple.executor.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Statistics of the prices of one coin over a time window.
+ * <p>
+ * Every statistic is {@code null} when the window holds no price; the standard deviation needs two prices and the
+ * volatility, the standard deviation of the log returns between consecutive prices, needs three.
+ * </p>
+ */
+public class PriceAnalytics {
+
+	private String code;
+	private LocalDateTime from;
+	private LocalDateTime to;
+	private long count;
+	private Double mean;
+	private Double ema;
+	private Double stddev;
+	private Double min;
+	private Double max;
+	private Double first;
+	private Double last;
+	private Double volatility;
+
+	public PriceAnalytics(String code, LocalDateTime from, LocalDateTime to, long count, Double mean, Double ema,
+			Double stddev, Double min, Double max, Double first, Double last, Double volatility) {
+		this.code = code;
+		this.from = from;
+		this.to = to;
+		this.count = count;
+		this.mean = mean;
+		this.ema = ema;
+		this.stddev = stddev;
+		this.min = min;
+		this.max = max;
+		this.first = first;
+		this.last = last;
+		this.volatility = volatility;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public LocalDateTime getFrom() {
+		return from;
+	}
+
+	public LocalDateTime getTo() {
+		return to;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public Double getMean() {
+		return mean;
+	}
+
+	public Double getEma() {
+		return ema;
+	}
+
+	public Double getStddev() {
+		return stddev;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public Double getFirst() {
+		return first;
+	}
+
+	public Double getLast() {
+		return last;
+	}
+
+	public Double getVolatility() {
+		return volatility;
+	}
+
+}
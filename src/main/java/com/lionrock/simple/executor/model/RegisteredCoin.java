@@ -0,0 +1,47 @@
+package com.lionrock.simple.executor.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A coin in the {@code COIN_REGISTRY}: a code whose price is tracked, and how often it is polled.
+ */
+public class RegisteredCoin {
+
+	private String code;
+	private long pollIntervalMs;
+	private boolean enabled = true;
+	private LocalDateTime registeredAt;
+
+	public String getCode() {
+		return code;
+	}
+
+	public void setCode(String code) {
+		this.code = code;
+	}
+
+	public long getPollIntervalMs() {
+		return pollIntervalMs;
+	}
+
+	public void setPollIntervalMs(long pollIntervalMs) {
+		this.pollIntervalMs = pollIntervalMs;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public LocalDateTime getRegisteredAt() {
+		return registeredAt;
+	}
+
+	public void setRegisteredAt(LocalDateTime registeredAt) {
+		this.registeredAt = registeredAt;
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.lionrock.simple.executor.model;
+
+/**
+ * Recent ticks of one coin in columnar form, oldest first.
+ */
+public class TickSeries {
+
+	private String code;
+	private long[] epochNanos;
+	private float[] prices;
+
+	public TickSeries(String code, long[] epochNanos, float[] prices) {
+		this.code = code;
+		this.epochNanos = epochNanos;
+		this.prices = prices;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public long[] getEpochNanos() {
+		return epochNanos;
+	}
+
+	public float[] getPrices() {
+		return prices;
+	}
+
+}
@@ -0,0 +1,283 @@
+package com.lionrock.simple.executor.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.lionrock.simple.executor.config.CandleProperties;
+import com.lionrock.simple.executor.mapper.CoinPriceCandleMapper;
+import com.lionrock.simple.executor.model.Candle;
+import com.lionrock.simple.executor.model.CandleInterval;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Builds open-high-low-close candles incrementally as coin prices are inserted.
+ * <p>
+ * Every tick updates the open candle of its coin for each {@link CandleInterval}. When a tick falls into a later
+ * bucket, or a flush finds that a bucket has ended, the open candle is closed and queued. A flusher thread merges
+ * closed candles into {@code COIN_PRICE_CANDLE} every {@code flush-interval}. No request ever aggregates raw ticks.
+ * </p>
+ * <p>
+ * A tick that arrives after its bucket was closed becomes a one-tick candle that is merged into the stored one. The
+ * merge combines candles by their first and last tick times, so the result does not depend on arrival order. A flush
+ * combines such a candle with one of the same bucket that is still waiting to be written before the merge, as a MERGE
+ * source may not match a target row twice.
+ * </p>
+ * <p>
+ * Reads combine stored candles with those still in memory. They hold the read side of a lock whose write side is
+ * held while closed candles move from memory to the table, so a candle is never missed or counted twice. On
+ * shutdown the aggregator stops after the task executor has drained and writes every candle, open or closed.
+ * </p>
+ */
+public class CandleAggregator implements SmartLifecycle {
+
+	/**
+	 * Stops with the write-behind buffer, after the task executor, so the ticks of draining tasks are aggregated.
+	 */
+	public static final int PHASE = CoinPriceWriteBehindBuffer.PHASE;
+
+	private static final Logger logger = LoggerFactory.getLogger(CandleAggregator.class);
+	private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+	private final CoinPriceCandleMapper coinPriceCandleMapper;
+	private final CandleProperties properties;
+	private final ConcurrentMap<String, CodeCandles> candlesByCode = new ConcurrentHashMap<>();
+	private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+	private final LongAdder flushedCount = new LongAdder();
+
+	private volatile boolean running;
+	private ScheduledExecutorService flusher;
+
+	public CandleAggregator(CoinPriceCandleMapper coinPriceCandleMapper, CandleProperties properties) {
+		this.coinPriceCandleMapper = coinPriceCandleMapper;
+		this.properties = properties;
+	}
+
+	/**
+	 * Folds a newly inserted coin price into the open candles of its coin.
+	 */
+	public void onTick(CoinPrice tick) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		CodeCandles candles = candlesByCode.get(tick.getCode());
+		if (candles == null) {
+			candles = candlesByCode.computeIfAbsent(tick.getCode(), CodeCandles::new);
+		}
+		synchronized (candles) {
+			candles.add(tick);
+		}
+	}
+
+	/**
+	 * Returns up to {@code limit} of the latest candles of a coin with {@code from <= openTime < to}, oldest first,
+	 * including the candle that is still open.
+	 *
+	 * @param from Inclusive lower bound of the candle open time, or {@code null}.
+	 * @param to   Exclusive upper bound of the candle open time, or {@code null}.
+	 */
+	public List<Candle> getCandles(String code, CandleInterval interval, LocalDateTime from, LocalDateTime to,
+			int limit) {
+		flushLock.readLock().lock();
+		try {
+			Map<LocalDateTime, Candle> candlesByOpenTime = new TreeMap<>();
+			for (Candle stored : coinPriceCandleMapper.getLatestCandles(code, interval.getLabel(), from, to, limit)) {
+				candlesByOpenTime.put(stored.getOpenTime(), stored);
+			}
+			CodeCandles candles = candlesByCode.get(code);
+			if (candles != null) {
+				synchronized (candles) {
+					for (Candle closed : candles.closed) {
+						if (closed.getInterval().equals(interval.getLabel()) && inRange(closed, from, to)) {
+							mergeInto(candlesByOpenTime, closed);
+						}
+					}
+					Candle open = candles.open[interval.ordinal()];
+					if (open != null && inRange(open, from, to)) {
+						mergeInto(candlesByOpenTime, open);
+					}
+				}
+			}
+			List<Candle> result = new ArrayList<>(candlesByOpenTime.values());
+			return result.size() > limit ? result.subList(result.size() - limit, result.size()) : result;
+		} finally {
+			flushLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of candles written to the table so far.
+	 */
+	public long getFlushedCount() {
+		return flushedCount.sum();
+	}
+
+	/**
+	 * Closes every candle whose bucket has ended and merges all closed candles into the table.
+	 *
+	 * @param closeOpen Whether to close and write candles whose bucket is still running as well.
+	 */
+	public void flush(boolean closeOpen) {
+		flushLock.writeLock().lock();
+		try {
+			LocalDateTime now = LocalDateTime.now();
+			List<Candle> closed = new ArrayList<>();
+			for (CodeCandles candles : candlesByCode.values()) {
+				synchronized (candles) {
+					candles.closeEnded(now, closeOpen);
+					closed.addAll(candles.closed);
+					candles.closed.clear();
+				}
+			}
+			List<Candle> batch = mergePerBucket(closed);
+			int written = 0;
+			try {
+				int flushSize = properties.getFlushSize();
+				for (; written < batch.size(); written += flushSize) {
+					List<Candle> chunk = batch.subList(written, Math.min(written + flushSize, batch.size()));
+					coinPriceCandleMapper.mergeCandles(chunk);
+					flushedCount.add(chunk.size());
+				}
+			} catch (RuntimeException e) {
+				logger.error("Failed to write {} closed candles, retrying on the next flush", batch.size() - written,
+						e);
+				for (Candle candle : batch.subList(written, batch.size())) {
+					CodeCandles candles = candlesByCode.get(candle.getCode());
+					synchronized (candles) {
+						candles.closed.add(candle);
+					}
+				}
+			}
+		} finally {
+			flushLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void start() {
+		if (!properties.isEnabled() || running) {
+			return;
+		}
+		running = true;
+		long intervalMillis = properties.getFlushInterval().toMillis();
+		flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("candle-flusher-"));
+		flusher.scheduleWithFixedDelay(() -> flush(false), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void stop() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		flusher.shutdown();
+		try {
+			flusher.awaitTermination(properties.getFlushInterval().toMillis() * 2, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush(true);
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	private static boolean inRange(Candle candle, LocalDateTime from, LocalDateTime to) {
+		return (from == null || !candle.getOpenTime().isBefore(from))
+				&& (to == null || candle.getOpenTime().isBefore(to));
+	}
+
+	/**
+	 * Combines closed candles of the same coin, interval and open time, such as a late one-tick candle and the candle
+	 * of its bucket that has not been written yet.
+	 */
+	private static List<Candle> mergePerBucket(List<Candle> candles) {
+		Map<List<Object>, Candle> merged = new LinkedHashMap<>();
+		for (Candle candle : candles) {
+			merged.merge(List.of(candle.getCode(), candle.getInterval(), candle.getOpenTime()), candle,
+					(current, late) -> {
+						current.merge(late);
+						return current;
+					});
+		}
+		return new ArrayList<>(merged.values());
+	}
+
+	private static void mergeInto(Map<LocalDateTime, Candle> candlesByOpenTime, Candle candle) {
+		Candle existing = candlesByOpenTime.get(candle.getOpenTime());
+		if (existing == null) {
+			candlesByOpenTime.put(candle.getOpenTime(), candle.copy());
+		} else {
+			existing.merge(candle);
+		}
+	}
+
+	/**
+	 * The open candle per interval and the closed candles not yet written of one coin, guarded by its own monitor.
+	 */
+	private static final class CodeCandles {
+
+		final String code;
+		final Candle[] open = new Candle[INTERVALS.length];
+		final List<Candle> closed = new ArrayList<>();
+
+		CodeCandles(String code) {
+			this.code = code;
+		}
+
+		void add(CoinPrice tick) {
+			for (CandleInterval interval : INTERVALS) {
+				int index = interval.ordinal();
+				Candle current = open[index];
+				LocalDateTime bucketStart = interval.bucketStart(tick.getLocalDateTime());
+				if (current == null || bucketStart.isAfter(current.getOpenTime())) {
+					if (current != null) {
+						closed.add(current);
+					}
+					open[index] = new Candle(code, interval, tick);
+				} else if (bucketStart.equals(current.getOpenTime())) {
+					current.add(tick);
+				} else {
+					// The tick belongs to a bucket that has already been closed
+					closed.add(new Candle(code, interval, tick));
+				}
+			}
+		}
+
+		void closeEnded(LocalDateTime now, boolean closeOpen) {
+			for (CandleInterval interval : INTERVALS) {
+				int index = interval.ordinal();
+				Candle current = open[index];
+				if (current != null
+						&& (closeOpen || !current.getOpenTime().plus(interval.getDuration()).isAfter(now))) {
+					closed.add(current);
+					open[index] = null;
+				}
+			}
+		}
+
+	}
+
+}
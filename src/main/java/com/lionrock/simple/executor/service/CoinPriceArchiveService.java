@@ -0,0 +1,132 @@
+package com.lionrock.simple.executor.service;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lionrock.simple.executor.analytics.PriceAnalyticsEngine;
+import com.lionrock.simple.executor.archive.PriceArchiveFormatException;
+import com.lionrock.simple.executor.archive.PriceArchiveReader;
+import com.lionrock.simple.executor.archive.PriceArchiveWriter;
+import com.lionrock.simple.executor.config.ArchiveProperties;
+import com.lionrock.simple.executor.mapper.CoinPriceMapper;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Moves the price history in and out of the database as binary price archives, for copying it between environments
+ * or into research tools where JSON is too slow and too large.
+ * <p>
+ * Export reads the selected history in one forward-only query through a MyBatis result handler and writes each row
+ * into a {@link PriceArchiveWriter}, so only one block of prices is held in memory however long the history is. Rows
+ * come in code and time order, the order of the {@code (code, local_date_time, id)} index, which needs no sort and
+ * makes the time deltas within a block small.
+ * </p>
+ * <p>
+ * Import decodes one block at a time and inserts it through the {@link CoinPriceBatchWriter} in multi-row batches,
+ * which also keeps {@code COIN_PRICE_LATEST} current. Every batch commits on its own: an import that fails halfway
+ * keeps the batches inserted before the failure, and importing the same archive twice stores its prices twice.
+ * Imported prices bypass the ingest path, so they feed neither candles, tick buffers nor the price stream; the
+ * analytics cache of every imported coin is dropped, and a cached latest price is replaced by a newer imported one.
+ * </p>
+ */
+public class CoinPriceArchiveService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CoinPriceArchiveService.class);
+
+	private CoinPriceMapper coinPriceMapper;
+	private CoinPriceBatchWriter coinPriceBatchWriter;
+	private LatestCoinPriceCache latestCoinPriceCache;
+	private PriceAnalyticsEngine priceAnalyticsEngine;
+	private ArchiveProperties properties;
+
+	public CoinPriceArchiveService(CoinPriceMapper coinPriceMapper, CoinPriceBatchWriter coinPriceBatchWriter,
+			LatestCoinPriceCache latestCoinPriceCache, PriceAnalyticsEngine priceAnalyticsEngine,
+			ArchiveProperties properties) {
+		this.coinPriceMapper = coinPriceMapper;
+		this.coinPriceBatchWriter = coinPriceBatchWriter;
+		this.latestCoinPriceCache = latestCoinPriceCache;
+		this.priceAnalyticsEngine = priceAnalyticsEngine;
+		this.properties = properties;
+	}
+
+	/**
+	 * Writes the prices with {@code from <= localDateTime < to} of the given coins to the channel as an archive.
+	 *
+	 * @param codes The upper case codes of the coins, or {@code null} for every coin in the table.
+	 * @param from  Inclusive lower bound, or {@code null} for the start of the history.
+	 * @param to    Exclusive upper bound, or {@code null} for the end of the history.
+	 * @return The number of exported prices.
+	 * @throws IOException if the channel fails; the archive then has no trailer, and readers reject it.
+	 */
+	public long exportCoinPrices(Collection<String> codes, LocalDateTime from, LocalDateTime to,
+			WritableByteChannel channel) throws IOException {
+		PriceArchiveWriter writer = new PriceArchiveWriter(channel, properties.getBlockRows());
+		IOException[] failure = new IOException[1];
+		coinPriceMapper.exportCoinPrices(codes, from, to, context -> {
+			try {
+				writer.write(context.getResultObject());
+			} catch (IOException e) {
+				failure[0] = e;
+				context.stop();
+			}
+		});
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		writer.finish();
+		logger.info("Exported {} coin prices in {} blocks", writer.getRowCount(), writer.getBlockCount());
+		return writer.getRowCount();
+	}
+
+	/**
+	 * Inserts every price of the archive read from the channel.
+	 *
+	 * @return The number of imported prices.
+	 * @throws PriceArchiveFormatException if the archive is invalid or truncated; the message tells how many prices
+	 *                                     were imported before the problem was found.
+	 */
+	public long importCoinPrices(ReadableByteChannel channel) throws IOException {
+		PriceArchiveReader reader = new PriceArchiveReader(channel);
+		int batchSize = properties.getImportBatchSize();
+		List<CoinPrice> block = new ArrayList<>();
+		Map<String, CoinPrice> newest = new HashMap<>();
+		long imported = 0;
+		try {
+			while (reader.readBlock(block) >= 0) {
+				for (CoinPrice coinPrice : block) {
+					coinPrice.setUpdatedBy(properties.getImportUpdatedBy());
+				}
+				for (int from = 0; from < block.size(); from += batchSize) {
+					List<CoinPrice> batch = block.subList(from, Math.min(block.size(), from + batchSize));
+					imported += coinPriceBatchWriter.insertCoinPrices(batch);
+					for (CoinPrice coinPrice : batch) {
+						newest.merge(coinPrice.getCode(), coinPrice, (current, candidate) -> candidate
+								.getLocalDateTime().isBefore(current.getLocalDateTime()) ? current : candidate);
+					}
+				}
+				block.clear();
+			}
+		} catch (PriceArchiveFormatException e) {
+			throw new PriceArchiveFormatException(e.getMessage() + " (" + imported + " prices were imported before)",
+					e);
+		} finally {
+			for (CoinPrice coinPrice : newest.values()) {
+				priceAnalyticsEngine.evict(coinPrice.getCode());
+				latestCoinPriceCache.putIfCached(coinPrice);
+			}
+		}
+		logger.info("Imported {} coin prices of {} coins in {} blocks", imported, newest.size(),
+				reader.getBlockCount());
+		return imported;
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.lionrock.simple.executor.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.transaction.Transactional;
+
+import org.springframework.stereotype.Service;
+
+import com.lionrock.simple.executor.mapper.CoinPriceMapper;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Persists coin prices, one transaction per call.
+ * <p>
+ * This is the write side shared by the synchronous and every buffered ingest path. Transactions here contain
+ * nothing but SQL, so a pooled connection is held only for as long as the statements take. A batch is written with
+ * one multi-row {@code insert into coin_price} statement, so the cost of a database round trip is paid once per
+ * batch instead of once per tick.
+ * </p>
+ */
+@Service
+public class CoinPriceBatchWriter {
+
+	private CoinPriceMapper coinPriceMapper;
+
+	public CoinPriceBatchWriter(CoinPriceMapper coinPriceMapper) {
+		this.coinPriceMapper = coinPriceMapper;
+	}
+
+	/**
+	 * Inserts a single coin price and merges it into the {@code COIN_PRICE_LATEST} projection in one transaction.
+	 *
+	 * @param coinPrice The coin price to insert; its generated id is set on return.
+	 */
+	@Transactional
+	public void insertCoinPrice(CoinPrice coinPrice) {
+		coinPriceMapper.insertLatestCoinPrice(coinPrice);
+		coinPriceMapper.mergeLatestCoinPrice(coinPrice);
+	}
+
+	/**
+	 * Inserts all given coin prices in one transaction and merges the newest price per code into the
+	 * {@code COIN_PRICE_LATEST} projection.
+	 *
+	 * @param coinPrices The coin prices to insert; an empty list is a no-op.
+	 * @return The number of inserted rows.
+	 */
+	@Transactional
+	public int insertCoinPrices(List<CoinPrice> coinPrices) {
+		if (coinPrices.isEmpty()) {
+			return 0;
+		}
+		int inserted = coinPriceMapper.insertCoinPrices(coinPrices);
+		coinPriceMapper.mergeLatestCoinPrices(newestPerCode(coinPrices));
+		return inserted;
+	}
+
+	/**
+	 * Reduces a batch to its newest coin price per code, as a MERGE source may not match a target row twice.
+	 */
+	private List<CoinPrice> newestPerCode(List<CoinPrice> coinPrices) {
+		Map<String, CoinPrice> newest = new HashMap<>();
+		for (CoinPrice coinPrice : coinPrices) {
+			newest.merge(coinPrice.getCode(), coinPrice,
+					(current, candidate) -> candidate.getLocalDateTime().isBefore(current.getLocalDateTime()) ? current
+							: candidate);
+		}
+		return new ArrayList<>(newest.values());
+	}
+
+}
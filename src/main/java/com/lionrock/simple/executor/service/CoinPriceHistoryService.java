@@ -0,0 +1,111 @@
+package com.lionrock.simple.executor.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+
+import com.lionrock.simple.executor.mapper.CoinPriceMapper;
+import com.lionrock.simple.executor.model.CoinPrice;
+import com.lionrock.simple.executor.model.CoinPricePage;
+
+/**
+ * Reads the price history of a coin, either as a stream or in keyset pages.
+ * <p>
+ * Streaming reads the history through a MyBatis {@link Cursor}, handing each row to the caller as it is fetched, so
+ * memory use does not depend on how many rows the range contains. A cursor only stays open while its
+ * {@code SqlSession} does, and a Spring-managed session is closed as soon as the mapper call returns unless a
+ * transaction is active; {@link #streamCoinPriceHistory} is therefore transactional and consumes the whole cursor
+ * before returning.
+ * </p>
+ * <p>
+ * Pages are addressed by the {@code (localDateTime, id)} of the last row of the previous page rather than by an
+ * offset, so every page is an index range scan no matter how deep into the history it is.
+ * </p>
+ * <p>
+ * Unchanged prices may be kept out of the table by the {@link PriceDeadbandFilter}, so a coin's price at {@code from}
+ * is often stored well before it. Both reads can therefore start with the seed row: the last price before
+ * {@code from}, which is the price in effect when the range begins. With it, the rows read as a step function cover
+ * the whole range.
+ * </p>
+ */
+@Service
+public class CoinPriceHistoryService {
+
+	private CoinPriceMapper coinPriceMapper;
+
+	public CoinPriceHistoryService(CoinPriceMapper coinPriceMapper) {
+		this.coinPriceMapper = coinPriceMapper;
+	}
+
+	/**
+	 * Hands every price of a coin with {@code from <= localDateTime < to} to the consumer, oldest first.
+	 *
+	 * @param from            Inclusive lower bound, or {@code null} for the start of the history.
+	 * @param to              Exclusive upper bound, or {@code null} for the end of the history.
+	 * @param includePrevious Whether to start with the last price before {@code from}, if there is one.
+	 * @return The number of prices streamed.
+	 * @throws IOException if the consumer fails to write a price; the cursor is closed and the stream abandoned.
+	 */
+	@Transactional
+	public long streamCoinPriceHistory(String code, LocalDateTime from, LocalDateTime to, boolean includePrevious,
+			CoinPriceConsumer consumer) throws IOException {
+		long count = 0;
+		CoinPrice previous = includePrevious ? getCoinPriceBefore(code, from) : null;
+		if (previous != null) {
+			consumer.accept(previous);
+			count++;
+		}
+		try (Cursor<CoinPrice> cursor = coinPriceMapper.streamCoinPriceHistory(code.toUpperCase(), from, to)) {
+			for (CoinPrice coinPrice : cursor) {
+				consumer.accept(coinPrice);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns up to {@code limit} prices of a coin following the given position, oldest first.
+	 *
+	 * @param afterTime       Time of the last price of the previous page, or {@code null} for the first page.
+	 * @param afterId         Id of the last price of the previous page; required when {@code afterTime} is given.
+	 * @param includePrevious Whether the first page starts with the last price before {@code from}, if there is one.
+	 */
+	public CoinPricePage getCoinPriceHistoryPage(String code, LocalDateTime from, LocalDateTime to,
+			LocalDateTime afterTime, Long afterId, int limit, boolean includePrevious) {
+		CoinPrice previous = includePrevious && afterTime == null ? getCoinPriceBefore(code, from) : null;
+		List<CoinPrice> items = new ArrayList<>(limit + 1);
+		if (previous != null) {
+			items.add(previous);
+		}
+		items.addAll(coinPriceMapper.getCoinPriceHistoryPage(code.toUpperCase(), from, to, afterTime, afterId,
+				limit + 1 - items.size()));
+		if (items.size() <= limit) {
+			return new CoinPricePage(items, null, null);
+		}
+		items = items.subList(0, limit);
+		CoinPrice last = items.get(limit - 1);
+		return new CoinPricePage(items, last.getLocalDateTime(), last.getId());
+	}
+
+	private CoinPrice getCoinPriceBefore(String code, LocalDateTime from) {
+		return from == null ? null : coinPriceMapper.getCoinPriceBefore(code.toUpperCase(), from);
+	}
+
+	/**
+	 * Receives the prices of a history stream one at a time.
+	 */
+	@FunctionalInterface
+	public interface CoinPriceConsumer {
+
+		void accept(CoinPrice coinPrice) throws IOException;
+
+	}
+
+}
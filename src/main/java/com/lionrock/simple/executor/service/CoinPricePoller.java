@@ -0,0 +1,301 @@
+package com.lionrock.simple.executor.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.lionrock.simple.executor.concurrent.KeyedExecutor;
+import com.lionrock.simple.executor.concurrent.WrappedTask;
+import com.lionrock.simple.executor.config.PollingProperties;
+import com.lionrock.simple.executor.config.TaskExecutorLifecycle;
+import com.lionrock.simple.executor.model.RegisteredCoin;
+import com.lionrock.simple.executor.task.InsertCoinPriceCallableTask;
+
+/**
+ * Refreshes the price of every enabled coin in the registry at the coin's own poll interval.
+ * <p>
+ * Coins are spread across a fixed number of shards by the hash of their code. Each shard is a single scheduler
+ * thread that wakes every {@code tick-interval}, picks up registry changes, and hands the coins that are due to the
+ * shared task executor as {@link InsertCoinPriceCallableTask}s. The shard threads only decide what is due; the
+ * fetching and writing happen on the task executor, so the number of scheduler threads stays the same however many
+ * coins are registered. Polls are handed over with {@link KeyedExecutor#offer(Runnable)}, so a poll the task
+ * executor cannot take right now is dropped and counted as rejected instead of being waited for or run on the shard
+ * thread, whatever the executor's rejection policy.
+ * </p>
+ * <p>
+ * Refreshes are spread out in time: a newly seen coin first falls due at a random point within its interval, and
+ * every later refresh is moved earlier or later by up to {@code jitter} of the interval, so coins registered together
+ * do not stay in lockstep. A coin whose previous refresh is still running when it falls due is skipped until its next
+ * turn, as is any coin falling due while {@code max-in-flight} polls are running, so a slow upstream makes the poller
+ * do less work rather than pile it up.
+ * </p>
+ */
+public class CoinPricePoller implements SmartLifecycle {
+
+	/**
+	 * Stops before the task executor drains, so no new polls are submitted while it does.
+	 */
+	public static final int PHASE = TaskExecutorLifecycle.PHASE + 1024;
+
+	private static final Logger logger = LoggerFactory.getLogger(CoinPricePoller.class);
+
+	private final CoinRegistryService coinRegistryService;
+	private final CoinPriceService coinPriceService;
+	private final KeyedExecutor keyedExecutor;
+	private final PollingProperties properties;
+	private final Semaphore inFlight;
+	private final LongAdder dispatchedCount = new LongAdder();
+	private final LongAdder skippedRunningCount = new LongAdder();
+	private final LongAdder skippedSaturatedCount = new LongAdder();
+	private final LongAdder rejectedCount = new LongAdder();
+	private final LongAdder failedCount = new LongAdder();
+
+	private volatile boolean running;
+	private ScheduledExecutorService[] shards;
+
+	public CoinPricePoller(CoinRegistryService coinRegistryService, CoinPriceService coinPriceService,
+			KeyedExecutor keyedExecutor, PollingProperties properties) {
+		this.coinRegistryService = coinRegistryService;
+		this.coinPriceService = coinPriceService;
+		this.keyedExecutor = keyedExecutor;
+		this.properties = properties;
+		this.inFlight = new Semaphore(properties.getMaxInFlight());
+	}
+
+	/**
+	 * Returns the number of polls handed to the task executor.
+	 */
+	public long getDispatchedCount() {
+		return dispatchedCount.sum();
+	}
+
+	/**
+	 * Returns the number of polls skipped because the previous poll of the same coin was still running.
+	 */
+	public long getSkippedRunningCount() {
+		return skippedRunningCount.sum();
+	}
+
+	/**
+	 * Returns the number of polls skipped because {@code max-in-flight} polls were already running.
+	 */
+	public long getSkippedSaturatedCount() {
+		return skippedSaturatedCount.sum();
+	}
+
+	/**
+	 * Returns the number of polls dropped because the task executor could not take them right away.
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.sum();
+	}
+
+	/**
+	 * Returns the number of polls that failed.
+	 */
+	public long getFailedCount() {
+		return failedCount.sum();
+	}
+
+	@Override
+	public void start() {
+		if (!properties.isEnabled() || running) {
+			return;
+		}
+		running = true;
+		long tickNanos = properties.getTickInterval().toNanos();
+		shards = new ScheduledExecutorService[properties.getShards()];
+		for (int i = 0; i < shards.length; i++) {
+			Shard shard = new Shard(i);
+			shards[i] = Executors
+					.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("coin-poller-" + i + "-"));
+			shards[i].scheduleAtFixedRate(shard::tick, ThreadLocalRandom.current().nextLong(tickNanos), tickNanos,
+					TimeUnit.NANOSECONDS);
+		}
+		long refreshMillis = properties.getRegistryRefreshInterval().toMillis();
+		shards[0].scheduleWithFixedDelay(this::refreshRegistry, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void stop() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		for (ScheduledExecutorService shard : shards) {
+			shard.shutdown();
+		}
+		try {
+			for (ScheduledExecutorService shard : shards) {
+				shard.awaitTermination(properties.getTickInterval().toMillis() * 2, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	private void refreshRegistry() {
+		try {
+			coinRegistryService.refresh();
+		} catch (RuntimeException e) {
+			logger.warn("Failed to refresh the coin registry", e);
+		}
+	}
+
+	private long jittered(long intervalNanos) {
+		double jitter = properties.getJitter();
+		if (jitter <= 0) {
+			return intervalNanos;
+		}
+		double offset = (ThreadLocalRandom.current().nextDouble() * 2 - 1) * jitter;
+		return Math.max(1, (long) (intervalNanos * (1 + offset)));
+	}
+
+	/**
+	 * The coins of one shard and when each of them is next due; only touched by the shard's own thread.
+	 */
+	private final class Shard {
+
+		private final int index;
+		private final Map<String, PollState> states = new HashMap<>();
+		private long seenVersion = -1;
+
+		Shard(int index) {
+			this.index = index;
+		}
+
+		void tick() {
+			try {
+				CoinRegistryService.Snapshot snapshot = coinRegistryService.snapshot();
+				long now = System.nanoTime();
+				if (snapshot.getVersion() != seenVersion) {
+					reconcile(snapshot, now);
+				}
+				for (PollState state : states.values()) {
+					if (now - state.nextDue >= 0) {
+						poll(state, now);
+					}
+				}
+			} catch (RuntimeException e) {
+				logger.warn("Coin poller shard {} failed to dispatch polls", index, e);
+			}
+		}
+
+		private void reconcile(CoinRegistryService.Snapshot snapshot, long now) {
+			Map<String, RegisteredCoin> owned = new HashMap<>();
+			for (RegisteredCoin coin : snapshot.getCoins()) {
+				if (coin.isEnabled() && Math.floorMod(coin.getCode().hashCode(), shards.length) == index) {
+					owned.put(coin.getCode(), coin);
+				}
+			}
+			for (Iterator<String> codes = states.keySet().iterator(); codes.hasNext();) {
+				if (!owned.containsKey(codes.next())) {
+					codes.remove();
+				}
+			}
+			for (RegisteredCoin coin : owned.values()) {
+				long intervalNanos = TimeUnit.MILLISECONDS.toNanos(coin.getPollIntervalMs());
+				PollState state = states.get(coin.getCode());
+				if (state == null) {
+					state = new PollState(coin.getCode());
+					state.nextDue = now + ThreadLocalRandom.current().nextLong(intervalNanos);
+					states.put(coin.getCode(), state);
+				}
+				state.intervalNanos = intervalNanos;
+			}
+			seenVersion = snapshot.getVersion();
+		}
+
+		private void poll(PollState state, long now) {
+			state.nextDue = now + jittered(state.intervalNanos);
+			if (state.running) {
+				skippedRunningCount.increment();
+				return;
+			}
+			if (!inFlight.tryAcquire()) {
+				skippedSaturatedCount.increment();
+				return;
+			}
+			state.running = true;
+			if (keyedExecutor.offer(new Poll(state, new InsertCoinPriceCallableTask(state.code, coinPriceService)))) {
+				dispatchedCount.increment();
+			} else {
+				rejectedCount.increment();
+				state.running = false;
+				inFlight.release();
+			}
+		}
+
+	}
+
+	/**
+	 * Runs the insert task of one poll and then frees the coin and the in-flight slot; the task stays visible to task
+	 * metrics and the keyed executor through {@link WrappedTask}.
+	 */
+	private final class Poll implements Runnable, WrappedTask {
+
+		private final PollState state;
+		private final InsertCoinPriceCallableTask task;
+
+		Poll(PollState state, InsertCoinPriceCallableTask task) {
+			this.state = state;
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			try {
+				task.call();
+			} catch (InterruptedException e) {
+				failedCount.increment();
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				failedCount.increment();
+			} finally {
+				state.running = false;
+				inFlight.release();
+			}
+		}
+
+		@Override
+		public Object getTask() {
+			return task;
+		}
+
+	}
+
+	private static final class PollState {
+
+		private final String code;
+		private long intervalNanos;
+		private long nextDue;
+		private volatile boolean running;
+
+		PollState(String code) {
+			this.code = code;
+		}
+
+	}
+
+}
@@ -1,21 +1,57 @@
 package com.lionrock.simple.executor.service;
 
 import java.time.LocalDateTime;
-
-import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.stereotype.Service;
 
+import com.lionrock.simple.executor.concurrent.AdaptiveConcurrencyLimiter;
+import com.lionrock.simple.executor.concurrent.ConcurrencyLimitExceededException;
 import com.lionrock.simple.executor.mapper.CoinPriceMapper;
 import com.lionrock.simple.executor.model.CoinPrice;
+import com.lionrock.simple.executor.source.HedgedPriceFetcher;
+import com.lionrock.simple.executor.source.PriceQuote;
+import com.lionrock.simple.executor.stream.CoinPriceStreamHub;
+import com.lionrock.simple.executor.tick.TickStore;
+import com.lionrock.simple.executor.trace.TaskTracer;
+import com.lionrock.simple.executor.trace.TraceEvent;
 
 @Service
 public class CoinPriceService {
 
 	private CoinPriceMapper coinPriceMapper;
+	private CoinPriceBatchWriter coinPriceBatchWriter;
+	private CoinPriceWriteBehindBuffer coinPriceWriteBehindBuffer;
+	private LatestCoinPriceCache latestCoinPriceCache;
+	private HedgedPriceFetcher hedgedPriceFetcher;
+	private CandleAggregator candleAggregator;
+	private TickStore tickStore;
+	private CoinPriceStreamHub coinPriceStreamHub;
+	private AdaptiveConcurrencyLimiter databaseConcurrencyLimiter;
+	private TaskTracer taskTracer;
+	private PriceDeadbandFilter priceDeadbandFilter;
 
-	public CoinPriceService(CoinPriceMapper coinPriceMapper) {
+	public CoinPriceService(CoinPriceMapper coinPriceMapper, CoinPriceBatchWriter coinPriceBatchWriter,
+			CoinPriceWriteBehindBuffer coinPriceWriteBehindBuffer, LatestCoinPriceCache latestCoinPriceCache,
+			HedgedPriceFetcher hedgedPriceFetcher, CandleAggregator candleAggregator, TickStore tickStore,
+			CoinPriceStreamHub coinPriceStreamHub, AdaptiveConcurrencyLimiter databaseConcurrencyLimiter,
+			TaskTracer taskTracer, PriceDeadbandFilter priceDeadbandFilter) {
 		this.coinPriceMapper = coinPriceMapper;
+		this.coinPriceBatchWriter = coinPriceBatchWriter;
+		this.coinPriceWriteBehindBuffer = coinPriceWriteBehindBuffer;
+		this.latestCoinPriceCache = latestCoinPriceCache;
+		this.hedgedPriceFetcher = hedgedPriceFetcher;
+		this.candleAggregator = candleAggregator;
+		this.tickStore = tickStore;
+		this.coinPriceStreamHub = coinPriceStreamHub;
+		this.databaseConcurrencyLimiter = databaseConcurrencyLimiter;
+		this.taskTracer = taskTracer;
+		this.priceDeadbandFilter = priceDeadbandFilter;
 	}
 
 	/**
@@ -34,13 +70,80 @@ public class CoinPriceService {
 	 * Note: This method assumes that the coin code is a unique identifier for the coin and that the database or
 	 * external service is up-to-date with the latest price information.
 	 * </p>
+	 * <p>
+	 * Reads are served from the {@link LatestCoinPriceCache} when possible. On a miss the price is loaded from the
+	 * mapper and the cache is warmed with it, unless a newer price was written in the meantime. The mapper call is
+	 * subject to the database concurrency limit and is shed with a {@link ConcurrencyLimitExceededException} when the
+	 * limit is reached.
+	 * </p>
 	 *
 	 * @param code The unique code identifying the coin for which the latest price is requested.
 	 * @return An {@link Optional<CoinPrice>} containing the latest price of the coin if available, or an empty
 	 *         optional if the coin code does not exist or no price data is available.
 	 */
 	public CoinPrice getLatestCoinPriceByCode(String code) {
-		return coinPriceMapper.getLatestCoinPriceByCode(code.toUpperCase());
+		String upperCaseCode = code.toUpperCase();
+		CoinPrice coinPrice = latestCoinPriceCache.get(upperCaseCode);
+		if (coinPrice != null) {
+			return coinPrice;
+		}
+		return latestCoinPriceCache.put(
+				databaseConcurrencyLimiter.call(() -> coinPriceMapper.getLatestCoinPriceByCode(upperCaseCode)));
+	}
+
+	/**
+	 * Retrieves the latest prices of many coins at once.
+	 * <p>
+	 * Prices are served from the {@link LatestCoinPriceCache} where possible; every code the cache misses is loaded
+	 * from the {@code COIN_PRICE_LATEST} projection in a single {@code IN} query, which holds one row per coin and so
+	 * needs neither a sort nor a window over the price history. The loaded prices warm the cache like single reads do.
+	 * </p>
+	 *
+	 * @param codes The codes of the coins, in any case.
+	 * @return The latest price of every requested coin that has one, in the order the codes were given.
+	 */
+	public List<CoinPrice> getLatestCoinPrices(Collection<String> codes) {
+		Map<String, CoinPrice> coinPrices = new LinkedHashMap<>();
+		List<String> missingCodes = new ArrayList<>();
+		for (String code : codes) {
+			String upperCaseCode = code.toUpperCase();
+			if (coinPrices.containsKey(upperCaseCode)) {
+				continue;
+			}
+			CoinPrice coinPrice = latestCoinPriceCache.get(upperCaseCode);
+			coinPrices.put(upperCaseCode, coinPrice);
+			if (coinPrice == null) {
+				missingCodes.add(upperCaseCode);
+			}
+		}
+		if (!missingCodes.isEmpty()) {
+			for (CoinPrice coinPrice : databaseConcurrencyLimiter
+					.call(() -> coinPriceMapper.getLatestCoinPrices(missingCodes))) {
+				coinPrices.put(coinPrice.getCode(), latestCoinPriceCache.put(coinPrice));
+			}
+		}
+		List<CoinPrice> latestCoinPrices = new ArrayList<>(coinPrices.size());
+		for (CoinPrice coinPrice : coinPrices.values()) {
+			if (coinPrice != null) {
+				latestCoinPrices.add(coinPrice);
+			}
+		}
+		return latestCoinPrices;
+	}
+
+	/**
+	 * Returns the counters of the latest-price cache.
+	 */
+	public Map<String, Long> getLatestPriceCacheStats() {
+		return Map.of("hits", latestCoinPriceCache.getHitCount(), "misses", latestCoinPriceCache.getMissCount(),
+				"evictions", latestCoinPriceCache.getEvictionCount(), "size", (long) latestCoinPriceCache.size());
+	}
+
+	/**
+	 * Returns when each coin's price was last fetched, including prices the deadband kept out of the database.
+	 */
+	public Map<String, LocalDateTime> getLastSeen() {
+		return priceDeadbandFilter.getLastSeen();
 	}
 
 	/**
@@ -62,53 +165,103 @@ public class CoinPriceService {
 	 * information. The caller is responsible for ensuring that the data complies with any database constraints
 	 * and is suitable for insertion.
 	 * </p>
+	 * <p>
+	 * Only the write itself runs in a transaction, in {@link CoinPriceBatchWriter}, which also merges the
+	 * {@code COIN_PRICE_LATEST} projection so the latest-price query never has to sort the price history. Fetching
+	 * the price happens before the transaction starts: a transaction holds a pooled JDBC connection from its first
+	 * statement (or, with the JPA transaction manager, from the moment it begins), so blocking inside it would cap
+	 * the number of concurrent tasks at the connection pool size whatever thread model runs them. When write-behind
+	 * is enabled the coin price is handed to the {@link CoinPriceWriteBehindBuffer} instead, and is written later as
+	 * part of a batch.
+	 * </p>
+	 * <p>
+	 * The synchronous write is subject to the database concurrency limit. When the limit is already reached the insert
+	 * is shed with a {@link ConcurrencyLimitExceededException} before the price is fetched. Once fetched, the price
+	 * waits up to {@code simple-executor.db-limit.max-wait} for a free slot, so a burst of writes completing together
+	 * queues briefly instead of throwing fetched prices away; only a write still not admitted by then is shed.
+	 * </p>
+	 * <p>
+	 * The price is fetched by the {@link HedgedPriceFetcher}, which asks every configured price source and takes the
+	 * first good answer; the winning source is recorded as the updater. If no source answers before the fetch
+	 * deadline a {@link TimeoutException} is thrown, and if every source fails a
+	 * {@link com.lionrock.simple.executor.source.PriceUnavailableException}.
+	 * </p>
+	 * <p>
+	 * With the {@link PriceDeadbandFilter} enabled, a price within the deadband of the coin's last stored price is not
+	 * written at all: the coin's last-seen time moves forward and the price is returned without an id. The latest
+	 * stored price stays current, so the cache is left as it is.
+	 * </p>
+	 * <p>
+	 * The {@link LatestCoinPriceCache} is updated once the write has committed, so readers never see a price that
+	 * was rolled back. The price is then folded into the coin's candles by the {@link CandleAggregator}, appended to
+	 * the {@link TickStore} of recent ticks and pushed to the subscribers of the {@link CoinPriceStreamHub}, without
+	 * waiting for any of them.
+	 * </p>
 	 *
 	 * @param coinPrice The {@link CoinPrice} object containing the latest price information to be inserted into the database.
 	 */
-	@Transactional
-	public CoinPrice insertLatestCoinPrice(String code) throws InterruptedException {
+	public CoinPrice insertLatestCoinPrice(String code) throws InterruptedException, TimeoutException {
+		return insertLatestCoinPrice(code, 0);
+	}
+
+	/**
+	 * Inserts the latest coin price as {@link #insertLatestCoinPrice(String)} does, tracing its steps as part of a task
+	 * whose submission was traced by {@link #traceSubmitted(String)}.
+	 * <p>
+	 * The start of the insert, the database write and the outcome are recorded in the {@link TaskTracer} under the
+	 * given task id. Tracing costs a few primitive stores per step, so it stays on under load.
+	 * </p>
+	 *
+	 * @param code    The code of the coin.
+	 * @param traceId The task id returned by {@link #traceSubmitted(String)}, or 0 if the submission was not traced.
+	 */
+	public CoinPrice insertLatestCoinPrice(String code, long traceId) throws InterruptedException, TimeoutException {
+		String upperCaseCode = code.toUpperCase();
+		long taskId = taskTracer.record(TraceEvent.STARTED, traceId, upperCaseCode);
 		try {
-			long threadId = Thread.currentThread().getId();
-			System.out.println(
-					String.format("%s Thread %s start insert price for %s", LocalDateTime.now(), threadId, code));
-			Thread.sleep((long) (Math.random() * 2000));
+			if (!coinPriceWriteBehindBuffer.isEnabled()) {
+				databaseConcurrencyLimiter.checkCapacity();
+			}
+			PriceQuote quote = hedgedPriceFetcher.fetch(upperCaseCode);
 			CoinPrice coinPrice = new CoinPrice();
-			coinPrice.setCode(code.toUpperCase());
+			coinPrice.setCode(upperCaseCode);
 			coinPrice.setLocalDateTime(LocalDateTime.now());
-			coinPrice.setPrice(generateRandomPrice());
-			coinPrice.setUpdatedBy("Thread " + code.toUpperCase());
-			coinPriceMapper.insertLatestCoinPrice(coinPrice);
-			System.out.println(
-					String.format("%s Thread %s completed insert price for %s", LocalDateTime.now(), threadId, code));
+			coinPrice.setPrice(quote.getPrice());
+			coinPrice.setUpdatedBy(quote.getSource());
+			if (priceDeadbandFilter.shouldStore(coinPrice)) {
+				taskTracer.record(TraceEvent.DB_START, taskId, upperCaseCode);
+				try {
+					if (coinPriceWriteBehindBuffer.isEnabled()) {
+						coinPriceWriteBehindBuffer.enqueue(coinPrice);
+					} else {
+						databaseConcurrencyLimiter.awaitRun(() -> coinPriceBatchWriter.insertCoinPrice(coinPrice));
+					}
+				} catch (InterruptedException | RuntimeException e) {
+					priceDeadbandFilter.forget(upperCaseCode);
+					throw e;
+				}
+				taskTracer.record(TraceEvent.DB_END, taskId, upperCaseCode);
+				latestCoinPriceCache.put(coinPrice);
+			}
+			candleAggregator.onTick(coinPrice);
+			tickStore.record(coinPrice);
+			coinPriceStreamHub.publish(coinPrice);
+			taskTracer.record(TraceEvent.COMPLETED, taskId, upperCaseCode);
 			return coinPrice;
-		} catch (InterruptedException e) {
-			e.printStackTrace();
+		} catch (InterruptedException | TimeoutException | RuntimeException e) {
+			taskTracer.record(TraceEvent.FAILED, taskId, upperCaseCode);
 			throw e;
 		}
-
 	}
 
 	/**
-	 * Generates a random price for a coin.
-	 * <p>
-	 * This method simulates the fluctuation of coin prices by generating a random price within a predefined range.
-	 * It is primarily used for testing or simulation purposes, where actual market data is not required. The method
-	 * ensures that the generated price is within realistic boundaries to mimic real market conditions as closely as
-	 * possible.
-	 * </p>
-	 * <p>
-	 * Note: The randomness is bounded and may not reflect actual market volatility. This method should not be used
-	 * for financial analysis or trading decisions.
-	 * </p>
+	 * Records that a task inserting the price of a coin is about to be handed to an executor.
 	 *
-	 * @return A float value representing the randomly generated coin price.
+	 * @param code The code of the coin.
+	 * @return The id under which the task's later steps are traced.
 	 */
-	private float generateRandomPrice() {
-		if (Math.random() > 0.5) {
-			return (float) (1 + (Math.random() / 1000));
-		} else {
-			return (float) (1 - (Math.random() / 1000));
-		}
+	public long traceSubmitted(String code) {
+		return taskTracer.record(TraceEvent.SUBMITTED, 0, code.toUpperCase());
 	}
 
 }
@@ -0,0 +1,411 @@
+package com.lionrock.simple.executor.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import com.lionrock.simple.executor.config.TaskExecutorLifecycle;
+import com.lionrock.simple.executor.config.WriteBehindProperties;
+import com.lionrock.simple.executor.journal.TickJournal;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Bounded in-memory buffer that writes coin prices to the database in batches.
+ * <p>
+ * Producers call {@link #enqueue(CoinPrice)} and return immediately. A single flusher thread drains the buffer and
+ * hands batches to {@link CoinPriceBatchWriter}. A batch is written as soon as it reaches {@code flush-size} coin
+ * prices, or once {@code max-latency} has passed since its first coin price was taken from the buffer, whichever
+ * comes first.
+ * </p>
+ * <p>
+ * When the buffer is full the configured overflow policy applies: the producer either writes the coin price itself,
+ * is rejected, or waits for space. On shutdown the buffer stops after the task executor has drained, and everything
+ * still buffered is flushed before the application context closes, so no accepted tick is lost on a clean stop.
+ * </p>
+ * <p>
+ * A batch that fails is retried up to {@code max-retries} times. After that its coin prices are written one at a
+ * time, so a single row the database rejects cannot hold back the rest, and each coin price that still fails is
+ * logged and dropped rather than stalling the flusher.
+ * </p>
+ * <p>
+ * A crash, however, loses whatever is still in memory. Given a {@link TickJournal}, the buffer holds coin prices there
+ * instead: {@link #enqueue(CoinPrice)} returns once the coin price has been appended to the memory-mapped journal, and
+ * the flusher reads batches from the journal and checkpoints each one once it has been written. On start, coin
+ * prices the journal holds beyond its checkpoint, left by a crash, are written before anything else. A crash between
+ * writing a batch and checkpointing it writes that batch again on the next start. Coin prices dropped as unwritable
+ * are checkpointed like written ones, so a rejected record cannot hold up startup. A checkpoint that still cannot be
+ * saved after {@code max-retries} attempts fails startup during replay, and otherwise stops the flusher, leaving the
+ * rest of the journal for the next start.
+ * </p>
+ */
+public class CoinPriceWriteBehindBuffer implements SmartLifecycle {
+
+	/**
+	 * Stops after the task executor, so tasks that are still draining can enqueue their final coin prices.
+	 */
+	public static final int PHASE = TaskExecutorLifecycle.PHASE - 1024;
+
+	private static final Logger logger = LoggerFactory.getLogger(CoinPriceWriteBehindBuffer.class);
+
+	private final CoinPriceBatchWriter coinPriceBatchWriter;
+	private final WriteBehindProperties properties;
+	private final BlockingQueue<CoinPrice> buffer;
+	private final TickJournal journal;
+	private final ReentrantLock journalLock = new ReentrantLock();
+	private final Condition journalSpace = journalLock.newCondition();
+	private final LongAdder flushedCount = new LongAdder();
+	private final LongAdder flushCount = new LongAdder();
+	private final LongAdder droppedCount = new LongAdder();
+
+	private volatile boolean running;
+	private Thread flusher;
+
+	public CoinPriceWriteBehindBuffer(CoinPriceBatchWriter coinPriceBatchWriter, WriteBehindProperties properties) {
+		this(coinPriceBatchWriter, properties, null);
+	}
+
+	/**
+	 * @param journal Journal to hold buffered coin prices in, or {@code null} to hold them in memory.
+	 */
+	public CoinPriceWriteBehindBuffer(CoinPriceBatchWriter coinPriceBatchWriter, WriteBehindProperties properties,
+			TickJournal journal) {
+		this.coinPriceBatchWriter = coinPriceBatchWriter;
+		this.properties = properties;
+		this.buffer = new ArrayBlockingQueue<>(properties.getBufferCapacity());
+		this.journal = journal;
+	}
+
+	/**
+	 * Returns whether write-behind is enabled; when disabled callers should write coin prices synchronously.
+	 */
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	/**
+	 * Adds a coin price to the buffer, applying the overflow policy when the buffer is full.
+	 * <p>
+	 * Once the buffer has been stopped, coin prices are written synchronously on the caller's thread so late
+	 * producers cannot lose data.
+	 * </p>
+	 *
+	 * @param coinPrice The coin price to persist.
+	 * @throws RejectedExecutionException if the buffer is full and the overflow policy rejects the coin price.
+	 * @throws InterruptedException if interrupted while waiting for buffer space.
+	 */
+	public void enqueue(CoinPrice coinPrice) throws InterruptedException {
+		if (!running) {
+			coinPriceBatchWriter.insertCoinPrices(List.of(coinPrice));
+			return;
+		}
+		if (journal != null) {
+			appendToJournal(coinPrice);
+			return;
+		}
+		if (buffer.offer(coinPrice)) {
+			return;
+		}
+		switch (properties.getOverflowPolicy()) {
+		case CALLER_RUNS:
+			coinPriceBatchWriter.insertCoinPrices(List.of(coinPrice));
+			break;
+		case REJECT:
+			throw new RejectedExecutionException("Write-behind buffer is full");
+		case BLOCK:
+		default:
+			if (!buffer.offer(coinPrice, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+				throw new RejectedExecutionException(String.format("Write-behind buffer still full after waiting %s",
+						properties.getBlockTimeout()));
+			}
+		}
+	}
+
+	/**
+	 * Applies the overflow policy once {@code buffer-capacity} coin prices are waiting in the journal, then appends.
+	 */
+	private void appendToJournal(CoinPrice coinPrice) throws InterruptedException {
+		if (journal.getLag() >= properties.getBufferCapacity()) {
+			switch (properties.getOverflowPolicy()) {
+			case CALLER_RUNS:
+				coinPriceBatchWriter.insertCoinPrices(List.of(coinPrice));
+				return;
+			case REJECT:
+				throw new RejectedExecutionException("Write-behind journal is full");
+			case BLOCK:
+			default:
+				awaitJournalSpace();
+			}
+		}
+		long sequence = journal.append(coinPrice);
+		if ((sequence - journal.getCheckpoint()) % properties.getFlushSize() == 0) {
+			LockSupport.unpark(flusher);
+		}
+	}
+
+	private void awaitJournalSpace() throws InterruptedException {
+		long remaining = properties.getBlockTimeout().toNanos();
+		// a lock rather than a monitor, so a producer on a virtual thread does not pin its carrier while it waits
+		journalLock.lock();
+		try {
+			while (journal.getLag() >= properties.getBufferCapacity()) {
+				if (remaining <= 0) {
+					throw new RejectedExecutionException(String.format(
+							"Write-behind journal still full after waiting %s", properties.getBlockTimeout()));
+				}
+				remaining = journalSpace.awaitNanos(remaining);
+			}
+		} finally {
+			journalLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of coin prices currently waiting to be written.
+	 */
+	public int getBufferedCount() {
+		return journal != null ? (int) Math.min(journal.getLag(), Integer.MAX_VALUE) : buffer.size();
+	}
+
+	/**
+	 * Returns the number of coin prices written by the flusher so far.
+	 */
+	public long getFlushedCount() {
+		return flushedCount.sum();
+	}
+
+	/**
+	 * Returns the number of batches written by the flusher so far.
+	 */
+	public long getFlushCount() {
+		return flushCount.sum();
+	}
+
+	/**
+	 * Returns the number of coin prices dropped because they could not be written.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.sum();
+	}
+
+	@Override
+	public void start() {
+		if (!properties.isEnabled() || running) {
+			return;
+		}
+		if (journal != null) {
+			replayJournal();
+		}
+		running = true;
+		flusher = new Thread(journal != null ? this::applyLoop : this::flushLoop, "coin-price-write-behind");
+		flusher.start();
+	}
+
+	@Override
+	public void stop() {
+		if (!running) {
+			return;
+		}
+		running = false;
+		LockSupport.unpark(flusher);
+		try {
+			flusher.join(properties.getShutdownTimeout().toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (flusher.isAlive()) {
+			flusher.interrupt();
+			logger.warn("Write-behind buffer did not flush within {}, {} coin prices were not written",
+					properties.getShutdownTimeout(), getBufferedCount());
+			return;
+		}
+		if (journal != null) {
+			// Coin prices appended after the flusher's final check stay in the journal and are written on next start
+			return;
+		}
+		// Producers that raced with the flusher's final check may have left a few coin prices behind
+		List<CoinPrice> remaining = new ArrayList<>();
+		buffer.drainTo(remaining);
+		coinPriceBatchWriter.insertCoinPrices(remaining);
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+	private void flushLoop() {
+		int flushSize = properties.getFlushSize();
+		long maxLatencyNanos = properties.getMaxLatency().toNanos();
+		List<CoinPrice> batch = new ArrayList<>(flushSize);
+		try {
+			while (running || !buffer.isEmpty()) {
+				CoinPrice first = buffer.poll(maxLatencyNanos, TimeUnit.NANOSECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.nanoTime() + maxLatencyNanos;
+				buffer.drainTo(batch, flushSize - batch.size());
+				while (batch.size() < flushSize && running) {
+					long remaining = deadline - System.nanoTime();
+					CoinPrice next = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+					buffer.drainTo(batch, flushSize - batch.size());
+				}
+				flush(batch);
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes the journal's coin prices in batches, in the order they were appended, and checkpoints each batch.
+	 * <p>
+	 * A batch is taken once {@code flush-size} coin prices are waiting or {@code max-latency} after the first one was
+	 * seen; producers wake the flusher early when they complete a batch.
+	 * </p>
+	 */
+	private void applyLoop() {
+		int flushSize = properties.getFlushSize();
+		long maxLatencyNanos = properties.getMaxLatency().toNanos();
+		List<CoinPrice> batch = new ArrayList<>(flushSize);
+		try {
+			while (running || journal.getLag() > 0) {
+				if (journal.getLag() == 0) {
+					LockSupport.parkNanos(this, maxLatencyNanos);
+					continue;
+				}
+				long deadline = System.nanoTime() + maxLatencyNanos;
+				while (running && journal.getLag() < flushSize) {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						break;
+					}
+					LockSupport.parkNanos(this, remaining);
+				}
+				applyBatch(batch, flushSize);
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IllegalStateException e) {
+			logger.error("Write-behind flusher stopped, {} journaled coin prices are written on the next start",
+					journal.getLag(), e);
+		}
+	}
+
+	/**
+	 * Writes whatever the journal holds beyond its checkpoint, left there by a crash or a timed-out shutdown.
+	 *
+	 * @throws IllegalStateException if the checkpoint cannot be saved, which fails startup.
+	 */
+	private void replayJournal() {
+		long pending = journal.getLag();
+		if (pending == 0) {
+			return;
+		}
+		logger.info("Replaying {} coin prices from the write-behind journal", pending);
+		List<CoinPrice> batch = new ArrayList<>(properties.getFlushSize());
+		try {
+			while (journal.getLag() > 0) {
+				applyBatch(batch, properties.getFlushSize());
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes the next batch of the journal and checkpoints it, including coin prices that were dropped as unwritable.
+	 *
+	 * @throws IllegalStateException if the checkpoint still cannot be saved after {@code max-retries} retries.
+	 */
+	private void applyBatch(List<CoinPrice> batch, int flushSize) throws InterruptedException {
+		long last = journal.read(journal.getCheckpoint() + 1, flushSize, batch);
+		flush(batch);
+		for (int attempt = 0;; attempt++) {
+			try {
+				journal.checkpoint(last);
+				break;
+			} catch (IOException e) {
+				if (attempt >= properties.getMaxRetries()) {
+					throw new IllegalStateException(String.format(
+							"Failed to checkpoint the write-behind journal at %d after %d attempts", last, attempt + 1),
+							e);
+				}
+				logger.warn("Failed to checkpoint the write-behind journal at {}, retrying", last, e);
+				Thread.sleep(Math.max(properties.getMaxLatency().toMillis(), 100));
+			}
+		}
+		journalLock.lock();
+		try {
+			journalSpace.signalAll();
+		} finally {
+			journalLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes a batch, retrying it up to {@code max-retries} times, then writes its coin prices one at a time and drops
+	 * those that still fail.
+	 */
+	private void flush(List<CoinPrice> batch) throws InterruptedException {
+		if (write(batch, properties.getMaxRetries()) || batch.size() == 1) {
+			return;
+		}
+		for (CoinPrice coinPrice : batch) {
+			write(List.of(coinPrice), 0);
+		}
+	}
+
+	/**
+	 * Returns whether the coin prices were written; a single coin price that could not be written is dropped.
+	 */
+	private boolean write(List<CoinPrice> coinPrices, int retries) throws InterruptedException {
+		for (int attempt = 0;; attempt++) {
+			try {
+				coinPriceBatchWriter.insertCoinPrices(coinPrices);
+				flushedCount.add(coinPrices.size());
+				flushCount.increment();
+				return true;
+			} catch (RuntimeException e) {
+				if (attempt < retries) {
+					logger.warn("Failed to write batch of {} coin prices, retrying", coinPrices.size(), e);
+					Thread.sleep(Math.max(properties.getMaxLatency().toMillis(), 100));
+				} else if (coinPrices.size() == 1) {
+					logger.error("Dropping {} after {} failed attempts to write it", coinPrices.get(0), attempt + 1, e);
+					droppedCount.increment();
+					return false;
+				} else {
+					logger.error("Failed to write batch of {} coin prices after {} attempts, writing them one at a time",
+							coinPrices.size(), attempt + 1, e);
+					return false;
+				}
+			}
+		}
+	}
+
+}
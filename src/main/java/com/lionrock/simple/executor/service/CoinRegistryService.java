@@ -0,0 +1,158 @@
+package com.lionrock.simple.executor.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.lionrock.simple.executor.config.PollingProperties;
+import com.lionrock.simple.executor.mapper.CoinRegistryMapper;
+import com.lionrock.simple.executor.model.RegisteredCoin;
+
+/**
+ * Keeps track of the coins whose prices are tracked, as stored in {@code COIN_REGISTRY}.
+ * <p>
+ * Readers work from an immutable snapshot of the registry that is replaced whenever it changes, so the controller
+ * and every poller shard can read it on each request or tick without touching the database. The snapshot carries a
+ * version that changes with its content, which lets the poller tell cheaply whether it has anything to reconcile.
+ * </p>
+ */
+@Service
+public class CoinRegistryService {
+
+	private CoinRegistryMapper coinRegistryMapper;
+	private PollingProperties pollingProperties;
+	private volatile Snapshot snapshot;
+
+	public CoinRegistryService(CoinRegistryMapper coinRegistryMapper, PollingProperties pollingProperties) {
+		this.coinRegistryMapper = coinRegistryMapper;
+		this.pollingProperties = pollingProperties;
+	}
+
+	/**
+	 * Returns the codes of the enabled coins, in code order.
+	 */
+	public List<String> getCodes() {
+		return snapshot().getEnabledCodes();
+	}
+
+	/**
+	 * Returns every registered coin, enabled or not, in code order.
+	 */
+	public List<RegisteredCoin> getCoins() {
+		return snapshot().getCoins();
+	}
+
+	/**
+	 * Returns a registered coin, or {@code null} if the code is not registered.
+	 */
+	public RegisteredCoin getCoin(String code) {
+		return coinRegistryMapper.getRegisteredCoin(code.toUpperCase());
+	}
+
+	/**
+	 * Registers a coin, or changes the poll interval and enabled flag of one already registered.
+	 *
+	 * @param pollInterval How often the coin is polled; {@code null} for the configured default.
+	 * @throws IllegalArgumentException if the poll interval is shorter than the configured minimum.
+	 */
+	public RegisteredCoin register(String code, Duration pollInterval, boolean enabled) {
+		Duration interval = pollInterval == null ? pollingProperties.getDefaultInterval() : pollInterval;
+		if (interval.compareTo(pollingProperties.getMinInterval()) < 0) {
+			throw new IllegalArgumentException(
+					"Poll interval must be at least " + pollingProperties.getMinInterval().toMillis() + "ms");
+		}
+		RegisteredCoin coin = new RegisteredCoin();
+		coin.setCode(code.toUpperCase());
+		coin.setPollIntervalMs(interval.toMillis());
+		coin.setEnabled(enabled);
+		coin.setRegisteredAt(LocalDateTime.now());
+		coinRegistryMapper.mergeRegisteredCoin(coin);
+		refresh();
+		return getCoin(coin.getCode());
+	}
+
+	/**
+	 * Removes a coin from the registry; its price history is kept.
+	 *
+	 * @return {@code false} if the code was not registered.
+	 */
+	public boolean unregister(String code) {
+		boolean deleted = coinRegistryMapper.deleteRegisteredCoin(code.toUpperCase()) > 0;
+		refresh();
+		return deleted;
+	}
+
+	/**
+	 * Returns the current snapshot of the registry, loading it on first use.
+	 */
+	public Snapshot snapshot() {
+		Snapshot current = snapshot;
+		return current != null ? current : refresh();
+	}
+
+	/**
+	 * Re-reads the registry, replacing the snapshot if its content changed.
+	 */
+	public synchronized Snapshot refresh() {
+		List<RegisteredCoin> coins = coinRegistryMapper.getRegisteredCoins();
+		Snapshot current = snapshot;
+		if (current == null || !current.sameContent(coins)) {
+			snapshot = new Snapshot(current == null ? 1 : current.getVersion() + 1, coins);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * An immutable view of the registry at one point in time.
+	 */
+	public static final class Snapshot {
+
+		private final long version;
+		private final List<RegisteredCoin> coins;
+		private final List<String> enabledCodes;
+
+		Snapshot(long version, List<RegisteredCoin> coins) {
+			this.version = version;
+			this.coins = List.copyOf(coins);
+			List<String> codes = new ArrayList<>(coins.size());
+			for (RegisteredCoin coin : coins) {
+				if (coin.isEnabled()) {
+					codes.add(coin.getCode());
+				}
+			}
+			this.enabledCodes = List.copyOf(codes);
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public List<RegisteredCoin> getCoins() {
+			return coins;
+		}
+
+		public List<String> getEnabledCodes() {
+			return enabledCodes;
+		}
+
+		private boolean sameContent(List<RegisteredCoin> other) {
+			if (other.size() != coins.size()) {
+				return false;
+			}
+			for (int i = 0; i < coins.size(); i++) {
+				RegisteredCoin a = coins.get(i);
+				RegisteredCoin b = other.get(i);
+				if (!a.getCode().equals(b.getCode()) || a.getPollIntervalMs() != b.getPollIntervalMs()
+						|| a.isEnabled() != b.isEnabled()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,203 @@
+package com.lionrock.simple.executor.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.lionrock.simple.executor.config.LatestPriceCacheProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Write-through cache of the latest {@link CoinPrice} per coin code.
+ * <p>
+ * Reads are a single {@link ConcurrentHashMap#get(Object)}, so a hot code is served without a database call and
+ * without taking a lock. Writes keep whichever price has the newer timestamp, which means a tick that commits out of
+ * order can never roll the cached price back.
+ * </p>
+ * <p>
+ * Entries expire after the configured TTL so prices written by other processes are eventually picked up, and the
+ * number of cached codes is bounded. Once the bound is exceeded, one writer evicts in a batch down to a low-water mark
+ * of {@value #LOW_WATER_PERCENT}% of the bound: expired entries first, then those least recently read or written.
+ * The scan that picks them therefore runs once per tenth of the bound in new codes rather than on every put, and hot
+ * codes stay cached. A read records its time only if the last one recorded is more than a millisecond old, so the
+ * readers of a hot code do not all keep writing to its entry.
+ * </p>
+ */
+public class LatestCoinPriceCache {
+
+	private static final int LOW_WATER_PERCENT = 90;
+
+	private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final LatestPriceCacheProperties properties;
+	private final long ttlNanos;
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	public LatestCoinPriceCache(LatestPriceCacheProperties properties) {
+		this.properties = properties;
+		this.ttlNanos = properties.getTtl().toNanos();
+	}
+
+	/**
+	 * Returns the cached latest price for a code, or {@code null} if it is absent or expired.
+	 *
+	 * @param code The upper-case coin code.
+	 */
+	public CoinPrice get(String code) {
+		if (!properties.isEnabled()) {
+			return null;
+		}
+		Entry entry = entries.get(code);
+		long now = System.nanoTime();
+		if (entry == null || entry.isExpired(now)) {
+			missCount.increment();
+			return null;
+		}
+		hitCount.increment();
+		if (now - entry.lastAccessNanos > ACCESS_GRANULARITY_NANOS) {
+			entry.lastAccessNanos = now;
+		}
+		return entry.coinPrice;
+	}
+
+	/**
+	 * Records a price as the latest for its code unless a newer one is already cached.
+	 * <p>
+	 * An expired entry still takes part in the comparison, so a stale database read can refresh the TTL but never
+	 * replaces a newer price written through this cache.
+	 * </p>
+	 *
+	 * @param coinPrice The price to cache; {@code null} is ignored.
+	 * @return The price that is cached for the code after the update.
+	 */
+	public CoinPrice put(CoinPrice coinPrice) {
+		if (!properties.isEnabled() || coinPrice == null) {
+			return coinPrice;
+		}
+		long now = System.nanoTime();
+		Entry entry = entries.compute(coinPrice.getCode(), (code, current) -> {
+			if (current == null || !coinPrice.getLocalDateTime().isBefore(current.coinPrice.getLocalDateTime())) {
+				return new Entry(coinPrice, now + ttlNanos, now);
+			}
+			return new Entry(current.coinPrice, now + ttlNanos, now);
+		});
+		if (entries.size() > properties.getMaxSize() && evictionLock.tryLock()) {
+			try {
+				evict(now);
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+		return entry.coinPrice;
+	}
+
+	/**
+	 * Replaces the cached price of its code if one is cached and is older, for prices written around this cache such
+	 * as imported history. Unlike {@link #put(CoinPrice)} it never adds a code, as the given price need not be the
+	 * newest one in the database.
+	 *
+	 * @param coinPrice The price that may be newer than the cached one.
+	 */
+	public void putIfCached(CoinPrice coinPrice) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		entries.computeIfPresent(coinPrice.getCode(), (code, current) -> coinPrice.getLocalDateTime()
+				.isAfter(current.coinPrice.getLocalDateTime())
+						? new Entry(coinPrice, current.expiresAtNanos, current.lastAccessNanos)
+						: current);
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes expired entries, then the least recently used ones until the cache is down to its low-water mark.
+	 * <p>
+	 * An entry is only removed if it has not been replaced since the scan, so a concurrent put is never lost.
+	 * </p>
+	 */
+	private void evict(long now) {
+		int lowWater = (int) ((long) properties.getMaxSize() * LOW_WATER_PERCENT / 100);
+		List<Candidate> live = new ArrayList<>(entries.size());
+		for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+			Entry entry = cached.getValue();
+			if (entry.isExpired(now)) {
+				if (entries.remove(cached.getKey(), entry)) {
+					evictionCount.increment();
+				}
+			} else {
+				// reads keep touching entries while they are sorted, so the access time is taken once here
+				live.add(new Candidate(cached.getKey(), entry, entry.lastAccessNanos - now));
+			}
+		}
+		int excess = live.size() - lowWater;
+		if (excess <= 0) {
+			return;
+		}
+		live.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+		for (Candidate victim : live.subList(0, excess)) {
+			if (entries.remove(victim.code, victim.entry)) {
+				evictionCount.increment();
+			}
+		}
+	}
+
+	private static final class Entry {
+
+		final CoinPrice coinPrice;
+		final long expiresAtNanos;
+		volatile long lastAccessNanos;
+
+		Entry(CoinPrice coinPrice, long expiresAtNanos, long lastAccessNanos) {
+			this.coinPrice = coinPrice;
+			this.expiresAtNanos = expiresAtNanos;
+			this.lastAccessNanos = lastAccessNanos;
+		}
+
+		boolean isExpired(long nowNanos) {
+			return nowNanos - expiresAtNanos > 0;
+		}
+
+	}
+
+	/**
+	 * A cached entry considered for eviction, with its last access relative to the start of the eviction.
+	 */
+	private static final class Candidate {
+
+		final String code;
+		final Entry entry;
+		final long lastAccess;
+
+		Candidate(String code, Entry entry, long lastAccess) {
+			this.code = code;
+			this.entry = entry;
+			this.lastAccess = lastAccess;
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.lionrock.simple.executor.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.lionrock.simple.executor.config.DeadbandProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Decides per coin whether a fetched price is worth a new {@code COIN_PRICE} row.
+ * <p>
+ * Stablecoins barely move, so most of their fetched prices equal the last stored one. A price is stored when it
+ * differs from the last stored price of its coin by more than the coin's epsilon, or when the coin has had no stored
+ * price for the heartbeat interval; any other price only moves the coin's in-memory last-seen time forward. The first
+ * price of a coin after startup is always stored.
+ * </p>
+ * <p>
+ * Because a skipped price is within epsilon of the stored row before it, the history read as a step function, each
+ * price holding until the next row, stays within epsilon of every fetched price. The heartbeat bounds how old the
+ * newest row can get, so a reader can tell a flat price from a coin that stopped updating.
+ * </p>
+ * <p>
+ * Every coin holds a small anchor with its last stored price. Decisions for one coin are serialized on that anchor;
+ * different coins never contend. If the write of a price that was let through fails, {@link #forget(String)} clears
+ * the anchor so that the next price is stored rather than compared against a price that never made it.
+ * </p>
+ */
+public class PriceDeadbandFilter {
+
+	private final boolean enabled;
+	private final double defaultEpsilon;
+	private final Map<String, Double> epsilons;
+	private final long heartbeatNanos;
+	private final ConcurrentMap<String, Anchor> anchors = new ConcurrentHashMap<>();
+	private final LongAdder storedCount = new LongAdder();
+	private final LongAdder skippedCount = new LongAdder();
+
+	public PriceDeadbandFilter(DeadbandProperties properties) {
+		this.enabled = properties.isEnabled();
+		this.defaultEpsilon = properties.getEpsilon();
+		this.epsilons = new HashMap<>();
+		properties.getEpsilons().forEach((code, epsilon) -> epsilons.put(code.toUpperCase(), epsilon));
+		this.heartbeatNanos = properties.getHeartbeat().toNanos();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Decides whether the price has to be stored and records that it was seen.
+	 * <p>
+	 * When it returns {@code true} the price becomes the coin's last stored price, so the caller must either write
+	 * it or call {@link #forget(String)}.
+	 * </p>
+	 *
+	 * @param coinPrice The fetched price, with its upper case code.
+	 * @return Whether the price should be written to the database.
+	 */
+	public boolean shouldStore(CoinPrice coinPrice) {
+		if (!enabled) {
+			return true;
+		}
+		String code = coinPrice.getCode();
+		Anchor anchor = anchors.computeIfAbsent(code, key -> new Anchor());
+		long now = System.nanoTime();
+		synchronized (anchor) {
+			anchor.lastSeen = coinPrice.getLocalDateTime();
+			if (anchor.stored && Math.abs(coinPrice.getPrice() - anchor.price) <= epsilons.getOrDefault(code,
+					defaultEpsilon) && now - anchor.storedNanos < heartbeatNanos) {
+				skippedCount.increment();
+				return false;
+			}
+			anchor.stored = true;
+			anchor.price = coinPrice.getPrice();
+			anchor.storedNanos = now;
+		}
+		storedCount.increment();
+		return true;
+	}
+
+	/**
+	 * Forgets the last stored price of a coin after its write failed, so that the next price is stored.
+	 */
+	public void forget(String code) {
+		Anchor anchor = anchors.get(code);
+		if (anchor != null) {
+			synchronized (anchor) {
+				anchor.stored = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns when each coin's price was last fetched, whether or not it was stored, in code order.
+	 */
+	public Map<String, LocalDateTime> getLastSeen() {
+		Map<String, LocalDateTime> lastSeen = new TreeMap<>();
+		anchors.forEach((code, anchor) -> {
+			synchronized (anchor) {
+				lastSeen.put(code, anchor.lastSeen);
+			}
+		});
+		return lastSeen;
+	}
+
+	public long getStoredCount() {
+		return storedCount.sum();
+	}
+
+	public long getSkippedCount() {
+		return skippedCount.sum();
+	}
+
+	private static final class Anchor {
+
+		private boolean stored;
+		private float price;
+		private long storedNanos;
+		private LocalDateTime lastSeen;
+
+	}
+
+}
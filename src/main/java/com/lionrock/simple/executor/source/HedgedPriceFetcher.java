@@ -0,0 +1,145 @@
+package com.lionrock.simple.executor.source;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fetches a coin price by asking several {@link PriceSource}s for it and taking the first good answer.
+ * <p>
+ * This follows the semantics of {@link ExecutorService#invokeAny(java.util.Collection, long, TimeUnit)}: a source
+ * that fails does not win over a slower one that succeeds, the fetch gives up with a {@link TimeoutException} once
+ * the deadline passes, and every request still running when the fetch returns is cancelled and interrupted. The
+ * latency of a fetch is therefore that of the fastest healthy source rather than the slowest.
+ * </p>
+ * <p>
+ * Requests are hedged in the order the sources are listed. With a zero hedge delay every source is asked at once;
+ * otherwise the next source is only asked once the hedge delay has passed without an answer, or as soon as an earlier
+ * source fails, which keeps the extra load on upstreams proportional to how often they are slow.
+ * </p>
+ * <p>
+ * The requests run on their own executor rather than the coin price task executor: the task waiting here already
+ * holds a slot of that executor, and requests queued behind it could never run once every slot is taken by a waiting
+ * task.
+ * </p>
+ */
+public class HedgedPriceFetcher {
+
+	private final List<PriceSource> sources;
+	private final ExecutorService fetchExecutor;
+	private final long deadlineNanos;
+	private final long hedgeDelayNanos;
+
+	public HedgedPriceFetcher(List<PriceSource> sources, ExecutorService fetchExecutor, Duration deadline,
+			Duration hedgeDelay) {
+		if (sources.isEmpty()) {
+			throw new IllegalArgumentException("At least one price source is required");
+		}
+		this.sources = List.copyOf(sources);
+		this.fetchExecutor = fetchExecutor;
+		this.deadlineNanos = deadline.toNanos();
+		this.hedgeDelayNanos = hedgeDelay.toNanos();
+	}
+
+	/**
+	 * Returns the sources asked for each price, in hedging order.
+	 */
+	public List<PriceSource> getSources() {
+		return sources;
+	}
+
+	/**
+	 * Fetches the price of a coin from whichever source answers first.
+	 *
+	 * @param code The upper-case code of the coin.
+	 * @return The first successful quote.
+	 * @throws TimeoutException           if no source answered before the deadline.
+	 * @throws PriceUnavailableException  if every source failed.
+	 * @throws RejectedExecutionException if the fetch executor refused every request.
+	 * @throws InterruptedException       if the calling thread was interrupted while waiting.
+	 */
+	public PriceQuote fetch(String code) throws InterruptedException, TimeoutException {
+		long deadline = System.nanoTime() + deadlineNanos;
+		CompletionService<PriceQuote> completionService = new ExecutorCompletionService<>(fetchExecutor);
+		List<Future<PriceQuote>> futures = new ArrayList<>(sources.size());
+		ExecutionException lastFailure = null;
+		RejectedExecutionException lastRejection = null;
+		int next = 0;
+		int active = 0;
+		try {
+			while (true) {
+				if (next < sources.size()) {
+					try {
+						futures.add(completionService.submit(new PriceFetchTask(sources.get(next), code)));
+						active++;
+					} catch (RejectedExecutionException e) {
+						lastRejection = e;
+					}
+					next++;
+				}
+				if (active == 0) {
+					if (next < sources.size()) {
+						continue;
+					}
+					if (lastFailure != null) {
+						throw new PriceUnavailableException(code, lastFailure.getCause());
+					}
+					throw lastRejection;
+				}
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					throw new TimeoutException("No price source answered for " + code + " in time");
+				}
+				boolean hedgesLeft = next < sources.size();
+				Future<PriceQuote> done = completionService.poll(hedgesLeft ? Math.min(hedgeDelayNanos, remaining)
+						: remaining, TimeUnit.NANOSECONDS);
+				if (done == null) {
+					if (!hedgesLeft) {
+						throw new TimeoutException("No price source answered for " + code + " in time");
+					}
+					continue;
+				}
+				active--;
+				try {
+					return done.get();
+				} catch (ExecutionException e) {
+					lastFailure = e;
+				}
+			}
+		} finally {
+			for (Future<PriceQuote> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Asks one source for a price; a named class so task metrics can tell price fetches apart from coin price tasks.
+	 */
+	private static final class PriceFetchTask implements Callable<PriceQuote> {
+
+		private final PriceSource source;
+		private final String code;
+
+		PriceFetchTask(PriceSource source, String code) {
+			this.source = source;
+			this.code = code;
+		}
+
+		@Override
+		public PriceQuote call() throws Exception {
+			return new PriceQuote(source.getName(), source.fetchPrice(code));
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.lionrock.simple.executor.source;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A {@link PriceSource} that fetches prices over HTTP from an endpoint answering {@code GET {baseUri}/{code}} with a
+ * JSON object holding a {@code price} field.
+ * <p>
+ * The base URI is resolved on every fetch, so a source pointing at this application's own stub endpoint can be
+ * created before the web server has picked its port. {@link HttpClient#send} gives up and cancels the exchange when
+ * the calling thread is interrupted, which is how a losing hedged request is abandoned.
+ * </p>
+ */
+public class HttpPriceSource implements PriceSource {
+
+	private final String name;
+	private final HttpClient httpClient;
+	private final Supplier<URI> baseUri;
+	private final Duration requestTimeout;
+	private final ObjectMapper objectMapper;
+
+	public HttpPriceSource(String name, HttpClient httpClient, Supplier<URI> baseUri, Duration requestTimeout,
+			ObjectMapper objectMapper) {
+		this.name = name;
+		this.httpClient = httpClient;
+		this.baseUri = baseUri;
+		this.requestTimeout = requestTimeout;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public float fetchPrice(String code) throws InterruptedException, IOException {
+		URI uri = URI.create(baseUri.get() + "/" + URLEncoder.encode(code, StandardCharsets.UTF_8));
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(requestTimeout).GET().build();
+		HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 200) {
+			throw new IOException(name + " answered " + response.statusCode() + " for " + code);
+		}
+		JsonNode price = objectMapper.readTree(response.body()).get("price");
+		if (price == null || !price.isNumber()) {
+			throw new IOException(name + " returned no price for " + code);
+		}
+		return price.floatValue();
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.lionrock.simple.executor.source;
+
+import java.util.Random;
+
+/**
+ * Shapes of the latency a {@link SimulatedPriceSource} waits before answering.
+ * <p>
+ * Real upstreams are rarely uniform: most responses arrive quickly and a few take much longer. The exponential and
+ * log-normal shapes reproduce that long tail, which is what hedged fetching is meant to cut off.
+ * </p>
+ */
+public enum LatencyDistribution {
+
+	/**
+	 * Always {@code max}.
+	 */
+	FIXED {
+		@Override
+		long sample(Random random, long minNanos, long maxNanos, long medianNanos, double sigma) {
+			return maxNanos;
+		}
+	},
+
+	/**
+	 * Uniformly distributed between {@code min} and {@code max}.
+	 */
+	UNIFORM {
+		@Override
+		long sample(Random random, long minNanos, long maxNanos, long medianNanos, double sigma) {
+			if (maxNanos <= minNanos) {
+				return maxNanos;
+			}
+			return minNanos + (long) (random.nextDouble() * (maxNanos - minNanos));
+		}
+	},
+
+	/**
+	 * {@code min} plus an exponentially distributed delay whose median is {@code median}, capped at {@code max}.
+	 */
+	EXPONENTIAL {
+		@Override
+		long sample(Random random, long minNanos, long maxNanos, long medianNanos, double sigma) {
+			double delay = -Math.log(1 - random.nextDouble()) * medianNanos / Math.log(2);
+			return cap(minNanos + (long) delay, maxNanos);
+		}
+	},
+
+	/**
+	 * {@code min} plus a log-normally distributed delay with the given {@code median} and shape {@code sigma}, capped
+	 * at {@code max}.
+	 */
+	LOG_NORMAL {
+		@Override
+		long sample(Random random, long minNanos, long maxNanos, long medianNanos, double sigma) {
+			double delay = medianNanos * Math.exp(sigma * random.nextGaussian());
+			return cap(minNanos + (long) delay, maxNanos);
+		}
+	};
+
+	/**
+	 * Draws one latency in nanoseconds.
+	 */
+	abstract long sample(Random random, long minNanos, long maxNanos, long medianNanos, double sigma);
+
+	private static long cap(long nanos, long maxNanos) {
+		return Math.min(nanos, maxNanos);
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.lionrock.simple.executor.source;
+
+/**
+ * A coin price together with the {@link PriceSource} that provided it.
+ */
+public final class PriceQuote {
+
+	private final String source;
+	private final float price;
+
+	public PriceQuote(String source, float price) {
+		this.source = source;
+		this.price = price;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public float getPrice() {
+		return price;
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.lionrock.simple.executor.source;
+
+/**
+ * A place a coin price can be fetched from.
+ * <p>
+ * Implementations block until they have a price and must respond to interruption promptly: the
+ * {@link HedgedPriceFetcher} asks several sources for the same coin and interrupts the ones that lose.
+ * </p>
+ */
+public interface PriceSource {
+
+	/**
+	 * Returns the name of the source, recorded as the updater of the prices it provides.
+	 */
+	String getName();
+
+	/**
+	 * Fetches the current price of a coin.
+	 *
+	 * @param code The upper-case code of the coin.
+	 * @return The price of the coin.
+	 * @throws InterruptedException if the fetch was cancelled while waiting.
+	 * @throws Exception            if the source could not provide a price.
+	 */
+	float fetchPrice(String code) throws Exception;
+
+}
@@ -0,0 +1,14 @@
+package com.lionrock.simple.executor.source;
+
+/**
+ * Thrown when every {@link PriceSource} asked for a coin price failed before the deadline.
+ */
+public class PriceUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public PriceUnavailableException(String code, Throwable cause) {
+		super("No price source could provide a price for " + code, cause);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.lionrock.simple.executor.source;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link PriceSource} that makes up stablecoin prices after a simulated network delay.
+ * <p>
+ * Each fetch sleeps for a latency drawn from its {@link LatencyDistribution} and then, with probability
+ * {@code failureRate}, fails instead of answering. Benchmarks and load tests configure these to measure the executor
+ * and persistence paths, or to see how hedging behaves against slow and unreliable upstreams.
+ * </p>
+ */
+public class SimulatedPriceSource implements PriceSource {
+
+	private final String name;
+	private final LatencyDistribution distribution;
+	private final long minNanos;
+	private final long maxNanos;
+	private final long medianNanos;
+	private final double sigma;
+	private final double failureRate;
+
+	public SimulatedPriceSource(String name, LatencyDistribution distribution, Duration min, Duration max,
+			Duration median, double sigma, double failureRate) {
+		this.name = name;
+		this.distribution = distribution;
+		this.minNanos = min.toNanos();
+		this.maxNanos = max.toNanos();
+		this.medianNanos = median.toNanos();
+		this.sigma = sigma;
+		this.failureRate = failureRate;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public float fetchPrice(String code) throws InterruptedException, IOException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long latencyNanos = distribution.sample(random, minNanos, maxNanos, medianNanos, sigma);
+		if (latencyNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(latencyNanos);
+		}
+		if (failureRate > 0 && random.nextDouble() < failureRate) {
+			throw new IOException(name + " failed to quote " + code);
+		}
+		return generateRandomPrice(random);
+	}
+
+	/**
+	 * Generates a random price for a coin.
+	 * <p>
+	 * This method simulates the fluctuation of coin prices by generating a random price within a predefined range.
+	 * It is primarily used for testing or simulation purposes, where actual market data is not required. The method
+	 * ensures that the generated price is within realistic boundaries to mimic real market conditions as closely as
+	 * possible.
+	 * </p>
+	 * <p>
+	 * Note: The randomness is bounded and may not reflect actual market volatility. This method should not be used
+	 * for financial analysis or trading decisions.
+	 * </p>
+	 *
+	 * @return A float value representing the randomly generated coin price.
+	 */
+	private float generateRandomPrice(ThreadLocalRandom random) {
+		if (random.nextBoolean()) {
+			return (float) (1 + (random.nextDouble() / 1000));
+		} else {
+			return (float) (1 - (random.nextDouble() / 1000));
+		}
+	}
+
+}
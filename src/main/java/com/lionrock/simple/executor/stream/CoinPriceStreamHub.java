@@ -0,0 +1,382 @@
+package com.lionrock.simple.executor.stream;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.lionrock.simple.executor.config.StreamProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Pushes inserted coin prices to server-sent event subscribers.
+ * <p>
+ * Publishing never blocks: each subscriber has a buffer holding at most the latest undelivered price per coin, and
+ * publishing only replaces that entry and, if the subscriber is not already scheduled, hands it to a sender thread.
+ * A subscriber that reads slower than prices change therefore receives conflated updates, the newest price of each
+ * coin, instead of building up a backlog, and its buffer never grows beyond the number of coins it follows. Each
+ * delivery drains one pass over the buffer and yields the sender, so a subscriber with a constant stream of updates
+ * cannot starve the others. A subscriber whose client stops reading is disconnected once writing one event to it has
+ * blocked for {@code send-timeout}, and its sender thread is interrupted, so it cannot hold up the others either.
+ * </p>
+ * <p>
+ * A new subscriber receives nothing until its initial prices are buffered, and an initial price never replaces a
+ * newer one published since the subscriber was registered, so a stream never goes back in time.
+ * </p>
+ * <p>
+ * Subscribers are indexed by coin, so a publish costs as much as the number of subscribers of that coin plus those
+ * following every coin. A coin's entry in the index is removed with its last subscriber, so the index only holds
+ * coins that are currently followed. Streams are completed when the application context starts closing, before the
+ * web server's graceful shutdown would otherwise wait for them to end.
+ * </p>
+ */
+public class CoinPriceStreamHub implements ApplicationListener<ContextClosedEvent> {
+
+	private final ExecutorService senderExecutor;
+	private final StreamProperties properties;
+	private final ConcurrentMap<String, Set<Subscriber>> subscribersByCode = new ConcurrentHashMap<>();
+	private final Set<Subscriber> allCodeSubscribers = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger subscriberCount = new AtomicInteger();
+	private final LongAdder sentCount = new LongAdder();
+	private final LongAdder conflatedCount = new LongAdder();
+	private final LongAdder disconnectedCount = new LongAdder();
+	private final long sendTimeoutNanos;
+	private final ScheduledExecutorService heartbeat;
+
+	public CoinPriceStreamHub(ExecutorService senderExecutor, StreamProperties properties) {
+		this.senderExecutor = senderExecutor;
+		this.properties = properties;
+		this.sendTimeoutNanos = properties.getSendTimeout().toNanos();
+		CustomizableThreadFactory heartbeatThreadFactory = new CustomizableThreadFactory("price-stream-heartbeat-");
+		heartbeatThreadFactory.setDaemon(true);
+		this.heartbeat = Executors.newSingleThreadScheduledExecutor(heartbeatThreadFactory);
+		long intervalMillis = properties.getHeartbeatInterval().toMillis();
+		heartbeat.scheduleWithFixedDelay(this::heartbeat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+		long checkMillis = Math.max(1, properties.getSendTimeout().toMillis() / 4);
+		heartbeat.scheduleWithFixedDelay(this::evictStuckSubscribers, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the number of open streams.
+	 */
+	public int getSubscriberCount() {
+		return subscriberCount.get();
+	}
+
+	/**
+	 * Returns the number of coins followed by at least one open stream that does not follow every coin.
+	 */
+	public int getFollowedCodeCount() {
+		return subscribersByCode.size();
+	}
+
+	/**
+	 * Returns the number of price events written to subscribers.
+	 */
+	public long getSentCount() {
+		return sentCount.sum();
+	}
+
+	/**
+	 * Returns the number of prices replaced by a newer price of the same coin before they were delivered.
+	 */
+	public long getConflatedCount() {
+		return conflatedCount.sum();
+	}
+
+	/**
+	 * Returns the number of streams closed because writing to them failed or blocked for longer than
+	 * {@code send-timeout}.
+	 */
+	public long getDisconnectedCount() {
+		return disconnectedCount.sum();
+	}
+
+	/**
+	 * Opens a stream of the prices of the given coins.
+	 *
+	 * @param codes   Upper-case codes to follow, or {@code null} to follow every coin.
+	 * @param initial Prices sent as soon as the stream opens, usually the latest known price of each coin.
+	 * @throws IllegalStateException if {@code max-subscribers} streams are already open.
+	 */
+	public SseEmitter subscribe(Set<String> codes, Collection<CoinPrice> initial) {
+		if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+			subscriberCount.decrementAndGet();
+			throw new IllegalStateException("Too many open price streams");
+		}
+		SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+		Subscriber subscriber = new Subscriber(emitter, codes);
+		emitter.onCompletion(subscriber::unsubscribe);
+		emitter.onTimeout(subscriber::unsubscribe);
+		emitter.onError(failure -> subscriber.unsubscribe());
+		if (codes == null) {
+			allCodeSubscribers.add(subscriber);
+		} else {
+			for (String code : codes) {
+				subscribersByCode.compute(code, (key, subscribers) -> {
+					Set<Subscriber> updated = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+					updated.add(subscriber);
+					return updated;
+				});
+			}
+		}
+		for (CoinPrice coinPrice : initial) {
+			subscriber.offerInitial(coinPrice);
+		}
+		subscriber.start();
+		return emitter;
+	}
+
+	/**
+	 * Offers a newly inserted price to every subscriber of its coin without waiting for any of them.
+	 */
+	public void publish(CoinPrice coinPrice) {
+		Set<Subscriber> subscribers = subscribersByCode.get(coinPrice.getCode());
+		if (subscribers != null) {
+			for (Subscriber subscriber : subscribers) {
+				subscriber.offer(coinPrice);
+			}
+		}
+		for (Subscriber subscriber : allCodeSubscribers) {
+			subscriber.offer(coinPrice);
+		}
+	}
+
+	@Override
+	public void onApplicationEvent(ContextClosedEvent event) {
+		heartbeat.shutdownNow();
+		for (Set<Subscriber> subscribers : subscribersByCode.values()) {
+			subscribers.forEach(subscriber -> subscriber.emitter.complete());
+		}
+		allCodeSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+	}
+
+	private void heartbeat() {
+		for (Set<Subscriber> subscribers : subscribersByCode.values()) {
+			subscribers.forEach(Subscriber::requestHeartbeat);
+		}
+		allCodeSubscribers.forEach(Subscriber::requestHeartbeat);
+	}
+
+	private void evictStuckSubscribers() {
+		long now = System.nanoTime();
+		for (Set<Subscriber> subscribers : subscribersByCode.values()) {
+			subscribers.forEach(subscriber -> subscriber.evictIfStuck(now));
+		}
+		allCodeSubscribers.forEach(subscriber -> subscriber.evictIfStuck(now));
+	}
+
+	private static boolean isNewer(CoinPrice coinPrice, CoinPrice other) {
+		return coinPrice.getLocalDateTime() != null && other.getLocalDateTime() != null
+				&& coinPrice.getLocalDateTime().isAfter(other.getLocalDateTime());
+	}
+
+	/**
+	 * One open stream and its buffer of undelivered prices.
+	 */
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final Set<String> codes;
+		private final ConcurrentMap<String, CoinPrice> pending = new ConcurrentHashMap<>();
+		// held until start(), so nothing is delivered before the initial prices are buffered
+		private final AtomicBoolean scheduled = new AtomicBoolean(true);
+		private final AtomicBoolean closed = new AtomicBoolean();
+		private final ReentrantLock sendLock = new ReentrantLock();
+		private volatile boolean heartbeatDue;
+		private volatile long sendStartedNanos;
+		private volatile Thread sendingThread;
+
+		Subscriber(SseEmitter emitter, Set<String> codes) {
+			this.emitter = emitter;
+			this.codes = codes;
+		}
+
+		void offer(CoinPrice coinPrice) {
+			if (coinPrice == null || closed.get()) {
+				return;
+			}
+			CoinPrice replaced = pending.put(coinPrice.getCode(), coinPrice);
+			if (replaced != null) {
+				conflatedCount.increment();
+			}
+			schedule();
+		}
+
+		/**
+		 * Buffers a price read before the subscriber was registered, unless a newer price of the coin was published
+		 * since.
+		 */
+		void offerInitial(CoinPrice coinPrice) {
+			if (coinPrice == null || closed.get()) {
+				return;
+			}
+			pending.merge(coinPrice.getCode(), coinPrice, (published, initialPrice) -> {
+				conflatedCount.increment();
+				return isNewer(initialPrice, published) ? initialPrice : published;
+			});
+		}
+
+		/**
+		 * Starts delivering, once the initial prices are buffered.
+		 */
+		void start() {
+			scheduled.set(false);
+			if (!pending.isEmpty() || heartbeatDue) {
+				schedule();
+			}
+		}
+
+		void requestHeartbeat() {
+			heartbeatDue = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (scheduled.compareAndSet(false, true)) {
+				try {
+					senderExecutor.execute(this::deliver);
+				} catch (RejectedExecutionException e) {
+					scheduled.set(false);
+				}
+			}
+		}
+
+		/**
+		 * Writes one pass over the buffer, then reschedules itself if more prices or a heartbeat request arrived in the
+		 * meantime.
+		 */
+		private void deliver() {
+			try {
+				boolean sent = false;
+				for (Map.Entry<String, CoinPrice> entry : pending.entrySet()) {
+					CoinPrice coinPrice = pending.remove(entry.getKey());
+					if (coinPrice != null) {
+						beginSend();
+						try {
+							SseEmitter.SseEventBuilder event = SseEmitter.event().name("price");
+							if (coinPrice.getId() != 0) {
+								event.id(String.valueOf(coinPrice.getId()));
+							}
+							emitter.send(event.data(coinPrice, MediaType.APPLICATION_JSON));
+						} finally {
+							endSend();
+						}
+						sentCount.increment();
+						sent = true;
+					}
+				}
+				if (heartbeatDue) {
+					heartbeatDue = false;
+					if (!sent) {
+						beginSend();
+						try {
+							emitter.send(SseEmitter.event().comment("heartbeat"));
+						} finally {
+							endSend();
+						}
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				if (unsubscribe()) {
+					disconnectedCount.increment();
+				}
+				emitter.completeWithError(e);
+				return;
+			} finally {
+				scheduled.set(false);
+			}
+			if (!pending.isEmpty() || heartbeatDue) {
+				schedule();
+			}
+		}
+
+		private void beginSend() {
+			sendStartedNanos = System.nanoTime();
+			sendingThread = Thread.currentThread();
+		}
+
+		/**
+		 * Ends the write of one event.
+		 *
+		 * @throws IOException if the subscriber was evicted while the write blocked.
+		 */
+		private void endSend() throws IOException {
+			sendLock.lock();
+			try {
+				if (sendingThread == null) {
+					// clear the interrupt meant for this write before the thread moves on to other subscribers
+					Thread.interrupted();
+					throw new IOException(
+							"Writing to the price stream blocked for longer than " + properties.getSendTimeout());
+				}
+				sendingThread = null;
+			} finally {
+				sendLock.unlock();
+			}
+		}
+
+		/**
+		 * Disconnects the subscriber and interrupts its sender if one event has been blocking the sender for longer
+		 * than {@code send-timeout}. The emitter is left to the sender to complete, as the blocked write holds its
+		 * monitor.
+		 */
+		void evictIfStuck(long now) {
+			sendLock.lock();
+			try {
+				Thread thread = sendingThread;
+				if (thread == null || now - sendStartedNanos < sendTimeoutNanos) {
+					return;
+				}
+				sendingThread = null;
+				thread.interrupt();
+			} finally {
+				sendLock.unlock();
+			}
+			if (unsubscribe()) {
+				disconnectedCount.increment();
+			}
+		}
+
+		/**
+		 * Removes the subscriber from the hub, returning {@code false} if it was already removed.
+		 */
+		boolean unsubscribe() {
+			if (!closed.compareAndSet(false, true)) {
+				return false;
+			}
+			if (codes == null) {
+				allCodeSubscribers.remove(this);
+			} else {
+				for (String code : codes) {
+					subscribersByCode.computeIfPresent(code, (key, subscribers) -> {
+						subscribers.remove(this);
+						return subscribers.isEmpty() ? null : subscribers;
+					});
+				}
+			}
+			pending.clear();
+			subscriberCount.decrementAndGet();
+			return true;
+		}
+
+	}
+
+}
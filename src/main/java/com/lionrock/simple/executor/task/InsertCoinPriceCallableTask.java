@@ -2,6 +2,7 @@ package com.lionrock.simple.executor.task;
 
 import java.util.concurrent.Callable;
 
+import com.lionrock.simple.executor.concurrent.KeyedTask;
 import com.lionrock.simple.executor.model.CoinPrice;
 import com.lionrock.simple.executor.service.CoinPriceService;
 
@@ -27,10 +28,11 @@ import com.lionrock.simple.executor.service.CoinPriceService;
  * @see ExecutorService
  * @see CoinPriceService
  */
-public class InsertCoinPriceCallableTask implements Callable<CoinPrice> {
+public class InsertCoinPriceCallableTask implements Callable<CoinPrice>, KeyedTask {
 
 	private String code;
 	private CoinPriceService coinPriceService;
+	private long traceId;
 
 	/**
 	 * Constructs a new {@code InsertCoinPriceCallableTask} with the specified coin code and coin price service.
@@ -44,6 +46,9 @@ public class InsertCoinPriceCallableTask implements Callable<CoinPrice> {
 	 * This setup allows the {@code InsertCoinPriceCallableTask} to perform its operation independently when executed
 	 * by an {@link ExecutorService}, making it suitable for asynchronous execution in a concurrent environment.
 	 * </p>
+	 * <p>
+	 * Creating the task traces its submission, since every task is created right before it is handed to an executor.
+	 * </p>
 	 *
 	 * @param code The unique code identifying the coin for which the latest price is to be inserted.
 	 * @param coinPriceService The service responsible for inserting the coin price into the database.
@@ -51,6 +56,23 @@ public class InsertCoinPriceCallableTask implements Callable<CoinPrice> {
 	public InsertCoinPriceCallableTask(String code, CoinPriceService coinPriceService) {
 		this.code = code;
 		this.coinPriceService = coinPriceService;
+		this.traceId = coinPriceService.traceSubmitted(code);
+	}
+
+	/**
+	 * Returns the code of the coin whose price this task inserts.
+	 */
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * Orders the task by coin, so a {@link com.lionrock.simple.executor.concurrent.KeyedExecutor} never inserts two
+	 * prices of the same coin at once or out of order.
+	 */
+	@Override
+	public Object getKey() {
+		return code.toUpperCase();
 	}
 
 	/**
@@ -74,7 +96,7 @@ public class InsertCoinPriceCallableTask implements Callable<CoinPrice> {
 	 */
 	@Override
 	public CoinPrice call() throws Exception {
-		return this.coinPriceService.insertLatestCoinPrice(this.code);
+		return this.coinPriceService.insertLatestCoinPrice(this.code, this.traceId);
 	}
 
 }
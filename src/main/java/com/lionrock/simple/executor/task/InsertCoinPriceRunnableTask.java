@@ -1,5 +1,11 @@
 package com.lionrock.simple.executor.task;
 
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lionrock.simple.executor.concurrent.KeyedTask;
 import com.lionrock.simple.executor.service.CoinPriceService;
 
 /**
@@ -21,10 +27,13 @@ import com.lionrock.simple.executor.service.CoinPriceService;
  * @return The {@link CoinPrice} object representing the inserted coin price data.
  * @throws Exception if there is an issue with inserting the coin price into the database.
  */
-public class InsertCoinPriceRunnableTask implements Runnable {
+public class InsertCoinPriceRunnableTask implements Runnable, KeyedTask {
+
+	private static final Logger logger = LoggerFactory.getLogger(InsertCoinPriceRunnableTask.class);
 
 	private String code;
 	private CoinPriceService coinPriceService;
+	private long traceId;
 
 	/**
 	 * Constructs a new {@code InsertCoinPriceRunnableTask} with the specified coin code.
@@ -38,12 +47,32 @@ public class InsertCoinPriceRunnableTask implements Runnable {
 	 * or thread pool, making it suitable for asynchronous and concurrent execution in environments where coin price
 	 * data needs to be updated frequently.
 	 * </p>
+	 * <p>
+	 * Creating the task traces its submission, since every task is created right before it is handed to an executor.
+	 * </p>
 	 *
 	 * @param code The unique code identifying the coin for which the latest price is to be inserted.
 	 */
 	public InsertCoinPriceRunnableTask(String code, CoinPriceService coinPriceService) {
 		this.coinPriceService = coinPriceService;
 		this.code = code;
+		this.traceId = coinPriceService.traceSubmitted(code);
+	}
+
+	/**
+	 * Returns the code of the coin whose price this task inserts.
+	 */
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * Orders the task by coin, so a {@link com.lionrock.simple.executor.concurrent.KeyedExecutor} never inserts two
+	 * prices of the same coin at once or out of order.
+	 */
+	@Override
+	public Object getKey() {
+		return code.toUpperCase();
 	}
 
 	/**
@@ -60,20 +89,20 @@ public class InsertCoinPriceRunnableTask implements Runnable {
 	 * into the database, making it available for retrieval and analysis.
 	 * </p>
 	 * <p>
-	 * Note: This method does not return a value. Any exceptions or errors encountered during the execution of the
-	 * task should be handled within the method, ensuring that they do not adversely affect the thread or application
-	 * in which the task is running.
+	 * Note: This method does not return a value. A fetch that times out or is interrupted is logged here, and the
+	 * {@link CoinPriceService} has already traced it as failed; an interrupt is passed on to the running thread.
 	 * </p>
 	 */
 	@Override
 	public void run() {
 		try {
-			this.coinPriceService.insertLatestCoinPrice(this.code);
+			this.coinPriceService.insertLatestCoinPrice(this.code, this.traceId);
 		} catch (InterruptedException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			logger.warn("Interrupted while inserting the latest price of {}", code);
+			Thread.currentThread().interrupt();
+		} catch (TimeoutException e) {
+			logger.warn("Timed out inserting the latest price of {}: {}", code, e.getMessage());
 		}
-		
 	}
 
 }
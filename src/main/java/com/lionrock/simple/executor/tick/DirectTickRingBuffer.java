@@ -0,0 +1,42 @@
+package com.lionrock.simple.executor.tick;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link TickRingBuffer} backed by one direct {@link ByteBuffer}, laid out as a column of epoch nanos followed by a
+ * column of prices.
+ * <p>
+ * The ticks live outside the Java heap, so even large buffers add nothing to the work of the garbage collector.
+ * Slots are accessed with absolute {@code get}/{@code put} calls, which neither allocate nor move the buffer
+ * position.
+ * </p>
+ */
+public class DirectTickRingBuffer extends TickRingBuffer {
+
+	private final ByteBuffer buffer;
+	private final int pricesOffset;
+
+	public DirectTickRingBuffer(int capacity) {
+		super(capacity);
+		this.pricesOffset = capacity * Long.BYTES;
+		this.buffer = ByteBuffer.allocateDirect(capacity * (Long.BYTES + Float.BYTES)).order(ByteOrder.nativeOrder());
+	}
+
+	@Override
+	protected long nanosAt(int slot) {
+		return buffer.getLong(slot * Long.BYTES);
+	}
+
+	@Override
+	protected float priceAt(int slot) {
+		return buffer.getFloat(pricesOffset + slot * Float.BYTES);
+	}
+
+	@Override
+	protected void set(int slot, long epochNanos, float price) {
+		buffer.putLong(slot * Long.BYTES, epochNanos);
+		buffer.putFloat(pricesOffset + slot * Float.BYTES, price);
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.lionrock.simple.executor.tick;
+
+/**
+ * {@link TickRingBuffer} backed by two primitive arrays on the heap.
+ */
+public class HeapTickRingBuffer extends TickRingBuffer {
+
+	private final long[] epochNanos;
+	private final float[] prices;
+
+	public HeapTickRingBuffer(int capacity) {
+		super(capacity);
+		this.epochNanos = new long[capacity];
+		this.prices = new float[capacity];
+	}
+
+	@Override
+	protected long nanosAt(int slot) {
+		return epochNanos[slot];
+	}
+
+	@Override
+	protected float priceAt(int slot) {
+		return prices[slot];
+	}
+
+	@Override
+	protected void set(int slot, long epochNanos, float price) {
+		this.epochNanos[slot] = epochNanos;
+		this.prices[slot] = price;
+	}
+
+}
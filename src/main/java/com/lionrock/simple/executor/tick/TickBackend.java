@@ -0,0 +1,18 @@
+package com.lionrock.simple.executor.tick;
+
+/**
+ * Where a {@link TickRingBuffer} keeps its ticks.
+ */
+public enum TickBackend {
+
+	/**
+	 * Plain {@code long[]} and {@code float[]} arrays on the Java heap.
+	 */
+	HEAP,
+
+	/**
+	 * One direct {@link java.nio.ByteBuffer} per coin, outside the heap and invisible to the garbage collector.
+	 */
+	DIRECT
+
+}
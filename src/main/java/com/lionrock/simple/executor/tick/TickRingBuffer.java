@@ -0,0 +1,174 @@
+package com.lionrock.simple.executor.tick;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Fixed-capacity ring of the most recent ticks of one coin, stored as primitive epoch nanos and prices.
+ * <p>
+ * Subclasses only decide where the two columns live; appending, copying and window statistics are implemented here
+ * on top of {@link #nanosAt(int)}, {@link #priceAt(int)} and {@link #set(int, long, float)}. The capacity is a power
+ * of two so a slot is found with a mask rather than a division.
+ * </p>
+ * <p>
+ * Writers take the write side of a {@link StampedLock}. Readers first run optimistically without locking and only
+ * retry under the read lock if a write overlapped, so readers never block writers on the hot path and reads do not
+ * allocate.
+ * </p>
+ */
+public abstract class TickRingBuffer {
+
+	private final int capacity;
+	private final int mask;
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * Total number of ticks ever appended; the newest tick is at slot {@code (count - 1) & mask}.
+	 */
+	private long count;
+
+	protected TickRingBuffer(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+		}
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Creates a ring buffer on the given backend, rounding the capacity up to a power of two.
+	 */
+	public static TickRingBuffer create(TickBackend backend, int capacity) {
+		int roundedCapacity = roundUpCapacity(capacity);
+		return backend == TickBackend.DIRECT ? new DirectTickRingBuffer(roundedCapacity)
+				: new HeapTickRingBuffer(roundedCapacity);
+	}
+
+	/**
+	 * Returns the smallest power of two that is at least {@code capacity}.
+	 */
+	public static int roundUpCapacity(int capacity) {
+		return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+	protected abstract long nanosAt(int slot);
+
+	protected abstract float priceAt(int slot);
+
+	protected abstract void set(int slot, long epochNanos, float price);
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of ticks currently held, at most {@link #capacity()}.
+	 */
+	public int size() {
+		long stamp = lock.tryOptimisticRead();
+		long currentCount = count;
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				currentCount = count;
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return (int) Math.min(currentCount, capacity);
+	}
+
+	/**
+	 * Appends a tick, overwriting the oldest one once the buffer is full.
+	 */
+	public void append(long epochNanos, float price) {
+		long stamp = lock.writeLock();
+		try {
+			set((int) (count & mask), epochNanos, price);
+			count++;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Copies up to {@code n} of the newest ticks into the given arrays, oldest first.
+	 *
+	 * @return The number of ticks copied, which is at most {@code n}, the buffer size and the array lengths.
+	 */
+	public int copyLast(int n, long[] epochNanos, float[] prices) {
+		long stamp = lock.tryOptimisticRead();
+		int copied = copyLastUnlocked(n, epochNanos, prices);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				copied = copyLastUnlocked(n, epochNanos, prices);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return copied;
+	}
+
+	/**
+	 * Computes statistics over up to {@code n} of the newest ticks into {@code stats}.
+	 */
+	public void statsOfLast(int n, TickWindowStats stats) {
+		long stamp = lock.tryOptimisticRead();
+		statsUnlocked(n, Long.MIN_VALUE, stats);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				statsUnlocked(n, Long.MIN_VALUE, stats);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+	}
+
+	/**
+	 * Computes statistics over the ticks at or after {@code sinceEpochNanos} into {@code stats}.
+	 */
+	public void statsSince(long sinceEpochNanos, TickWindowStats stats) {
+		long stamp = lock.tryOptimisticRead();
+		statsUnlocked(Integer.MAX_VALUE, sinceEpochNanos, stats);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				statsUnlocked(Integer.MAX_VALUE, sinceEpochNanos, stats);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+	}
+
+	private int copyLastUnlocked(int n, long[] epochNanos, float[] prices) {
+		long end = count;
+		int copied = (int) Math.min(Math.min(n, end), Math.min(capacity, Math.min(epochNanos.length, prices.length)));
+		long start = end - copied;
+		for (int i = 0; i < copied; i++) {
+			int slot = (int) ((start + i) & mask);
+			epochNanos[i] = nanosAt(slot);
+			prices[i] = priceAt(slot);
+		}
+		return copied;
+	}
+
+	/**
+	 * Walks from the newest tick backwards until {@code n} ticks were seen or a tick is older than
+	 * {@code sinceEpochNanos}.
+	 */
+	private void statsUnlocked(int n, long sinceEpochNanos, TickWindowStats stats) {
+		long end = count;
+		long limit = Math.min(Math.min(n, end), capacity);
+		stats.reset();
+		for (long i = 1; i <= limit; i++) {
+			int slot = (int) ((end - i) & mask);
+			long nanos = nanosAt(slot);
+			if (nanos < sinceEpochNanos) {
+				break;
+			}
+			stats.addOlder(nanos, priceAt(slot));
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.lionrock.simple.executor.tick;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.lionrock.simple.executor.config.TickStoreProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+/**
+ * Hot in-memory store of the most recent ticks of every coin, one {@link TickRingBuffer} per code.
+ * <p>
+ * A tick is held as an epoch-nanosecond {@code long} and a {@code float} price rather than as a {@link CoinPrice},
+ * so keeping thousands of recent ticks per coin costs a few bytes each and creates no garbage. Recent-window
+ * queries such as the last N ticks or the min/max/average of the last minute are answered from here instead of
+ * from the database.
+ * </p>
+ * <p>
+ * The number of codes is capped; ticks of codes beyond the cap are counted and dropped rather than growing memory
+ * without bound.
+ * </p>
+ */
+public class TickStore {
+
+	private final TickStoreProperties properties;
+	private final ZoneId zone = ZoneId.systemDefault();
+	private final ConcurrentMap<String, TickRingBuffer> buffers = new ConcurrentHashMap<>();
+	private final LongAdder droppedCount = new LongAdder();
+
+	public TickStore(TickStoreProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Records an inserted coin price.
+	 */
+	public void record(CoinPrice coinPrice) {
+		if (properties.isEnabled()) {
+			record(coinPrice.getCode(), toEpochNanos(coinPrice.getLocalDateTime()), coinPrice.getPrice());
+		}
+	}
+
+	/**
+	 * Records a tick of the given coin.
+	 */
+	public void record(String code, long epochNanos, float price) {
+		TickRingBuffer buffer = buffers.get(code);
+		if (buffer == null) {
+			if (buffers.size() >= properties.getMaxCodes()) {
+				droppedCount.increment();
+				return;
+			}
+			buffer = buffers.computeIfAbsent(code,
+					key -> TickRingBuffer.create(properties.getBackend(), properties.getCapacity()));
+		}
+		buffer.append(epochNanos, price);
+	}
+
+	/**
+	 * Returns the ring buffer of a coin, or {@code null} if no tick of it has been recorded.
+	 */
+	public TickRingBuffer getBuffer(String code) {
+		return buffers.get(code);
+	}
+
+	/**
+	 * Returns the number of ticks dropped because the code limit was reached.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.sum();
+	}
+
+	/**
+	 * Returns the capacity of each coin's ring buffer.
+	 */
+	public int getCapacity() {
+		return TickRingBuffer.roundUpCapacity(properties.getCapacity());
+	}
+
+	/**
+	 * Converts a local time in the system zone, as stored on {@link CoinPrice}, to nanoseconds since the epoch.
+	 */
+	public long toEpochNanos(LocalDateTime time) {
+		return time.toEpochSecond(zone.getRules().getOffset(time)) * 1_000_000_000L + time.getNano();
+	}
+
+}
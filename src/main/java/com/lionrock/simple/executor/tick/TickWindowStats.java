@@ -0,0 +1,87 @@
+package com.lionrock.simple.executor.tick;
+
+/**
+ * Count, minimum, maximum, average, first and last price of a window of ticks.
+ * <p>
+ * Instances are mutable so that a caller can reuse one across reads and compute statistics without allocating.
+ * Prices are undefined ({@code NaN}) when the window is empty.
+ * </p>
+ */
+public class TickWindowStats {
+
+	private int count;
+	private float min;
+	private float max;
+	private double sum;
+	private float first;
+	private float last;
+	private long firstEpochNanos;
+	private long lastEpochNanos;
+
+	public TickWindowStats() {
+		reset();
+	}
+
+	void reset() {
+		count = 0;
+		min = Float.NaN;
+		max = Float.NaN;
+		sum = 0;
+		first = Float.NaN;
+		last = Float.NaN;
+		firstEpochNanos = 0;
+		lastEpochNanos = 0;
+	}
+
+	/**
+	 * Adds a tick that is older than every tick added so far.
+	 */
+	void addOlder(long epochNanos, float price) {
+		if (count == 0) {
+			min = price;
+			max = price;
+			last = price;
+			lastEpochNanos = epochNanos;
+		} else {
+			min = Math.min(min, price);
+			max = Math.max(max, price);
+		}
+		first = price;
+		firstEpochNanos = epochNanos;
+		sum += price;
+		count++;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public float getMin() {
+		return min;
+	}
+
+	public float getMax() {
+		return max;
+	}
+
+	public double getAverage() {
+		return count == 0 ? Double.NaN : sum / count;
+	}
+
+	public float getFirst() {
+		return first;
+	}
+
+	public float getLast() {
+		return last;
+	}
+
+	public long getFirstEpochNanos() {
+		return firstEpochNanos;
+	}
+
+	public long getLastEpochNanos() {
+		return lastEpochNanos;
+	}
+
+}
@@ -0,0 +1,192 @@
+package com.lionrock.simple.executor.trace;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Records task lifecycle events into a preallocated, lock-free ring buffer.
+ * <p>
+ * Every event is a handful of primitives: a sequence number, a {@link System#nanoTime()} stamp, the thread id, the
+ * task id, the {@link TraceEvent} and the index of the coin code. They are stored in parallel arrays allocated once,
+ * so recording an event neither allocates nor formats anything, and never takes a lock. Any number of threads may
+ * record at once: each claims the next sequence with one atomic increment and writes its own slot. A slot is marked
+ * unpublished while it is written and published with its sequence afterwards, so a reader can tell a complete event
+ * from one in progress or one that has already been overwritten. When the ring is full the oldest events are
+ * overwritten; the tracer keeps the last {@code capacity} events, not all of them.
+ * </p>
+ * <p>
+ * Coin codes are stored as indexes into a small table of the codes seen so far, which only grows when a new code is
+ * traced. Beyond {@code maxCodes} distinct codes, events of new codes are recorded without one.
+ * </p>
+ * <p>
+ * Events become {@link TraceRecord} objects only when they are read, by the {@code /trace/events} endpoint or the
+ * {@link TraceFileDumper}, so the cost of turning them into text is paid off the task's thread and only on demand.
+ * </p>
+ */
+public class TaskTracer {
+
+	private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+	private static final int NO_CODE = -1;
+
+	private final boolean enabled;
+	private final int capacity;
+	private final int mask;
+	private final int maxCodes;
+
+	/**
+	 * Next sequence to hand out; sequences start at 1 so that 0 can mean "no task" and "unpublished".
+	 */
+	private final AtomicLong cursor = new AtomicLong(1);
+	private final long[] published;
+	private final long[] nanoTimes;
+	private final long[] threadIds;
+	private final long[] taskIds;
+	private final byte[] events;
+	private final int[] codeIndexes;
+
+	private final ConcurrentMap<String, Integer> codeIndexByCode = new ConcurrentHashMap<>();
+	private volatile String[] codes = new String[0];
+
+	private final long originEpochNanos;
+	private final long originNanoTime;
+
+	public TaskTracer(boolean enabled, int capacity, int maxCodes) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a positive power of two: " + capacity);
+		}
+		this.enabled = enabled;
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.maxCodes = maxCodes;
+		int arrayLength = enabled ? capacity : 0;
+		this.published = new long[arrayLength];
+		this.nanoTimes = new long[arrayLength];
+		this.threadIds = new long[arrayLength];
+		this.taskIds = new long[arrayLength];
+		this.events = new byte[arrayLength];
+		this.codeIndexes = new int[arrayLength];
+		Instant now = Instant.now();
+		this.originNanoTime = System.nanoTime();
+		this.originEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Records one event of a task.
+	 *
+	 * @param event  What happened.
+	 * @param taskId The id of the task, or 0 to start a new task whose id is the sequence of this event.
+	 * @param code   The upper case code of the coin, or {@code null}.
+	 * @return The id of the task, to pass to its later events; 0 when tracing is disabled.
+	 */
+	public long record(TraceEvent event, long taskId, String code) {
+		if (!enabled) {
+			return 0;
+		}
+		long sequence = cursor.getAndIncrement();
+		int slot = (int) (sequence & mask);
+		SEQUENCES.setOpaque(published, slot, 0L);
+		VarHandle.storeStoreFence();
+		long id = taskId == 0 ? sequence : taskId;
+		nanoTimes[slot] = System.nanoTime();
+		threadIds[slot] = Thread.currentThread().getId();
+		taskIds[slot] = id;
+		events[slot] = (byte) event.ordinal();
+		codeIndexes[slot] = codeIndex(code);
+		SEQUENCES.setRelease(published, slot, sequence);
+		return id;
+	}
+
+	/**
+	 * Returns the sequence of the newest event handed out so far, or 0 if none was.
+	 */
+	public long getLastSequence() {
+		return cursor.get() - 1;
+	}
+
+	/**
+	 * Reads events in sequence order, starting at {@code fromSequence}.
+	 * <p>
+	 * Events that were overwritten before they could be read are skipped, which shows up as a gap in the sequences
+	 * passed to the consumer. Reading stops early at an event that has been claimed but not yet published, so that a
+	 * reader following the tracer picks it up on its next read instead of losing it.
+	 * </p>
+	 *
+	 * @param fromSequence The first sequence to read; older events that are no longer held are skipped.
+	 * @param limit        Maximum number of events to read.
+	 * @param consumer     Receives the events read.
+	 * @return The sequence to continue reading from.
+	 */
+	public long read(long fromSequence, int limit, Consumer<TraceRecord> consumer) {
+		long last = getLastSequence();
+		long sequence = Math.max(Math.max(fromSequence, 1), last - capacity + 1);
+		if (!enabled) {
+			return sequence;
+		}
+		int read = 0;
+		for (; sequence <= last && read < limit; sequence++) {
+			int slot = (int) (sequence & mask);
+			long before = (long) SEQUENCES.getAcquire(published, slot);
+			if (before > sequence) {
+				continue;
+			}
+			if (before < sequence) {
+				break;
+			}
+			long nanoTime = nanoTimes[slot];
+			long threadId = threadIds[slot];
+			long taskId = taskIds[slot];
+			byte event = events[slot];
+			int codeIndex = codeIndexes[slot];
+			VarHandle.loadLoadFence();
+			if ((long) SEQUENCES.getOpaque(published, slot) != sequence) {
+				continue;
+			}
+			long epochNanos = originEpochNanos + (nanoTime - originNanoTime);
+			consumer.accept(new TraceRecord(sequence,
+					Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+							Math.floorMod(epochNanos, 1_000_000_000L)),
+					threadId, taskId, TraceEvent.of(event), codeIndex == NO_CODE ? null : codes[codeIndex]));
+			read++;
+		}
+		return sequence;
+	}
+
+	private int codeIndex(String code) {
+		if (code == null) {
+			return NO_CODE;
+		}
+		Integer index = codeIndexByCode.get(code);
+		return index != null ? index : registerCode(code);
+	}
+
+	private synchronized int registerCode(String code) {
+		Integer index = codeIndexByCode.get(code);
+		if (index != null) {
+			return index;
+		}
+		String[] current = codes;
+		if (current.length >= maxCodes) {
+			return NO_CODE;
+		}
+		String[] next = Arrays.copyOf(current, current.length + 1);
+		next[current.length] = code;
+		codes = next;
+		codeIndexByCode.put(code, current.length);
+		return current.length;
+	}
+
+}
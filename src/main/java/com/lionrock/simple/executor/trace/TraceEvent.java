@@ -0,0 +1,44 @@
+package com.lionrock.simple.executor.trace;
+
+/**
+ * Lifecycle events of a coin price task recorded by the {@link TaskTracer}.
+ */
+public enum TraceEvent {
+
+	/**
+	 * The task was created to be handed to an executor.
+	 */
+	SUBMITTED,
+
+	/**
+	 * A worker thread began running the task.
+	 */
+	STARTED,
+
+	/**
+	 * The price was fetched and is about to be written or buffered for write-behind.
+	 */
+	DB_START,
+
+	/**
+	 * The write returned, or the price was accepted by the write-behind buffer.
+	 */
+	DB_END,
+
+	/**
+	 * The task finished and returned its coin price.
+	 */
+	COMPLETED,
+
+	/**
+	 * The task ended with an exception.
+	 */
+	FAILED;
+
+	private static final TraceEvent[] VALUES = values();
+
+	static TraceEvent of(int ordinal) {
+		return VALUES[ordinal];
+	}
+
+}
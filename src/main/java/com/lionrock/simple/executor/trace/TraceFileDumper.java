@@ -0,0 +1,114 @@
+package com.lionrock.simple.executor.trace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Appends the events of a {@link TaskTracer} to a text file in the background.
+ * <p>
+ * A single daemon thread wakes up every interval and writes every event recorded since its previous pass, one line
+ * per event, through a buffered writer. Tasks never wait for the file; if they record more events between two passes
+ * than the tracer holds, the overwritten events are counted as lost and the gap is visible in the sequence numbers.
+ * Closing the dumper writes a last pass before the file is closed.
+ * </p>
+ */
+public class TraceFileDumper implements AutoCloseable {
+
+	private static final int MAX_EVENTS_PER_READ = 4096;
+
+	private final TaskTracer tracer;
+	private final BufferedWriter writer;
+	private final ScheduledExecutorService scheduler;
+	private final LongAdder lostCount = new LongAdder();
+	private long nextSequence = 1;
+
+	public TraceFileDumper(TaskTracer tracer, Path file, Duration interval) throws IOException {
+		this.tracer = tracer;
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND);
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-trace-dumper-");
+		threadFactory.setDaemon(true);
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		long intervalMillis = Math.max(1, interval.toMillis());
+		scheduler.scheduleWithFixedDelay(this::dumpQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the number of events overwritten in the tracer before they could be written to the file.
+	 */
+	public long getLostCount() {
+		return lostCount.sum();
+	}
+
+	/**
+	 * Writes every event recorded since the previous pass and flushes the file.
+	 */
+	synchronized void dump() throws IOException {
+		long last = tracer.getLastSequence();
+		while (nextSequence <= last) {
+			long from = nextSequence;
+			long next = tracer.read(from, MAX_EVENTS_PER_READ, this::write);
+			if (next > nextSequence) {
+				lostCount.add(next - nextSequence);
+				nextSequence = next;
+			}
+			if (next == from) {
+				break;
+			}
+		}
+		writer.flush();
+	}
+
+	private void write(TraceRecord record) {
+		if (record.getSequence() > nextSequence) {
+			lostCount.add(record.getSequence() - nextSequence);
+		}
+		nextSequence = record.getSequence() + 1;
+		try {
+			writer.write(record.toString());
+			writer.newLine();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void dumpQuietly() {
+		try {
+			dump();
+		} catch (IOException | UncheckedIOException e) {
+			// keep the schedule alive; the next pass retries from the first event not yet written
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		scheduler.shutdownNow();
+		try {
+			scheduler.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			dump();
+		} finally {
+			writer.close();
+		}
+	}
+
+}
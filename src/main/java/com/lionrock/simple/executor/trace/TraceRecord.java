@@ -0,0 +1,59 @@
+package com.lionrock.simple.executor.trace;
+
+import java.time.Instant;
+
+/**
+ * One event read from the {@link TaskTracer}.
+ */
+public class TraceRecord {
+
+	private final long sequence;
+	private final Instant time;
+	private final long threadId;
+	private final long taskId;
+	private final TraceEvent event;
+	private final String code;
+
+	public TraceRecord(long sequence, Instant time, long threadId, long taskId, TraceEvent event, String code) {
+		this.sequence = sequence;
+		this.time = time;
+		this.threadId = threadId;
+		this.taskId = taskId;
+		this.event = event;
+		this.code = code;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public Instant getTime() {
+		return time;
+	}
+
+	public long getThreadId() {
+		return threadId;
+	}
+
+	public long getTaskId() {
+		return taskId;
+	}
+
+	public TraceEvent getEvent() {
+		return event;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * Formats the event as one line of the trace file.
+	 */
+	@Override
+	public String toString() {
+		return time + " seq=" + sequence + " thread=" + threadId + " task=" + taskId + " " + event + " "
+				+ (code == null ? "-" : code);
+	}
+
+}
@@ -1,17 +1,72 @@
--- Drop the existing table for coin price to reset the schema
+-- Drop the existing tables for coin price to reset the schema
+DROP TABLE IF EXISTS COIN_PRICE_CANDLE;
+DROP TABLE IF EXISTS COIN_PRICE_LATEST;
 DROP TABLE IF EXISTS COIN_PRICE;
+DROP TABLE IF EXISTS COIN_REGISTRY;
 
 -- Create a new table for managing coin prices
-CREATE TABLE COIN_PRICE ( 
+CREATE TABLE COIN_PRICE (
    id BIGINT NOT NULL auto_increment, -- Unique identifier for each record
    local_date_time DATETIME NOT NULL, -- Timestamp of the last update
    code VARCHAR(50) NOT NULL, -- Identifier for the coin
    price FLOAT(4) NOT NULL, -- Current price of the coin
-   updated_by VARCHAR(50) -- Identifier of the updater
+   updated_by VARCHAR(50), -- Identifier of the updater
+   CONSTRAINT PK_COIN_PRICE PRIMARY KEY (id)
 );
 
+-- Serve per-code time range queries and keyset pages on the price history in (local_date_time, id) order without sorting
+CREATE INDEX IDX_COIN_PRICE_CODE_TIME ON COIN_PRICE(code, local_date_time, id);
+
+-- Projection holding only the latest price of each coin, kept current with MERGE on every insert
+CREATE TABLE COIN_PRICE_LATEST (
+   code VARCHAR(50) NOT NULL, -- Identifier for the coin
+   id BIGINT, -- Identifier of the COIN_PRICE record the latest price came from
+   local_date_time DATETIME NOT NULL, -- Timestamp of the latest update
+   price FLOAT(4) NOT NULL, -- Latest price of the coin
+   updated_by VARCHAR(50), -- Identifier of the updater
+   CONSTRAINT PK_COIN_PRICE_LATEST PRIMARY KEY (code)
+);
+
+-- Closed OHLC candles per coin and interval, merged in by the candle aggregator as buckets close
+CREATE TABLE COIN_PRICE_CANDLE (
+   code VARCHAR(50) NOT NULL, -- Identifier for the coin
+   interval_code VARCHAR(8) NOT NULL, -- Bucket width: 1s, 1m or 1h
+   open_time DATETIME NOT NULL, -- Start of the bucket
+   open_price FLOAT(4) NOT NULL, -- Price of the first tick in the bucket
+   high_price FLOAT(4) NOT NULL, -- Highest price in the bucket
+   low_price FLOAT(4) NOT NULL, -- Lowest price in the bucket
+   close_price FLOAT(4) NOT NULL, -- Price of the last tick in the bucket
+   tick_count BIGINT NOT NULL, -- Number of ticks in the bucket
+   first_tick_time DATETIME NOT NULL, -- Time of the first tick, used to merge late ticks
+   last_tick_time DATETIME NOT NULL, -- Time of the last tick, used to merge late ticks
+   CONSTRAINT PK_COIN_PRICE_CANDLE PRIMARY KEY (code, interval_code, open_time)
+);
+
+-- Coins whose prices are tracked, each polled at its own interval when polling is enabled
+CREATE TABLE COIN_REGISTRY (
+   code VARCHAR(50) NOT NULL, -- Identifier for the coin
+   poll_interval_ms BIGINT NOT NULL, -- How often the coin's price is refreshed by the poller
+   enabled BOOLEAN NOT NULL DEFAULT TRUE, -- Whether the coin is polled and included in bulk refreshes
+   registered_at DATETIME NOT NULL, -- Timestamp of the registration
+   CONSTRAINT PK_COIN_REGISTRY PRIMARY KEY (code)
+);
+
+-- Register the initially tracked coins
+insert into COIN_REGISTRY(code,poll_interval_ms,registered_at) values('USDC',5000,CURRENT_TIMESTAMP);
+insert into COIN_REGISTRY(code,poll_interval_ms,registered_at) values('USDT',5000,CURRENT_TIMESTAMP);
+insert into COIN_REGISTRY(code,poll_interval_ms,registered_at) values('BUSD',5000,CURRENT_TIMESTAMP);
+insert into COIN_REGISTRY(code,poll_interval_ms,registered_at) values('PYUSD',5000,CURRENT_TIMESTAMP);
+
 -- Insert an initial record into the coin price table
 insert into COIN_PRICE(local_date_time,code,price) values(CURRENT_TIMESTAMP,'USDC',1.0);
 insert into COIN_PRICE(local_date_time,code,price) values(CURRENT_TIMESTAMP,'USDT',1.0);
 insert into COIN_PRICE(local_date_time,code,price) values(CURRENT_TIMESTAMP,'BUSD',1.0);
-insert into COIN_PRICE(local_date_time,code,price) values(CURRENT_TIMESTAMP,'PYUSD',1.0);
\ No newline at end of file
+insert into COIN_PRICE(local_date_time,code,price) values(CURRENT_TIMESTAMP,'PYUSD',1.0);
+
+-- Seed the projection with the newest record of each coin
+insert into COIN_PRICE_LATEST(code,id,local_date_time,price,updated_by)
+select p.code, p.id, p.local_date_time, p.price, p.updated_by from COIN_PRICE p
+where not exists (
+   select 1 from COIN_PRICE n where n.code = p.code
+   and (n.local_date_time > p.local_date_time or (n.local_date_time = p.local_date_time and n.id > p.id))
+);
@@ -0,0 +1,50 @@
+package com.lionrock.simple.executor.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PriceStatsTests {
+
+	private static final double ALPHA = 2.0 / 21;
+
+	@Test
+	void combiningChunksMatchesOnePass() {
+		Random random = new Random(42);
+		float[] prices = new float[1000];
+		for (int i = 0; i < prices.length; i++) {
+			prices[i] = 1 + (random.nextFloat() - 0.5f) / 100;
+		}
+		PriceStats whole = PriceStats.of(prices, 0, prices.length, ALPHA);
+
+		PriceStats combined = PriceStats.EMPTY;
+		for (int from = 0; from < prices.length; from += 37) {
+			combined = combined.combine(PriceStats.of(prices, from, Math.min(prices.length, from + 37), ALPHA));
+		}
+
+		assertEquals(whole.getCount(), combined.getCount());
+		assertEquals(whole.getMean(), combined.getMean(), 1e-12);
+		assertEquals(whole.getStddev(), combined.getStddev(), 1e-12);
+		assertEquals(whole.getMin(), combined.getMin());
+		assertEquals(whole.getMax(), combined.getMax());
+		assertEquals(whole.getFirst(), combined.getFirst());
+		assertEquals(whole.getLast(), combined.getLast());
+		assertEquals(whole.getEma(), combined.getEma(), 1e-12);
+		assertEquals(whole.getVolatility(), combined.getVolatility(), 1e-12);
+	}
+
+	@Test
+	void computesTheExponentialMovingAverageFromTheFirstPrice() {
+		float[] prices = { 1, 2, 3 };
+
+		PriceStats stats = PriceStats.of(prices, 0, prices.length, 0.5);
+
+		assertEquals(2.25, stats.getEma(), 1e-12);
+		assertEquals(2, stats.getMean(), 1e-12);
+		assertEquals(1, stats.getStddev(), 1e-12);
+		assertEquals(Math.sqrt(0.5) * Math.abs(Math.log(2) - Math.log(1.5)), stats.getVolatility(), 1e-12);
+	}
+
+}
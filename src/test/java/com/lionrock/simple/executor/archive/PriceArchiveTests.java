@@ -0,0 +1,76 @@
+package com.lionrock.simple.executor.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.lionrock.simple.executor.model.CoinPrice;
+
+class PriceArchiveTests {
+
+	@Test
+	void readsBackPricesAcrossBlocksAndLargeDictionaries() throws IOException {
+		LocalDateTime time = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PriceArchiveWriter writer = new PriceArchiveWriter(Channels.newChannel(out), 400);
+		for (int i = 0; i < 1000; i++) {
+			// 300 codes force two-byte code indexes, and every third price steps back in time
+			writer.write("C" + i % 300, time.plusNanos((i % 3 == 2 ? -1 : i) * 1_500_000_000L), i / 7f);
+		}
+		writer.finish();
+
+		PriceArchiveReader reader = reader(out.toByteArray());
+		List<CoinPrice> coinPrices = readAll(reader);
+
+		assertEquals(3, writer.getBlockCount());
+		assertEquals(3, reader.getBlockCount());
+		assertEquals(1000, coinPrices.size());
+		for (int i = 0; i < 1000; i++) {
+			CoinPrice coinPrice = coinPrices.get(i);
+			assertEquals("C" + i % 300, coinPrice.getCode());
+			assertEquals(time.plusNanos((i % 3 == 2 ? -1 : i) * 1_500_000_000L), coinPrice.getLocalDateTime());
+			assertEquals(i / 7f, coinPrice.getPrice());
+		}
+	}
+
+	@Test
+	void rejectsTruncatedAndCorruptedArchives() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PriceArchiveWriter writer = new PriceArchiveWriter(Channels.newChannel(out), 10);
+		for (int i = 0; i < 25; i++) {
+			writer.write("USDC", LocalDateTime.of(2024, 3, 1, 12, 0).plusSeconds(i), 1f);
+		}
+		writer.finish();
+		byte[] archive = out.toByteArray();
+
+		byte[] truncated = Arrays.copyOf(archive, archive.length - 20);
+		assertThrows(PriceArchiveFormatException.class, () -> readAll(reader(truncated)));
+		byte[] corrupted = archive.clone();
+		corrupted[30]++;
+		assertThrows(PriceArchiveFormatException.class, () -> readAll(reader(corrupted)));
+		assertEquals(25, readAll(reader(archive)).size());
+	}
+
+	private static PriceArchiveReader reader(byte[] archive) {
+		return new PriceArchiveReader(Channels.newChannel(new ByteArrayInputStream(archive)));
+	}
+
+	private static List<CoinPrice> readAll(PriceArchiveReader reader) throws IOException {
+		List<CoinPrice> coinPrices = new ArrayList<>();
+		while (reader.readBlock(coinPrices) >= 0) {
+			// every block adds its prices until the trailer is read
+		}
+		return coinPrices;
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.lionrock.simple.executor.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	@Test
+	void shedsCallsBeyondTheLimit() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", true, 2, 1, 10,
+				Duration.ofSeconds(10), 0.5, Duration.ofSeconds(5));
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<?>[] running = new CompletableFuture<?>[2];
+		for (int i = 0; i < running.length; i++) {
+			running[i] = CompletableFuture.runAsync(() -> limiter.run(() -> {
+				started.countDown();
+				await(release);
+			}));
+		}
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.run(() -> {
+		}));
+		assertThrows(ConcurrencyLimitExceededException.class, limiter::checkCapacity);
+		release.countDown();
+		CompletableFuture.allOf(running).get(5, TimeUnit.SECONDS);
+
+		assertEquals(2, limiter.getShedCount());
+		assertEquals(0, limiter.getInFlight());
+		limiter.run(() -> {
+		});
+	}
+
+	@Test
+	void waitingCallsRunOnceASlotIsFree() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", true, 1, 1, 1,
+				Duration.ofSeconds(10), 0.5, Duration.ofSeconds(5));
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<?> running = CompletableFuture.runAsync(() -> limiter.run(() -> {
+			started.countDown();
+			await(release);
+		}));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return limiter.awaitCall(() -> "admitted");
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread.sleep(100);
+		assertFalse(waiting.isDone());
+		release.countDown();
+
+		assertEquals("admitted", waiting.get(5, TimeUnit.SECONDS));
+		running.get(5, TimeUnit.SECONDS);
+		assertEquals(0, limiter.getShedCount());
+	}
+
+	@Test
+	void waitingCallsAreShedAfterMaxWait() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", true, 1, 1, 1,
+				Duration.ofSeconds(10), 0.5, Duration.ofMillis(50));
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<?> running = CompletableFuture.runAsync(() -> limiter.run(() -> await(release)));
+		while (limiter.getInFlight() == 0) {
+			Thread.sleep(1);
+		}
+
+		assertThrows(ConcurrencyLimitExceededException.class, () -> limiter.awaitRun(() -> {
+		}));
+		release.countDown();
+		running.get(5, TimeUnit.SECONDS);
+		assertEquals(1, limiter.getShedCount());
+	}
+
+	@Test
+	void growsWhileCallsAreFastAndBacksOffOnFailure() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", true, 1, 1, 10,
+				Duration.ofSeconds(10), 0.5, Duration.ofSeconds(5));
+		for (int i = 0; i < 20; i++) {
+			limiter.run(() -> {
+			});
+		}
+		int grown = limiter.getLimit();
+		assertTrue(grown > 1, "Limit did not grow: " + grown);
+
+		Thread.sleep(1);
+		assertThrows(IllegalStateException.class, () -> limiter.run(() -> {
+			throw new IllegalStateException();
+		}));
+
+		assertEquals(1, limiter.getBackoffCount());
+		assertTrue(limiter.getLimit() < grown);
+	}
+
+	@Test
+	void disabledLimiterRunsEverything() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", false, 1, 1, 1,
+				Duration.ZERO, 0.5, Duration.ZERO);
+
+		assertEquals("nested", limiter.call(() -> limiter.call(() -> "nested")));
+		assertEquals(0, limiter.getShedCount());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.lionrock.simple.executor.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedThreadPerTaskExecutorTests {
+
+	@Test
+	void rejectsTasksBeyondConcurrencyLimit() throws InterruptedException {
+		BoundedThreadPerTaskExecutor executor = new BoundedThreadPerTaskExecutor(Executors.defaultThreadFactory(), 2,
+				RejectionPolicy.REJECT, Duration.ZERO);
+		CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() -> awaitQuietly(release));
+		executor.execute(() -> awaitQuietly(release));
+
+		assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+		}));
+		assertEquals(1, executor.getRejectedCount());
+
+		release.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals(2, executor.getCompletedTaskCount());
+	}
+
+	@Test
+	void runsTaskOnCallerWhenSaturated() throws InterruptedException {
+		BoundedThreadPerTaskExecutor executor = new BoundedThreadPerTaskExecutor(Executors.defaultThreadFactory(), 1,
+				RejectionPolicy.CALLER_RUNS, Duration.ZERO);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicReference<Thread> runner = new AtomicReference<>();
+		executor.execute(() -> awaitQuietly(release));
+
+		executor.execute(() -> runner.set(Thread.currentThread()));
+
+		assertEquals(Thread.currentThread(), runner.get());
+		assertEquals(1, executor.getSaturatedCount());
+		release.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void tryExecuteRefusesWhenSaturatedWhateverThePolicy() throws InterruptedException {
+		BoundedThreadPerTaskExecutor executor = new BoundedThreadPerTaskExecutor(Executors.defaultThreadFactory(), 1,
+				RejectionPolicy.CALLER_RUNS, Duration.ZERO);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicReference<Thread> runner = new AtomicReference<>();
+		assertTrue(executor.tryExecute(() -> awaitQuietly(release)));
+
+		assertFalse(executor.tryExecute(() -> runner.set(Thread.currentThread())));
+
+		assertNull(runner.get());
+		assertEquals(1, executor.getRejectedCount());
+		release.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void waitsForPermitUnderBlockPolicy() throws InterruptedException {
+		BoundedThreadPerTaskExecutor executor = new BoundedThreadPerTaskExecutor(Executors.defaultThreadFactory(), 1,
+				RejectionPolicy.BLOCK, Duration.ofSeconds(5));
+		CountDownLatch done = new CountDownLatch(2);
+		executor.execute(() -> {
+			sleepQuietly(200);
+			done.countDown();
+		});
+
+		executor.execute(done::countDown);
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(0, executor.getRejectedCount());
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Ten thousand tasks that each block for half a second finish in roughly half a second on virtual threads, where
+	 * a pool of platform threads would need one thread per task or minutes of queueing.
+	 */
+	@Test
+	void runsTenThousandBlockingTasksConcurrentlyOnVirtualThreads() throws InterruptedException {
+		assumeTrue(VirtualThreads.isSupported(), "Virtual threads require Java 21 or later");
+		int taskCount = 10_000;
+		BoundedThreadPerTaskExecutor executor = new BoundedThreadPerTaskExecutor(
+				VirtualThreads.newThreadFactory("test-virtual-"), taskCount, RejectionPolicy.REJECT, Duration.ZERO);
+		CountDownLatch done = new CountDownLatch(taskCount);
+		AtomicInteger maxActive = new AtomicInteger();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < taskCount; i++) {
+			executor.execute(() -> {
+				maxActive.accumulateAndGet(executor.getActiveCount(), Math::max);
+				sleepQuietly(500);
+				done.countDown();
+			});
+		}
+
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+		assertTrue(maxActive.get() > 1_000);
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleepQuietly(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
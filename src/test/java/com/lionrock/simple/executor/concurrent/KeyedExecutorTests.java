@@ -0,0 +1,265 @@
+package com.lionrock.simple.executor.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class KeyedExecutorTests {
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void runsTasksOfOneKeyOneAtATimeInSubmissionOrder() throws Exception {
+		KeyedExecutor executor = new KeyedExecutor(pool, false);
+		List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		List<Future<Integer>> futures = new ArrayList<>();
+
+		for (int i = 0; i < 50; i++) {
+			int sequence = i;
+			futures.add(executor.submit(new Task<>("USDC", () -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				Thread.sleep(1);
+				order.add(sequence);
+				running.decrementAndGet();
+				return sequence;
+			})));
+		}
+		for (Future<Integer> future : futures) {
+			future.get(10, TimeUnit.SECONDS);
+		}
+
+		assertEquals(1, maxRunning.get());
+		for (int i = 0; i < 50; i++) {
+			assertEquals(i, order.get(i));
+		}
+		// the queue of a key is dropped just after its last future completes
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (executor.getActiveKeyCount() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(0, executor.getActiveKeyCount());
+	}
+
+	@Test
+	void runsDifferentKeysInParallel() throws Exception {
+		KeyedExecutor executor = new KeyedExecutor(pool, false);
+		CountDownLatch bothRunning = new CountDownLatch(2);
+
+		Future<Boolean> usdc = executor.submit(new Task<>("USDC", () -> {
+			bothRunning.countDown();
+			return bothRunning.await(5, TimeUnit.SECONDS);
+		}));
+		Future<Boolean> usdt = executor.submit(new Task<>("USDT", () -> {
+			bothRunning.countDown();
+			return bothRunning.await(5, TimeUnit.SECONDS);
+		}));
+
+		assertTrue(usdc.get(10, TimeUnit.SECONDS));
+		assertTrue(usdt.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void coalescesQueuedTasksOfOneKeyIntoTheNewest() throws Exception {
+		KeyedExecutor executor = new KeyedExecutor(pool, true);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+
+		Future<Integer> first = executor.submit(new Task<>("USDC", () -> {
+			release.await();
+			return runs.incrementAndGet();
+		}));
+		List<Future<Integer>> queued = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			queued.add(executor.submit(new Task<>("USDC", runs::incrementAndGet)));
+		}
+		release.countDown();
+
+		assertEquals(1, first.get(10, TimeUnit.SECONDS));
+		for (Future<Integer> future : queued) {
+			assertEquals(2, future.get(10, TimeUnit.SECONDS));
+		}
+		assertEquals(2, runs.get());
+		assertEquals(4, executor.getCoalescedCount());
+	}
+
+	@Test
+	void completesCoalescedCompletableTasks() throws Exception {
+		KeyedExecutor executor = new KeyedExecutor(pool, true);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+
+		// these futures are completed by their task when it runs, so a coalesced one needs the outcome forwarded
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			futures.add(CompletableTasks.submit(executor, new Task<>("USDT", () -> {
+				release.await();
+				return runs.incrementAndGet();
+			})));
+		}
+		release.countDown();
+
+		assertEquals(1, futures.get(0).get(10, TimeUnit.SECONDS));
+		assertEquals(2, futures.get(1).get(10, TimeUnit.SECONDS));
+		assertEquals(2, futures.get(2).get(10, TimeUnit.SECONDS));
+		assertEquals(1, executor.getCoalescedCount());
+	}
+
+	@Test
+	void handsOffOutsideTheKeyLockWhenASaturatedPoolRunsTasksOnTheCaller() throws Exception {
+		ThreadPoolExecutor saturated = singleThreadCallerRunsPool();
+		CountDownLatch poolRelease = new CountDownLatch(1);
+		try {
+			saturated.execute(() -> await(poolRelease));
+			saturated.execute(() -> {
+			});
+			KeyedExecutor executor = new KeyedExecutor(saturated, false);
+			CountDownLatch running = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+			CompletableFuture<Future<Integer>> first = CompletableFuture
+					.supplyAsync(() -> executor.submit(new Task<>("USDC", () -> {
+						running.countDown();
+						release.await();
+						order.add(1);
+						return 1;
+					})));
+			assertTrue(running.await(5, TimeUnit.SECONDS));
+
+			// the first task runs on its submitter, which must not keep the next submitter of the key waiting
+			Future<Integer> second = assertTimeoutPreemptively(Duration.ofSeconds(1),
+					() -> executor.submit(new Task<>("USDC", () -> order.add(2) ? 2 : 0)));
+			release.countDown();
+
+			assertEquals(1, first.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+			assertEquals(2, second.get(10, TimeUnit.SECONDS));
+			assertEquals(List.of(1, 2), order);
+		} finally {
+			poolRelease.countDown();
+			saturated.shutdownNow();
+		}
+	}
+
+	@Test
+	void runsRefusedFollowUpsInALoopRatherThanNested() throws Exception {
+		ThreadPoolExecutor saturated = singleThreadCallerRunsPool();
+		try {
+			KeyedExecutor executor = new KeyedExecutor(saturated, false);
+			CountDownLatch release = new CountDownLatch(1);
+			Future<Integer> first = executor.submit(new Task<>("USDT", () -> {
+				release.await();
+				return 0;
+			}));
+			// with the only thread running the key and the queue full, every follow-up is refused
+			saturated.execute(() -> {
+			});
+			List<Integer> stackDepths = Collections.synchronizedList(new ArrayList<>());
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (int i = 1; i <= 200; i++) {
+				int sequence = i;
+				futures.add(executor.submit(new Task<>("USDT", () -> {
+					stackDepths.add(Thread.currentThread().getStackTrace().length);
+					return sequence;
+				})));
+			}
+			release.countDown();
+
+			assertEquals(0, first.get(10, TimeUnit.SECONDS));
+			for (int i = 0; i < futures.size(); i++) {
+				assertEquals(i + 1, futures.get(i).get(10, TimeUnit.SECONDS));
+			}
+			int shallowest = stackDepths.stream().mapToInt(Integer::intValue).min().orElseThrow();
+			int deepest = stackDepths.stream().mapToInt(Integer::intValue).max().orElseThrow();
+			assertTrue(deepest - shallowest < 20, "Stack grew from " + shallowest + " to " + deepest + " frames");
+		} finally {
+			saturated.shutdownNow();
+		}
+	}
+
+	@Test
+	void drainsTasksQueuedForAKeyAfterTheCallerRunsPoolShutsDown() throws Exception {
+		ThreadPoolExecutor caller = singleThreadCallerRunsPool();
+		try {
+			KeyedExecutor executor = new KeyedExecutor(caller, false);
+			CountDownLatch release = new CountDownLatch(1);
+			Future<Integer> first = executor.submit(new Task<>("USDT", () -> {
+				release.await();
+				return 1;
+			}));
+			Future<Integer> second = executor.submit(new Task<>("USDT", () -> 2));
+			Future<Integer> third = executor.submit(new Task<>("USDT", () -> 3));
+			// the caller-runs policy now discards the follow-ups instead of running or rejecting them
+			caller.shutdown();
+			executor.shutdown();
+			release.countDown();
+
+			assertEquals(1, first.get(10, TimeUnit.SECONDS));
+			assertEquals(2, second.get(10, TimeUnit.SECONDS));
+			assertEquals(3, third.get(10, TimeUnit.SECONDS));
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+			assertEquals(0, executor.getActiveKeyCount());
+		} finally {
+			caller.shutdownNow();
+		}
+	}
+
+	private static ThreadPoolExecutor singleThreadCallerRunsPool() {
+		return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final class Task<T> implements Callable<T>, KeyedTask {
+
+		private final String key;
+		private final Callable<T> body;
+
+		Task(String key, Callable<T> body) {
+			this.key = key;
+			this.body = body;
+		}
+
+		@Override
+		public T call() throws Exception {
+			return body.call();
+		}
+
+		@Override
+		public Object getKey() {
+			return key;
+		}
+
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.lionrock.simple.executor.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.lionrock.simple.executor.model.CoinPrice;
+
+class TickJournalTests {
+
+	private static final long SEGMENT_SIZE = 10 * TickJournal.RECORD_SIZE;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsBackAppendedRecordsAcrossSegments() throws IOException {
+		TickJournal journal = new TickJournal(directory, SEGMENT_SIZE, false);
+		LocalDateTime time = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_789);
+		for (int i = 0; i < 25; i++) {
+			assertEquals(i + 1, journal.append(price("USDC", time.plusSeconds(i), 1 + i / 100f, "source-" + i)));
+		}
+
+		List<CoinPrice> records = new ArrayList<>();
+		assertEquals(25, journal.read(1, 100, records));
+
+		assertEquals(3, journal.getSegmentCount());
+		assertEquals(25, records.size());
+		assertEquals("USDC", records.get(12).getCode());
+		assertEquals(time.plusSeconds(12), records.get(12).getLocalDateTime());
+		assertEquals(1.12f, records.get(12).getPrice());
+		assertEquals("source-12", records.get(12).getUpdatedBy());
+	}
+
+	@Test
+	void reopenedJournalResumesAfterTheCheckpoint() throws IOException {
+		TickJournal journal = new TickJournal(directory, SEGMENT_SIZE, false);
+		for (int i = 0; i < 25; i++) {
+			journal.append(price("USDT", LocalDateTime.now(), 1f, null));
+		}
+		journal.checkpoint(21);
+		journal.close();
+
+		TickJournal reopened = new TickJournal(directory, SEGMENT_SIZE, false);
+		List<CoinPrice> unapplied = new ArrayList<>();
+		reopened.read(reopened.getCheckpoint() + 1, 100, unapplied);
+
+		assertEquals(25, reopened.getLastSequence());
+		assertEquals(4, reopened.getLag());
+		assertEquals(4, unapplied.size());
+		assertNull(unapplied.get(0).getUpdatedBy());
+		assertEquals(1, reopened.getSegmentCount());
+		assertEquals(26, reopened.append(price("USDT", LocalDateTime.now(), 1f, null)));
+	}
+
+	@Test
+	void tornRecordEndsTheJournal() throws IOException {
+		TickJournal journal = new TickJournal(directory, SEGMENT_SIZE, false);
+		for (int i = 0; i < 5; i++) {
+			journal.append(price("BUSD", LocalDateTime.now(), 1f, "source"));
+		}
+		journal.close();
+		Path segment;
+		try (Stream<Path> files = Files.list(directory)) {
+			segment = files.filter(file -> file.toString().endsWith(".journal")).findFirst().orElseThrow();
+		}
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 42 }), 3L * TickJournal.RECORD_SIZE + 30);
+		}
+
+		TickJournal reopened = new TickJournal(directory, SEGMENT_SIZE, false);
+
+		assertEquals(3, reopened.getLastSequence());
+		assertEquals(4, reopened.append(price("BUSD", LocalDateTime.now(), 1f, "source")));
+	}
+
+	private static CoinPrice price(String code, LocalDateTime localDateTime, float price, String updatedBy) {
+		CoinPrice coinPrice = new CoinPrice();
+		coinPrice.setCode(code);
+		coinPrice.setLocalDateTime(localDateTime);
+		coinPrice.setPrice(price);
+		coinPrice.setUpdatedBy(updatedBy);
+		return coinPrice;
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.lionrock.simple.executor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.lionrock.simple.executor.config.CandleProperties;
+import com.lionrock.simple.executor.mapper.CoinPriceCandleMapper;
+import com.lionrock.simple.executor.model.Candle;
+import com.lionrock.simple.executor.model.CandleInterval;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+class CandleAggregatorTests {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+	@Test
+	void mergesALateTickWithTheClosedCandleOfItsBucketBeforeWriting() {
+		RecordingCandleMapper mapper = new RecordingCandleMapper();
+		CandleAggregator aggregator = new CandleAggregator(mapper, new CandleProperties());
+
+		aggregator.onTick(coinPrice(NOON.plusNanos(100_000_000), 1f));
+		aggregator.onTick(coinPrice(NOON.plusNanos(1_500_000_000), 3f));
+		// Arrives after the one-second bucket of 12:00:00 was closed by the previous tick
+		aggregator.onTick(coinPrice(NOON.plusNanos(500_000_000), 2f));
+		aggregator.flush(false);
+
+		assertEquals(4, mapper.written.size());
+		assertEquals(4, aggregator.getFlushedCount());
+		Candle late = mapper.written.stream()
+				.filter(candle -> candle.getInterval().equals(CandleInterval.ONE_SECOND.getLabel())
+						&& candle.getOpenTime().equals(NOON))
+				.findFirst().orElseThrow();
+		assertEquals(2, late.getCount());
+		assertEquals(1f, late.getOpen());
+		assertEquals(2f, late.getHigh());
+		assertEquals(2f, late.getClose());
+		Candle minute = mapper.written.stream()
+				.filter(candle -> candle.getInterval().equals(CandleInterval.ONE_MINUTE.getLabel()))
+				.findFirst().orElseThrow();
+		assertEquals(3, minute.getCount());
+		assertEquals(3f, minute.getClose());
+
+		aggregator.flush(false);
+		assertEquals(4, mapper.written.size());
+	}
+
+	private static CoinPrice coinPrice(LocalDateTime time, float price) {
+		CoinPrice coinPrice = new CoinPrice();
+		coinPrice.setCode("USDC");
+		coinPrice.setPrice(price);
+		coinPrice.setLocalDateTime(time);
+		return coinPrice;
+	}
+
+	/**
+	 * Keeps merged candles and, like H2, rejects a statement whose source matches the same row twice.
+	 */
+	private static final class RecordingCandleMapper implements CoinPriceCandleMapper {
+
+		final List<Candle> written = new ArrayList<>();
+
+		@Override
+		public List<Candle> getLatestCandles(String code, String interval, LocalDateTime from, LocalDateTime to,
+				int limit) {
+			return List.of();
+		}
+
+		@Override
+		public int mergeCandles(List<Candle> candles) {
+			Set<List<Object>> keys = new HashSet<>();
+			for (Candle candle : candles) {
+				assertTrue(keys.add(List.of(candle.getCode(), candle.getInterval(), candle.getOpenTime())),
+						"Duplicate candle in one MERGE: " + candle);
+			}
+			written.addAll(candles);
+			return candles.size();
+		}
+
+	}
+
+}
@@ -0,0 +1,249 @@
+package com.lionrock.simple.executor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.lionrock.simple.executor.concurrent.InstrumentedThreadPoolExecutor;
+import com.lionrock.simple.executor.concurrent.KeyedExecutor;
+import com.lionrock.simple.executor.config.PollingProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+import com.lionrock.simple.executor.model.RegisteredCoin;
+
+class CoinPricePollerTests {
+
+	private final InstrumentedThreadPoolExecutor pool = new InstrumentedThreadPoolExecutor(8, 8, 0,
+			TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100), Executors.defaultThreadFactory(),
+			new ThreadPoolExecutor.CallerRunsPolicy());
+	private final StubCoinRegistryService registry = new StubCoinRegistryService();
+	private final RecordingCoinPriceService coinPriceService = new RecordingCoinPriceService();
+	private CoinPricePoller poller;
+
+	@AfterEach
+	void stop() {
+		coinPriceService.release.countDown();
+		if (poller != null) {
+			poller.stop();
+		}
+		pool.shutdownNow();
+	}
+
+	@Test
+	void pollsEveryCoinAtItsIntervalWithJitter() throws Exception {
+		registry.setCoins(coin("USDC", 100), coin("USDT", 100));
+		coinPriceService.release.countDown();
+		PollingProperties properties = properties();
+		properties.setJitter(0.5);
+		start(pool, properties);
+
+		Thread.sleep(1_050);
+		poller.stop();
+
+		List<Long> gaps = new ArrayList<>();
+		for (String code : List.of("USDC", "USDT")) {
+			List<Long> times = coinPriceService.pollTimes.get(code);
+			assertTrue(times.size() >= 5 && times.size() <= 20, code + " polled " + times.size() + " times");
+			for (int i = 1; i < times.size(); i++) {
+				gaps.add(TimeUnit.NANOSECONDS.toMillis(times.get(i) - times.get(i - 1)));
+			}
+		}
+		long shortest = Collections.min(gaps);
+		long longest = Collections.max(gaps);
+		assertTrue(shortest >= 40 && longest <= 200, "Gaps between polls: " + gaps);
+		assertTrue(longest - shortest >= 30, "Gaps between polls are not jittered: " + gaps);
+		assertFalse(coinPriceService.ranOnPollerThread);
+	}
+
+	@Test
+	void skipsACoinWhosePreviousPollIsStillRunning() throws Exception {
+		registry.setCoins(coin("USDC", 50));
+		coinPriceService.sleepMillis = 200;
+		coinPriceService.release.countDown();
+		start(pool, properties());
+
+		awaitUntil(() -> poller.getSkippedRunningCount() >= 3);
+		poller.stop();
+
+		assertEquals(1, coinPriceService.maxConcurrent.get());
+		assertTrue(poller.getDispatchedCount() <= 3);
+	}
+
+	@Test
+	void skipsCoinsWhileMaxInFlightPollsAreRunning() throws Exception {
+		registry.setCoins(coin("USDC", 50), coin("USDT", 50), coin("DAI", 50));
+		PollingProperties properties = properties();
+		properties.setMaxInFlight(1);
+		start(pool, properties);
+
+		awaitUntil(() -> poller.getSkippedSaturatedCount() >= 3);
+
+		assertEquals(1, poller.getDispatchedCount());
+		assertEquals(0, poller.getRejectedCount());
+	}
+
+	@Test
+	void dropsPollsTheSaturatedExecutorCannotTakeInsteadOfRunningThem() throws Exception {
+		InstrumentedThreadPoolExecutor saturated = new InstrumentedThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(1), Executors.defaultThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			for (int i = 0; i < 2; i++) {
+				saturated.execute(() -> {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+			registry.setCoins(coin("USDC", 50), coin("USDT", 50));
+			coinPriceService.release.countDown();
+			start(saturated, properties());
+
+			awaitUntil(() -> poller.getRejectedCount() >= 4);
+
+			assertEquals(0, poller.getDispatchedCount());
+			assertTrue(coinPriceService.pollTimes.isEmpty());
+		} finally {
+			release.countDown();
+			saturated.shutdownNow();
+		}
+	}
+
+	@Test
+	void followsCoinsAddedToAndRemovedFromTheRegistry() throws Exception {
+		registry.setCoins(coin("USDC", 50), coin("DAI", 50));
+		coinPriceService.release.countDown();
+		start(pool, properties());
+		awaitUntil(() -> coinPriceService.polls("USDC") > 0 && coinPriceService.polls("DAI") > 0);
+
+		registry.setCoins(coin("USDT", 50), coin("DAI", 50));
+		awaitUntil(() -> coinPriceService.polls("USDT") > 0);
+		Thread.sleep(50);
+		int usdcPolls = coinPriceService.polls("USDC");
+		int daiPolls = coinPriceService.polls("DAI");
+		Thread.sleep(300);
+
+		assertEquals(usdcPolls, coinPriceService.polls("USDC"));
+		assertTrue(coinPriceService.polls("DAI") > daiPolls);
+	}
+
+	private void start(InstrumentedThreadPoolExecutor executor, PollingProperties properties) {
+		poller = new CoinPricePoller(registry, coinPriceService, new KeyedExecutor(executor, false), properties);
+		poller.start();
+	}
+
+	private static PollingProperties properties() {
+		PollingProperties properties = new PollingProperties();
+		properties.setEnabled(true);
+		properties.setShards(2);
+		properties.setTickInterval(Duration.ofMillis(10));
+		properties.setJitter(0);
+		properties.setRegistryRefreshInterval(Duration.ofHours(1));
+		return properties;
+	}
+
+	private static RegisteredCoin coin(String code, long pollIntervalMs) {
+		RegisteredCoin coin = new RegisteredCoin();
+		coin.setCode(code);
+		coin.setPollIntervalMs(pollIntervalMs);
+		coin.setEnabled(true);
+		return coin;
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+			Thread.sleep(10);
+		}
+	}
+
+	private static final class StubCoinRegistryService extends CoinRegistryService {
+
+		private volatile Snapshot snapshot;
+
+		StubCoinRegistryService() {
+			super(null, new PollingProperties());
+		}
+
+		void setCoins(RegisteredCoin... coins) {
+			snapshot = new Snapshot(snapshot == null ? 1 : snapshot.getVersion() + 1, List.of(coins));
+		}
+
+		@Override
+		public Snapshot snapshot() {
+			return snapshot;
+		}
+
+		@Override
+		public Snapshot refresh() {
+			return snapshot;
+		}
+
+	}
+
+	/**
+	 * Records when each coin was polled instead of fetching and writing a price. Inserts wait for {@code release}
+	 * and then sleep for {@code sleepMillis}.
+	 */
+	private static final class RecordingCoinPriceService extends CoinPriceService {
+
+		final Map<String, List<Long>> pollTimes = new ConcurrentHashMap<>();
+		final AtomicInteger concurrent = new AtomicInteger();
+		final AtomicInteger maxConcurrent = new AtomicInteger();
+		final CountDownLatch release = new CountDownLatch(1);
+		volatile long sleepMillis;
+		volatile boolean ranOnPollerThread;
+
+		RecordingCoinPriceService() {
+			super(null, null, null, null, null, null, null, null, null, null, null);
+		}
+
+		int polls(String code) {
+			List<Long> times = pollTimes.get(code);
+			return times == null ? 0 : times.size();
+		}
+
+		@Override
+		public long traceSubmitted(String code) {
+			return 0;
+		}
+
+		@Override
+		public CoinPrice insertLatestCoinPrice(String code, long traceId) throws InterruptedException {
+			pollTimes.computeIfAbsent(code, ignored -> Collections.synchronizedList(new ArrayList<>()))
+					.add(System.nanoTime());
+			if (Thread.currentThread().getName().startsWith("coin-poller-")) {
+				ranOnPollerThread = true;
+			}
+			maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+			try {
+				release.await();
+				Thread.sleep(sleepMillis);
+				return new CoinPrice();
+			} finally {
+				concurrent.decrementAndGet();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.lionrock.simple.executor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.lionrock.simple.executor.concurrent.BoundedThreadPerTaskExecutor;
+import com.lionrock.simple.executor.concurrent.RejectionPolicy;
+import com.lionrock.simple.executor.concurrent.VirtualThreads;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+@SpringBootTest(properties = { "spring.datasource.hikari.maximum-pool-size=4",
+		"simple-executor.task-executor.max-pool-size=100", "simple-executor.db-limit.max-wait=10s" })
+class CoinPriceServiceTests {
+
+	@Autowired
+	private CoinPriceService coinPriceService;
+
+	/**
+	 * Each insert blocks for up to two seconds while fetching its price. If that wait happened inside the
+	 * transaction, every task would hold one of the four pooled connections while blocked and 100 inserts would take
+	 * around 25 seconds; with only the write in the transaction they all overlap. The inserts are called directly
+	 * rather than through the task executor, so its pool is sized for them to keep the price fetch pool, which has a
+	 * thread per source for each task thread, from rejecting their fetches. The writes of all 100 queue for four
+	 * connections at about the same time, so the database limit lets them wait longer than it would let a request.
+	 */
+	@Test
+	void insertsDoNotHoldConnectionsWhileFetchingPrices() throws Exception {
+		ThreadFactory threadFactory = VirtualThreads.isSupported() ? VirtualThreads.newThreadFactory("test-insert-")
+				: Executors.defaultThreadFactory();
+		BoundedThreadPerTaskExecutor executor = new BoundedThreadPerTaskExecutor(threadFactory, 100,
+				RejectionPolicy.REJECT, Duration.ZERO);
+		List<Future<CoinPrice>> futurePrices = new ArrayList<>();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 100; i++) {
+			String code = i % 2 == 0 ? "USDC" : "USDT";
+			futurePrices.add(executor.submit(() -> coinPriceService.insertLatestCoinPrice(code)));
+		}
+		for (Future<CoinPrice> futurePrice : futurePrices) {
+			assertTrue(futurePrice.get(30, TimeUnit.SECONDS).getId() > 0);
+		}
+
+		assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 8);
+		executor.shutdown();
+	}
+
+	@Test
+	void latestPriceReflectsNewestInsert() throws Exception {
+		CoinPrice inserted = coinPriceService.insertLatestCoinPrice("busd");
+
+		CoinPrice latest = coinPriceService.getLatestCoinPriceByCode("BUSD");
+
+		assertEquals(inserted.getId(), latest.getId());
+		assertEquals(inserted.getPrice(), latest.getPrice());
+	}
+
+	@Test
+	void bulkLatestPricesFollowRequestedOrderAndSkipUnknownCodes() {
+		List<CoinPrice> latest = coinPriceService.getLatestCoinPrices(List.of("pyusd", "USDC", "NOPE", "usdc"));
+
+		assertEquals(2, latest.size());
+		assertEquals("PYUSD", latest.get(0).getCode());
+		assertEquals("USDC", latest.get(1).getCode());
+		assertEquals(coinPriceService.getLatestCoinPriceByCode("USDC").getId(), latest.get(1).getId());
+	}
+
+}
@@ -0,0 +1,204 @@
+package com.lionrock.simple.executor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.lionrock.simple.executor.concurrent.RejectionPolicy;
+import com.lionrock.simple.executor.config.WriteBehindProperties;
+import com.lionrock.simple.executor.journal.TickJournal;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+class CoinPriceWriteBehindBufferTests {
+
+	@Test
+	void appliesTheOverflowPolicyOnceTheBufferIsFull() throws Exception {
+		for (RejectionPolicy policy : RejectionPolicy.values()) {
+			RecordingBatchWriter writer = new RecordingBatchWriter();
+			WriteBehindProperties properties = properties(1, 1, Duration.ofMillis(50));
+			properties.setOverflowPolicy(policy);
+			properties.setBlockTimeout(Duration.ofMillis(50));
+			CoinPriceWriteBehindBuffer buffer = new CoinPriceWriteBehindBuffer(writer, properties);
+			buffer.start();
+			try {
+				buffer.enqueue(coinPrice("USDC"));
+				assertTrue(writer.flusherBlocked.await(5, TimeUnit.SECONDS));
+				buffer.enqueue(coinPrice("USDT"));
+
+				if (policy == RejectionPolicy.CALLER_RUNS) {
+					buffer.enqueue(coinPrice("BUSD"));
+					assertEquals(List.of(List.of("BUSD")), writer.batches);
+				} else {
+					assertThrows(RejectedExecutionException.class, () -> buffer.enqueue(coinPrice("BUSD")));
+					assertEquals(List.of(), writer.batches);
+				}
+				assertEquals(1, buffer.getBufferedCount());
+			} finally {
+				writer.release.countDown();
+				buffer.stop();
+			}
+		}
+	}
+
+	@Test
+	void writesABatchOnceItIsFullOrItsFirstCoinPriceHasWaitedMaxLatency() throws Exception {
+		RecordingBatchWriter writer = new RecordingBatchWriter();
+		writer.release.countDown();
+		CoinPriceWriteBehindBuffer buffer = new CoinPriceWriteBehindBuffer(writer,
+				properties(10, 3, Duration.ofMillis(300)));
+		buffer.start();
+		try {
+			buffer.enqueue(coinPrice("USDC"));
+			buffer.enqueue(coinPrice("USDT"));
+			buffer.enqueue(coinPrice("BUSD"));
+			awaitFlushed(buffer, 3);
+			buffer.enqueue(coinPrice("DAI"));
+			Thread.sleep(100);
+			assertEquals(1, writer.batches.size());
+			awaitFlushed(buffer, 4);
+		} finally {
+			buffer.stop();
+		}
+
+		assertEquals(List.of(List.of("USDC", "USDT", "BUSD"), List.of("DAI")), writer.batches);
+	}
+
+	@Test
+	void writesEverythingStillBufferedOnStop() throws Exception {
+		RecordingBatchWriter writer = new RecordingBatchWriter();
+		writer.release.countDown();
+		CoinPriceWriteBehindBuffer buffer = new CoinPriceWriteBehindBuffer(writer,
+				properties(100, 100, Duration.ofMillis(500)));
+		buffer.start();
+		for (int i = 0; i < 5; i++) {
+			buffer.enqueue(coinPrice("C" + i));
+		}
+		buffer.stop();
+
+		assertEquals(5, writer.batches.stream().mapToInt(List::size).sum());
+		assertEquals(0, buffer.getBufferedCount());
+		buffer.enqueue(coinPrice("LATE"));
+		assertEquals(List.of("LATE"), writer.batches.get(writer.batches.size() - 1));
+	}
+
+	@Test
+	void dropsOnlyTheCoinPricesThatCannotBeWritten() throws Exception {
+		RecordingBatchWriter writer = new RecordingBatchWriter();
+		writer.release.countDown();
+		WriteBehindProperties properties = properties(10, 3, Duration.ofMillis(100));
+		properties.setMaxRetries(1);
+		CoinPriceWriteBehindBuffer buffer = new CoinPriceWriteBehindBuffer(writer, properties);
+		buffer.start();
+		try {
+			buffer.enqueue(coinPrice("USDC"));
+			buffer.enqueue(coinPrice(RecordingBatchWriter.UNWRITABLE));
+			buffer.enqueue(coinPrice("USDT"));
+			awaitFlushed(buffer, 2);
+		} finally {
+			buffer.stop();
+		}
+
+		assertEquals(List.of(List.of("USDC"), List.of("USDT")), writer.batches);
+		assertEquals(1, buffer.getDroppedCount());
+		assertEquals(2, buffer.getFlushCount());
+	}
+
+	@Test
+	void replaySkipsAJournaledCoinPriceThatCanNeverBeWritten(@TempDir Path directory) throws Exception {
+		TickJournal journal = new TickJournal(directory, 100 * TickJournal.RECORD_SIZE, false);
+		journal.append(coinPrice("USDC"));
+		journal.append(coinPrice(RecordingBatchWriter.UNWRITABLE));
+		journal.append(coinPrice("USDT"));
+		RecordingBatchWriter writer = new RecordingBatchWriter();
+		writer.release.countDown();
+		WriteBehindProperties properties = properties(10, 10, Duration.ofMillis(100));
+		properties.setMaxRetries(1);
+		CoinPriceWriteBehindBuffer buffer = new CoinPriceWriteBehindBuffer(writer, properties, journal);
+
+		assertTimeoutPreemptively(Duration.ofSeconds(10), buffer::start);
+		buffer.stop();
+
+		assertEquals(List.of(List.of("USDC"), List.of("USDT")), writer.batches);
+		assertEquals(1, buffer.getDroppedCount());
+		assertEquals(3, journal.getCheckpoint());
+		assertEquals(0, journal.getLag());
+	}
+
+	private static void awaitFlushed(CoinPriceWriteBehindBuffer buffer, long count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (buffer.getFlushedCount() < count && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, buffer.getFlushedCount());
+	}
+
+	private static WriteBehindProperties properties(int bufferCapacity, int flushSize, Duration maxLatency) {
+		WriteBehindProperties properties = new WriteBehindProperties();
+		properties.setEnabled(true);
+		properties.setBufferCapacity(bufferCapacity);
+		properties.setFlushSize(flushSize);
+		properties.setMaxLatency(maxLatency);
+		return properties;
+	}
+
+	private static CoinPrice coinPrice(String code) {
+		CoinPrice coinPrice = new CoinPrice();
+		coinPrice.setCode(code);
+		coinPrice.setPrice(1f);
+		coinPrice.setLocalDateTime(LocalDateTime.now());
+		return coinPrice;
+	}
+
+	/**
+	 * Records the codes of every written batch. The flusher waits for {@code release} before writing, and a batch
+	 * holding {@link #UNWRITABLE} always fails.
+	 */
+	static final class RecordingBatchWriter extends CoinPriceBatchWriter {
+
+		static final String UNWRITABLE = "UNWRITABLE";
+
+		final List<List<String>> batches = new CopyOnWriteArrayList<>();
+		final CountDownLatch flusherBlocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		RecordingBatchWriter() {
+			super(null);
+		}
+
+		@Override
+		public int insertCoinPrices(List<CoinPrice> coinPrices) {
+			if (coinPrices.isEmpty()) {
+				return 0;
+			}
+			if (Thread.currentThread().getName().equals("coin-price-write-behind")) {
+				flusherBlocked.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			List<String> codes = coinPrices.stream().map(CoinPrice::getCode).toList();
+			if (codes.contains(UNWRITABLE)) {
+				throw new IllegalStateException("Rejected by the database");
+			}
+			batches.add(codes);
+			return codes.size();
+		}
+
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.lionrock.simple.executor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.lionrock.simple.executor.config.LatestPriceCacheProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+class LatestCoinPriceCacheTests {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+	@Test
+	void expiresEntriesAfterTheTtl() throws Exception {
+		LatestPriceCacheProperties properties = new LatestPriceCacheProperties();
+		properties.setTtl(Duration.ofMillis(50));
+		LatestCoinPriceCache cache = new LatestCoinPriceCache(properties);
+
+		cache.put(coinPrice("USDC", NOON));
+		assertNotNull(cache.get("USDC"));
+		Thread.sleep(60);
+
+		assertNull(cache.get("USDC"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	void evictsTheLeastRecentlyUsedCodesOnceTheBoundIsExceeded() throws Exception {
+		LatestPriceCacheProperties properties = new LatestPriceCacheProperties();
+		properties.setMaxSize(10);
+		LatestCoinPriceCache cache = new LatestCoinPriceCache(properties);
+		for (int i = 0; i < 10; i++) {
+			cache.put(coinPrice("C" + i, NOON));
+		}
+		// reads within a millisecond of the last recorded access are not recorded
+		Thread.sleep(5);
+		for (int i = 0; i < 5; i++) {
+			assertNotNull(cache.get("C" + i));
+		}
+
+		for (int i = 10; i < 14; i++) {
+			cache.put(coinPrice("C" + i, NOON));
+			assertTrue(cache.size() <= 10);
+		}
+
+		// each eviction drops two codes, down to 90% of the bound
+		assertEquals(4, cache.getEvictionCount());
+		for (int i = 0; i < 14; i++) {
+			boolean evicted = i >= 5 && i < 9;
+			assertEquals(evicted, cache.get("C" + i) == null, "C" + i);
+		}
+	}
+
+	@Test
+	void keepsTheNewerPriceOfACode() {
+		LatestCoinPriceCache cache = new LatestCoinPriceCache(new LatestPriceCacheProperties());
+		CoinPrice newer = coinPrice("USDC", NOON.plusSeconds(1));
+
+		cache.put(newer);
+		assertSame(newer, cache.put(coinPrice("USDC", NOON)));
+		cache.putIfCached(coinPrice("USDC", NOON));
+		assertSame(newer, cache.get("USDC"));
+
+		CoinPrice newest = coinPrice("USDC", NOON.plusSeconds(2));
+		cache.putIfCached(newest);
+		assertSame(newest, cache.get("USDC"));
+		cache.putIfCached(coinPrice("USDT", NOON));
+		assertNull(cache.get("USDT"));
+	}
+
+	private static CoinPrice coinPrice(String code, LocalDateTime time) {
+		CoinPrice coinPrice = new CoinPrice();
+		coinPrice.setCode(code);
+		coinPrice.setPrice(1f);
+		coinPrice.setLocalDateTime(time);
+		return coinPrice;
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.lionrock.simple.executor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.lionrock.simple.executor.config.DeadbandProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+class PriceDeadbandFilterTests {
+
+	@Test
+	void storesOnlyPricesThatLeaveTheDeadband() {
+		DeadbandProperties properties = new DeadbandProperties();
+		properties.setEnabled(true);
+		properties.setEpsilon(0.001);
+		properties.getEpsilons().put("usdt", 0.1);
+		PriceDeadbandFilter filter = new PriceDeadbandFilter(properties);
+
+		assertTrue(filter.shouldStore(coinPrice("USDC", 1.0f)));
+		assertFalse(filter.shouldStore(coinPrice("USDC", 1.0005f)));
+		assertFalse(filter.shouldStore(coinPrice("USDC", 0.9995f)));
+		assertTrue(filter.shouldStore(coinPrice("USDC", 1.002f)));
+		assertFalse(filter.shouldStore(coinPrice("USDC", 1.0015f)));
+		assertTrue(filter.shouldStore(coinPrice("USDT", 1.0f)));
+		assertFalse(filter.shouldStore(coinPrice("USDT", 1.05f)));
+
+		filter.forget("USDC");
+		assertTrue(filter.shouldStore(coinPrice("USDC", 1.002f)));
+		assertEquals(4, filter.getStoredCount());
+		assertEquals(4, filter.getSkippedCount());
+		assertEquals(2, filter.getLastSeen().size());
+	}
+
+	@Test
+	void storesAnUnchangedPriceOnceTheHeartbeatHasPassed() throws Exception {
+		DeadbandProperties properties = new DeadbandProperties();
+		properties.setEnabled(true);
+		properties.setHeartbeat(Duration.ofMillis(50));
+		PriceDeadbandFilter filter = new PriceDeadbandFilter(properties);
+
+		assertTrue(filter.shouldStore(coinPrice("USDC", 1.0f)));
+		assertFalse(filter.shouldStore(coinPrice("USDC", 1.0f)));
+		Thread.sleep(60);
+		assertTrue(filter.shouldStore(coinPrice("USDC", 1.0f)));
+	}
+
+	private static CoinPrice coinPrice(String code, float price) {
+		CoinPrice coinPrice = new CoinPrice();
+		coinPrice.setCode(code);
+		coinPrice.setPrice(price);
+		coinPrice.setLocalDateTime(LocalDateTime.now());
+		return coinPrice;
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.lionrock.simple.executor.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class HedgedPriceFetcherTests {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void fastestSourceWinsAndSlowerSourcesAreInterrupted() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		PriceSource slow = source("slow", code -> {
+			started.countDown();
+			try {
+				Thread.sleep(10_000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				throw e;
+			}
+			return 2f;
+		});
+		// answer only once the slow request is running, so there is a running request left to interrupt
+		PriceSource fast = source("fast", code -> {
+			started.await();
+			return 1f;
+		});
+		HedgedPriceFetcher fetcher = new HedgedPriceFetcher(List.of(slow, fast), executor, Duration.ofSeconds(5),
+				Duration.ZERO);
+
+		PriceQuote quote = fetcher.fetch("USDC");
+
+		assertEquals("fast", quote.getSource());
+		assertEquals(1f, quote.getPrice());
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void failingSourceDoesNotWinOverSlowerSuccessfulSource() throws Exception {
+		PriceSource failing = source("failing", code -> {
+			throw new IOException("down");
+		});
+		PriceSource slower = source("slower", code -> {
+			Thread.sleep(100);
+			return 1f;
+		});
+		HedgedPriceFetcher fetcher = new HedgedPriceFetcher(List.of(failing, slower), executor,
+				Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+		long start = System.nanoTime();
+		assertEquals("slower", fetcher.fetch("USDC").getSource());
+		// the failure triggers the hedge straight away rather than after the one-second hedge delay
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+	}
+
+	@Test
+	void hedgesOnlyAfterDelayAndFailsAtDeadline() {
+		AtomicInteger calls = new AtomicInteger();
+		PriceSource hanging = source("hanging", code -> {
+			calls.incrementAndGet();
+			Thread.sleep(10_000);
+			return 1f;
+		});
+		HedgedPriceFetcher fetcher = new HedgedPriceFetcher(List.of(hanging, hanging), executor,
+				Duration.ofMillis(300), Duration.ofMillis(200));
+
+		assertThrows(TimeoutException.class, () -> fetcher.fetch("USDC"));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void failsWhenEverySourceFails() {
+		PriceSource failing = source("failing", code -> {
+			throw new IOException("down");
+		});
+		HedgedPriceFetcher fetcher = new HedgedPriceFetcher(List.of(failing, failing), executor,
+				Duration.ofSeconds(5), Duration.ZERO);
+
+		PriceUnavailableException e = assertThrows(PriceUnavailableException.class, () -> fetcher.fetch("USDC"));
+		assertTrue(e.getCause() instanceof IOException);
+	}
+
+	private static PriceSource source(String name, Fetch fetch) {
+		return new PriceSource() {
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public float fetchPrice(String code) throws Exception {
+				return fetch.fetchPrice(code);
+			}
+
+		};
+	}
+
+	private interface Fetch {
+
+		float fetchPrice(String code) throws Exception;
+
+	}
+
+}
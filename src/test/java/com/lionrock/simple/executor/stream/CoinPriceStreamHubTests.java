@@ -0,0 +1,204 @@
+package com.lionrock.simple.executor.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.lionrock.simple.executor.config.StreamProperties;
+import com.lionrock.simple.executor.model.CoinPrice;
+
+class CoinPriceStreamHubTests {
+
+	private final ExecutorService sender = Executors.newSingleThreadExecutor();
+
+	@AfterEach
+	void shutdown() {
+		sender.shutdownNow();
+	}
+
+	@Test
+	void conflatesPricesOfACoinWhileTheSubscriberIsBusy() throws Exception {
+		CoinPriceStreamHub hub = new CoinPriceStreamHub(sender, new StreamProperties());
+		CountDownLatch release = new CountDownLatch(1);
+		sender.execute(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		hub.subscribe(Set.of("USDC", "USDT"), List.of());
+		hub.publish(price("USDC", 1.0f));
+		hub.publish(price("USDC", 1.1f));
+		hub.publish(price("USDC", 1.2f));
+		hub.publish(price("USDT", 1.0f));
+		hub.publish(price("BUSD", 1.0f));
+		release.countDown();
+
+		waitForSent(hub, 2);
+		assertEquals(2, hub.getSentCount());
+		assertEquals(2, hub.getConflatedCount());
+	}
+
+	@Test
+	void neverReplacesAPricePublishedAfterRegistrationWithAnOlderInitialPrice() throws Exception {
+		CoinPriceStreamHub hub = new CoinPriceStreamHub(sender, new StreamProperties());
+		List<Long> read = Collections.synchronizedList(new ArrayList<>());
+		LocalDateTime time = LocalDateTime.now();
+		CoinPrice older = new TracedCoinPrice(1, "USDC", time.minusSeconds(1), read, null);
+		CoinPrice newer = new TracedCoinPrice(2, "USDC", time, read, null);
+		// the snapshot was read before the subscriber was registered, and a newer price is published before the
+		// subscriber gets to the snapshot
+		Collection<CoinPrice> initial = new AbstractCollection<>() {
+
+			@Override
+			public Iterator<CoinPrice> iterator() {
+				hub.publish(newer);
+				return List.of(older).iterator();
+			}
+
+			@Override
+			public int size() {
+				return 1;
+			}
+
+		};
+
+		hub.subscribe(Set.of("USDC"), initial);
+
+		waitForSent(hub, 1);
+		assertEquals(1, hub.getSentCount());
+		assertEquals(Set.of(2L), Set.copyOf(read));
+	}
+
+	@Test
+	void disconnectsASubscriberWhoseSendIsStuckSoOthersStillReceivePrices() throws Exception {
+		StreamProperties properties = new StreamProperties();
+		properties.setSendTimeout(Duration.ofMillis(100));
+		CoinPriceStreamHub hub = new CoinPriceStreamHub(sender, properties);
+		hub.subscribe(Set.of("USDC"), List.of());
+		hub.subscribe(Set.of("USDT"), List.of());
+		TracedCoinPrice stuck = new TracedCoinPrice(1, "USDC", LocalDateTime.now(), new ArrayList<>(),
+				new CountDownLatch(1));
+
+		// the only sender thread blocks writing to the first subscriber
+		hub.publish(stuck);
+		hub.publish(price("USDT", 1.0f));
+
+		waitForSent(hub, 1);
+		assertEquals(1, hub.getSentCount());
+		assertEquals(1, hub.getDisconnectedCount());
+		assertEquals(1, hub.getSubscriberCount());
+		assertTrue(stuck.interrupted);
+	}
+
+	@Test
+	void refusesSubscribersBeyondTheLimit() {
+		StreamProperties properties = new StreamProperties();
+		properties.setMaxSubscribers(1);
+		CoinPriceStreamHub hub = new CoinPriceStreamHub(sender, properties);
+
+		hub.subscribe(null, List.of());
+		assertThrows(IllegalStateException.class, () -> hub.subscribe(null, List.of()));
+		assertEquals(1, hub.getSubscriberCount());
+	}
+
+	@Test
+	void forgetsACoinWhenItsLastSubscriberDisconnects() throws Exception {
+		CoinPriceStreamHub hub = new CoinPriceStreamHub(sender, new StreamProperties());
+		SseEmitter first = hub.subscribe(Set.of("USDC", "USDT"), List.of());
+		SseEmitter second = hub.subscribe(Set.of("USDC"), List.of());
+		assertEquals(2, hub.getFollowedCodeCount());
+
+		// a completed emitter refuses further events, which the hub treats as a disconnect
+		first.complete();
+		hub.publish(price("USDT", 1.0f));
+		waitForDisconnected(hub, 1);
+		assertEquals(1, hub.getFollowedCodeCount());
+
+		second.complete();
+		hub.publish(price("USDC", 1.0f));
+		waitForDisconnected(hub, 2);
+		assertEquals(0, hub.getFollowedCodeCount());
+		assertEquals(0, hub.getSubscriberCount());
+	}
+
+	private static void waitForDisconnected(CoinPriceStreamHub hub, long count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (hub.getDisconnectedCount() < count && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, hub.getDisconnectedCount());
+	}
+
+	private static void waitForSent(CoinPriceStreamHub hub, long count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (hub.getSentCount() < count && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(50);
+	}
+
+	/**
+	 * A price that records its id whenever the hub reads it to write an event, and can block that write until the
+	 * sender thread is interrupted.
+	 */
+	private static final class TracedCoinPrice extends CoinPrice {
+
+		private final List<Long> read;
+		private final CountDownLatch blockUntilInterrupted;
+		private volatile boolean interrupted;
+
+		TracedCoinPrice(long id, String code, LocalDateTime localDateTime, List<Long> read,
+				CountDownLatch blockUntilInterrupted) {
+			setId(id);
+			setCode(code);
+			setLocalDateTime(localDateTime);
+			this.read = read;
+			this.blockUntilInterrupted = blockUntilInterrupted;
+		}
+
+		@Override
+		public long getId() {
+			read.add(super.getId());
+			if (blockUntilInterrupted != null) {
+				try {
+					blockUntilInterrupted.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					interrupted = true;
+					blockUntilInterrupted.countDown();
+				}
+			}
+			return super.getId();
+		}
+
+	}
+
+	private static CoinPrice price(String code, float price) {
+		CoinPrice coinPrice = new CoinPrice();
+		coinPrice.setCode(code);
+		coinPrice.setLocalDateTime(LocalDateTime.now());
+		coinPrice.setPrice(price);
+		return coinPrice;
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.lionrock.simple.executor.tick;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class TickRingBufferTests {
+
+	@ParameterizedTest
+	@EnumSource(TickBackend.class)
+	void keepsNewestTicksOnceWrappedAround(TickBackend backend) {
+		TickRingBuffer buffer = TickRingBuffer.create(backend, 3);
+		for (int i = 1; i <= 6; i++) {
+			buffer.append(i * 1_000L, i);
+		}
+
+		long[] epochNanos = new long[8];
+		float[] prices = new float[8];
+		int copied = buffer.copyLast(8, epochNanos, prices);
+
+		assertEquals(4, buffer.capacity());
+		assertEquals(4, copied);
+		assertArrayEquals(new long[] { 3_000, 4_000, 5_000, 6_000, 0, 0, 0, 0 }, epochNanos);
+		assertArrayEquals(new float[] { 3, 4, 5, 6, 0, 0, 0, 0 }, prices);
+	}
+
+	@ParameterizedTest
+	@EnumSource(TickBackend.class)
+	void computesStatsOverLastTicksAndTimeWindow(TickBackend backend) {
+		TickRingBuffer buffer = TickRingBuffer.create(backend, 8);
+		float[] ticks = { 5, 1, 9, 3, 7 };
+		for (int i = 0; i < ticks.length; i++) {
+			buffer.append((i + 1) * 1_000L, ticks[i]);
+		}
+		TickWindowStats stats = new TickWindowStats();
+
+		buffer.statsOfLast(3, stats);
+		assertEquals(3, stats.getCount());
+		assertEquals(3, stats.getMin());
+		assertEquals(9, stats.getMax());
+		assertEquals(19 / 3.0, stats.getAverage(), 1e-9);
+		assertEquals(9, stats.getFirst());
+		assertEquals(7, stats.getLast());
+
+		buffer.statsSince(2_000L, stats);
+		assertEquals(4, stats.getCount());
+		assertEquals(1, stats.getMin());
+		assertEquals(2_000L, stats.getFirstEpochNanos());
+		assertEquals(5_000L, stats.getLastEpochNanos());
+	}
+
+}
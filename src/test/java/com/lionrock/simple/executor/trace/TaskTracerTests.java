@@ -0,0 +1,72 @@
+package com.lionrock.simple.executor.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+class TaskTracerTests {
+
+	@Test
+	void keepsEveryEventOfConcurrentTasksInSequenceOrder() throws Exception {
+		TaskTracer tracer = new TaskTracer(true, 1024, 10);
+		CompletableFuture<?>[] writers = new CompletableFuture<?>[4];
+		for (int i = 0; i < writers.length; i++) {
+			String code = "C" + i;
+			writers[i] = CompletableFuture.runAsync(() -> {
+				for (int task = 0; task < 50; task++) {
+					long taskId = tracer.record(TraceEvent.SUBMITTED, 0, code);
+					tracer.record(TraceEvent.STARTED, taskId, code);
+					tracer.record(TraceEvent.COMPLETED, taskId, code);
+				}
+			});
+		}
+		CompletableFuture.allOf(writers).get();
+
+		List<TraceRecord> records = new ArrayList<>();
+		assertEquals(601, tracer.read(1, Integer.MAX_VALUE, records::add));
+		assertEquals(600, records.size());
+		Map<Long, List<TraceEvent>> eventsByTask = new HashMap<>();
+		for (int i = 0; i < records.size(); i++) {
+			TraceRecord record = records.get(i);
+			assertEquals(i + 1, record.getSequence());
+			eventsByTask.computeIfAbsent(record.getTaskId(), taskId -> new ArrayList<>()).add(record.getEvent());
+		}
+		assertEquals(200, eventsByTask.size());
+		eventsByTask.values().forEach(events -> assertEquals(
+				List.of(TraceEvent.SUBMITTED, TraceEvent.STARTED, TraceEvent.COMPLETED), events));
+	}
+
+	@Test
+	void overwritesTheOldestEventsWhenFull() {
+		TaskTracer tracer = new TaskTracer(true, 8, 1);
+		for (int i = 0; i < 20; i++) {
+			tracer.record(TraceEvent.STARTED, 0, i % 2 == 0 ? "USDC" : "USDT");
+		}
+
+		List<TraceRecord> records = new ArrayList<>();
+		tracer.read(1, 100, records::add);
+		assertEquals(8, records.size());
+		assertEquals(13, records.get(0).getSequence());
+		assertEquals(20, records.get(7).getSequence());
+		assertEquals("USDC", records.get(0).getCode());
+		assertNull(records.get(1).getCode());
+	}
+
+	@Test
+	void recordsNothingWhenDisabled() {
+		TaskTracer tracer = new TaskTracer(false, 8, 1);
+
+		assertEquals(0, tracer.record(TraceEvent.STARTED, 0, "USDC"));
+		List<TraceRecord> records = new ArrayList<>();
+		tracer.read(1, 100, records::add);
+		assertEquals(0, records.size());
+	}
+
+}